@@ -0,0 +1,80 @@
+package priv.ln.aliwaremq.spring.boot.actuate;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqConsumerRegistry;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.ConsumerUpdate;
+
+import java.util.Map;
+
+/**
+ * 消费者运行时管理端点
+ * <p>GET /actuator/aliwaremqconsumers 查看全部消费者的状态、代数和客户端配置</p>
+ * <p>POST /actuator/aliwaremqconsumers/{name} 按请求体中的consumeThreadNums、maxCachedMessageAmount、
+ * maxCachedMessageSizeInMiB、consumeMessageBatchMaxSize、expression重建指定消费者</p>
+ * <p>POST /actuator/aliwaremqconsumers/{name}/pause 暂停, POST /actuator/aliwaremqconsumers/{name}/resume 恢复</p>
+ * <p>请求体带tag时只暂停或恢复合并订阅中的该标签</p>
+ * <p>name为消费者beanName, 需URL编码</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Endpoint(id = "aliwaremqconsumers")
+public class AliwareMqConsumersEndpoint {
+    private static final String PAUSE = "pause";
+    private static final String RESUME = "resume";
+
+    private final AliwareMqConsumerRegistry aliwareMqConsumerRegistry;
+
+    public AliwareMqConsumersEndpoint(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+        this.aliwareMqConsumerRegistry = aliwareMqConsumerRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> consumers() {
+        return aliwareMqConsumerRegistry.describeConsumers();
+    }
+
+    @ReadOperation
+    public Map<String, Object> consumer(@Selector String name) {
+        return aliwareMqConsumerRegistry.describeConsumer(name);
+    }
+
+    @WriteOperation
+    public Map<String, Object> reconfigure(@Selector String name, @Nullable Integer consumeThreadNums,
+                                           @Nullable Integer maxCachedMessageAmount, @Nullable Integer maxCachedMessageSizeInMiB,
+                                           @Nullable Integer consumeMessageBatchMaxSize, @Nullable String expression) {
+        ConsumerUpdate update = new ConsumerUpdate();
+        update.setConsumeThreadNums(consumeThreadNums);
+        update.setMaxCachedMessageAmount(maxCachedMessageAmount);
+        update.setMaxCachedMessageSizeInMiB(maxCachedMessageSizeInMiB);
+        update.setConsumeMessageBatchMaxSize(consumeMessageBatchMaxSize);
+        update.setExpression(expression);
+        aliwareMqConsumerRegistry.reconfigure(name, update);
+        return aliwareMqConsumerRegistry.describeConsumer(name);
+    }
+
+    @WriteOperation
+    public Map<String, Object> control(@Selector String name, @Selector String action, @Nullable String tag) {
+        if (PAUSE.equals(action)) {
+            if (tag == null) {
+                aliwareMqConsumerRegistry.pause(name);
+            } else {
+                aliwareMqConsumerRegistry.pause(name, tag);
+            }
+        } else if (RESUME.equals(action)) {
+            if (tag == null) {
+                aliwareMqConsumerRegistry.resume(name);
+            } else {
+                aliwareMqConsumerRegistry.resume(name, tag);
+            }
+        } else {
+            throw new IllegalArgumentException(String.format("不支持的操作[%s], 可选值:pause、resume", action));
+        }
+        return aliwareMqConsumerRegistry.describeConsumer(name);
+    }
+}
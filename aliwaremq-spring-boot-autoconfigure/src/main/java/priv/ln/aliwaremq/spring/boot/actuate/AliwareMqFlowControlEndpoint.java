@@ -0,0 +1,52 @@
+package priv.ln.aliwaremq.spring.boot.actuate;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqConsumerRegistry;
+import priv.ln.aliwaremq.spring.boot.flowcontrol.AdaptiveConcurrencyLimiter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 自适应流控端点
+ * <p>GET /actuator/aliwaremqflowcontrol 查看全部消费者的并发上限和调整次数</p>
+ * <p>POST /actuator/aliwaremqflowcontrol/{name} 立即恢复指定消费者(消费者组@主题)的消费</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Endpoint(id = "aliwaremqflowcontrol")
+public class AliwareMqFlowControlEndpoint {
+    private final AliwareMqConsumerRegistry aliwareMqConsumerRegistry;
+
+    public AliwareMqFlowControlEndpoint(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+        this.aliwareMqConsumerRegistry = aliwareMqConsumerRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> flowControl() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        aliwareMqConsumerRegistry.getFlowLimiterMap().forEach((name, limiter) -> result.put(name, limiter.snapshot()));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> limiter(@Selector String name) {
+        AdaptiveConcurrencyLimiter limiter = aliwareMqConsumerRegistry.getFlowLimiterMap().get(name);
+        return limiter == null ? null : limiter.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> resume(@Selector String name) {
+        AdaptiveConcurrencyLimiter limiter = aliwareMqConsumerRegistry.getFlowLimiterMap().get(name);
+        if (limiter == null) {
+            return null;
+        }
+        limiter.resume();
+        return limiter.snapshot();
+    }
+}
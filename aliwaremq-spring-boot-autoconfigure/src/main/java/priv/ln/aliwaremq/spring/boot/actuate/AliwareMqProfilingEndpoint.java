@@ -0,0 +1,47 @@
+package priv.ln.aliwaremq.spring.boot.actuate;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import priv.ln.aliwaremq.spring.boot.profile.ConsumeProfiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 消费耗时分析端点
+ * <p>GET /actuator/aliwaremqprofiling 查看各消费处理的阶段耗时和最近的慢消息</p>
+ * <p>DELETE /actuator/aliwaremqprofiling 清空统计和慢消息采样</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Endpoint(id = "aliwaremqprofiling")
+public class AliwareMqProfilingEndpoint {
+    private final ConsumeProfiler consumeProfiler;
+
+    public AliwareMqProfilingEndpoint(ConsumeProfiler consumeProfiler) {
+        this.consumeProfiler = consumeProfiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> profiling() {
+        Map<String, Map<String, Object>> handlers = new TreeMap<>();
+        consumeProfiler.getProfiles().forEach((name, profile) -> handlers.put(name, profile.snapshot()));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", consumeProfiler.isEnabled());
+        result.put("jfrEnabled", consumeProfiler.isJfrEnabled());
+        result.put("slowThresholdMillis", consumeProfiler.getSlowThresholdMillis());
+        result.put("handlers", handlers);
+        result.put("slowTotal", consumeProfiler.getSampler().getTotal());
+        result.put("slowSamples", consumeProfiler.getSampler().snapshot());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        consumeProfiler.reset();
+    }
+}
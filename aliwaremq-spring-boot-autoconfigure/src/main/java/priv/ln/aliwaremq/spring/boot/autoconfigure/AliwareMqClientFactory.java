@@ -0,0 +1,49 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.bean.BatchConsumerBean;
+import com.aliyun.openservices.ons.api.bean.ConsumerBean;
+import com.aliyun.openservices.ons.api.bean.OrderConsumerBean;
+import com.aliyun.openservices.ons.api.bean.OrderProducerBean;
+import com.aliyun.openservices.ons.api.bean.ProducerBean;
+import com.aliyun.openservices.ons.api.bean.TransactionProducerBean;
+
+/**
+ * 阿里云消息队列客户端工厂
+ * <p>自动配置和消费者注册中心通过该工厂创建生产者和消费者bean, 由调用方设置配置和订阅表</p>
+ * <p>容器中存在该类型的bean时替代{@link #DEFAULT}, 如测试时替换为进程内实现</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface AliwareMqClientFactory {
+    /**
+     * 创建阿里云ONS客户端
+     */
+    AliwareMqClientFactory DEFAULT = new AliwareMqClientFactory() {
+    };
+
+    default ProducerBean createProducer() {
+        return new ProducerBean();
+    }
+
+    default OrderProducerBean createOrderProducer() {
+        return new OrderProducerBean();
+    }
+
+    default TransactionProducerBean createTransactionProducer() {
+        return new TransactionProducerBean();
+    }
+
+    default ConsumerBean createConsumer() {
+        return new ConsumerBean();
+    }
+
+    default BatchConsumerBean createBatchConsumer() {
+        return new BatchConsumerBean();
+    }
+
+    default OrderConsumerBean createOrderConsumer() {
+        return new OrderConsumerBean();
+    }
+}
@@ -1,42 +1,122 @@
 package priv.ln.aliwaremq.spring.boot.autoconfigure;
 
+import com.aliyun.openservices.ons.api.Message;
 import com.aliyun.openservices.ons.api.PropertyKeyConst;
+import com.aliyun.openservices.ons.api.SendResult;
+import com.aliyun.openservices.ons.api.bean.OrderProducerBean;
 import com.aliyun.openservices.ons.api.bean.ProducerBean;
+import com.aliyun.openservices.ons.api.bean.TransactionProducerBean;
+import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
+import com.esotericsoftware.kryo.Kryo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
 import com.google.gson.Gson;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jpountz.lz4.LZ4Factory;
+import priv.ln.aliwaremq.spring.boot.actuate.AliwareMqConsumersEndpoint;
+import priv.ln.aliwaremq.spring.boot.actuate.AliwareMqFlowControlEndpoint;
+import priv.ln.aliwaremq.spring.boot.actuate.AliwareMqProfilingEndpoint;
+import priv.ln.aliwaremq.spring.boot.claimcheck.BlobStore;
+import priv.ln.aliwaremq.spring.boot.claimcheck.ClaimCheckResolver;
+import priv.ln.aliwaremq.spring.boot.claimcheck.LocalFileBlobStore;
+import priv.ln.aliwaremq.spring.boot.codec.GsonMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.JacksonMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.KryoMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.compress.GzipMessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.Lz4MessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressorRegistry;
+import priv.ln.aliwaremq.spring.boot.compress.ZstdMessageCompressor;
 import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqBatchConsumer;
 import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqOrderConsumer;
 import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqSubscriber;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqTransactionChecker;
+import priv.ln.aliwaremq.spring.boot.core.batch.AliwareMqBatchSender;
+import priv.ln.aliwaremq.spring.boot.core.delay.DelayedMessageScheduler;
+import priv.ln.aliwaremq.spring.boot.core.outbox.JdbcOutboxStore;
+import priv.ln.aliwaremq.spring.boot.core.outbox.MappedFileOutboxStore;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxRelay;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxStore;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxWriter;
+import priv.ln.aliwaremq.spring.boot.core.pool.PooledProducer;
+import priv.ln.aliwaremq.spring.boot.core.pool.ProducerRouter;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqProducerMeterBinder;
+import priv.ln.aliwaremq.spring.boot.metrics.MicrometerAliwareMqMetrics;
+import priv.ln.aliwaremq.spring.boot.profile.ConsumeProfiler;
+import priv.ln.aliwaremq.spring.boot.reactive.ReactiveAliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.reactive.ReactiveAliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.transaction.TransactionCheckerRegistry;
+import reactor.core.publisher.Flux;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnEnabledEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
 
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 阿里云消息队列自动配置
  * <p>自动配置条件:</p>
- * <p>存在AliwareMqProperties和AliwareMqConsumer类型的bean</p>
+ * <p>存在AliwareMqProperties和AliwareMqSubscriber(AliwareMqConsumer、AliwareMqBatchConsumer或AliwareMqOrderConsumer)类型的bean</p>
  *
  * @author linnan
  * @version 2019/8/27
  * @see AliwareMqProperties
  * @see AliwareMqConsumer
+ * @see AliwareMqBatchConsumer
+ * @see AliwareMqOrderConsumer
  */
 @Slf4j
 @Configuration
 @EnableConfigurationProperties
-@ConditionalOnBean({AliwareMqConsumer.class})
+@AutoConfigureAfter(name = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
+@ConditionalOnBean({AliwareMqSubscriber.class})
 public class AliwareMqConfiguration implements ApplicationContextAware, SmartInitializingSingleton {
+    /**
+     * 当前进程号
+     */
+    private static final String PID = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
     private Map<String, AliwareMqConsumer> consumerMap;
+    private Map<String, AliwareMqBatchConsumer> batchConsumerMap;
+    private Map<String, AliwareMqOrderConsumer> orderConsumerMap;
     private ApplicationContext applicationContext;
 
     @Override
@@ -51,6 +131,36 @@ public class AliwareMqConfiguration implements ApplicationContextAware, SmartIni
         if (Objects.nonNull(consumerMap)) {
             consumerMap.forEach(aliwareMqConsumerRegistry::registerConsumer);
         }
+        batchConsumerMap = applicationContext.getBeansOfType(AliwareMqBatchConsumer.class);
+        if (Objects.nonNull(batchConsumerMap)) {
+            batchConsumerMap.forEach(aliwareMqConsumerRegistry::registerBatchConsumer);
+        }
+        orderConsumerMap = applicationContext.getBeansOfType(AliwareMqOrderConsumer.class);
+        if (Objects.nonNull(orderConsumerMap)) {
+            orderConsumerMap.forEach(aliwareMqConsumerRegistry::registerOrderConsumer);
+        }
+        Map<String, TransactionCheckerRegistry> transactionCheckerRegistryMap = applicationContext.getBeansOfType(TransactionCheckerRegistry.class);
+        if (!transactionCheckerRegistryMap.isEmpty()) {
+            TransactionCheckerRegistry transactionCheckerRegistry = transactionCheckerRegistryMap.values().iterator().next();
+            applicationContext.getBeansOfType(AliwareMqTransactionChecker.class).forEach(transactionCheckerRegistry::register);
+        }
+        aliwareMqConsumerRegistry.completeRegistration();
+        if (aliwareMqConsumerRegistry.getAliwareMqProperties().getStartup().getActivation() == AliwareMqProperties.Activation.EAGER) {
+            aliwareMqConsumerRegistry.startConsumers();
+        }
+    }
+
+    /**
+     * 启动时机为APPLICATION_READY时, 应用就绪后启动消费者
+     *
+     * @param event 应用就绪事件
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        AliwareMqConsumerRegistry aliwareMqConsumerRegistry = applicationContext.getBean(AliwareMqConsumerRegistry.class);
+        if (aliwareMqConsumerRegistry.getAliwareMqProperties().getStartup().getActivation() == AliwareMqProperties.Activation.APPLICATION_READY) {
+            aliwareMqConsumerRegistry.startConsumers();
+        }
     }
 
     @Bean
@@ -59,6 +169,63 @@ public class AliwareMqConfiguration implements ApplicationContextAware, SmartIni
         return new Gson();
     }
 
+    @Bean
+    public GsonMessageCodec gsonMessageCodec(Gson gson) {
+        return new GsonMessageCodec(gson);
+    }
+
+    /**
+     * 注册消息体编解码器注册中心, 收集容器中全部MessageCodec
+     *
+     * @param codecs              编解码器
+     * @param aliwareMqProperties 消息队列配置
+     * @return 编解码器注册中心
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageCodecRegistry messageCodecRegistry(List<MessageCodec> codecs, AliwareMqProperties aliwareMqProperties) {
+        return new MessageCodecRegistry(codecs, aliwareMqProperties.getDefaultCodec());
+    }
+
+    @Bean
+    public GzipMessageCompressor gzipMessageCompressor() {
+        return new GzipMessageCompressor();
+    }
+
+    /**
+     * 注册消息体压缩器注册中心, 收集容器中全部MessageCompressor
+     * <p>启动时校验生产者配置的压缩器已注册且可用, 依赖缺失或本地库加载失败时启动失败</p>
+     *
+     * @param compressors         压缩器
+     * @param aliwareMqProperties 消息队列配置
+     * @return 压缩器注册中心
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageCompressorRegistry messageCompressorRegistry(List<MessageCompressor> compressors, AliwareMqProperties aliwareMqProperties) {
+        MessageCompressorRegistry registry = new MessageCompressorRegistry(compressors, aliwareMqProperties.getMaxDecompressedBytes());
+        AliwareMqProperties.Producer producer = aliwareMqProperties.getProducer();
+        if (producer != null) {
+            Stream.concat(Stream.of(producer.getCompression()), producer.getTopicCompressions().values().stream())
+                    .map(AliwareMqProperties.Compression::getAlgorithm)
+                    .filter(StringUtils::isNotEmpty)
+                    .distinct()
+                    .forEach(registry::verify);
+        }
+        return registry;
+    }
+
+    /**
+     * 未引入Micrometer时的空指标
+     *
+     * @return 空指标
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AliwareMqMetrics aliwareMqMetrics() {
+        return AliwareMqMetrics.NOOP;
+    }
+
     @Bean
     public AliwareMqProperties aliwareMqProperties() {
         return new AliwareMqProperties();
@@ -68,34 +235,174 @@ public class AliwareMqConfiguration implements ApplicationContextAware, SmartIni
      * 注册生产者
      *
      * @param aliwareMqProperties 消息队列配置
+     * @param clientFactory       客户端工厂
      * @return 生产者bean
      */
     @Bean(initMethod = "start", destroyMethod = "shutdown")
-    public ProducerBean producerBean(AliwareMqProperties aliwareMqProperties) {
+    public ProducerBean producerBean(AliwareMqProperties aliwareMqProperties, ObjectProvider<AliwareMqClientFactory> clientFactory) {
+        ProducerBean producer = clientFactory.getIfAvailable(() -> AliwareMqClientFactory.DEFAULT).createProducer();
+        producer.setProperties(buildProducerProperties(aliwareMqProperties));
+        return producer;
+    }
+
+    /**
+     * 注册顺序消息生产者
+     *
+     * @param aliwareMqProperties 消息队列配置
+     * @param clientFactory       客户端工厂
+     * @return 顺序消息生产者bean
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "aliwaremq.producer", name = "order-enabled", havingValue = "true")
+    public OrderProducerBean orderProducerBean(AliwareMqProperties aliwareMqProperties, ObjectProvider<AliwareMqClientFactory> clientFactory) {
+        OrderProducerBean orderProducer = clientFactory.getIfAvailable(() -> AliwareMqClientFactory.DEFAULT).createOrderProducer();
+        orderProducer.setProperties(buildProducerProperties(aliwareMqProperties));
+        return orderProducer;
+    }
+
+    /**
+     * 注册生产者池路由, 按aliwaremq.producers为每个池创建poolSize个客户端实例
+     *
+     * @param aliwareMqProperties 消息队列配置
+     * @param clientFactory       客户端工厂
+     * @return 生产者池路由
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public ProducerRouter producerRouter(AliwareMqProperties aliwareMqProperties, ObjectProvider<AliwareMqClientFactory> clientFactory) {
+        AliwareMqClientFactory factory = clientFactory.getIfAvailable(() -> AliwareMqClientFactory.DEFAULT);
+        Map<String, PooledProducer> pools = new HashMap<>();
+        Map<String, List<String>> topics = new HashMap<>();
+        aliwareMqProperties.getProducers().forEach((name, pool) -> {
+            List<ProducerBean> producers = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, pool.getPoolSize()); i++) {
+                Properties properties = buildProducerProperties(aliwareMqProperties);
+                setProperty(properties, PropertyKeyConst.GROUP_ID, pool.getGroup());
+                setProperty(properties, PropertyKeyConst.SendMsgTimeoutMillis, String.valueOf(pool.getSendMsgTimeoutMillis()));
+                // 每个实例使用独立的客户端连接, 带进程号避免同一主机上的多个进程共用实例名
+                setProperty(properties, PropertyKeyConst.InstanceName, name + "-" + PID + "-" + i);
+                ProducerBean producer = factory.createProducer();
+                producer.setProperties(properties);
+                producers.add(producer);
+            }
+            pools.put(name, new PooledProducer(name, producers, pool.getFailureThreshold(), pool.getQuarantineMillis()));
+            topics.put(name, pool.getTopics());
+        });
+        return new ProducerRouter(pools, topics);
+    }
+
+    /**
+     * 注册本地事务回查注册中心
+     *
+     * @param messageCodecRegistry 编解码器注册中心
+     * @param compressorRegistry   压缩器注册中心
+     * @param claimCheckResolver   大消息体引用解析
+     * @return 本地事务回查注册中心
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "aliwaremq.producer", name = "transaction-enabled", havingValue = "true")
+    public TransactionCheckerRegistry transactionCheckerRegistry(MessageCodecRegistry messageCodecRegistry,
+                                                                 ObjectProvider<MessageCompressorRegistry> compressorRegistry,
+                                                                 ObjectProvider<ClaimCheckResolver> claimCheckResolver) {
+        return new TransactionCheckerRegistry(messageCodecRegistry, compressorRegistry.getIfAvailable(), claimCheckResolver.getIfAvailable());
+    }
+
+    /**
+     * 注册事务消息生产者, 本地事务回查由注册中心按主题分发
+     *
+     * @param aliwareMqProperties        消息队列配置
+     * @param clientFactory              客户端工厂
+     * @param transactionCheckerRegistry 本地事务回查注册中心
+     * @return 事务消息生产者bean
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "aliwaremq.producer", name = "transaction-enabled", havingValue = "true")
+    public TransactionProducerBean transactionProducerBean(AliwareMqProperties aliwareMqProperties,
+                                                           ObjectProvider<AliwareMqClientFactory> clientFactory,
+                                                           TransactionCheckerRegistry transactionCheckerRegistry) {
+        TransactionProducerBean transactionProducer = clientFactory.getIfAvailable(() -> AliwareMqClientFactory.DEFAULT).createTransactionProducer();
+        Properties properties = buildProducerProperties(aliwareMqProperties);
+        setProperty(properties, PropertyKeyConst.GROUP_ID, aliwareMqProperties.getProducer().getTransactionGroup());
+        transactionProducer.setProperties(properties);
+        transactionProducer.setLocalTransactionChecker(transactionCheckerRegistry);
+        return transactionProducer;
+    }
+
+    /**
+     * 注册攒批发送器, 凑成一组的消息经AliwareMqProducer按主题路由发送
+     *
+     * @param aliwareMqProducer   生产者
+     * @param aliwareMqProperties 消息队列配置
+     * @return 攒批发送器
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "aliwaremq.producer.batch", name = "enabled", havingValue = "true")
+    public AliwareMqBatchSender aliwareMqBatchSender(ObjectProvider<AliwareMqProducer> aliwareMqProducer, AliwareMqProperties aliwareMqProperties) {
+        return new AliwareMqBatchSender(routedSender(aliwareMqProducer, AliwareMqMetrics.MODE_BATCH), aliwareMqProperties.getProducer().getBatch());
+    }
+
+    /**
+     * 注册进程内延时发送调度器, 到期的消息经AliwareMqProducer发送
+     *
+     * @param aliwareMqProperties 消息队列配置
+     * @return 延时发送调度器
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "aliwaremq.producer.delay", name = "timer-wheel-enabled", havingValue = "true")
+    public DelayedMessageScheduler delayedMessageScheduler(AliwareMqProperties aliwareMqProperties) {
+        return new DelayedMessageScheduler(aliwareMqProperties.getProducer().getDelay());
+    }
+
+    @Bean
+    public AliwareMqProducer aliwareMqProducer() {
+        return new AliwareMqProducer();
+    }
+
+    @Bean
+    public AliwareMqConsumerRegistry aliwareMqConsumerRegistry(ObjectProvider<ProducerBean> producerBean) {
+        AliwareMqConsumerRegistry aliwareMqConsumerRegistry = new AliwareMqConsumerRegistry();
+        aliwareMqConsumerRegistry.setDeadLetterProducer(producerBean.getIfAvailable());
+        return aliwareMqConsumerRegistry;
+    }
+
+    /**
+     * 构造生产者配置
+     *
+     * @param aliwareMqProperties 消息队列配置
+     * @return 生产者配置
+     */
+    /**
+     * 经AliwareMqProducer异步发送, 按主题路由到生产者池, 受在途消息数限制并记录发送指标
+     * <p>AliwareMqProducer依赖攒批发送器和发件箱, 首次发送时才获取生产者, 避免创建时互相依赖</p>
+     *
+     * @param aliwareMqProducer 生产者
+     * @param mode              发送方式, 用于指标
+     * @return 发送函数
+     */
+    private static Function<Message, CompletableFuture<SendResult>> routedSender(ObjectProvider<AliwareMqProducer> aliwareMqProducer, String mode) {
+        AtomicReference<AliwareMqProducer> resolved = new AtomicReference<>();
+        return message -> {
+            AliwareMqProducer producer = resolved.get();
+            if (producer == null) {
+                producer = aliwareMqProducer.getObject();
+                resolved.set(producer);
+            }
+            return producer.sendAsync(message, mode);
+        };
+    }
+
+    private Properties buildProducerProperties(AliwareMqProperties aliwareMqProperties) {
         if (aliwareMqProperties.getAccessKey() == null || "".equals(aliwareMqProperties.getAccessKey())) {
             aliwareMqProperties.setAccessKey(PropertyKeyConst.AccessKey);
         }
         if (aliwareMqProperties.getSecretKey() == null || "".equals(aliwareMqProperties.getSecretKey())) {
             aliwareMqProperties.setSecretKey(PropertyKeyConst.SecretKey);
         }
-        ProducerBean producer = new ProducerBean();
         Properties properties = new Properties();
         setProperty(properties, PropertyKeyConst.NAMESRV_ADDR, aliwareMqProperties.getNameSrvAddr());
         setProperty(properties, PropertyKeyConst.AccessKey, aliwareMqProperties.getAccessKey());
         setProperty(properties, PropertyKeyConst.SecretKey, aliwareMqProperties.getSecretKey());
         setProperty(properties, PropertyKeyConst.GROUP_ID, aliwareMqProperties.getProducer().getGroup());
-        producer.setProperties(properties);
-        return producer;
-    }
-
-    @Bean
-    public AliwareMqProducer aliwareMqProducer() {
-        return new AliwareMqProducer();
-    }
-
-    @Bean
-    public AliwareMqConsumerRegistry aliwareMqConsumerRegistry() {
-        return new AliwareMqConsumerRegistry();
+        return properties;
     }
 
     private void setProperty(Properties property, String key, String value) {
@@ -104,4 +411,183 @@ public class AliwareMqConfiguration implements ApplicationContextAware, SmartIni
         }
         property.setProperty(key, value);
     }
-}
\ No newline at end of file
+
+    /**
+     * 存在MeterRegistry时注册Micrometer指标
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    static class MicrometerMetricsConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        public AliwareMqMetrics micrometerAliwareMqMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerAliwareMqMetrics(meterRegistry);
+        }
+
+        @Bean
+        public AliwareMqProducerMeterBinder aliwareMqProducerMeterBinder(AliwareMqProducer aliwareMqProducer,
+                                                                         ObjectProvider<AliwareMqBatchSender> batchSender,
+                                                                         ObjectProvider<ProducerRouter> producerRouter,
+                                                                         ObjectProvider<DelayedMessageScheduler> delayedMessageScheduler) {
+            return new AliwareMqProducerMeterBinder(aliwareMqProducer, batchSender.getIfAvailable(), producerRouter.getIfAvailable(),
+                    delayedMessageScheduler.getIfAvailable());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(ObjectMapper.class)
+    static class JacksonCodecConfiguration {
+        @Bean
+        public JacksonMessageCodec jacksonMessageCodec(ObjectProvider<ObjectMapper> objectMapper) {
+            return new JacksonMessageCodec(objectMapper.getIfAvailable(ObjectMapper::new));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Kryo.class)
+    static class KryoCodecConfiguration {
+        @Bean
+        public KryoMessageCodec kryoMessageCodec(AliwareMqProperties aliwareMqProperties) {
+            ClassLoader classLoader = KryoMessageCodec.class.getClassLoader();
+            List<Class<?>> registeredClasses = aliwareMqProperties.getKryo().getRegisteredClasses().stream()
+                    .map(className -> ClassUtils.resolveClassName(className, classLoader))
+                    .collect(Collectors.toList());
+            return new KryoMessageCodec(registeredClasses);
+        }
+    }
+
+    /**
+     * 开启大消息体引用时注册存储和引用解析, 未自定义BlobStore时使用本地文件存储
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "aliwaremq.claim-check", name = "enabled", havingValue = "true")
+    static class ClaimCheckConfiguration {
+        @Bean(initMethod = "start", destroyMethod = "shutdown")
+        @ConditionalOnMissingBean(BlobStore.class)
+        public LocalFileBlobStore blobStore(AliwareMqProperties aliwareMqProperties) {
+            AliwareMqProperties.ClaimCheck claimCheck = aliwareMqProperties.getClaimCheck();
+            return new LocalFileBlobStore(Paths.get(claimCheck.getDirectory()), claimCheck.getRetentionMillis(),
+                    claimCheck.getCleanupIntervalMillis());
+        }
+
+        @Bean
+        public ClaimCheckResolver claimCheckResolver(BlobStore blobStore, ObjectProvider<MessageCompressorRegistry> compressorRegistry) {
+            return new ClaimCheckResolver(blobStore, compressorRegistry.getIfAvailable());
+        }
+    }
+
+    /**
+     * 开启事务发件箱时注册存储、转发和写入, 未自定义OutboxStore时按配置选择数据库表或内存映射文件
+     */
+    @Configuration
+    @ConditionalOnClass(TransactionSynchronizationManager.class)
+    @ConditionalOnProperty(prefix = "aliwaremq.producer.outbox", name = "enabled", havingValue = "true")
+    static class OutboxConfiguration {
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public OutboxStore outboxStore(AliwareMqProperties aliwareMqProperties, ObjectProvider<DataSource> dataSource) {
+            AliwareMqProperties.Outbox outbox = aliwareMqProperties.getProducer().getOutbox();
+            if (outbox.getStore() == AliwareMqProperties.OutboxStoreType.JDBC) {
+                DataSource source = dataSource.getIfAvailable();
+                if (source == null) {
+                    throw new IllegalStateException("发件箱存储类型为JDBC, 未找到DataSource, "
+                            + "可配置aliwaremq.producer.outbox.store=MAPPED_FILE, 但该存储不保证事务提交后消息不丢失");
+                }
+                return new JdbcOutboxStore(new JdbcTemplate(source), outbox.getTableName(), outbox.getLeaseMillis());
+            }
+            log.warn("发件箱存储类型为MAPPED_FILE, 事务提交后写入, 提交与写入之间进程崩溃会丢失消息");
+            return new MappedFileOutboxStore(Paths.get(outbox.getDirectory()), outbox.getSegmentBytes(), outbox.isSyncOnAppend());
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "shutdown")
+        public OutboxRelay outboxRelay(OutboxStore outboxStore, ObjectProvider<AliwareMqProducer> aliwareMqProducer,
+                                       AliwareMqProperties aliwareMqProperties) {
+            return new OutboxRelay(outboxStore, routedSender(aliwareMqProducer, AliwareMqMetrics.MODE_OUTBOX),
+                    aliwareMqProperties.getProducer().getOutbox());
+        }
+
+        @Bean
+        public OutboxWriter outboxWriter(OutboxStore outboxStore, OutboxRelay outboxRelay) {
+            return new OutboxWriter(outboxStore, outboxRelay);
+        }
+    }
+
+    /**
+     * 开启耗时分析时注册消费耗时分析
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "aliwaremq.profiling", name = "enabled", havingValue = "true")
+    static class ProfilingConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        public ConsumeProfiler consumeProfiler(AliwareMqProperties aliwareMqProperties) {
+            return new ConsumeProfiler(aliwareMqProperties.getProfiling());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(LZ4Factory.class)
+    static class Lz4CompressionConfiguration {
+        @Bean
+        public Lz4MessageCompressor lz4MessageCompressor() {
+            return new Lz4MessageCompressor();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Zstd.class)
+    static class ZstdCompressionConfiguration {
+        @Bean
+        public ZstdMessageCompressor zstdMessageCompressor() {
+            return new ZstdMessageCompressor();
+        }
+    }
+
+    /**
+     * 存在Actuator时注册消息队列端点, 端点按management.endpoint.<id>.enabled开启或关闭
+     */
+    @Configuration
+    @ConditionalOnClass({Endpoint.class, ConditionalOnEnabledEndpoint.class})
+    static class ActuatorEndpointConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnEnabledEndpoint
+        public AliwareMqFlowControlEndpoint aliwareMqFlowControlEndpoint(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+            return new AliwareMqFlowControlEndpoint(aliwareMqConsumerRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnEnabledEndpoint
+        public AliwareMqConsumersEndpoint aliwareMqConsumersEndpoint(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+            return new AliwareMqConsumersEndpoint(aliwareMqConsumerRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnEnabledEndpoint
+        public AliwareMqProfilingEndpoint aliwareMqProfilingEndpoint(ObjectProvider<ConsumeProfiler> consumeProfiler) {
+            return new AliwareMqProfilingEndpoint(consumeProfiler.getIfAvailable(() -> ConsumeProfiler.DISABLED));
+        }
+    }
+
+    /**
+     * 存在Reactor时注册响应式生产者和消费者
+     */
+    @Configuration
+    @ConditionalOnClass(Flux.class)
+    static class ReactorConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveAliwareMqProducer reactiveAliwareMqProducer(AliwareMqProducer aliwareMqProducer, AliwareMqProperties aliwareMqProperties) {
+            return new ReactiveAliwareMqProducer(aliwareMqProducer, aliwareMqProperties.getProducer().getAsyncAcquireTimeoutMillis());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveAliwareMqConsumer reactiveAliwareMqConsumer(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+            return new ReactiveAliwareMqConsumer(aliwareMqConsumerRegistry);
+        }
+    }
+}
@@ -1,31 +1,70 @@
 package priv.ln.aliwaremq.spring.boot.autoconfigure;
 
 import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Admin;
 import com.aliyun.openservices.ons.api.Message;
 import com.aliyun.openservices.ons.api.MessageListener;
+import com.aliyun.openservices.ons.api.Producer;
 import com.aliyun.openservices.ons.api.PropertyKeyConst;
+import com.aliyun.openservices.ons.api.batch.BatchMessageListener;
+import com.aliyun.openservices.ons.api.bean.BatchConsumerBean;
 import com.aliyun.openservices.ons.api.bean.ConsumerBean;
+import com.aliyun.openservices.ons.api.bean.OrderConsumerBean;
 import com.aliyun.openservices.ons.api.bean.Subscription;
+import com.aliyun.openservices.ons.api.order.MessageOrderListener;
+import com.aliyun.openservices.ons.api.order.OrderAction;
 import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
-import com.google.gson.Gson;
+import priv.ln.aliwaremq.spring.boot.claimcheck.ClaimCheckResolver;
+import priv.ln.aliwaremq.spring.boot.codec.DecodePlan;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.codec.MessageTypeResolver;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressorRegistry;
 import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqBatchConsumer;
 import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqOrderConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqSubscriber;
+import priv.ln.aliwaremq.spring.boot.core.MessageRoute;
+import priv.ln.aliwaremq.spring.boot.dedup.DedupStore;
+import priv.ln.aliwaremq.spring.boot.dedup.LocalDedupStore;
+import priv.ln.aliwaremq.spring.boot.dedup.MessageDeduplicator;
+import priv.ln.aliwaremq.spring.boot.filter.MessageFilter;
+import priv.ln.aliwaremq.spring.boot.flowcontrol.AdaptiveConcurrencyLimiter;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
+import priv.ln.aliwaremq.spring.boot.metrics.ConsumeMetrics;
+import priv.ln.aliwaremq.spring.boot.profile.ConsumeProfiler;
+import priv.ln.aliwaremq.spring.boot.profile.HandlerProfile;
+import priv.ln.aliwaremq.spring.boot.retry.ConfigurableExceptionClassifier;
+import priv.ln.aliwaremq.spring.boot.retry.DeadLetterHandler;
+import priv.ln.aliwaremq.spring.boot.retry.ExceptionClassifier;
+import priv.ln.aliwaremq.spring.boot.retry.TieredRetryExecutor;
+import priv.ln.aliwaremq.spring.boot.retry.TopicDeadLetterHandler;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.annotation.PreDestroy;
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 阿里云消息队列注册中心
@@ -38,11 +77,67 @@ import java.util.*;
 @Data
 public class AliwareMqConsumerRegistry implements ApplicationContextAware {
     /**
-     * 消费者bean集合
+     * 批量消费攒批最大等待时长配置项, 旧版本客户端不识别时忽略
      */
-    private Map<String, ConsumerBean> consumerBeanMap = new HashMap<>();
+    private static final String BATCH_CONSUME_MAX_AWAIT_DURATION_IN_SECONDS = "BatchConsumeMaxAwaitDurationInSeconds";
+    /**
+     * 消费者bean集合, 包含ConsumerBean、BatchConsumerBean和OrderConsumerBean, 运行时重建后为当前客户端, 暂停时移除
+     */
+    private Map<String, Admin> consumerBeanMap = new ConcurrentHashMap<>();
+    /**
+     * 可运行时重建的消费者, key为消费者beanName
+     */
+    private Map<String, ManagedConsumer> managedConsumerMap = new ConcurrentHashMap<>();
+    /**
+     * 待合并注册的订阅, key为消费者组@主题
+     */
+    private Map<String, MultiplexedSubscription> multiplexedSubscriptionMap = new LinkedHashMap<>();
+    /**
+     * 消费处理分发器, key为订阅队列自定义名称
+     */
+    private Map<String, HandlerDispatcher> handlerDispatcherMap = new HashMap<>();
+    /**
+     * 消费去重器, key为消费者组@主题
+     */
+    private Map<String, MessageDeduplicator> deduplicatorMap = new ConcurrentHashMap<>();
+    /**
+     * 自适应流控并发限制, key为消费者组@主题
+     */
+    private Map<String, AdaptiveConcurrencyLimiter> flowLimiterMap = new ConcurrentHashMap<>();
+    /**
+     * 流控暂停和恢复线程, 未发生流控暂停时为空
+     */
+    private volatile ScheduledExecutorService flowControlScheduler;
+    /**
+     * {@link #buildConsumer}创建且未关闭的消费者独占的消费者组
+     */
+    private Set<String> exclusiveGroups = ConcurrentHashMap.newKeySet();
+    /**
+     * 跨节点去重存储, 容器中存在唯一的DedupStore bean时使用
+     */
+    private DedupStore remoteDedupStore;
+    /**
+     * 自定义消费异常分类器, 为空时按消费者重试配置分类
+     */
+    private ExceptionClassifier exceptionClassifier;
+    /**
+     * 自定义死信处理, 为空时按消费者重试配置转发到死信主题
+     */
+    private DeadLetterHandler deadLetterHandler;
+    /**
+     * 转发到死信主题的生产者, 由配置类注入
+     */
+    private Producer deadLetterProducer;
     private AliwareMqProperties aliwareMqProperties;
-    private Gson gson;
+    private MessageCodecRegistry messageCodecRegistry;
+    private MessageCompressorRegistry compressorRegistry;
+    private AliwareMqClientFactory clientFactory = AliwareMqClientFactory.DEFAULT;
+    private ClaimCheckResolver claimCheckResolver;
+    private AliwareMqMetrics metrics = AliwareMqMetrics.NOOP;
+    /**
+     * 消费耗时分析, 未开启时不记录
+     */
+    private ConsumeProfiler profiler = ConsumeProfiler.DISABLED;
     private ConfigurableApplicationContext applicationContext;
     private BeanDefinitionRegistry beanDefinitionRegistry;
 
@@ -50,10 +145,33 @@ public class AliwareMqConsumerRegistry implements ApplicationContextAware {
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = (ConfigurableApplicationContext) applicationContext;
         this.aliwareMqProperties = applicationContext.getBean(AliwareMqProperties.class);
-        this.gson = applicationContext.getBean(Gson.class);
+        this.messageCodecRegistry = applicationContext.getBean(MessageCodecRegistry.class);
+        this.metrics = applicationContext.getBean(AliwareMqMetrics.class);
+        this.compressorRegistry = getUniqueBean(applicationContext, MessageCompressorRegistry.class);
+        AliwareMqClientFactory customClientFactory = getUniqueBean(applicationContext, AliwareMqClientFactory.class);
+        this.clientFactory = customClientFactory != null ? customClientFactory : AliwareMqClientFactory.DEFAULT;
+        this.claimCheckResolver = getUniqueBean(applicationContext, ClaimCheckResolver.class);
+        this.remoteDedupStore = getUniqueBean(applicationContext, DedupStore.class);
+        this.exceptionClassifier = getUniqueBean(applicationContext, ExceptionClassifier.class);
+        this.deadLetterHandler = getUniqueBean(applicationContext, DeadLetterHandler.class);
+        ConsumeProfiler customProfiler = getUniqueBean(applicationContext, ConsumeProfiler.class);
+        this.profiler = customProfiler != null ? customProfiler : ConsumeProfiler.DISABLED;
         this.beanDefinitionRegistry = (BeanDefinitionRegistry) this.applicationContext.getBeanFactory();
     }
 
+    /**
+     * 获取可选的bean
+     *
+     * @param applicationContext 容器
+     * @param type               bean类型
+     * @param <T>                泛型
+     * @return 容器中存在唯一的该类型bean时返回该bean, 否则返回空
+     */
+    private <T> T getUniqueBean(ApplicationContext applicationContext, Class<T> type) {
+        String[] names = applicationContext.getBeanNamesForType(type);
+        return names.length == 1 ? applicationContext.getBean(names[0], type) : null;
+    }
+
     @PreDestroy
     private void destroy() {
         consumerBeanMap.forEach((consumerBeanName, consumerBean) -> {
@@ -61,118 +179,1012 @@ public class AliwareMqConsumerRegistry implements ApplicationContextAware {
             consumerBean.shutdown();
             log.info("注销消息队列消费者, 消费者beanName:{}", consumerBeanName, consumerBeanName);
         });
+        handlerDispatcherMap.values().forEach(HandlerDispatcher::shutdown);
+        if (flowControlScheduler != null) {
+            flowControlScheduler.shutdownNow();
+        }
     }
 
     /**
      * 注册消费者
+     * <p>同一消费者组、同一主题的标签合并到一个ConsumerBean, 在{@link #completeRegistration()}时创建</p>
+     * <p>消费者配置tagIsolation为true时, 每个标签独立创建ConsumerBean</p>
+     * <p>消费者配置dispatch.mode不为CLIENT时, 以BatchConsumerBean拉取消息, 批内消息交给执行器并发处理</p>
      *
      * @param beanName 消费者监听bean名称
      * @param consumer 消费者监听
      */
     public void registerConsumer(String beanName, AliwareMqConsumer consumer) {
-        List<String> names = new ArrayList<>();
-        String name = consumer.getName();
+        List<String> tags = resolveTags(consumer);
+        resolveNames(consumer).forEach(consumerName -> {
+            AliwareMqProperties.Consumer consumerProperties = aliwareMqProperties.getConsumer().get(consumerName);
+            if (consumerProperties.isTagIsolation()) {
+                tags.forEach(tag -> registerListener(beanName, consumerName, consumerProperties, tag,
+                        buildConsumerListener(consumer, consumerProperties, tag), null));
+                return;
+            }
+            String key = consumerProperties.getGroup() + "@" + consumerProperties.getTopic();
+            MultiplexedSubscription multiplexedSubscription = multiplexedSubscriptionMap
+                    .computeIfAbsent(key, k -> new MultiplexedSubscription(consumerName, consumerProperties));
+            if (!multiplexedSubscription.consumerName.equals(consumerName)) {
+                checkMergeable(multiplexedSubscription, consumerName, consumerProperties);
+                log.info("消费者[{}]与[{}]的消费者组和主题相同, 合并为一个客户端订阅, 标签[{}]由[{}]的监听处理",
+                        consumerName, multiplexedSubscription.consumerName, String.join("||", tags), consumerName);
+            }
+            tags.forEach(tag -> multiplexedSubscription.listener.addRoute(tag,
+                    buildConsumerListener(consumer, consumerProperties, tag)));
+            multiplexedSubscription.listenerBeanNames.add(beanName);
+        });
+    }
+
+    /**
+     * 检查同一消费者组和主题的不同消费者能否合并订阅
+     * <p>合并后只创建一个客户端, 客户端配置、分发配置和流控配置须一致, 不一致时启动失败;
+     * 编解码、重试、去重和过滤配置按标签路由各自生效, 允许不同</p>
+     *
+     * @param multiplexedSubscription 已有的合并订阅
+     * @param consumerName            待合并的消费者名称
+     * @param consumerProperties      待合并的消费者属性
+     */
+    private void checkMergeable(MultiplexedSubscription multiplexedSubscription, String consumerName,
+                                AliwareMqProperties.Consumer consumerProperties) {
+        AliwareMqProperties.Consumer existing = multiplexedSubscription.consumerProperties;
+        Properties existingProperties = buildBatchProperties(existing);
+        Properties properties = buildBatchProperties(consumerProperties);
+        List<String> conflicts = new ArrayList<>();
+        Set<String> keys = new TreeSet<>(existingProperties.stringPropertyNames());
+        keys.addAll(properties.stringPropertyNames());
+        keys.stream().filter(key -> !Objects.equals(existingProperties.getProperty(key), properties.getProperty(key))).forEach(conflicts::add);
+        if (!Objects.equals(existing.getDispatch(), consumerProperties.getDispatch())) {
+            conflicts.add("dispatch");
+        }
+        if (!Objects.equals(existing.getFlowControl(), consumerProperties.getFlowControl())) {
+            conflicts.add("flowControl");
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException(String.format("消费者[%s]与[%s]的消费者组和主题相同, 合并订阅时配置须一致, 不一致的配置: %s",
+                    consumerName, multiplexedSubscription.consumerName, conflicts));
+        }
+    }
+
+    /**
+     * 注册批量消费者
+     * <p>批量消费按整批提交, 不做标签合并, 每个标签独立创建BatchConsumerBean</p>
+     *
+     * @param beanName 批量消费者监听bean名称
+     * @param consumer 批量消费者监听
+     */
+    public void registerBatchConsumer(String beanName, AliwareMqBatchConsumer consumer) {
+        List<String> tags = resolveTags(consumer);
+        resolveNames(consumer).forEach(consumerName -> tags.forEach(tag -> {
+            AliwareMqProperties.Consumer consumerProperties = aliwareMqProperties.getConsumer().get(consumerName);
+            // 配置和订阅表只构造一次, 解码计划随订阅表在此解析
+            registerConsumerBean(beanName, AliwareMqBatchConsumer.class, BatchConsumerBean.class, consumerName, consumerProperties,
+                    buildBatchProperties(consumerProperties), buildBatchSubscriptionTable(consumer, consumerProperties, tag), null);
+        }));
+    }
+
+    /**
+     * 注册顺序消费者
+     * <p>每个标签独立创建OrderConsumerBean</p>
+     *
+     * @param beanName 顺序消费者监听bean名称
+     * @param consumer 顺序消费者监听
+     */
+    public void registerOrderConsumer(String beanName, AliwareMqOrderConsumer consumer) {
+        List<String> tags = resolveTags(consumer);
+        resolveNames(consumer).forEach(consumerName -> tags.forEach(tag -> {
+            AliwareMqProperties.Consumer consumerProperties = aliwareMqProperties.getConsumer().get(consumerName);
+            registerConsumerBean(beanName, AliwareMqOrderConsumer.class, OrderConsumerBean.class, consumerName, consumerProperties,
+                    buildProperties(consumerProperties), buildOrderSubscriptionTable(consumer, consumerProperties, tag), null);
+        }));
+    }
+
+    /**
+     * 完成注册, 为合并订阅创建ConsumerBean
+     * <p>全部消费者注册后调用一次</p>
+     */
+    public void completeRegistration() {
+        multiplexedSubscriptionMap.values().forEach(multiplexedSubscription ->
+                registerListener(String.join(",", multiplexedSubscription.listenerBeanNames), multiplexedSubscription.consumerName,
+                        multiplexedSubscription.consumerProperties, multiplexedSubscription.listener.getExpression(),
+                        multiplexedSubscription.listener, multiplexedSubscription.listener));
+        multiplexedSubscriptionMap.clear();
+    }
+
+    /**
+     * 为消息监听器创建消费者bean
+     * <p>分发模式为CLIENT时创建ConsumerBean, 否则创建BatchConsumerBean并将批内消息交给分发器</p>
+     *
+     * @param beanName           监听bean名称
+     * @param consumerName       订阅队列自定义名称
+     * @param consumerProperties 消费者属性
+     * @param expression         订阅表达式
+     * @param listener           消息监听器
+     * @param router             合并订阅的标签分发监听器, 未合并订阅时为空
+     */
+    private void registerListener(String beanName, String consumerName, AliwareMqProperties.Consumer consumerProperties,
+                                  String expression, MessageListener listener, TagDispatchListener router) {
+        Subscription subscription = new Subscription();
+        subscription.setTopic(consumerProperties.getTopic());
+        subscription.setExpression(expression);
+        if (consumerProperties.getDispatch().getMode() == AliwareMqProperties.DispatchMode.CLIENT) {
+            Map<Subscription, MessageListener> subscriptionTable = new HashMap<>();
+            subscriptionTable.put(subscription, listener);
+            registerConsumerBean(beanName, AliwareMqConsumer.class, ConsumerBean.class, consumerName, consumerProperties,
+                    buildProperties(consumerProperties), subscriptionTable, router);
+            return;
+        }
+        log.info("消费者[{}]分发模式为{}, 以BatchConsumerBean按批拉取, 每批最多{}条, 批内消息失败时整批重新投递",
+                consumerName, consumerProperties.getDispatch().getMode(), consumerProperties.getConsumeMessageBatchMaxSize());
+        HandlerDispatcher dispatcher = handlerDispatcherMap.computeIfAbsent(consumerName,
+                name -> buildHandlerDispatcher(name, consumerProperties));
+        Map<Subscription, BatchMessageListener> subscriptionTable = new HashMap<>();
+        subscriptionTable.put(subscription, (messages, context) -> dispatcher.dispatch(messages, listener));
+        registerConsumerBean(beanName, AliwareMqConsumer.class, BatchConsumerBean.class, consumerName, consumerProperties,
+                buildBatchProperties(consumerProperties), subscriptionTable, router);
+    }
+
+    /**
+     * 构造消费处理分发器
+     *
+     * @param consumerName       订阅队列自定义名称
+     * @param consumerProperties 消费者属性
+     * @return 分发器
+     */
+    private HandlerDispatcher buildHandlerDispatcher(String consumerName, AliwareMqProperties.Consumer consumerProperties) {
+        AliwareMqProperties.Dispatch dispatch = consumerProperties.getDispatch();
+        long timeoutMillis = Math.min(dispatch.getTimeoutMillis(), TimeUnit.MINUTES.toMillis(consumerProperties.getConsumeTimeout()));
+        if (dispatch.getMode() == AliwareMqProperties.DispatchMode.VIRTUAL_THREAD) {
+            return new HandlerDispatcher(consumerName, newVirtualThreadPerTaskExecutor(), true,
+                    dispatch.getMaxConcurrency(), timeoutMillis);
+        }
+        if (StringUtils.isEmpty(dispatch.getExecutorBeanName())) {
+            throw new IllegalStateException(String.format("消费者[%s]分发模式为EXECUTOR, 未配置executorBeanName", consumerName));
+        }
+        Executor executor = applicationContext.getBean(dispatch.getExecutorBeanName(), Executor.class);
+        return new HandlerDispatcher(consumerName, executor, false, dispatch.getMaxConcurrency(), timeoutMillis);
+    }
+
+    /**
+     * 创建每任务一个虚拟线程的执行器, 需JDK 21及以上
+     *
+     * @return 执行器
+     */
+    private ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程, 分发模式VIRTUAL_THREAD需JDK 21及以上", e);
+        }
+    }
+
+    /**
+     * 注册消费者bean定义并保存消费者bean
+     * <p>客户端由{@link ManagedConsumer}创建, 运行时可重建、暂停和恢复</p>
+     *
+     * @param beanName           监听bean名称
+     * @param subscriberType     订阅者接口类型, 用于生成消费者beanName
+     * @param consumerBeanType   消费者bean类型
+     * @param consumerName       订阅队列自定义名称
+     * @param consumerProperties 消费者属性
+     * @param properties         客户端配置
+     * @param subscriptionTable  订阅表
+     * @param router             合并订阅的标签分发监听器, 未合并订阅时为空
+     */
+    private void registerConsumerBean(String beanName, Class<?> subscriberType, Class<? extends Admin> consumerBeanType,
+                                      String consumerName, AliwareMqProperties.Consumer consumerProperties, Properties properties,
+                                      Map<Subscription, ?> subscriptionTable, TagDispatchListener router) {
+        String expression = subscriptionTable.keySet().iterator().next().getExpression();
+        String consumerBeanName = String.format("%s:%s@%s", subscriberType.getName(), consumerName, expression);
+        ManagedConsumer managedConsumer = new ManagedConsumer(consumerBeanName, consumerProperties, consumerBeanType, properties,
+                subscriptionTable, router, (clientProperties, table) -> buildClient(consumerBeanType, clientProperties, table));
+        // 注册bean定义
+        beanDefinitionRegistry.registerBeanDefinition(consumerBeanName, buildBeanDefinition(managedConsumer));
+        Admin consumerBean = applicationContext.getBean(consumerBeanName, consumerBeanType);
+        // 保存, 由startConsumers统一启动
+        managedConsumerMap.put(consumerBeanName, managedConsumer);
+        consumerBeanMap.put(consumerBeanName, consumerBean);
+        log.info("注册消息队列消费者, 消息监听beanName:{}, 消费者beanName:{}", beanName, consumerBeanName);
+    }
+
+    /**
+     * 解析订阅队列自定义名称
+     *
+     * @param subscriber 订阅者
+     * @return 订阅队列自定义名称集合
+     */
+    private List<String> resolveNames(AliwareMqSubscriber subscriber) {
+        String name = subscriber.getName();
         if (StringUtils.isNotEmpty(name)) {
-            names.add(name);
+            return Collections.singletonList(name);
+        }
+        return Objects.nonNull(subscriber.getNames()) ? subscriber.getNames() : Collections.emptyList();
+    }
+
+    /**
+     * 解析订阅标签, 未指定时订阅全部标签
+     *
+     * @param subscriber 订阅者
+     * @return 标签集合
+     */
+    private List<String> resolveTags(AliwareMqSubscriber subscriber) {
+        if (subscriber.getTags() == null || subscriber.getTags().isEmpty()) {
+            return Arrays.asList("*");
+        }
+        return subscriber.getTags();
+    }
+
+    /**
+     * 创建订阅指定标签的消费者, 不注册到容器, 由调用方启动, 通过{@link #shutdownConsumer}关闭
+     * <p>消息按消费者配置解码后交给处理函数, 消费结果由处理函数决定</p>
+     * <p>创建的消费者独占消费者组: 同组已注册消费者或已创建未关闭时抛出异常, 避免同组多个客户端分走队列</p>
+     *
+     * @param consumerName 订阅队列自定义名称
+     * @param tag          标签
+     * @param messageType  消息类型, Message时不解码
+     * @param handler      处理函数
+     * @return 消费者bean
+     */
+    public ConsumerBean buildConsumer(String consumerName, String tag, Type messageType, Function<Object, Action> handler) {
+        AliwareMqProperties.Consumer consumerProperties = aliwareMqProperties.getConsumer().get(consumerName);
+        if (consumerProperties == null) {
+            throw new IllegalArgumentException(String.format("未找到消费者[%s]的配置", consumerName));
+        }
+        String group = consumerProperties.getGroup();
+        String registeredBy = findGroupOwner(group);
+        if (registeredBy != null) {
+            throw new IllegalStateException(String.format("消费者组[%s]已被消费者[%s]使用, 同组再创建客户端会分走队列", group, registeredBy));
+        }
+        if (!exclusiveGroups.add(group)) {
+            throw new IllegalStateException(String.format("消费者组[%s]已创建未关闭的消费者, 同组再创建客户端会分走队列", group));
+        }
+        try {
+            MessageListener listener = buildMessageListener(buildDecodePlan(messageType, consumerProperties), handler, consumerProperties, tag);
+            Map<Subscription, MessageListener> subscriptionTable = new HashMap<>();
+            Subscription subscription = new Subscription();
+            subscription.setTopic(consumerProperties.getTopic());
+            subscription.setExpression(tag);
+            subscriptionTable.put(subscription, listener);
+            return buildConsumerBean(buildProperties(consumerProperties), subscriptionTable);
+        } catch (RuntimeException e) {
+            exclusiveGroups.remove(group);
+            throw e;
+        }
+    }
+
+    /**
+     * 关闭{@link #buildConsumer}创建的消费者, 释放消费者组
+     *
+     * @param consumerName 订阅队列自定义名称
+     * @param consumerBean 消费者bean
+     */
+    public void shutdownConsumer(String consumerName, ConsumerBean consumerBean) {
+        try {
+            consumerBean.shutdown();
+        } finally {
+            exclusiveGroups.remove(aliwareMqProperties.getConsumer().get(consumerName).getGroup());
+        }
+    }
+
+    /**
+     * 查找使用消费者组的已注册消费者
+     *
+     * @param group 消费者组
+     * @return 消费者beanName或订阅队列自定义名称, 未使用时返回空
+     */
+    private String findGroupOwner(String group) {
+        for (ManagedConsumer managedConsumer : managedConsumerMap.values()) {
+            if (Objects.equals(group, managedConsumer.getConsumerProperties().getGroup())) {
+                return managedConsumer.getConsumerBeanName();
+            }
+        }
+        for (MultiplexedSubscription multiplexedSubscription : multiplexedSubscriptionMap.values()) {
+            if (Objects.equals(group, multiplexedSubscription.consumerProperties.getGroup())) {
+                return multiplexedSubscription.consumerName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 启动全部尚未启动的消费者
+     * <p>并行启动时, 等待全部消费者启动完成或超时, 超时或任一消费者启动失败则抛出异常</p>
+     * <p>启动时机为MANUAL时, 由应用在预热或健康检查通过后调用</p>
+     */
+    public synchronized void startConsumers() {
+        Map<String, Admin> pending = new LinkedHashMap<>();
+        consumerBeanMap.forEach((consumerBeanName, consumerBean) -> {
+            if (!consumerBean.isStarted()) {
+                pending.put(consumerBeanName, consumerBean);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+        AliwareMqProperties.Startup startup = aliwareMqProperties.getStartup();
+        long startMillis = System.currentTimeMillis();
+        if (startup.isParallel() && pending.size() > 1) {
+            startInParallel(pending, startup);
         } else {
-            names = consumer.getNames();
+            pending.forEach(this::startConsumer);
         }
-        if (Objects.nonNull(names)) {
-            List<String> tags;
-            if (consumer.getTags() == null || consumer.getTags().isEmpty()) {
-                tags = Arrays.asList("*");
-            } else {
-                tags = consumer.getTags();
-            }
-            names.forEach(consumerName -> tags.forEach(tag -> {
-                String consumerBeanName = String.format("%s:%s@%s", AliwareMqConsumer.class.getName(), consumerName, tag);
-                BeanDefinition beanDefinition = buildBeanDefinition(consumerName, tag, consumer);
-                // 注册bean定义
-                beanDefinitionRegistry.registerBeanDefinition(consumerBeanName, beanDefinition);
-                ConsumerBean consumerBean = applicationContext.getBean(consumerBeanName, ConsumerBean.class);
-                // 启动监听
-                consumerBean.start();
-                // 保存
-                consumerBeanMap.put(consumerBeanName, consumerBean);
-                log.info("注册消息队列消费者, 消息监听beanName:{}, 消费者beanName:{}", beanName, consumerBeanName);
+        log.info("启动消息队列消费者{}个, 耗时{}ms", pending.size(), System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * 在有界线程池中并行启动消费者
+     *
+     * @param pending 待启动消费者
+     * @param startup 启动配置
+     */
+    private void startInParallel(Map<String, Admin> pending, AliwareMqProperties.Startup startup) {
+        int threads = Math.max(1, Math.min(startup.getParallelism(), pending.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("aliwaremq-consumer-startup-"));
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(pending.size());
+            pending.forEach((consumerBeanName, consumerBean) -> tasks.add(() -> {
+                startConsumer(consumerBeanName, consumerBean);
+                return null;
             }));
+            List<Future<Void>> futures = executor.invokeAll(tasks, startup.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            for (Future<Void> future : futures) {
+                if (future.isCancelled()) {
+                    throw new IllegalStateException(String.format("消息队列消费者未能在%dms内全部启动", startup.getTimeoutMillis()));
+                }
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待消息队列消费者启动时被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("消息队列消费者启动失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
     /**
-     * 构建bean定义
+     * 启动单个消费者
      *
-     * @param consumerName 消费者自定义名称
-     * @param tag          标签
-     * @param consumer     消费者监听
+     * @param consumerBeanName 消费者beanName
+     * @param consumerBean     消费者bean
+     */
+    private void startConsumer(String consumerBeanName, Admin consumerBean) {
+        consumerBean.start();
+        log.info("启动消息队列消费者, 消费者beanName:{}", consumerBeanName);
+    }
+
+    /**
+     * 运行时按新配置重建单个消费者, 不影响其他消费者
+     * <p>先排空旧客户端, 再启动新客户端: 旧客户端等待在途消息处理完成后关闭并注销, 未处理的消息重新均衡后重新消费</p>
+     * <p>容器中注册的消费者bean为首次创建的客户端, 重建后以{@link #getConsumerBeanMap()}为准</p>
+     *
+     * @param consumerBeanName 消费者beanName
+     * @param update           调整的配置, 为空的配置项保持不变
+     */
+    public synchronized void reconfigure(String consumerBeanName, ConsumerUpdate update) {
+        ManagedConsumer managedConsumer = getManagedConsumer(consumerBeanName);
+        try {
+            managedConsumer.reconfigure(update);
+        } finally {
+            // 重建失败时为按原配置恢复的客户端
+            consumerBeanMap.put(consumerBeanName, managedConsumer.getClient());
+        }
+        AliwareMqProperties.Consumer consumerProperties = managedConsumer.getConsumerProperties();
+        if (update.getConsumeThreadNums() != null && consumerProperties.getDispatch().getMode() == AliwareMqProperties.DispatchMode.CLIENT) {
+            // 在客户端线程中处理时流控并发上限不超过消费线程数, 分发到执行器时上限为分发最大并发数, 不随消费线程数调整
+            AdaptiveConcurrencyLimiter limiter = flowLimiterMap.get(consumerProperties.getGroup() + "@" + consumerProperties.getTopic());
+            if (limiter != null) {
+                limiter.setMaxLimit(update.getConsumeThreadNums());
+            }
+        }
+    }
+
+    /**
+     * 暂停单个消费者, 排空在途消息后关闭客户端, 集群消费时由同组其他实例接管
+     *
+     * @param consumerBeanName 消费者beanName
+     */
+    public synchronized void pause(String consumerBeanName) {
+        getManagedConsumer(consumerBeanName).pause();
+        consumerBeanMap.remove(consumerBeanName);
+    }
+
+    /**
+     * 恢复已暂停的消费者, 按暂停前的配置创建新客户端
+     *
+     * @param consumerBeanName 消费者beanName
+     */
+    public synchronized void resume(String consumerBeanName) {
+        consumerBeanMap.put(consumerBeanName, getManagedConsumer(consumerBeanName).resume());
+    }
+
+    /**
+     * 暂停合并订阅中的一个标签, 该标签的消息由服务端延迟重新投递, 同一客户端的其他标签照常消费
+     *
+     * @param consumerBeanName 消费者beanName
+     * @param tag              标签, *表示未单独订阅的标签
+     */
+    public synchronized void pause(String consumerBeanName, String tag) {
+        getManagedConsumer(consumerBeanName).pause(tag);
+    }
+
+    /**
+     * 恢复合并订阅中已暂停的标签
+     *
+     * @param consumerBeanName 消费者beanName
+     * @param tag              标签, *表示未单独订阅的标签
+     */
+    public synchronized void resume(String consumerBeanName, String tag) {
+        getManagedConsumer(consumerBeanName).resume(tag);
+    }
+
+    /**
+     * 全部消费者的当前状态
+     *
+     * @return 消费者beanName与状态
+     */
+    public Map<String, Map<String, Object>> describeConsumers() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        managedConsumerMap.forEach((consumerBeanName, managedConsumer) -> result.put(consumerBeanName, managedConsumer.snapshot()));
+        return result;
+    }
+
+    /**
+     * 单个消费者的当前状态
+     *
+     * @param consumerBeanName 消费者beanName
+     * @return 状态, 不存在时返回空
+     */
+    public Map<String, Object> describeConsumer(String consumerBeanName) {
+        ManagedConsumer managedConsumer = managedConsumerMap.get(consumerBeanName);
+        return managedConsumer == null ? null : managedConsumer.snapshot();
+    }
+
+    private ManagedConsumer getManagedConsumer(String consumerBeanName) {
+        ManagedConsumer managedConsumer = managedConsumerMap.get(consumerBeanName);
+        if (managedConsumer == null) {
+            throw new IllegalArgumentException(String.format("未找到消费者[%s]", consumerBeanName));
+        }
+        return managedConsumer;
+    }
+
+    /**
+     * 构建bean定义, 由可重建消费者创建首个客户端
+     *
+     * @param managedConsumer 可重建消费者
      * @return bean定义
      */
-    private AbstractBeanDefinition buildBeanDefinition(String consumerName, String tag, AliwareMqConsumer consumer) {
-        AliwareMqProperties.Consumer consumerProperties = aliwareMqProperties.getConsumer().get(consumerName);
-        BeanDefinitionBuilder beanDefinitionBuilder = BeanDefinitionBuilder
-                .genericBeanDefinition(ConsumerBean.class, () -> buildConsumerBean(consumer, consumerProperties, tag))
-                .addPropertyValue("properties", buildProperties(consumerProperties))
-                .addPropertyValue("subscriptionTable", buildSubscriptionTable(consumer, consumerProperties, tag));
-        AbstractBeanDefinition beanDefinition = beanDefinitionBuilder.getRawBeanDefinition();
-        return beanDefinition;
+    @SuppressWarnings("unchecked")
+    private AbstractBeanDefinition buildBeanDefinition(ManagedConsumer managedConsumer) {
+        Class<Admin> consumerBeanType = (Class<Admin>) managedConsumer.getConsumerBeanType();
+        return BeanDefinitionBuilder.genericBeanDefinition(consumerBeanType, managedConsumer::newClient).getRawBeanDefinition();
+    }
+
+    /**
+     * 按消费者bean类型创建客户端
+     *
+     * @param consumerBeanType  消费者bean类型
+     * @param properties        消费者配置
+     * @param subscriptionTable 订阅表
+     * @return 消费者bean
+     */
+    @SuppressWarnings("unchecked")
+    private Admin buildClient(Class<? extends Admin> consumerBeanType, Properties properties, Map<Subscription, Object> subscriptionTable) {
+        Map<Subscription, ?> table = subscriptionTable;
+        if (consumerBeanType == BatchConsumerBean.class) {
+            return buildBatchConsumerBean(properties, (Map<Subscription, BatchMessageListener>) table);
+        }
+        if (consumerBeanType == OrderConsumerBean.class) {
+            return buildOrderConsumerBean(properties, (Map<Subscription, MessageOrderListener>) table);
+        }
+        return buildConsumerBean(properties, (Map<Subscription, MessageListener>) table);
     }
 
     /**
      * 创建阿里云消息队列消费者bean
      *
-     * @param consumer           消费者监听
-     * @param consumerProperties 消费者属性
-     * @param tag                标签
+     * @param properties        消费者配置
+     * @param subscriptionTable 订阅表
      * @return 阿里云消息队列消费者bean
      */
-    private ConsumerBean buildConsumerBean(AliwareMqConsumer consumer, AliwareMqProperties.Consumer consumerProperties, String tag) {
-        ConsumerBean consumerBean = new ConsumerBean();
+    private ConsumerBean buildConsumerBean(Properties properties, Map<Subscription, MessageListener> subscriptionTable) {
+        ConsumerBean consumerBean = clientFactory.createConsumer();
         // 构造配置
-        Properties properties = buildProperties(consumerProperties);
         consumerBean.setProperties(properties);
-        Map<Subscription, MessageListener> subscriptionTable = buildSubscriptionTable(consumer, consumerProperties, tag);
         // 注册订阅表
         consumerBean.setSubscriptionTable(subscriptionTable);
         return consumerBean;
     }
 
     /**
-     * 构造订阅表
+     * 创建阿里云消息队列批量消费者bean
+     *
+     * @param properties        消费者配置
+     * @param subscriptionTable 订阅表
+     * @return 阿里云消息队列批量消费者bean
+     */
+    private BatchConsumerBean buildBatchConsumerBean(Properties properties, Map<Subscription, BatchMessageListener> subscriptionTable) {
+        BatchConsumerBean batchConsumerBean = clientFactory.createBatchConsumer();
+        // 构造配置
+        batchConsumerBean.setProperties(properties);
+        // 注册订阅表
+        batchConsumerBean.setSubscriptionTable(subscriptionTable);
+        return batchConsumerBean;
+    }
+
+    /**
+     * 创建阿里云消息队列顺序消费者bean
+     *
+     * @param properties        消费者配置
+     * @param subscriptionTable 订阅表
+     * @return 阿里云消息队列顺序消费者bean
+     */
+    private OrderConsumerBean buildOrderConsumerBean(Properties properties, Map<Subscription, MessageOrderListener> subscriptionTable) {
+        OrderConsumerBean orderConsumerBean = clientFactory.createOrderConsumer();
+        // 构造配置
+        orderConsumerBean.setProperties(properties);
+        // 注册订阅表
+        orderConsumerBean.setSubscriptionTable(subscriptionTable);
+        return orderConsumerBean;
+    }
+
+    /**
+     * 构造顺序订阅表
+     * <p>消费成功返回Success, 失败返回Suspend, 当前分区暂停suspendTimeMillis后重试</p>
+     *
+     * @param consumer           顺序消费者监听
+     * @param consumerProperties 消费者属性
+     * @param tag                标签
+     * @return 订阅表
+     */
+    private Map<Subscription, MessageOrderListener> buildOrderSubscriptionTable(AliwareMqOrderConsumer consumer, AliwareMqProperties.Consumer consumerProperties, String tag) {
+        // 订阅关系
+        Map<Subscription, MessageOrderListener> subscriptionTable = new HashMap<>();
+        Subscription subscription = new Subscription();
+        subscription.setTopic(consumerProperties.getTopic());
+        subscription.setExpression(tag);
+        MessageListener listener = buildMessageListener(consumer, AliwareMqOrderConsumer.class, consumer::onMessage, consumerProperties, tag);
+        subscriptionTable.put(subscription, (message, context) ->
+                Action.CommitMessage == listener.consume(message, null) ? OrderAction.Success : OrderAction.Suspend);
+        return subscriptionTable;
+    }
+
+    /**
+     * 构造消费者的消息监听器
+     * <p>消费者声明过滤表达式或路由时, 解码前按标签、keys和用户属性求值:
+     * 不满足过滤表达式的消息直接提交, 满足路由的消息交给该路由的处理方法, 每个路由各自预先构造解码器</p>
      *
      * @param consumer           消费者监听
      * @param consumerProperties 消费者属性
      * @param tag                标签
+     * @return 消息监听器
+     */
+    @SuppressWarnings("unchecked")
+    private MessageListener buildConsumerListener(AliwareMqConsumer consumer, AliwareMqProperties.Consumer consumerProperties, String tag) {
+        MessageListener listener = buildMessageListener(consumer, AliwareMqConsumer.class, consumer::onMessage, consumerProperties, tag);
+        String filter = consumer.getFilter();
+        List<MessageRoute<Object>> routes = consumer.getRoutes();
+        if (StringUtils.isBlank(filter) && (routes == null || routes.isEmpty())) {
+            return listener;
+        }
+        FilteringListener filteringListener = new FilteringListener(StringUtils.isBlank(filter) ? null : MessageFilter.compile(filter),
+                listener, metrics.consumeMetrics(consumerProperties.getGroup(), consumerProperties.getTopic(), tag));
+        if (routes != null) {
+            routes.forEach(route -> filteringListener.addRoute(route.getFilter(),
+                    buildMessageListener(consumer, AliwareMqConsumer.class, route.getHandler(), consumerProperties, tag)));
+        }
+        return filteringListener;
+    }
+
+    /**
+     * 构造单个标签的消息监听器
+     *
+     * @param subscriber         订阅者
+     * @param subscriberType     订阅者接口类型, 用于解析消息类型
+     * @param handler            消费处理
+     * @param consumerProperties 消费者属性
+     * @param tag                标签
+     * @return 消息监听器
+     */
+    private MessageListener buildMessageListener(AliwareMqSubscriber subscriber, Class<?> subscriberType, Consumer<Object> handler,
+                                                 AliwareMqProperties.Consumer consumerProperties, String tag) {
+        // 解析消费者接收的消息类型, 预先构造解码器
+        DecodePlan decodePlan = buildDecodePlan(subscriber, subscriberType, consumerProperties);
+        return buildMessageListener(decodePlan, msgBody -> {
+            handler.accept(msgBody);
+            return Action.CommitMessage;
+        }, consumerProperties, tag);
+    }
+
+    /**
+     * 构造消息监听器
+     * <p>开启去重时, 重复消息直接提交, 不交给处理函数; 处理失败时释放去重键</p>
+     * <p>开启自适应流控时, 处理前占用并发许可, 处理后按耗时和结果调整并发上限</p>
+     * <p>处理失败时按重试配置本地重试、转入死信或交给服务端重新投递; 去重键和并发许可每次尝试单独占用,
+     * 本地重试退避前释放, 退避时长不计入流控耗时</p>
+     *
+     * @param decodePlan         解码计划
+     * @param handler            处理函数, 返回消费结果
+     * @param consumerProperties 消费者属性
+     * @param tag                标签
+     * @return 消息监听器
+     */
+    private MessageListener buildMessageListener(DecodePlan decodePlan, Function<Object, Action> handler,
+                                                 AliwareMqProperties.Consumer consumerProperties, String tag) {
+        ConsumeMetrics consumeMetrics = metrics.consumeMetrics(consumerProperties.getGroup(), consumerProperties.getTopic(), tag);
+        MessageDeduplicator deduplicator = getDeduplicator(consumerProperties);
+        AdaptiveConcurrencyLimiter limiter = getFlowLimiter(consumerProperties);
+        TieredRetryExecutor retryExecutor = buildRetryExecutor(consumerProperties);
+        HandlerProfile profile = profiler.profile(consumerProperties.getGroup(), consumerProperties.getTopic(), tag);
+        return (message, context) -> {
+            consumeMetrics.recordLag(message.getBornTimestamp());
+            Action action = retryExecutor.execute(Collections.singletonList(message), messages -> {
+                String dedupKey = deduplicator.resolveKey(message);
+                if (dedupKey != null) {
+                    boolean duplicated;
+                    try {
+                        duplicated = !deduplicator.tryAcquire(dedupKey);
+                    } catch (RuntimeException e) {
+                        log.warn("去重检查失败, 稍后重新消费[主题:{},标签:{},消息id:{}]", message.getTopic(), message.getTag(), message.getMsgID(), e);
+                        return Action.ReconsumeLater;
+                    }
+                    consumeMetrics.recordDedup(duplicated);
+                    if (duplicated) {
+                        log.debug("忽略重复消息[主题:{},标签:{},消息id:{},去重键:{}]", message.getTopic(), message.getTag(), message.getMsgID(), dedupKey);
+                        return Action.CommitMessage;
+                    }
+                }
+                if (limiter != null && !acquire(limiter)) {
+                    if (dedupKey != null) {
+                        deduplicator.release(dedupKey);
+                    }
+                    consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_THROTTLED);
+                    return Action.ReconsumeLater;
+                }
+                long startNanos = System.nanoTime();
+                long decodedNanos = startNanos;
+                boolean decoded = false;
+                boolean success = false;
+                try {
+                    Action result;
+                    try {
+                        prepareBody(message, decodePlan);
+                        // 转换为消费者接受的类型, 原始类型不转换
+                        Object msgBody = decodePlan.decode(message);
+                        decodedNanos = System.nanoTime();
+                        decoded = true;
+                        consumeMetrics.recordDecode(decodedNanos - startNanos);
+                        result = handler.apply(msgBody);
+                    } catch (Throwable e) {
+                        // 解码失败时全部耗时计入解码
+                        long failedNanos = System.nanoTime();
+                        if (!decoded) {
+                            decodedNanos = failedNanos;
+                        }
+                        profile.record(message, decodedNanos - startNanos, failedNanos - decodedNanos, false);
+                        throw e;
+                    }
+                    long handledNanos = System.nanoTime();
+                    profile.record(message, decodedNanos - startNanos, handledNanos - decodedNanos, result == Action.CommitMessage);
+                    success = result == Action.CommitMessage;
+                    return result;
+                } finally {
+                    long endNanos = System.nanoTime();
+                    // 处理失败时同样记录处理耗时
+                    if (decoded) {
+                        consumeMetrics.recordHandle(endNanos - decodedNanos);
+                    }
+                    if (limiter != null) {
+                        limiter.release(endNanos - startNanos, success);
+                    }
+                    if (!success && dedupKey != null) {
+                        deduplicator.release(dedupKey);
+                    }
+                }
+            }, consumeMetrics);
+            if (action == Action.CommitMessage) {
+                consumeMetrics.recordCommit(1);
+            } else {
+                consumeMetrics.recordReconsume(1);
+            }
+            return action;
+        };
+    }
+
+    /**
+     * 准备消息体: 读取引用的大消息体, 再解压
+     * <p>接收原始Message的消费者不自动读取引用消息, 由消费者按需通过ClaimCheckResolver读取</p>
+     *
+     * @param message    消息
+     * @param decodePlan 解码计划
+     */
+    private void prepareBody(Message message, DecodePlan decodePlan) {
+        if (claimCheckResolver != null && claimCheckResolver.isClaimCheck(message)) {
+            if (decodePlan.isOriginMessage()) {
+                return;
+            }
+            claimCheckResolver.fetch(message);
+        }
+        if (compressorRegistry != null) {
+            compressorRegistry.decompress(message);
+        }
+    }
+
+    /**
+     * 构造分级重试执行器
+     *
+     * @param consumerProperties 消费者属性
+     * @return 重试执行器
+     */
+    private TieredRetryExecutor buildRetryExecutor(AliwareMqProperties.Consumer consumerProperties) {
+        AliwareMqProperties.Retry retry = consumerProperties.getRetry();
+        ExceptionClassifier classifier = exceptionClassifier != null
+                ? exceptionClassifier : new ConfigurableExceptionClassifier(retry.getFatalExceptions(), retry.getBrokerExceptions());
+        DeadLetterHandler handler = deadLetterHandler;
+        if (handler == null && StringUtils.isNotEmpty(retry.getDeadLetterTopic())) {
+            if (deadLetterProducer == null) {
+                throw new IllegalStateException(String.format("消费者组[%s]配置了死信主题[%s], 未找到死信生产者",
+                        consumerProperties.getGroup(), retry.getDeadLetterTopic()));
+            }
+            handler = new TopicDeadLetterHandler(deadLetterProducer, retry.getDeadLetterTopic());
+        }
+        return new TieredRetryExecutor(retry, classifier, handler);
+    }
+
+    /**
+     * 获取自适应流控并发限制, 同一消费者组和主题共用
+     * <p>最大并发数: 在客户端线程中处理时为消费线程数, 分发到执行器时为dispatch.maxConcurrency</p>
+     * <p>持续过载进入暂停状态时暂停该消费者组和主题的客户端, 暂停时长到期后恢复; 客户端暂停期间不拉取消息,
+     * 服务端不会因本地流控增加消息的重试次数</p>
+     *
+     * @param consumerProperties 消费者属性
+     * @return 并发限制, 未开启流控时返回空
+     */
+    private AdaptiveConcurrencyLimiter getFlowLimiter(AliwareMqProperties.Consumer consumerProperties) {
+        AliwareMqProperties.FlowControl flowControl = consumerProperties.getFlowControl();
+        if (!flowControl.isEnabled()) {
+            return null;
+        }
+        String name = consumerProperties.getGroup() + "@" + consumerProperties.getTopic();
+        return flowLimiterMap.computeIfAbsent(name, key -> {
+            AliwareMqProperties.Dispatch dispatch = consumerProperties.getDispatch();
+            int maxLimit = dispatch.getMode() == AliwareMqProperties.DispatchMode.CLIENT
+                    ? consumerProperties.getConsumeThreadNums() : dispatch.getMaxConcurrency();
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(key, flowControl, maxLimit);
+            limiter.setSuspendListener(() -> suspendConsumers(consumerProperties, limiter));
+            metrics.bindFlowControl(consumerProperties.getGroup(), consumerProperties.getTopic(), limiter);
+            return limiter;
+        });
+    }
+
+    /**
+     * 流控暂停: 异步暂停同一消费者组和主题下正在运行的客户端, suspendMillis后恢复这些客户端和并发限制
+     * <p>已被手动暂停的客户端不处理, 到期后也不恢复</p>
+     *
+     * @param consumerProperties 消费者属性
+     * @param limiter            并发限制
+     */
+    private void suspendConsumers(AliwareMqProperties.Consumer consumerProperties, AdaptiveConcurrencyLimiter limiter) {
+        ScheduledExecutorService scheduler = flowControlScheduler();
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.execute(() -> {
+            List<String> suspended = new ArrayList<>();
+            for (ManagedConsumer managedConsumer : managedConsumerMap.values()) {
+                AliwareMqProperties.Consumer properties = managedConsumer.getConsumerProperties();
+                if (managedConsumer.isPaused() || !Objects.equals(properties.getGroup(), consumerProperties.getGroup())
+                        || !Objects.equals(properties.getTopic(), consumerProperties.getTopic())) {
+                    continue;
+                }
+                try {
+                    pause(managedConsumer.getConsumerBeanName());
+                    suspended.add(managedConsumer.getConsumerBeanName());
+                } catch (RuntimeException e) {
+                    log.error("消费者[{}]流控暂停失败", managedConsumer.getConsumerBeanName(), e);
+                }
+            }
+            scheduler.schedule(() -> {
+                for (String consumerBeanName : suspended) {
+                    try {
+                        resume(consumerBeanName);
+                    } catch (RuntimeException e) {
+                        log.error("消费者[{}]流控暂停到期后恢复失败", consumerBeanName, e);
+                    }
+                }
+                limiter.resume();
+            }, consumerProperties.getFlowControl().getSuspendMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 流控暂停和恢复线程, 首次暂停时创建
+     * <p>在消费线程中调用, 不使用注册器的锁: 暂停消费者时持有注册器的锁并等待在途消息处理完成</p>
+     *
+     * @return 调度线程池
+     */
+    private ScheduledExecutorService flowControlScheduler() {
+        synchronized (flowLimiterMap) {
+            if (flowControlScheduler == null) {
+                CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aliwaremq-flowcontrol-");
+                threadFactory.setDaemon(true);
+                flowControlScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            }
+            return flowControlScheduler;
+        }
+    }
+
+    /**
+     * 占用流控并发许可, 不长时间占住客户端消费线程
+     *
+     * @param limiter 并发限制
+     * @return 是否占用成功, 等待超时或等待时被中断返回false, 调用方返回ReconsumeLater
+     */
+    private boolean acquire(AdaptiveConcurrencyLimiter limiter) {
+        try {
+            return limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 获取消费去重器, 同一消费者组和主题共用
+     *
+     * @param consumerProperties 消费者属性
+     * @return 去重器, 未开启去重时返回{@link MessageDeduplicator#DISABLED}
+     */
+    private MessageDeduplicator getDeduplicator(AliwareMqProperties.Consumer consumerProperties) {
+        AliwareMqProperties.Dedup dedup = consumerProperties.getDedup();
+        if (!dedup.isEnabled()) {
+            return MessageDeduplicator.DISABLED;
+        }
+        String namespace = consumerProperties.getGroup() + "@" + consumerProperties.getTopic();
+        return deduplicatorMap.computeIfAbsent(namespace, key -> new MessageDeduplicator(key, dedup.getKey(),
+                dedup.getPropertyName(), new LocalDedupStore(dedup.getCapacity()), remoteDedupStore, dedup.getTtlMillis()));
+    }
+
+    /**
+     * 构造批量订阅表
+     * <p>整批消息先全部转换再交给消费者, 任意一条转换或处理失败, 整批重试或重新消费; 需要转入死信时逐条重新消费,
+     * 只有失败的消息转入死信</p>
+     *
+     * @param consumer           批量消费者监听
+     * @param consumerProperties 消费者属性
+     * @param tag                标签
      * @return 订阅表
      */
-    private Map<Subscription, MessageListener> buildSubscriptionTable(AliwareMqConsumer consumer, AliwareMqProperties.Consumer consumerProperties, String tag) {
+    private Map<Subscription, BatchMessageListener> buildBatchSubscriptionTable(AliwareMqBatchConsumer consumer, AliwareMqProperties.Consumer consumerProperties, String tag) {
         // 订阅关系
-        Map<Subscription, MessageListener> subscriptionTable = new HashMap<>();
+        Map<Subscription, BatchMessageListener> subscriptionTable = new HashMap<>();
         Subscription subscription = new Subscription();
         subscription.setTopic(consumerProperties.getTopic());
         subscription.setExpression(tag);
-        // 获取消费者接收的消息类型
-        Class messageType = getMessageType(consumer);
-        // 判断是否是mq消息原始类型
-        boolean isOriginMsg = Message.class.equals(messageType);
-        subscriptionTable.put(subscription, (message, context) -> {
-            try {
-                if (isOriginMsg) {
-                    // 消费者接受原始类型, 不转换
-                    consumer.onMessage(message);
-                } else {
-                    // 转换为消费者接受的原始类型
-                    Object msgBody = convert(message, messageType);
-                    consumer.onMessage(msgBody);
+        // 解析消费者接收的消息类型, 预先构造解码器
+        DecodePlan decodePlan = buildDecodePlan(consumer, AliwareMqBatchConsumer.class, consumerProperties);
+        ConsumeMetrics consumeMetrics = metrics.consumeMetrics(consumerProperties.getGroup(), consumerProperties.getTopic(), tag);
+        MessageDeduplicator deduplicator = getDeduplicator(consumerProperties);
+        AdaptiveConcurrencyLimiter limiter = getFlowLimiter(consumerProperties);
+        TieredRetryExecutor retryExecutor = buildRetryExecutor(consumerProperties);
+        HandlerProfile profile = profiler.profile(consumerProperties.getGroup(), consumerProperties.getTopic(), tag);
+        subscriptionTable.put(subscription, (batch, context) -> {
+            for (Message message : batch) {
+                consumeMetrics.recordLag(message.getBornTimestamp());
+            }
+            Action action = retryExecutor.execute(batch, attempted -> {
+                // 开启去重时剔除重复消息, 记录本次占用的去重键, 失败时释放
+                List<String> dedupKeys = deduplicator == MessageDeduplicator.DISABLED ? Collections.emptyList() : new ArrayList<>(attempted.size());
+                List<Message> messages;
+                try {
+                    messages = deduplicator == MessageDeduplicator.DISABLED ? attempted : dedup(attempted, deduplicator, consumeMetrics, dedupKeys);
+                } catch (RuntimeException e) {
+                    log.warn("去重检查失败, 稍后重新消费整批消息, 消息数:{}", attempted.size(), e);
+                    return Action.ReconsumeLater;
+                }
+                if (messages.isEmpty()) {
+                    return Action.CommitMessage;
                 }
-                return Action.CommitMessage;
-            } catch (Exception e) {
-                log.error("消费[主题:{},标签:{},消息id:{}]消息发生异常", message.getTopic(), message.getTag(), message.getMsgID(), e);
-                return Action.ReconsumeLater;
+                if (limiter != null && !acquire(limiter)) {
+                    dedupKeys.forEach(deduplicator::release);
+                    consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_THROTTLED);
+                    return Action.ReconsumeLater;
+                }
+                long beginNanos = System.nanoTime();
+                long startNanos = beginNanos;
+                boolean handling = false;
+                boolean success = false;
+                try {
+                    try {
+                        for (Message message : messages) {
+                            prepareBody(message, decodePlan);
+                        }
+                        if (decodePlan.isOriginMessage()) {
+                            // 消费者接受原始类型, 不转换
+                            handling = true;
+                            consumer.onMessage(messages);
+                        } else {
+                            // 整批转换为消费者接受的类型
+                            List<Object> msgBodies = new ArrayList<>(messages.size());
+                            for (Message message : messages) {
+                                msgBodies.add(decodePlan.decode(message));
+                            }
+                            long decodedNanos = System.nanoTime();
+                            consumeMetrics.recordDecode(decodedNanos - startNanos);
+                            startNanos = decodedNanos;
+                            handling = true;
+                            consumer.onMessage(msgBodies);
+                        }
+                    } catch (Throwable e) {
+                        profile.record(messages, startNanos - beginNanos, System.nanoTime() - startNanos, false);
+                        throw e;
+                    }
+                    long handledNanos = System.nanoTime();
+                    profile.record(messages, startNanos - beginNanos, handledNanos - startNanos, true);
+                    success = true;
+                    return Action.CommitMessage;
+                } finally {
+                    long endNanos = System.nanoTime();
+                    // 处理失败时同样记录处理耗时
+                    if (handling) {
+                        consumeMetrics.recordHandle(endNanos - startNanos);
+                    }
+                    if (limiter != null) {
+                        limiter.release(endNanos - beginNanos, success);
+                    }
+                    if (!success) {
+                        dedupKeys.forEach(deduplicator::release);
+                    }
+                }
+            }, consumeMetrics);
+            if (action == Action.CommitMessage) {
+                consumeMetrics.recordCommit(batch.size());
+            } else {
+                consumeMetrics.recordReconsume(batch.size());
             }
+            return action;
         });
         return subscriptionTable;
     }
 
+    /**
+     * 剔除批内重复消息
+     *
+     * @param batch          一批消息
+     * @param deduplicator   去重器
+     * @param consumeMetrics 消费指标
+     * @param dedupKeys      输出参数, 本批占用的去重键
+     * @return 去重后的消息
+     * @throws RuntimeException 去重存储不可用, 此时本批已占用的去重键已释放
+     */
+    private List<Message> dedup(List<Message> batch, MessageDeduplicator deduplicator, ConsumeMetrics consumeMetrics, List<String> dedupKeys) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (Message message : batch) {
+            String dedupKey = deduplicator.resolveKey(message);
+            if (dedupKey == null) {
+                messages.add(message);
+                continue;
+            }
+            boolean duplicated;
+            try {
+                duplicated = !deduplicator.tryAcquire(dedupKey);
+            } catch (RuntimeException e) {
+                dedupKeys.forEach(deduplicator::release);
+                throw e;
+            }
+            consumeMetrics.recordDedup(duplicated);
+            if (duplicated) {
+                log.debug("忽略重复消息[主题:{},标签:{},消息id:{},去重键:{}]", message.getTopic(), message.getTag(), message.getMsgID(), dedupKey);
+            } else {
+                messages.add(message);
+                dedupKeys.add(dedupKey);
+            }
+        }
+        return messages;
+    }
+
     /**
      * 构造消费者配置
      *
@@ -196,50 +1208,41 @@ public class AliwareMqConsumerRegistry implements ApplicationContextAware {
     }
 
     /**
-     * 消息体类型转换
+     * 构造批量消费者配置
+     *
+     * @param consumer 消费者配置
+     * @return 消费者配置
+     */
+    private Properties buildBatchProperties(AliwareMqProperties.Consumer consumer) {
+        Properties properties = buildProperties(consumer);
+        setProperty(properties, PropertyKeyConst.ConsumeMessageBatchMaxSize, String.valueOf(consumer.getConsumeMessageBatchMaxSize()));
+        setProperty(properties, BATCH_CONSUME_MAX_AWAIT_DURATION_IN_SECONDS, String.valueOf(consumer.getBatchConsumeMaxAwaitDurationInSeconds()));
+        return properties;
+    }
+
+    /**
+     * 构造解码计划
      *
-     * @param message 消息
-     * @param clazz   类型
-     * @return 消息体
+     * @param consumer           消费者监听
+     * @param consumerInterface  消费者接口类型, AliwareMqConsumer、AliwareMqBatchConsumer或AliwareMqOrderConsumer
+     * @param consumerProperties 消费者属性
+     * @return 解码计划
      */
-    private Object convert(Message message, Class clazz) {
-        String body = new String(message.getBody());
-        return gson.fromJson(body, clazz);
+    private DecodePlan buildDecodePlan(AliwareMqSubscriber consumer, Class<?> consumerInterface, AliwareMqProperties.Consumer consumerProperties) {
+        return buildDecodePlan(MessageTypeResolver.resolve(consumer, consumerInterface), consumerProperties);
     }
 
     /**
-     * 获取消费者监听程序接收的消息类型
+     * 构造解码计划
      *
-     * @param consumer 消费者处理程序
-     * @param <T>      消息类型泛型
-     * @return 消息类型
+     * @param messageType        消息类型
+     * @param consumerProperties 消费者属性
+     * @return 解码计划
      */
-    private <T> Class getMessageType(AliwareMqConsumer<T> consumer) {
-        Class<?> targetClass = AopProxyUtils.ultimateTargetClass(consumer);
-        Type[] interfaces = targetClass.getGenericInterfaces();
-        Class<?> superclass = targetClass.getSuperclass();
-        while ((Objects.isNull(interfaces) || 0 == interfaces.length) && Objects.nonNull(superclass)) {
-            interfaces = superclass.getGenericInterfaces();
-            superclass = targetClass.getSuperclass();
-        }
-        if (Objects.nonNull(interfaces)) {
-            for (Type type : interfaces) {
-                if (type instanceof ParameterizedType) {
-                    ParameterizedType parameterizedType = (ParameterizedType) type;
-                    if (Objects.equals(parameterizedType.getRawType(), AliwareMqConsumer.class)) {
-                        Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
-                        if (Objects.nonNull(actualTypeArguments) && actualTypeArguments.length > 0) {
-                            return (Class) actualTypeArguments[0];
-                        } else {
-                            return Object.class;
-                        }
-                    }
-                }
-            }
-            return Object.class;
-        } else {
-            return Object.class;
-        }
+    private DecodePlan buildDecodePlan(Type messageType, AliwareMqProperties.Consumer consumerProperties) {
+        // 消息未记录编解码器时使用的编解码器
+        MessageCodec fallbackCodec = messageCodecRegistry.getCodec(consumerProperties.getCodec());
+        return new DecodePlan(messageType, messageCodecRegistry, fallbackCodec);
     }
 
     private void setProperty(Properties property, String key, String value) {
@@ -248,4 +1251,19 @@ public class AliwareMqConsumerRegistry implements ApplicationContextAware {
         }
         property.setProperty(key, value);
     }
+
+    /**
+     * 待合并注册的订阅
+     */
+    private static class MultiplexedSubscription {
+        private final String consumerName;
+        private final AliwareMqProperties.Consumer consumerProperties;
+        private final TagDispatchListener listener = new TagDispatchListener();
+        private final List<String> listenerBeanNames = new ArrayList<>();
+
+        private MultiplexedSubscription(String consumerName, AliwareMqProperties.Consumer consumerProperties) {
+            this.consumerName = consumerName;
+            this.consumerProperties = consumerProperties;
+        }
+    }
 }
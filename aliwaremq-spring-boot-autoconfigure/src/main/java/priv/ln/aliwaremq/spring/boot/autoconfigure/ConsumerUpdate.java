@@ -0,0 +1,36 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import lombok.Data;
+
+/**
+ * 消费者运行时调整的配置
+ * <p>为空的配置项保持不变, 见{@link AliwareMqConsumerRegistry#reconfigure(String, ConsumerUpdate)}</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Data
+public class ConsumerUpdate {
+    /**
+     * 消费线程数
+     */
+    private Integer consumeThreadNums;
+    /**
+     * 客户端本地缓存的最大消息数
+     */
+    private Integer maxCachedMessageAmount;
+    /**
+     * 客户端本地缓存的最大消息大小, 单位:MiB
+     */
+    private Integer maxCachedMessageSizeInMiB;
+    /**
+     * 批量消费的最大消息数, 仅批量拉取的消费者有效
+     */
+    private Integer consumeMessageBatchMaxSize;
+    /**
+     * 订阅表达式, 如TagA || TagB
+     * <p>合并订阅的消费者只能订阅已注册监听的标签, 已注册*监听时不限制</p>
+     */
+    private String expression;
+}
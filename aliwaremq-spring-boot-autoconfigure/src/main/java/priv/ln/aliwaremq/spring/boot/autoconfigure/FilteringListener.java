@@ -0,0 +1,66 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.ConsumeContext;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import priv.ln.aliwaremq.spring.boot.filter.MessageFilter;
+import priv.ln.aliwaremq.spring.boot.metrics.ConsumeMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按过滤表达式和路由分发的消息监听器
+ * <p>只读取标签、keys和用户属性, 在去重和解码前执行: 不满足过滤表达式的消息直接提交</p>
+ * <p>满足时按顺序匹配路由, 交给首个满足的路由监听器, 均不满足时交给默认监听器</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+class FilteringListener implements MessageListener {
+    private final MessageFilter filter;
+    private final MessageListener defaultListener;
+    private final ConsumeMetrics consumeMetrics;
+    private final List<MessageFilter> routeFilters = new ArrayList<>();
+    private final List<MessageListener> routeListeners = new ArrayList<>();
+
+    /**
+     * @param filter          过滤表达式, 为空时不过滤
+     * @param defaultListener 默认监听器
+     * @param consumeMetrics  消费指标
+     */
+    FilteringListener(MessageFilter filter, MessageListener defaultListener, ConsumeMetrics consumeMetrics) {
+        this.filter = filter;
+        this.defaultListener = defaultListener;
+        this.consumeMetrics = consumeMetrics;
+    }
+
+    /**
+     * 添加路由, 按添加顺序匹配
+     *
+     * @param routeFilter 路由表达式
+     * @param listener    路由监听器
+     */
+    void addRoute(MessageFilter routeFilter, MessageListener listener) {
+        routeFilters.add(routeFilter);
+        routeListeners.add(listener);
+    }
+
+    @Override
+    public Action consume(Message message, ConsumeContext context) {
+        // 只有路由时全部消息视为满足, 过滤指标同样覆盖
+        boolean passed = filter == null || filter.matches(message);
+        consumeMetrics.recordFilter(passed);
+        if (!passed) {
+            return Action.CommitMessage;
+        }
+        for (int i = 0; i < routeFilters.size(); i++) {
+            if (routeFilters.get(i).matches(message)) {
+                return routeListeners.get(i).consume(message, context);
+            }
+        }
+        return defaultListener.consume(message, context);
+    }
+}
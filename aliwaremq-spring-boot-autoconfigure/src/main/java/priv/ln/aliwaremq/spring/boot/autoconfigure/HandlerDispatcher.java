@@ -0,0 +1,240 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 消费处理分发器
+ * <p>将一批消息逐条交给执行器并发处理, 同时执行的处理数量受信号量限制, 达到上限时客户端消费线程等待, 形成背压</p>
+ * <p>客户端只能整批提交或整批重新投递: 批内有消息失败时整批重新投递, 同时记住批内已成功的消息id,
+ * 重新投递到本实例时跳过, 只重新处理失败的消息; 已成功的消息id保留到所在批次提交为止. 跨实例避免重复处理需开启消费去重</p>
+ * <p>整批等待不超过超时时长, 超时未完成的处理被取消(中断); 许可在处理实际结束时释放, 忽略中断的处理返回前一直占用许可,
+ * 同时执行的处理数量不会超过上限</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+class HandlerDispatcher {
+    /**
+     * 已成功消息的保留时长, 覆盖服务端默认16次重试的最大间隔
+     */
+    private static final long COMPLETED_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(2);
+    /**
+     * 已成功消息的最大保留数量
+     */
+    private static final int MAX_COMPLETED = 100000;
+
+    private final String consumerName;
+    private final Executor executor;
+    /**
+     * 由分发器创建并负责关闭的执行器, 使用外部执行器时为空
+     */
+    private final ExecutorService ownedExecutor;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    /**
+     * 所在批次重新投递但自身已成功的消息, key为消息id, value为过期时间戳, 按插入顺序过期
+     */
+    private final Map<String, Long> completed = new LinkedHashMap<>();
+
+    HandlerDispatcher(String consumerName, Executor executor, boolean owned, int maxConcurrency, long timeoutMillis) {
+        this.consumerName = consumerName;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * 分发一批消息
+     *
+     * @param messages 消息
+     * @param listener 单条消息监听器
+     * @return 全部提交时返回CommitMessage, 否则返回ReconsumeLater
+     */
+    Action dispatch(List<Message> messages, MessageListener listener) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        List<DispatchTask> tasks = new ArrayList<>(messages.size());
+        boolean failed = false;
+        try {
+            for (Message message : messages) {
+                if (isCompleted(message.getMsgID())) {
+                    continue;
+                }
+                if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    failed = true;
+                    break;
+                }
+                DispatchTask task = new DispatchTask(message, listener);
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    log.error("消费者[{}]分发消息被执行器拒绝[消息id:{}]", consumerName, message.getMsgID(), e);
+                    failed = true;
+                    break;
+                }
+                tasks.add(task);
+            }
+            for (DispatchTask task : tasks) {
+                if (await(task, deadline) != Action.CommitMessage) {
+                    failed = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(task -> task.cancel(true));
+            failed = true;
+        }
+        if (!failed) {
+            forgetCompleted(messages);
+            return Action.CommitMessage;
+        }
+        int succeeded = rememberCompleted(tasks);
+        log.warn("消费者[{}]批内消息处理失败, 整批重新投递, 消息数:{}, 已成功:{}", consumerName, messages.size(), succeeded);
+        return Action.ReconsumeLater;
+    }
+
+    /**
+     * 等待单条消息处理完成, 超时则取消
+     *
+     * @param task     处理任务
+     * @param deadline 截止时间, 单位:纳秒
+     * @return 消费结果
+     * @throws InterruptedException 客户端消费线程被中断
+     */
+    private Action await(DispatchTask task, long deadline) throws InterruptedException {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            log.error("消费者[{}]处理消息超时, 已取消[消息id:{}]", consumerName, task.message.getMsgID());
+        } catch (ExecutionException e) {
+            log.error("消费者[{}]处理消息失败[消息id:{}]", consumerName, task.message.getMsgID(), e.getCause());
+        }
+        return Action.ReconsumeLater;
+    }
+
+    /**
+     * 记住批内已成功的消息
+     *
+     * @param tasks 处理任务
+     * @return 已成功的消息数
+     */
+    private int rememberCompleted(List<DispatchTask> tasks) {
+        long expireAt = System.currentTimeMillis() + COMPLETED_RETENTION_MILLIS;
+        int succeeded = 0;
+        synchronized (completed) {
+            for (DispatchTask task : tasks) {
+                if (task.isSucceeded() && task.message.getMsgID() != null) {
+                    completed.put(task.message.getMsgID(), expireAt);
+                    succeeded++;
+                }
+            }
+            // 按插入顺序淘汰过期或超出数量上限的记录
+            Iterator<Map.Entry<String, Long>> iterator = completed.entrySet().iterator();
+            long now = System.currentTimeMillis();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (completed.size() <= MAX_COMPLETED && entry.getValue() >= now) {
+                    break;
+                }
+                iterator.remove();
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * 消息是否已在之前的投递中成功, 命中后保留, 直到所在批次提交
+     *
+     * @param msgId 消息id
+     * @return 已成功且未过期时返回true
+     */
+    private boolean isCompleted(String msgId) {
+        if (msgId == null) {
+            return false;
+        }
+        synchronized (completed) {
+            if (completed.isEmpty()) {
+                return false;
+            }
+            Long expireAt = completed.get(msgId);
+            return expireAt != null && expireAt >= System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 批次提交后移除批内消息的成功记录
+     *
+     * @param messages 消息
+     */
+    private void forgetCompleted(List<Message> messages) {
+        synchronized (completed) {
+            if (completed.isEmpty()) {
+                return;
+            }
+            for (Message message : messages) {
+                if (message.getMsgID() != null) {
+                    completed.remove(message.getMsgID());
+                }
+            }
+        }
+    }
+
+    void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 单条消息的处理任务, 执行结束时释放许可; 执行前已取消的任务在执行器调度到时释放
+     */
+    private class DispatchTask extends FutureTask<Action> {
+        private final Message message;
+
+        private DispatchTask(Message message, MessageListener listener) {
+            super(() -> listener.consume(message, null));
+            this.message = message;
+        }
+
+        private boolean isSucceeded() {
+            if (!isDone() || isCancelled()) {
+                return false;
+            }
+            try {
+                return get() == Action.CommitMessage;
+            } catch (InterruptedException | ExecutionException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Admin;
+import com.aliyun.openservices.ons.api.MessageListener;
+import com.aliyun.openservices.ons.api.PropertyKeyConst;
+import com.aliyun.openservices.ons.api.batch.BatchMessageListener;
+import com.aliyun.openservices.ons.api.bean.BatchConsumerBean;
+import com.aliyun.openservices.ons.api.bean.Subscription;
+import com.aliyun.openservices.ons.api.order.MessageOrderListener;
+import com.aliyun.openservices.ons.api.order.OrderAction;
+import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 可在运行时重建、暂停和恢复的消费者
+ * <p>保存消费者bean的配置和原始订阅表, 每次创建客户端时用独立的在途计数包装监听器, 每个客户端称为一代</p>
+ * <p>重建时先排空旧一代, 再启动新一代: 旧客户端不再把新消息交给监听器, 等待在途消息处理完成或超时后关闭并注销,
+ * 之后新客户端才加入消费者组, 避免新旧客户端在排空期间分走彼此的队列。
+ * 旧客户端已拉取未处理的消息不提交位点, 由重新均衡后的客户端重新投递, 不丢消息; 排空期间本实例暂停消费</p>
+ * <p>暂停即排空并关闭当前客户端, 同组其他实例接管其队列; 恢复时按暂停前的配置创建新一代客户端</p>
+ * <p>合并订阅可按标签暂停: 客户端不变, 该标签的消息返回ReconsumeLater由服务端延迟重新投递, 其他标签照常消费。
+ * 暂停时长超过服务端最大重试次数对应的时长时消息转入死信, 长时间暂停应暂停整个消费者</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+class ManagedConsumer {
+    private static final String TAG_SEPARATOR = "\\|\\|";
+    private static final long DRAIN_POLL_MILLIS = 10;
+    /**
+     * 当前进程号, 同一主机上多个进程的实例名互不相同
+     */
+    private static final String PID = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+
+    private final String consumerBeanName;
+    private final AliwareMqProperties.Consumer consumerProperties;
+    private final Class<? extends Admin> consumerBeanType;
+    private final Map<Subscription, Object> subscriptionTable;
+    /**
+     * 合并订阅的标签分发监听器, 用于校验订阅表达式, 未合并订阅时为空
+     */
+    private final TagDispatchListener router;
+    private final BiFunction<Properties, Map<Subscription, Object>, Admin> clientFactory;
+    private volatile Properties properties;
+    private volatile String expression;
+    private volatile Generation current;
+    private volatile boolean paused;
+    /**
+     * 暂停前客户端是否已启动, 恢复时据此决定是否启动新客户端
+     */
+    private boolean startOnResume;
+    private int generations;
+
+    /**
+     * @param consumerBeanName   消费者beanName
+     * @param consumerProperties 消费者属性
+     * @param consumerBeanType   消费者bean类型, ConsumerBean、BatchConsumerBean或OrderConsumerBean
+     * @param properties         客户端配置
+     * @param subscriptionTable  订阅表, 监听器为MessageListener、BatchMessageListener或MessageOrderListener
+     * @param router             合并订阅的标签分发监听器, 未合并订阅时为空
+     * @param clientFactory      按配置和订阅表创建客户端
+     */
+    ManagedConsumer(String consumerBeanName, AliwareMqProperties.Consumer consumerProperties, Class<? extends Admin> consumerBeanType,
+                    Properties properties, Map<Subscription, ?> subscriptionTable, TagDispatchListener router,
+                    BiFunction<Properties, Map<Subscription, Object>, Admin> clientFactory) {
+        this.consumerBeanName = consumerBeanName;
+        this.consumerProperties = consumerProperties;
+        this.consumerBeanType = consumerBeanType;
+        this.properties = properties;
+        this.subscriptionTable = new HashMap<>(subscriptionTable);
+        this.expression = subscriptionTable.keySet().iterator().next().getExpression();
+        this.router = router;
+        this.clientFactory = clientFactory;
+    }
+
+    String getConsumerBeanName() {
+        return consumerBeanName;
+    }
+
+    AliwareMqProperties.Consumer getConsumerProperties() {
+        return consumerProperties;
+    }
+
+    Class<? extends Admin> getConsumerBeanType() {
+        return consumerBeanType;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * 当前客户端, 重建失败时为恢复后的客户端
+     *
+     * @return 客户端
+     */
+    Admin getClient() {
+        return current.client;
+    }
+
+    /**
+     * 创建新一代客户端, 不启动
+     *
+     * @return 客户端
+     */
+    synchronized Admin newClient() {
+        Generation next = new Generation(generations++);
+        Properties clientProperties = new Properties();
+        clientProperties.putAll(properties);
+        if (next.id > 0) {
+            // 每代客户端使用独立实例名, 不复用已关闭客户端的实例
+            clientProperties.setProperty(PropertyKeyConst.InstanceName,
+                    String.format("aliwaremq-%s-%x-%d", PID, consumerBeanName.hashCode(), next.id));
+        }
+        Map<Subscription, Object> table = new HashMap<>();
+        subscriptionTable.forEach((subscription, listener) -> {
+            Subscription copy = new Subscription();
+            copy.setTopic(subscription.getTopic());
+            copy.setExpression(expression);
+            table.put(copy, next.track(listener));
+        });
+        next.client = clientFactory.apply(clientProperties, table);
+        current = next;
+        return next.client;
+    }
+
+    /**
+     * 按新配置重建客户端, 先排空并关闭原客户端, 原客户端已启动时再启动新客户端
+     * <p>新客户端启动失败时按原配置再创建一代并启动, 然后抛出异常</p>
+     *
+     * @param update 调整的配置
+     * @return 新客户端
+     */
+    synchronized Admin reconfigure(ConsumerUpdate update) {
+        if (paused) {
+            throw new IllegalStateException(String.format("消费者[%s]已暂停, 恢复后再调整配置", consumerBeanName));
+        }
+        Properties previousProperties = properties;
+        String previousExpression = expression;
+        Generation previous = current;
+        if (update.getExpression() != null) {
+            validateExpression(update.getExpression());
+        }
+        properties = merge(previousProperties, update);
+        expression = update.getExpression() != null ? update.getExpression() : previousExpression;
+        boolean started = previous.client.isStarted();
+        Admin client;
+        try {
+            client = newClient();
+        } catch (RuntimeException e) {
+            properties = previousProperties;
+            expression = previousExpression;
+            current = previous;
+            throw e;
+        }
+        // 旧客户端注销后同组重新均衡, 新客户端加入时不与旧客户端分队列
+        drain(previous);
+        if (started) {
+            try {
+                client.start();
+            } catch (RuntimeException e) {
+                client.shutdown();
+                properties = previousProperties;
+                expression = previousExpression;
+                try {
+                    newClient().start();
+                    log.warn("重建消息队列消费者失败, 已按原配置恢复, 消费者beanName:{}, 第{}代", consumerBeanName, current.id);
+                } catch (RuntimeException restoreException) {
+                    e.addSuppressed(restoreException);
+                }
+                throw e;
+            }
+        }
+        log.info("重建消息队列消费者, 消费者beanName:{}, 第{}代, 订阅表达式:{}", consumerBeanName, current.id, expression);
+        return client;
+    }
+
+    /**
+     * 暂停合并订阅中的一个标签, 客户端不变
+     *
+     * @param tag 标签, *表示未单独订阅的标签
+     */
+    synchronized void pause(String tag) {
+        requireRoute(tag).pause(tag);
+        log.info("暂停消息队列消费者标签, 消费者beanName:{}, 标签:{}", consumerBeanName, tag);
+    }
+
+    /**
+     * 恢复合并订阅中已暂停的标签
+     *
+     * @param tag 标签, *表示未单独订阅的标签
+     */
+    synchronized void resume(String tag) {
+        requireRoute(tag).resume(tag);
+        log.info("恢复消息队列消费者标签, 消费者beanName:{}, 标签:{}", consumerBeanName, tag);
+    }
+
+    private TagDispatchListener requireRoute(String tag) {
+        if (router == null) {
+            throw new IllegalArgumentException(String.format("消费者[%s]未合并订阅, 只能暂停整个消费者", consumerBeanName));
+        }
+        if (!router.hasRoute(tag)) {
+            throw new IllegalArgumentException(String.format("消费者[%s]未注册标签[%s]的监听", consumerBeanName, tag));
+        }
+        return router;
+    }
+
+    /**
+     * 暂停消费, 排空并关闭当前客户端
+     */
+    synchronized void pause() {
+        if (paused) {
+            return;
+        }
+        paused = true;
+        startOnResume = current.client.isStarted();
+        drain(current);
+        log.info("暂停消息队列消费者, 消费者beanName:{}", consumerBeanName);
+    }
+
+    /**
+     * 恢复消费, 创建新一代客户端
+     *
+     * @return 新客户端
+     */
+    synchronized Admin resume() {
+        if (!paused) {
+            return current.client;
+        }
+        Admin client = newClient();
+        if (startOnResume) {
+            client.start();
+        }
+        paused = false;
+        log.info("恢复消息队列消费者, 消费者beanName:{}", consumerBeanName);
+        return client;
+    }
+
+    /**
+     * 排空客户端: 不再接收新消息, 等待在途消息处理完成或超时后关闭
+     * <p>排空期间新到达的消息阻塞到客户端关闭后返回, 客户端已丢弃其处理队列, 消息不提交位点也不发回重试</p>
+     *
+     * @param generation 待排空的一代
+     */
+    private void drain(Generation generation) {
+        generation.draining = true;
+        long deadline = System.currentTimeMillis() + consumerProperties.getDrainTimeoutMillis();
+        try {
+            while (generation.inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(DRAIN_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = generation.inFlight.get();
+        if (remaining > 0) {
+            log.warn("消费者[{}]排空超时, {}条消息仍在处理, 关闭后由其他客户端重新投递", consumerBeanName, remaining);
+        }
+        try {
+            generation.client.shutdown();
+        } finally {
+            generation.released.countDown();
+        }
+    }
+
+    private void validateExpression(String expression) {
+        if (StringUtils.isBlank(expression)) {
+            throw new IllegalArgumentException(String.format("消费者[%s]订阅表达式不能为空", consumerBeanName));
+        }
+        if (router == null) {
+            return;
+        }
+        for (String tag : expression.split(TAG_SEPARATOR)) {
+            if (!router.canRoute(tag.trim())) {
+                throw new IllegalArgumentException(String.format("消费者[%s]未注册标签[%s]的监听", consumerBeanName, tag.trim()));
+            }
+        }
+    }
+
+    private Properties merge(Properties base, ConsumerUpdate update) {
+        Properties merged = new Properties();
+        merged.putAll(base);
+        if (update.getConsumeThreadNums() != null) {
+            if (update.getConsumeThreadNums() <= 0) {
+                throw new IllegalArgumentException(String.format("消费者[%s]消费线程数必须大于0", consumerBeanName));
+            }
+            merged.setProperty(PropertyKeyConst.ConsumeThreadNums, String.valueOf(update.getConsumeThreadNums()));
+        }
+        if (update.getMaxCachedMessageAmount() != null) {
+            merged.setProperty(PropertyKeyConst.MaxCachedMessageAmount, String.valueOf(update.getMaxCachedMessageAmount()));
+        }
+        if (update.getMaxCachedMessageSizeInMiB() != null) {
+            merged.setProperty(PropertyKeyConst.MaxCachedMessageSizeInMiB, String.valueOf(update.getMaxCachedMessageSizeInMiB()));
+        }
+        if (update.getConsumeMessageBatchMaxSize() != null && consumerBeanType == BatchConsumerBean.class) {
+            merged.setProperty(PropertyKeyConst.ConsumeMessageBatchMaxSize, String.valueOf(update.getConsumeMessageBatchMaxSize()));
+        }
+        return merged;
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return 状态
+     */
+    Map<String, Object> snapshot() {
+        Generation generation = current;
+        Properties clientProperties = properties;
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("type", consumerBeanType.getSimpleName());
+        state.put("state", paused ? "PAUSED" : generation.client.isStarted() ? "RUNNING" : "CREATED");
+        state.put("generation", generation.id);
+        state.put("expression", expression);
+        state.put("consumeThreadNums", clientProperties.getProperty(PropertyKeyConst.ConsumeThreadNums));
+        state.put("maxCachedMessageAmount", clientProperties.getProperty(PropertyKeyConst.MaxCachedMessageAmount));
+        state.put("maxCachedMessageSizeInMiB", clientProperties.getProperty(PropertyKeyConst.MaxCachedMessageSizeInMiB));
+        if (consumerBeanType == BatchConsumerBean.class) {
+            state.put("consumeMessageBatchMaxSize", clientProperties.getProperty(PropertyKeyConst.ConsumeMessageBatchMaxSize));
+        }
+        if (router != null) {
+            state.put("pausedTags", router.getPausedTags());
+        }
+        state.put("inFlight", generation.inFlight.get());
+        return state;
+    }
+
+    /**
+     * 一代客户端及其在途计数
+     */
+    private final class Generation {
+        private final int id;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean draining;
+        private Admin client;
+
+        private Generation(int id) {
+            this.id = id;
+        }
+
+        /**
+         * 进入监听器, 排空期间返回false
+         */
+        private boolean enter() {
+            inFlight.incrementAndGet();
+            if (draining) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void exit() {
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * 排空期间到达的消息等待客户端关闭完成
+         * <p>不设超时: 提前返回时处理队列尚未丢弃, ReconsumeLater会把消息发回重试; 客户端关闭不等待消费线程, 不会互相等待</p>
+         */
+        private void awaitRelease() {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 包装监听器, 统计在途消息
+         *
+         * @param listener 原始监听器
+         * @return 包装后的监听器
+         */
+        private Object track(Object listener) {
+            if (listener instanceof MessageListener) {
+                MessageListener delegate = (MessageListener) listener;
+                return (MessageListener) (message, context) -> {
+                    if (!enter()) {
+                        awaitRelease();
+                        return Action.ReconsumeLater;
+                    }
+                    try {
+                        return delegate.consume(message, context);
+                    } finally {
+                        exit();
+                    }
+                };
+            }
+            if (listener instanceof BatchMessageListener) {
+                BatchMessageListener delegate = (BatchMessageListener) listener;
+                return (BatchMessageListener) (messages, context) -> {
+                    if (!enter()) {
+                        awaitRelease();
+                        return Action.ReconsumeLater;
+                    }
+                    try {
+                        return delegate.consume(messages, context);
+                    } finally {
+                        exit();
+                    }
+                };
+            }
+            if (listener instanceof MessageOrderListener) {
+                MessageOrderListener delegate = (MessageOrderListener) listener;
+                return (MessageOrderListener) (message, context) -> {
+                    if (!enter()) {
+                        awaitRelease();
+                        return OrderAction.Suspend;
+                    }
+                    try {
+                        return delegate.consume(message, context);
+                    } finally {
+                        exit();
+                    }
+                };
+            }
+            throw new IllegalArgumentException("不支持的监听器类型: " + listener.getClass().getName());
+        }
+    }
+}
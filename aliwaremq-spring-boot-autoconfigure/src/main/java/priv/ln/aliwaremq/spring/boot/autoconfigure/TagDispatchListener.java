@@ -0,0 +1,128 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.ConsumeContext;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按标签分发的消息监听器
+ * <p>同一消费者组、同一主题的多个标签合并为一个订阅表达式, 共用一个ConsumerBean</p>
+ * <p>收到消息后按message.getTag()查找预先构造的标签监听器, 未匹配时交给*监听器</p>
+ * <p>已暂停标签的消息不交给监听器, 返回ReconsumeLater由服务端延迟重新投递</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+class TagDispatchListener implements MessageListener {
+    private static final String WILDCARD = "*";
+    private static final String TAG_SEPARATOR = " || ";
+
+    private final Map<String, MessageListener> routes = new LinkedHashMap<>();
+    private MessageListener wildcardListener;
+    private final Set<String> pausedTags = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 添加标签路由
+     *
+     * @param tag      标签, *表示全部标签
+     * @param listener 标签监听器
+     */
+    void addRoute(String tag, MessageListener listener) {
+        if (WILDCARD.equals(tag)) {
+            if (wildcardListener != null) {
+                throw new IllegalStateException("同一消费者组和主题下重复订阅标签[*]");
+            }
+            wildcardListener = listener;
+            return;
+        }
+        if (routes.putIfAbsent(tag, listener) != null) {
+            throw new IllegalStateException(String.format("同一消费者组和主题下重复订阅标签[%s]", tag));
+        }
+    }
+
+    /**
+     * 合并后的订阅表达式, 存在*订阅时为*
+     *
+     * @return 订阅表达式
+     */
+    String getExpression() {
+        if (wildcardListener != null) {
+            return WILDCARD;
+        }
+        return String.join(TAG_SEPARATOR, routes.keySet());
+    }
+
+    /**
+     * 是否有可处理该标签的监听
+     *
+     * @param tag 标签, *表示全部标签
+     * @return 已注册该标签或*监听时返回true
+     */
+    boolean canRoute(String tag) {
+        if (WILDCARD.equals(tag)) {
+            return wildcardListener != null;
+        }
+        return wildcardListener != null || routes.containsKey(tag);
+    }
+
+    /**
+     * 是否单独注册了该标签的监听
+     *
+     * @param tag 标签, *表示全部标签
+     * @return 已注册时返回true
+     */
+    boolean hasRoute(String tag) {
+        return WILDCARD.equals(tag) ? wildcardListener != null : routes.containsKey(tag);
+    }
+
+    /**
+     * 暂停标签
+     *
+     * @param tag 标签, *表示未单独注册的标签
+     */
+    void pause(String tag) {
+        pausedTags.add(tag);
+    }
+
+    /**
+     * 恢复标签
+     *
+     * @param tag 标签, *表示未单独注册的标签
+     */
+    void resume(String tag) {
+        pausedTags.remove(tag);
+    }
+
+    Set<String> getPausedTags() {
+        return new TreeSet<>(pausedTags);
+    }
+
+    @Override
+    public Action consume(Message message, ConsumeContext context) {
+        String tag = message.getTag();
+        MessageListener listener = tag == null ? null : routes.get(tag);
+        String route = tag;
+        if (listener == null) {
+            listener = wildcardListener;
+            route = WILDCARD;
+        }
+        if (!pausedTags.isEmpty() && pausedTags.contains(route)) {
+            return Action.ReconsumeLater;
+        }
+        if (listener == null) {
+            log.warn("消息[主题:{},标签:{},消息id:{}]无匹配的标签监听, 直接提交", message.getTopic(), tag, message.getMsgID());
+            return Action.CommitMessage;
+        }
+        return listener.consume(message, context);
+    }
+}
@@ -0,0 +1,61 @@
+package priv.ln.aliwaremq.spring.boot.claimcheck;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 大消息体存储
+ * <p>生产者将超过阈值的消息体存入存储, 消息只携带引用; 消费者按引用读取</p>
+ * <p>同一消息可能被多个消费者组读取, 存储负责按保留期清理; 框架只在消息发送失败时删除刚保存的消息体</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface BlobStore {
+    /**
+     * 保存消息体
+     *
+     * @param topic 主题
+     * @param body  消息体
+     * @return 引用, 不超过128个字符
+     */
+    String put(String topic, byte[] body);
+
+    /**
+     * 删除消息体, 引用不存在时忽略
+     *
+     * @param reference 引用
+     */
+    void delete(String reference);
+
+    /**
+     * 按引用打开消息体
+     *
+     * @param reference 引用
+     * @return 输入流, 由调用方关闭
+     */
+    InputStream open(String reference);
+
+    /**
+     * 按引用读取完整消息体
+     *
+     * @param reference 引用
+     * @return 消息体
+     */
+    default byte[] get(String reference) {
+        try (InputStream in = open(reference)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("读取消息体[%s]失败", reference), e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package priv.ln.aliwaremq.spring.boot.claimcheck;
+
+import com.aliyun.openservices.ons.api.Message;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressorRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * 大消息体引用解析
+ * <p>消息用户属性{@link #REFERENCE_PROPERTY}记录引用, 消息体只包含引用本身</p>
+ * <p>按具体类型接收的消费者在解码前自动读取; 接收原始Message的消费者不会自动读取,
+ * 只读取属性、标签的消费者不产生存储访问, 需要消息体时调用{@link #openBody(Message)}或{@link #readBody(Message)}</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class ClaimCheckResolver {
+    /**
+     * 记录消息体引用的消息用户属性
+     */
+    public static final String REFERENCE_PROPERTY = "aliwaremq_blob_ref";
+
+    private final BlobStore blobStore;
+    private final MessageCompressorRegistry compressorRegistry;
+
+    /**
+     * @param blobStore          大消息体存储
+     * @param compressorRegistry 压缩器注册中心, 可以为空
+     */
+    public ClaimCheckResolver(BlobStore blobStore, MessageCompressorRegistry compressorRegistry) {
+        this.blobStore = blobStore;
+        this.compressorRegistry = compressorRegistry;
+    }
+
+    /**
+     * 是否是引用消息
+     *
+     * @param message 消息
+     * @return 是否是引用消息
+     */
+    public boolean isClaimCheck(Message message) {
+        return message.getUserProperties(REFERENCE_PROPERTY) != null;
+    }
+
+    /**
+     * 读取存储中的消息体并替换消息的消息体, 移除引用属性, 不解压
+     *
+     * @param message 消息
+     */
+    public void fetch(Message message) {
+        String reference = message.getUserProperties(REFERENCE_PROPERTY);
+        if (reference == null) {
+            return;
+        }
+        message.setBody(blobStore.get(reference));
+        message.getUserProperties().remove(REFERENCE_PROPERTY);
+    }
+
+    /**
+     * 读取完整消息体, 已压缩时解压, 不修改消息
+     *
+     * @param message 消息
+     * @return 消息体
+     */
+    public byte[] readBody(Message message) {
+        String reference = message.getUserProperties(REFERENCE_PROPERTY);
+        byte[] body = reference == null ? message.getBody() : blobStore.get(reference);
+        String compressorName = message.getUserProperties(MessageCompressor.COMPRESSION_PROPERTY);
+        if (compressorName == null || compressorRegistry == null) {
+            return body;
+        }
+        return compressorRegistry.decompress(compressorName, body);
+    }
+
+    /**
+     * 以流的方式打开消息体, 未压缩时直接读取存储, 不整体载入内存
+     *
+     * @param message 消息
+     * @return 输入流, 由调用方关闭
+     */
+    public InputStream openBody(Message message) {
+        String reference = message.getUserProperties(REFERENCE_PROPERTY);
+        if (reference != null && message.getUserProperties(MessageCompressor.COMPRESSION_PROPERTY) == null) {
+            return blobStore.open(reference);
+        }
+        return new ByteArrayInputStream(readBody(message));
+    }
+}
@@ -0,0 +1,140 @@
+package priv.ln.aliwaremq.spring.boot.claimcheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件系统大消息体存储
+ * <p>消息体保存为目录下的主题/UUID文件, 引用为相对路径; 适用于单机、共享文件系统和离线测试</p>
+ * <p>后台线程按cleanupIntervalMillis扫描目录, 删除最后修改时间早于retentionMillis的文件, 包括写入中断遗留的临时文件</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class LocalFileBlobStore implements BlobStore {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long retentionMillis;
+    private final long cleanupIntervalMillis;
+    private ScheduledExecutorService cleaner;
+
+    /**
+     * @param directory             存储目录
+     * @param retentionMillis       保留时长, 单位:毫秒
+     * @param cleanupIntervalMillis 清理间隔, 单位:毫秒
+     */
+    public LocalFileBlobStore(Path directory, long retentionMillis, long cleanupIntervalMillis) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.retentionMillis = retentionMillis;
+        this.cleanupIntervalMillis = cleanupIntervalMillis;
+    }
+
+    /**
+     * 启动过期文件清理
+     */
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aliwaremq-blob-cleaner-");
+        threadFactory.setDaemon(true);
+        cleaner = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        cleaner.scheduleWithFixedDelay(this::cleanup, cleanupIntervalMillis, cleanupIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止过期文件清理
+     */
+    public void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    @Override
+    public String put(String topic, byte[] body) {
+        String reference = topic + '/' + UUID.randomUUID();
+        Path path = resolve(reference);
+        try {
+            Files.createDirectories(path.getParent());
+            // 先写临时文件再改名, 消费者不会读到写了一半的文件
+            Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+            Files.write(temp, body, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Files.move(temp, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("保存消息体[%s]失败", reference), e);
+        }
+        return reference;
+    }
+
+    @Override
+    public void delete(String reference) {
+        try {
+            Files.deleteIfExists(resolve(reference));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("删除消息体[%s]失败", reference), e);
+        }
+    }
+
+    @Override
+    public InputStream open(String reference) {
+        try {
+            return Files.newInputStream(resolve(reference));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("打开消息体[%s]失败", reference), e);
+        }
+    }
+
+    /**
+     * 删除过期文件
+     */
+    void cleanup() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - retentionMillis;
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < expireBefore && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("删除过期消息体[{}]失败", file, e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("扫描消息体目录[{}]失败", directory, e);
+        }
+        if (deleted > 0) {
+            log.info("已删除过期消息体{}个, 目录:{}", deleted, directory);
+        }
+    }
+
+    /**
+     * 解析引用对应的文件, 拒绝指向目录之外的引用
+     *
+     * @param reference 引用
+     * @return 文件路径
+     */
+    private Path resolve(String reference) {
+        Path path = directory.resolve(reference).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException(String.format("非法的消息体引用[%s]", reference));
+        }
+        return path;
+    }
+}
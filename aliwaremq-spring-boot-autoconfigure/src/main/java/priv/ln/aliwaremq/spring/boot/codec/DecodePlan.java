@@ -0,0 +1,75 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import com.aliyun.openservices.ons.api.Message;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消费者解码计划
+ * <p>注册消费者时一次性解析消息类型, 并为每个编解码器预先构造解码器</p>
+ * <p>消费时只按消息记录的编解码器名称选择解码器, 不做反射和适配器查找</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class DecodePlan {
+    private final Type messageType;
+    private final boolean originMessage;
+    private final String fallbackCodecName;
+    private final MessageDecoder fallbackDecoder;
+    private final Map<String, MessageDecoder> decoderMap = new HashMap<>();
+
+    /**
+     * @param messageType   消费者接收的消息类型
+     * @param codecRegistry 编解码器注册中心
+     * @param fallbackCodec 消息未记录编解码器时使用的编解码器
+     */
+    public DecodePlan(Type messageType, MessageCodecRegistry codecRegistry, MessageCodec fallbackCodec) {
+        this.messageType = messageType;
+        this.originMessage = Message.class.equals(messageType);
+        this.fallbackCodecName = fallbackCodec.getName();
+        if (originMessage) {
+            this.fallbackDecoder = null;
+            return;
+        }
+        codecRegistry.getCodecs().forEach(codec -> decoderMap.put(codec.getName(), codec.decoder(messageType)));
+        this.fallbackDecoder = decoderMap.computeIfAbsent(fallbackCodecName, name -> fallbackCodec.decoder(messageType));
+    }
+
+    /**
+     * 是否是mq消息原始类型, 原始类型不解码
+     *
+     * @return 是否是原始类型
+     */
+    public boolean isOriginMessage() {
+        return originMessage;
+    }
+
+    public Type getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * 解码消息体, 原始类型直接返回消息
+     *
+     * @param message 消息
+     * @return 消息体
+     */
+    public Object decode(Message message) {
+        if (originMessage) {
+            return message;
+        }
+        String codecName = message.getUserProperties(MessageCodec.CODEC_PROPERTY);
+        if (codecName == null || codecName.equals(fallbackCodecName)) {
+            return fallbackDecoder.decode(message.getBody());
+        }
+        MessageDecoder decoder = decoderMap.get(codecName);
+        if (decoder == null) {
+            throw new IllegalArgumentException(String.format("未找到消息编解码器[%s], 已注册:%s", codecName, decoderMap.keySet()));
+        }
+        return decoder.decode(message.getBody());
+    }
+}
@@ -0,0 +1,78 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Gson编解码器
+ * <p>编码经UTF-8写入器写入字节流, 解码经UTF-8读取器读取消息体字节, 固定使用UTF-8;
+ * 读取器会将字节分段解码到字符缓冲区, 避免构造完整的中间字符串, 但并非零拷贝</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class GsonMessageCodec implements MessageCodec {
+    public static final String NAME = "gson";
+
+    private final Gson gson;
+
+    public GsonMessageCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object body) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+        try (JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(outputStream, UTF_8))) {
+            gson.toJson(body, body == null ? Object.class : body.getClass(), writer);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] body, Type type) {
+        return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(body), UTF_8), type);
+    }
+
+    /**
+     * 预先获取目标类型的TypeAdapter, 解码时不再查找适配器缓存
+     *
+     * @param type 目标类型
+     * @return 解码器
+     */
+    @Override
+    public MessageDecoder decoder(Type type) {
+        TypeAdapter<?> typeAdapter = gson.getAdapter(TypeToken.get(type));
+        return body -> {
+            try (JsonReader reader = gson.newJsonReader(new InputStreamReader(new ByteArrayInputStream(body), UTF_8))) {
+                // 与Gson.fromJson保持一致, 宽松解析
+                reader.setLenient(true);
+                return typeAdapter.read(reader);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e);
+            }
+        };
+    }
+}
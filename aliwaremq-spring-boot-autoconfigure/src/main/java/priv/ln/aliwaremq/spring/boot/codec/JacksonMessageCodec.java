@@ -0,0 +1,67 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson编解码器
+ * <p>基于Jackson流式解析, 直接读写消息体字节</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class JacksonMessageCodec implements MessageCodec {
+    public static final String NAME = "jackson";
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonMessageCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] body, Type type) {
+        try {
+            return objectMapper.readValue(body, objectMapper.getTypeFactory().constructType(type));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 预先构造目标类型的ObjectReader, 解码时不再解析JavaType
+     *
+     * @param type 目标类型
+     * @return 解码器
+     */
+    @Override
+    public MessageDecoder decoder(Type type) {
+        ObjectReader objectReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructType(type));
+        return body -> {
+            try {
+                return objectReader.readValue(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
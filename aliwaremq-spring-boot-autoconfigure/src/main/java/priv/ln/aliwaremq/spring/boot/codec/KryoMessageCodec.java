@@ -0,0 +1,85 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Kryo二进制编解码器
+ * <p>要求类型注册, 消息体中只写入类型的注册编号, 解码时只能还原已注册的类型, 不会按消息内容加载任意类;
+ * 除基本类型、包装类型和String外, 预先注册{@link #DEFAULT_CLASSES}, 其余类型(包括字段引用的类型)需通过
+ * aliwaremq.kryo.registered-classes注册</p>
+ * <p>注册编号按注册顺序分配, 生产者和消费者须使用相同的注册列表和顺序; Kryo实例非线程安全, 按线程缓存</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class KryoMessageCodec implements MessageCodec {
+    public static final String NAME = "kryo";
+    /**
+     * 预先注册的常用类型
+     */
+    public static final List<Class<?>> DEFAULT_CLASSES = Collections.unmodifiableList(Arrays.asList(
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class, Date.class, BigDecimal.class, BigInteger.class));
+
+    private final ThreadLocal<Kryo> kryoHolder;
+
+    /**
+     * @param registeredClasses 注册的类型, 按顺序分配注册编号
+     */
+    public KryoMessageCodec(List<Class<?>> registeredClasses) {
+        List<Class<?>> classes = new ArrayList<>(DEFAULT_CLASSES);
+        classes.addAll(registeredClasses);
+        this.kryoHolder = ThreadLocal.withInitial(() -> {
+            Kryo kryo = new Kryo();
+            kryo.setRegistrationRequired(true);
+            classes.forEach(kryo::register);
+            return kryo;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object body) {
+        Output output = new Output(256, -1);
+        kryoHolder.get().writeClassAndObject(output, body);
+        return output.toBytes();
+    }
+
+    /**
+     * 解码, 还原的类型与目标类型不符时抛出KryoException
+     */
+    @Override
+    public Object decode(byte[] body, Type type) {
+        Object value = kryoHolder.get().readClassAndObject(new Input(body));
+        Class<?> targetClass = ClassUtils.resolvePrimitiveIfNecessary(ResolvableType.forType(type).resolve(Object.class));
+        if (value != null && !targetClass.isInstance(value)) {
+            throw new KryoException("消息体类型" + value.getClass().getName() + "与目标类型" + type.getTypeName() + "不符");
+        }
+        return value;
+    }
+}
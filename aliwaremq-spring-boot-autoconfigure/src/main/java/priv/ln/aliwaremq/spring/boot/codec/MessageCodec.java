@@ -0,0 +1,53 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import java.lang.reflect.Type;
+
+/**
+ * 消息体编解码器
+ * <p>以消息体字节数组为输入输出, 不经过完整的中间字符串和平台默认字符集</p>
+ * <p>生产者发送时将编解码器名称写入消息用户属性{@link #CODEC_PROPERTY}, 消费者据此选择解码器</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface MessageCodec {
+    /**
+     * 记录编解码器名称的消息用户属性
+     */
+    String CODEC_PROPERTY = "aliwaremq_codec";
+
+    /**
+     * 编解码器名称, 全局唯一
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 编码
+     *
+     * @param body 消息体对象
+     * @return 消息体字节
+     */
+    byte[] encode(Object body);
+
+    /**
+     * 解码
+     *
+     * @param body 消息体字节
+     * @param type 目标类型, 可以是参数化类型
+     * @return 消息体对象
+     */
+    Object decode(byte[] body, Type type);
+
+    /**
+     * 构造绑定目标类型的解码器, 供消费者注册时预先解析类型和适配器
+     *
+     * @param type 目标类型, 可以是参数化类型
+     * @return 解码器
+     */
+    default MessageDecoder decoder(Type type) {
+        return body -> decode(body, type);
+    }
+}
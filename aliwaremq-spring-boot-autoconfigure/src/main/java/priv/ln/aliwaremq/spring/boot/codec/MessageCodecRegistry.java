@@ -0,0 +1,67 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消息体编解码器注册中心
+ * <p>按名称查找编解码器, 未指定时使用默认编解码器</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MessageCodecRegistry {
+    private final Map<String, MessageCodec> codecMap = new HashMap<>();
+    private final MessageCodec defaultCodec;
+
+    public MessageCodecRegistry(Collection<MessageCodec> codecs, String defaultCodecName) {
+        codecs.forEach(codec -> codecMap.put(codec.getName(), codec));
+        this.defaultCodec = getCodec(defaultCodecName);
+    }
+
+    /**
+     * 按名称获取编解码器
+     *
+     * @param name 编解码器名称, 为空时返回默认编解码器
+     * @return 编解码器
+     */
+    public MessageCodec getCodec(String name) {
+        if (StringUtils.isEmpty(name)) {
+            return defaultCodec;
+        }
+        MessageCodec codec = codecMap.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException(String.format("未找到消息编解码器[%s], 已注册:%s", name, codecMap.keySet()));
+        }
+        return codec;
+    }
+
+    /**
+     * 获取消息的解码器
+     * <p>优先使用消息用户属性中记录的编解码器, 未记录时使用兜底编解码器</p>
+     *
+     * @param message       消息
+     * @param fallbackCodec 兜底编解码器
+     * @return 解码器
+     */
+    public MessageCodec getCodec(Message message, MessageCodec fallbackCodec) {
+        String name = message.getUserProperties(MessageCodec.CODEC_PROPERTY);
+        if (name == null || name.equals(fallbackCodec.getName())) {
+            return fallbackCodec;
+        }
+        return getCodec(name);
+    }
+
+    public Collection<MessageCodec> getCodecs() {
+        return codecMap.values();
+    }
+
+    public MessageCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+}
@@ -0,0 +1,21 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+/**
+ * 绑定目标类型的消息体解码器
+ * <p>由{@link MessageCodec#decoder(java.lang.reflect.Type)}预先构造, 解码时不再解析类型</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface MessageDecoder {
+
+    /**
+     * 解码
+     *
+     * @param body 消息体字节
+     * @return 消息体对象
+     */
+    Object decode(byte[] body);
+}
@@ -0,0 +1,142 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 消息类型解析
+ * <p>沿类继承层次解析消费者、事务回查等接口的泛型参数, 类型变量按子类的实际类型替换,
+ * 如Base&lt;T&gt; implements AliwareMqConsumer&lt;T&gt;、Impl extends Base&lt;Order&gt;时解析为Order</p>
+ * <p>嵌套的泛型参数逐层解析为{@link ParameterizedType}, 如List&lt;Order&gt;, 无法解析的类型变量按Object处理</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public final class MessageTypeResolver {
+
+    private MessageTypeResolver() {
+    }
+
+    /**
+     * 解析bean实现的泛型接口的第一个类型参数
+     *
+     * @param bean             bean, 可为AOP代理
+     * @param genericInterface 泛型接口, 如AliwareMqConsumer
+     * @return 消息类型, 无法解析时返回Object
+     */
+    public static Type resolve(Object bean, Class<?> genericInterface) {
+        Class<?> targetClass = AopProxyUtils.ultimateTargetClass(bean);
+        ResolvableType generic = ResolvableType.forClass(targetClass).as(genericInterface).getGeneric(0);
+        return toType(generic);
+    }
+
+    /**
+     * 将已解析的类型转换为不含类型变量的Type
+     *
+     * @param type 类型
+     * @return Class、ParameterizedType或GenericArrayType, 无法解析时返回Object
+     */
+    static Type toType(ResolvableType type) {
+        Class<?> raw = type.resolve();
+        if (type == ResolvableType.NONE || raw == null) {
+            return Object.class;
+        }
+        if (type.isArray()) {
+            Type component = toType(type.getComponentType());
+            return component instanceof Class ? raw : new ResolvedGenericArrayType(component);
+        }
+        if (!type.hasGenerics()) {
+            return raw;
+        }
+        ResolvableType[] generics = type.getGenerics();
+        Type[] arguments = new Type[generics.length];
+        for (int i = 0; i < generics.length; i++) {
+            arguments[i] = toType(generics[i]);
+        }
+        return new ResolvedParameterizedType(raw, arguments);
+    }
+
+    private static final class ResolvedParameterizedType implements ParameterizedType {
+        private final Class<?> rawType;
+        private final Type[] arguments;
+
+        private ResolvedParameterizedType(Class<?> rawType, Type[] arguments) {
+            this.rawType = rawType;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return rawType.getDeclaringClass();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType that = (ParameterizedType) other;
+            return rawType.equals(that.getRawType()) && Objects.equals(getOwnerType(), that.getOwnerType())
+                    && Arrays.equals(arguments, that.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arguments) ^ Objects.hashCode(getOwnerType()) ^ rawType.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(rawType.getTypeName()).append('<');
+            for (int i = 0; i < arguments.length; i++) {
+                builder.append(i == 0 ? "" : ", ").append(arguments[i].getTypeName());
+            }
+            return builder.append('>').toString();
+        }
+    }
+
+    private static final class ResolvedGenericArrayType implements GenericArrayType {
+        private final Type componentType;
+
+        private ResolvedGenericArrayType(Type componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        public Type getGenericComponentType() {
+            return componentType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof GenericArrayType && componentType.equals(((GenericArrayType) other).getGenericComponentType());
+        }
+
+        @Override
+        public int hashCode() {
+            return componentType.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return componentType.getTypeName() + "[]";
+        }
+    }
+}
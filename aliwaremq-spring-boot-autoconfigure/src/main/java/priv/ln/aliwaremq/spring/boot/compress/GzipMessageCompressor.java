@@ -0,0 +1,186 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于JDK Deflater的gzip压缩器
+ * <p>输出RFC 1952 gzip格式, 可由其他语言的gzip实现解压; Deflater、Inflater和缓冲区按线程复用, 每次只分配结果数组,
+ * 缓冲区超过1 MB时用完即释放, 不长期占用</p>
+ * <p>解压时输出超过上限即停止, 并校验CRC32和原始长度</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class GzipMessageCompressor implements MessageCompressor {
+    public static final String NAME = "gzip";
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final int HEADER_LENGTH = 10;
+    private static final int TRAILER_LENGTH = 8;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+    private final ThreadLocal<byte[][]> buffers = ThreadLocal.withInitial(() -> new byte[][]{new byte[INITIAL_BUFFER_SIZE]});
+
+    public GzipMessageCompressor() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level 压缩级别, 0 ~ 9
+     */
+    public GzipMessageCompressor(int level) {
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] body) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+        byte[][] holder = buffers.get();
+        byte[] buffer = holder[0];
+        // 固定头: 魔数、deflate、无标志、无修改时间、未知操作系统
+        buffer[0] = (byte) GZIP_MAGIC;
+        buffer[1] = (byte) (GZIP_MAGIC >> 8);
+        buffer[2] = Deflater.DEFLATED;
+        Arrays.fill(buffer, 3, 9, (byte) 0);
+        buffer[9] = (byte) 0xFF;
+        int length = HEADER_LENGTH;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = holder[0] = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] compressed = Arrays.copyOf(buffer, length + TRAILER_LENGTH);
+        writeIntLe(compressed, length, (int) crc.getValue());
+        writeIntLe(compressed, length + 4, body.length);
+        release(holder);
+        return compressed;
+    }
+
+    @Override
+    public byte[] decompress(byte[] body, int maxLength) {
+        int offset = skipHeader(body);
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(body, offset, body.length - offset);
+        byte[][] holder = buffers.get();
+        byte[] buffer = holder[0];
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == buffer.length) {
+                    if (length >= maxLength) {
+                        throw new IllegalArgumentException(String.format("gzip消息体解压后超过上限%d", maxLength));
+                    }
+                    buffer = holder[0] = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, (long) maxLength + 1));
+                }
+                int n = inflater.inflate(buffer, length, buffer.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("gzip消息体不完整");
+                }
+                length += n;
+                if (length > maxLength) {
+                    throw new IllegalArgumentException(String.format("gzip消息体解压后超过上限%d", maxLength));
+                }
+            }
+            int trailer = body.length - inflater.getRemaining();
+            if (trailer + TRAILER_LENGTH > body.length) {
+                throw new IllegalArgumentException("gzip消息体缺少校验尾");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer, 0, length);
+            if (readIntLe(body, trailer) != (int) crc.getValue() || readIntLe(body, trailer + 4) != length) {
+                throw new IllegalArgumentException("gzip消息体校验失败");
+            }
+            return Arrays.copyOf(buffer, length);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("gzip消息体格式错误", e);
+        } finally {
+            release(holder);
+        }
+    }
+
+    /**
+     * 校验并跳过gzip头
+     *
+     * @param body 消息体
+     * @return 压缩数据的起始位置
+     */
+    private static int skipHeader(byte[] body) {
+        if (body.length < HEADER_LENGTH + TRAILER_LENGTH
+                || ((body[0] & 0xFF) | (body[1] & 0xFF) << 8) != GZIP_MAGIC || body[2] != Deflater.DEFLATED) {
+            throw new IllegalArgumentException("gzip消息体格式错误");
+        }
+        int flags = body[3] & 0xFF;
+        int offset = HEADER_LENGTH;
+        if ((flags & FEXTRA) != 0) {
+            checkBounds(body, offset + 2);
+            offset += 2 + ((body[offset] & 0xFF) | (body[offset + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            offset = skipZeroTerminated(body, offset);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            offset = skipZeroTerminated(body, offset);
+        }
+        if ((flags & FHCRC) != 0) {
+            offset += 2;
+        }
+        checkBounds(body, offset);
+        return offset;
+    }
+
+    private static int skipZeroTerminated(byte[] body, int offset) {
+        while (offset < body.length && body[offset] != 0) {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    private static void checkBounds(byte[] body, int offset) {
+        if (offset > body.length) {
+            throw new IllegalArgumentException("gzip消息体不完整");
+        }
+    }
+
+    /**
+     * 缓冲区超过上限时换回初始大小, 避免每个线程长期持有最大消息体大小的数组
+     */
+    private static void release(byte[][] holder) {
+        if (holder[0].length > MAX_RETAINED_BUFFER_SIZE) {
+            holder[0] = new byte[INITIAL_BUFFER_SIZE];
+        }
+    }
+
+    private static void writeIntLe(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static int readIntLe(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF) << 16 | (bytes[offset + 3] & 0xFF) << 24;
+    }
+}
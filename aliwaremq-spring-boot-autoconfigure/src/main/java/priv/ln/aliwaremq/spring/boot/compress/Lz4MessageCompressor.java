@@ -0,0 +1,69 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.util.Arrays;
+
+/**
+ * 基于lz4-java的压缩器
+ * <p>格式为4字节原始长度(大端) + LZ4块, 原始长度不超过上限时分配结果数组, 以safeDecompressor解压,
+ * 不信任块内容, 输出不会越过结果数组</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class Lz4MessageCompressor implements MessageCompressor {
+    public static final String NAME = "lz4";
+    private static final int HEADER_LENGTH = 4;
+
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    public Lz4MessageCompressor() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] body) {
+        byte[] compressed = new byte[HEADER_LENGTH + compressor.maxCompressedLength(body.length)];
+        compressed[0] = (byte) (body.length >>> 24);
+        compressed[1] = (byte) (body.length >>> 16);
+        compressed[2] = (byte) (body.length >>> 8);
+        compressed[3] = (byte) body.length;
+        int length = compressor.compress(body, 0, body.length, compressed, HEADER_LENGTH);
+        return Arrays.copyOf(compressed, HEADER_LENGTH + length);
+    }
+
+    @Override
+    public byte[] decompress(byte[] body, int maxLength) {
+        if (body.length < HEADER_LENGTH) {
+            throw new IllegalArgumentException("lz4消息体不完整");
+        }
+        int length = (body[0] & 0xFF) << 24 | (body[1] & 0xFF) << 16 | (body[2] & 0xFF) << 8 | (body[3] & 0xFF);
+        if (length < 0 || length > maxLength) {
+            throw new IllegalArgumentException(String.format("lz4消息体原始长度%d超过上限%d", length, maxLength));
+        }
+        byte[] decompressed = new byte[length];
+        int decompressedLength;
+        try {
+            decompressedLength = decompressor.decompress(body, HEADER_LENGTH, body.length - HEADER_LENGTH, decompressed, 0, length);
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("lz4消息体格式错误", e);
+        }
+        if (decompressedLength != length) {
+            throw new IllegalArgumentException(String.format("lz4消息体解压长度%d与原始长度%d不一致", decompressedLength, length));
+        }
+        return decompressed;
+    }
+}
@@ -0,0 +1,42 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+/**
+ * 消息体压缩器
+ * <p>生产者压缩后将压缩器名称写入消息用户属性{@link #COMPRESSION_PROPERTY}, 消费者按该属性解压</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface MessageCompressor {
+    /**
+     * 记录压缩器名称的消息用户属性
+     */
+    String COMPRESSION_PROPERTY = "aliwaremq_compression";
+
+    /**
+     * 压缩器名称, 写入消息用户属性, 全局唯一
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 压缩
+     *
+     * @param body 消息体
+     * @return 压缩后的消息体
+     */
+    byte[] compress(byte[] body);
+
+    /**
+     * 解压
+     * <p>原始长度超过maxLength时不分配结果数组, 直接拒绝, 防止构造的消息体耗尽内存</p>
+     *
+     * @param body      压缩后的消息体
+     * @param maxLength 解压后的最大字节数
+     * @return 消息体
+     * @throws IllegalArgumentException 消息体格式错误或解压后超过maxLength
+     */
+    byte[] decompress(byte[] body, int maxLength);
+}
@@ -0,0 +1,99 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+import com.aliyun.openservices.ons.api.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消息体压缩器注册中心
+ * <p>解压后的消息体不超过maxDecompressedBytes, 超过时拒绝解压</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MessageCompressorRegistry {
+    private static final byte[] VERIFY_SAMPLE = "aliwaremq-compression-verify".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, MessageCompressor> compressorMap = new HashMap<>();
+    private final int maxDecompressedBytes;
+
+    /**
+     * @param compressors          压缩器
+     * @param maxDecompressedBytes 解压后消息体的最大字节数
+     */
+    public MessageCompressorRegistry(Collection<MessageCompressor> compressors, int maxDecompressedBytes) {
+        compressors.forEach(compressor -> compressorMap.put(compressor.getName(), compressor));
+        this.maxDecompressedBytes = maxDecompressedBytes;
+    }
+
+    /**
+     * 按名称获取压缩器
+     *
+     * @param name 压缩器名称
+     * @return 压缩器
+     */
+    public MessageCompressor getCompressor(String name) {
+        MessageCompressor compressor = compressorMap.get(name);
+        if (compressor == null) {
+            throw new IllegalArgumentException(String.format("未找到消息压缩器[%s], 已注册:%s", name, compressorMap.keySet()));
+        }
+        return compressor;
+    }
+
+    /**
+     * 校验压缩器可用, 启动时对配置的压缩器执行一次压缩和解压, 依赖缺失或本地库加载失败时抛出异常
+     *
+     * @param name 压缩器名称
+     * @throws IllegalStateException 压缩器未注册或不可用
+     */
+    public void verify(String name) {
+        if (!compressorMap.containsKey(name)) {
+            throw new IllegalStateException(String.format("未找到消息压缩器[%s], 已注册:%s, lz4需引入org.lz4:lz4-java, zstd需引入com.github.luben:zstd-jni",
+                    name, compressorMap.keySet()));
+        }
+        MessageCompressor compressor = compressorMap.get(name);
+        try {
+            byte[] restored = compressor.decompress(compressor.compress(VERIFY_SAMPLE), VERIFY_SAMPLE.length);
+            if (!Arrays.equals(VERIFY_SAMPLE, restored)) {
+                throw new IllegalStateException(String.format("消息压缩器[%s]解压结果与原文不一致", name));
+            }
+        } catch (RuntimeException | LinkageError e) {
+            throw new IllegalStateException(String.format("消息压缩器[%s]不可用", name), e);
+        }
+    }
+
+    /**
+     * 解压消息体
+     * <p>消息用户属性记录了压缩器时, 替换为解压后的消息体并移除该属性, 未压缩的消息不处理</p>
+     *
+     * @param message 消息
+     */
+    public void decompress(Message message) {
+        String name = message.getUserProperties(MessageCompressor.COMPRESSION_PROPERTY);
+        if (name == null) {
+            return;
+        }
+        message.setBody(decompress(name, message.getBody()));
+        message.getUserProperties().remove(MessageCompressor.COMPRESSION_PROPERTY);
+    }
+
+    /**
+     * 按压缩器名称解压消息体
+     *
+     * @param name 压缩器名称
+     * @param body 压缩后的消息体
+     * @return 消息体
+     */
+    public byte[] decompress(String name, byte[] body) {
+        return getCompressor(name).decompress(body, maxDecompressedBytes);
+    }
+
+    public Collection<MessageCompressor> getCompressors() {
+        return compressorMap.values();
+    }
+}
@@ -0,0 +1,81 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * 基于zstd-jni的压缩器
+ * <p>Zstd帧头记录原始长度时, 原始长度不超过上限才分配结果数组, 解压输出不超过该数组;
+ * 帧头未记录原始长度时流式解压, 累计超过上限即停止</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class ZstdMessageCompressor implements MessageCompressor {
+    public static final String NAME = "zstd";
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    private final int level;
+
+    public ZstdMessageCompressor() {
+        this(3);
+    }
+
+    /**
+     * @param level 压缩级别, 1 ~ 22
+     */
+    public ZstdMessageCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] body) {
+        return Zstd.compress(body, level);
+    }
+
+    @Override
+    public byte[] decompress(byte[] body, int maxLength) {
+        long length = Zstd.decompressedSize(body);
+        if (length > maxLength) {
+            throw new IllegalArgumentException(String.format("zstd消息体原始长度%d超过上限%d", length, maxLength));
+        }
+        if (length > 0) {
+            try {
+                return Zstd.decompress(body, (int) length);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("zstd消息体格式错误", e);
+            }
+        }
+        return decompressStream(body, maxLength);
+    }
+
+    /**
+     * 流式解压帧头未记录原始长度的消息体
+     */
+    private byte[] decompressStream(byte[] body, int maxLength) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxLength, Math.max(body.length * 4, 64)));
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(body))) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (out.size() + n > maxLength) {
+                    throw new IllegalArgumentException(String.format("zstd消息体解压后超过上限%d", maxLength));
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("zstd消息体格式错误", e);
+        }
+        return out.toByteArray();
+    }
+}
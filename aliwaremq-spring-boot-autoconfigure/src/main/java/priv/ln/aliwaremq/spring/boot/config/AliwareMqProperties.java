@@ -4,7 +4,11 @@ import com.aliyun.openservices.shade.com.alibaba.rocketmq.common.protocol.heartb
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 阿里云消息队列配置参数
@@ -27,14 +31,42 @@ public class AliwareMqProperties {
      * 阿里云secretKey
      */
     private String secretKey;
+    /**
+     * 默认消息体编解码器名称, 可选gson、jackson、kryo或自定义编解码器, 默认值gson
+     */
+    private String defaultCodec = "gson";
+    /**
+     * 解压后消息体的最大字节数, 超过时拒绝解压, 默认值64 MB
+     */
+    private int maxDecompressedBytes = 64 * 1024 * 1024;
     /**
      * 生产者配置
      */
     private Producer producer;
+    /**
+     * 按名称定义的生产者池, 发往池中主题的消息由池内客户端发送, 其他主题使用默认生产者
+     */
+    private Map<String, ProducerPool> producers = new HashMap<>();
     /**
      * 消费者配置
      */
     private Map<String, Consumer> consumer;
+    /**
+     * 消费者启动配置
+     */
+    private Startup startup = new Startup();
+    /**
+     * 大消息体引用配置
+     */
+    private ClaimCheck claimCheck = new ClaimCheck();
+    /**
+     * 消费耗时分析配置
+     */
+    private Profiling profiling = new Profiling();
+    /**
+     * Kryo编解码器配置
+     */
+    private KryoCodec kryo = new KryoCodec();
 
     @Data
     public static class Producer {
@@ -46,6 +78,340 @@ public class AliwareMqProperties {
          * 消息发送的超时时间, 单位:毫秒, 默认值3000
          */
         private int sendMsgTimeoutMillis = 3000;
+        /**
+         * 异步发送最大在途消息数, 默认值10000
+         */
+        private int maxInFlightAsyncSends = 10000;
+        /**
+         * 异步发送在途消息数达到上限时的最大等待时长, 单位:毫秒, 默认值3000
+         */
+        private long asyncAcquireTimeoutMillis = 3000;
+        /**
+         * 是否启用顺序消息生产者, 默认值false
+         */
+        private boolean orderEnabled;
+        /**
+         * 是否启用事务消息生产者, 默认值false
+         */
+        private boolean transactionEnabled;
+        /**
+         * 事务消息生产者组, 为空时使用group
+         */
+        private String transactionGroup;
+        /**
+         * 按主题指定消息体编解码器名称, 未指定的主题使用默认编解码器
+         */
+        private Map<String, String> topicCodecs = new HashMap<>();
+        /**
+         * 攒批发送配置
+         */
+        private Batch batch = new Batch();
+        /**
+         * 消息体压缩配置, 未在topicCompressions中指定的主题使用
+         */
+        private Compression compression = new Compression();
+        /**
+         * 按主题指定消息体压缩配置
+         */
+        private Map<String, Compression> topicCompressions = new HashMap<>();
+        /**
+         * 事务发件箱配置
+         */
+        private Outbox outbox = new Outbox();
+        /**
+         * 延时和定时发送配置
+         */
+        private Delay delay = new Delay();
+    }
+
+    @Data
+    public static class Delay {
+        /**
+         * 是否开启进程内时间轮, 默认值false, 未开启时全部使用服务端定时投递
+         */
+        private boolean timerWheelEnabled;
+        /**
+         * 延时小于该值的消息由进程内时间轮到期后发送, 单位:毫秒, 默认值1000
+         */
+        private long localThresholdMillis = 1000;
+        /**
+         * 时间轮刻度, 单位:毫秒, 默认值10
+         */
+        private long tickMillis = 10;
+        /**
+         * 每层时间轮的槽数, 默认值512
+         */
+        private int wheelSize = 512;
+        /**
+         * 时间轮中最多等待的消息数, 超出时拒绝, 默认值100000
+         */
+        private int maxPending = 100000;
+        /**
+         * 服务端定时投递的最大延时, 延时或定时发送超出时拒绝, 单位:毫秒, 默认值40天
+         */
+        private long maxDelayMillis = TimeUnit.DAYS.toMillis(40);
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * 是否开启事务发件箱, 默认值false
+         * <p>开启后在Spring事务中调用send时只写入本地发件箱, 由后台转发线程发送</p>
+         */
+        private boolean enabled;
+        /**
+         * 发件箱存储类型, 默认值JDBC
+         * <p>MAPPED_FILE在事务提交后写入, 提交与写入之间进程崩溃会丢失消息, 不提供发件箱的原子性保证</p>
+         */
+        private OutboxStoreType store = OutboxStoreType.JDBC;
+        /**
+         * 存储类型为JDBC时的表名, 默认值aliwaremq_outbox
+         */
+        private String tableName = "aliwaremq_outbox";
+        /**
+         * 存储类型为JDBC时领取记录的租约时长, 单位:毫秒, 默认值60000, 需大于sendTimeoutMillis
+         * <p>实例崩溃后已领取的记录在租约到期后由其他实例重新领取</p>
+         */
+        private long leaseMillis = 60000;
+        /**
+         * 存储类型为MAPPED_FILE时的存储目录, 默认值为临时目录下的aliwaremq-outbox
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/aliwaremq-outbox";
+        /**
+         * 存储类型为MAPPED_FILE时的段文件大小, 默认值64 MB
+         */
+        private int segmentBytes = 64 * 1024 * 1024;
+        /**
+         * 存储类型为MAPPED_FILE时是否每次写入后刷盘, 默认值false(进程崩溃不丢失, 操作系统崩溃可能丢失)
+         */
+        private boolean syncOnAppend;
+        /**
+         * 每批次转发的最大消息数, 默认值512
+         */
+        private int batchSize = 512;
+        /**
+         * 发件箱为空时的轮询间隔, 单位:毫秒, 默认值100
+         */
+        private long pollIntervalMillis = 100;
+        /**
+         * 等待一批消息发送完成的最大时长, 单位:毫秒, 默认值10000
+         */
+        private long sendTimeoutMillis = 10000;
+        /**
+         * 发送失败后的最大退避时长, 单位:毫秒, 默认值10000
+         */
+        private long maxBackoffMillis = 10000;
+        /**
+         * 同一记录的最大转发次数, 达到后搁置, 不再转发, 默认值16
+         */
+        private int maxAttempts = 16;
+    }
+
+    /**
+     * 发件箱存储类型
+     */
+    public enum OutboxStoreType {
+        /**
+         * 数据库表, 与业务数据在同一事务中写入
+         */
+        JDBC,
+        /**
+         * 内存映射的追加写段文件, 事务提交后写入, 提交与写入之间进程崩溃会丢失消息
+         */
+        MAPPED_FILE
+    }
+
+    @Data
+    public static class ProducerPool {
+        /**
+         * 生产者组, 为空时使用producer.group
+         */
+        private String group;
+        /**
+         * 由该池发送的主题
+         */
+        private List<String> topics = new ArrayList<>();
+        /**
+         * 池内客户端实例数, 默认值2
+         */
+        private int poolSize = 2;
+        /**
+         * 消息发送的超时时间, 单位:毫秒, 默认值3000
+         */
+        private int sendMsgTimeoutMillis = 3000;
+        /**
+         * 连续发送失败多少次后暂停使用该实例, 默认值3
+         */
+        private int failureThreshold = 3;
+        /**
+         * 实例暂停使用时长, 到期后重新参与选择, 单位:毫秒, 默认值10000
+         */
+        private long quarantineMillis = 10000;
+    }
+
+    @Data
+    public static class Profiling {
+        /**
+         * 是否开启消费耗时分析, 默认值false, 关闭时不记录任何数据
+         */
+        private boolean enabled;
+        /**
+         * 排队、解码和处理总耗时超过该值的消息进入慢消息采样, 单位:毫秒, 默认值500
+         */
+        private long slowThresholdMillis = 500;
+        /**
+         * 慢消息采样容量, 超出后覆盖最早的采样, 默认值256
+         */
+        private int sampleCapacity = 256;
+        /**
+         * 是否提交JFR事件, 默认值true, 运行时不支持JFR时忽略
+         */
+        private boolean jfrEnabled = true;
+    }
+
+    @Data
+    public static class KryoCodec {
+        /**
+         * 注册的消息体类型全限定名, 包括消息体字段引用的类型, 按顺序分配注册编号, 生产者和消费者须保持一致;
+         * 常用集合、日期和数值类型已预先注册, 解码时只能还原已注册的类型
+         */
+        private List<String> registeredClasses = new ArrayList<>();
+    }
+
+    @Data
+    public static class ClaimCheck {
+        /**
+         * 是否开启大消息体引用, 默认值false, 生产者和消费者都需开启
+         */
+        private boolean enabled;
+        /**
+         * 消息体(压缩后)达到该字节数时存入BlobStore, 默认值3 MB
+         */
+        private int thresholdBytes = 3 * 1024 * 1024;
+        /**
+         * 未自定义BlobStore时, 本地文件存储目录, 默认值为临时目录下的aliwaremq-blobs
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/aliwaremq-blobs";
+        /**
+         * 未自定义BlobStore时, 本地文件的保留时长, 超过后删除, 单位:毫秒, 默认值3天, 需大于消息的最长重试周期
+         */
+        private long retentionMillis = TimeUnit.DAYS.toMillis(3);
+        /**
+         * 未自定义BlobStore时, 清理过期本地文件的间隔, 单位:毫秒, 默认值1小时
+         */
+        private long cleanupIntervalMillis = TimeUnit.HOURS.toMillis(1);
+        /**
+         * 异步发送时保存消息体的线程数, 默认值4
+         */
+        private int ioThreads = 4;
+        /**
+         * 异步发送时等待保存的消息数上限, 超过时发送以RejectedExecutionException失败, 默认值1024
+         */
+        private int ioQueueCapacity = 1024;
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * 压缩器名称, 可选gzip、lz4、zstd或自定义压缩器, 为空时不压缩
+         */
+        private String algorithm;
+        /**
+         * 消息体达到该字节数才压缩, 默认值4096
+         */
+        private int thresholdBytes = 4096;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * 是否开启攒批发送, 默认值false
+         */
+        private boolean enabled;
+        /**
+         * 每批次最大消息数量, 默认值128
+         */
+        private int batchSize = 128;
+        /**
+         * 每批次最大消息体字节数, 默认值1 MB
+         */
+        private int maxBatchBytes = 1024 * 1024;
+        /**
+         * 攒批最大等待时长, 单位:毫秒, 默认值5
+         */
+        private long lingerMillis = 5;
+        /**
+         * 每个主题缓冲队列容量, 单位:条, 默认值10000
+         */
+        private int queueCapacity = 10000;
+        /**
+         * 所有主题共用的刷新线程数, 默认值2
+         */
+        private int flushThreads = 2;
+        /**
+         * 缓冲队列已满时的背压策略, 默认值BLOCK
+         */
+        private Backpressure backpressure = Backpressure.BLOCK;
+        /**
+         * 背压策略为BLOCK时的最大阻塞时长, 单位:毫秒, 默认值3000
+         */
+        private long blockTimeoutMillis = 3000;
+    }
+
+    /**
+     * 缓冲队列已满时的背压策略
+     */
+    public enum Backpressure {
+        /**
+         * 阻塞调用线程, 直到队列有空位或超时
+         */
+        BLOCK,
+        /**
+         * 立即拒绝
+         */
+        FAIL_FAST,
+        /**
+         * 丢弃队列中最早的消息
+         */
+        DROP_OLDEST
+    }
+
+    @Data
+    public static class Startup {
+        /**
+         * 消费者启动时机, 默认值EAGER
+         */
+        private Activation activation = Activation.EAGER;
+        /**
+         * 是否并行启动消费者, 默认值false
+         */
+        private boolean parallel;
+        /**
+         * 并行启动线程数, 默认值8
+         */
+        private int parallelism = 8;
+        /**
+         * 全部消费者启动完成的最大等待时长, 单位:毫秒, 默认值60000, 超时则启动失败
+         */
+        private long timeoutMillis = 60000;
+    }
+
+    /**
+     * 消费者启动时机
+     */
+    public enum Activation {
+        /**
+         * 容器初始化单例后立即启动
+         */
+        EAGER,
+        /**
+         * 应用就绪(ApplicationReadyEvent)后启动
+         */
+        APPLICATION_READY,
+        /**
+         * 由应用调用AliwareMqConsumerRegistry.startConsumers启动, 如预热或健康检查通过后
+         */
+        MANUAL
     }
 
     @Data
@@ -86,5 +452,204 @@ public class AliwareMqProperties {
          * 最大缓存消息大小, 取值范围16 MB ~ 2 GB, 默认值512 MB
          */
         private int maxCachedMessageSizeInMiB = 512;
+        /**
+         * 消息体编解码器名称, 消息未记录编解码器时使用, 为空时使用默认编解码器
+         */
+        private String codec;
+        /**
+         * 是否按标签隔离, 默认值false
+         * <p>false: 同一消费者组和主题的标签合并为一个订阅, 共用客户端、线程池和消息缓存, 进程内按标签分发</p>
+         * <p>true: 每个标签独立创建消费者, 各自占用客户端、线程池和消息缓存</p>
+         */
+        private boolean tagIsolation;
+        /**
+         * 只适用于批量消费, 每批次最大消息数量, 取值范围1 ~ 1024, 默认值32
+         */
+        private int consumeMessageBatchMaxSize = 32;
+        /**
+         * 只适用于批量消费, 攒批最大等待时长, 单位:秒, 取值范围0 ~ 450, 默认值0(不等待)
+         */
+        private int batchConsumeMaxAwaitDurationInSeconds;
+        /**
+         * 运行时重建或暂停消费者时, 等待旧客户端在途消息处理完成的最大时长, 单位:毫秒, 默认值30000
+         */
+        private long drainTimeoutMillis = 30000;
+        /**
+         * 消费处理分发配置
+         */
+        private Dispatch dispatch = new Dispatch();
+        /**
+         * 消费去重配置
+         */
+        private Dedup dedup = new Dedup();
+        /**
+         * 自适应流控配置
+         */
+        private FlowControl flowControl = new FlowControl();
+        /**
+         * 消费失败重试配置
+         */
+        private Retry retry = new Retry();
+    }
+
+    @Data
+    public static class Retry {
+        /**
+         * 本地快速重试次数, 默认值0(不在本地重试)
+         */
+        private int maxLocalAttempts;
+        /**
+         * 首次重试等待时长, 单位:毫秒, 默认值50
+         */
+        private long initialBackoffMillis = 50;
+        /**
+         * 最大重试等待时长, 单位:毫秒, 默认值1000
+         */
+        private long maxBackoffMillis = 1000;
+        /**
+         * 重试等待时长增长倍数, 默认值2.0
+         */
+        private double multiplier = 2.0;
+        /**
+         * 重试等待时长随机抖动比例, 取值范围0 ~ 1, 默认值0.5
+         */
+        private double jitter = 0.5;
+        /**
+         * 不可恢复的异常类名, 包含子类, 直接进入死信
+         */
+        private List<String> fatalExceptions = new ArrayList<>();
+        /**
+         * 不在本地重试的异常类名, 包含子类, 直接交给服务端重新投递
+         */
+        private List<String> brokerExceptions = new ArrayList<>();
+        /**
+         * 死信主题, 未配置且没有自定义DeadLetterHandler时, 不可恢复的消息也交给服务端重新投递
+         */
+        private String deadLetterTopic;
+    }
+
+    @Data
+    public static class FlowControl {
+        /**
+         * 是否开启自适应流控, 默认值false
+         */
+        private boolean enabled;
+        /**
+         * 最小并发数, 默认值1, 最大并发数在客户端线程中处理时为consumeThreadNums, 分发到执行器时为dispatch.maxConcurrency
+         */
+        private int minConcurrency = 1;
+        /**
+         * 目标处理耗时, 窗口平均耗时超过该值视为过载, 单位:毫秒, 默认值1000
+         */
+        private long targetLatencyMillis = 1000;
+        /**
+         * 最大失败率, 窗口失败率超过该值视为过载, 默认值0.5
+         */
+        private double maxErrorRate = 0.5;
+        /**
+         * 统计窗口, 单位:毫秒, 默认值1000
+         */
+        private long windowMillis = 1000;
+        /**
+         * 过载时并发上限的回退系数, 默认值0.9
+         */
+        private double backoffRatio = 0.9;
+        /**
+         * 并发上限降到最小值后连续过载多少个窗口暂停消费, 默认值10
+         */
+        private int suspendAfterWindows = 10;
+        /**
+         * 暂停消费时长, 暂停期间关闭客户端, 不拉取消息, 到期后重建客户端, 单位:毫秒, 默认值30000
+         */
+        private long suspendMillis = 30000;
+        /**
+         * 超过并发上限时消费线程等待许可的最长时长, 超时的消息以ReconsumeLater交还服务端稍后重新投递, 计入服务端重试次数,
+         * 重试分级指标记为throttled, 单位:毫秒, 默认值1000
+         */
+        private long acquireTimeoutMillis = 1000;
+    }
+
+    @Data
+    public static class Dedup {
+        /**
+         * 是否开启消费去重, 默认值false
+         */
+        private boolean enabled;
+        /**
+         * 去重键类型, 默认值MSG_ID
+         */
+        private DedupKey key = DedupKey.MSG_ID;
+        /**
+         * 去重键类型为USER_PROPERTY时的用户属性名
+         */
+        private String propertyName;
+        /**
+         * 去重有效期, 单位:毫秒, 默认值600000
+         */
+        private long ttlMillis = 600000;
+        /**
+         * 本地去重缓存容量, 单位:条, 默认值65536
+         */
+        private int capacity = 65536;
+    }
+
+    /**
+     * 去重键类型
+     */
+    public enum DedupKey {
+        /**
+         * 消息id, 只能识别重投, 不能识别业务重复发送
+         */
+        MSG_ID,
+        /**
+         * 消息业务键Message.key
+         */
+        MESSAGE_KEY,
+        /**
+         * 指定的用户属性
+         */
+        USER_PROPERTY
+    }
+
+    @Data
+    public static class Dispatch {
+        /**
+         * 分发模式, 默认值CLIENT
+         */
+        private DispatchMode mode = DispatchMode.CLIENT;
+        /**
+         * 分发模式为EXECUTOR时使用的执行器bean名称
+         */
+        private String executorBeanName;
+        /**
+         * 单个消费者同时处理的最大消息数, 默认值256
+         */
+        private int maxConcurrency = 256;
+        /**
+         * 单批消息处理的最大等待时长, 单位:毫秒, 默认值60000, 不超过consumeTimeout
+         * <p>超时未完成的处理被取消(中断)并释放许可, 消息由服务端重新投递</p>
+         */
+        private long timeoutMillis = 60000;
+    }
+
+    /**
+     * 消费处理分发模式
+     * <p>非CLIENT模式下以BatchConsumerBean按consumeMessageBatchMaxSize为批次拉取消息, 批内消息并发处理.
+     * 客户端只能整批提交, 批内有消息失败时整批重新投递, 批内已成功的消息重新投递到本实例时直接提交, 不再处理;
+     * 重新投递到其他实例时仍会处理, 需开启消费去重避免重复处理</p>
+     */
+    public enum DispatchMode {
+        /**
+         * 在客户端消费线程池中处理, 并发度为consumeThreadNums
+         */
+        CLIENT,
+        /**
+         * 每条消息在独立的虚拟线程中处理, 需JDK 21及以上
+         */
+        VIRTUAL_THREAD,
+        /**
+         * 在dispatch.executorBeanName指定的执行器中处理
+         */
+        EXECUTOR
     }
 }
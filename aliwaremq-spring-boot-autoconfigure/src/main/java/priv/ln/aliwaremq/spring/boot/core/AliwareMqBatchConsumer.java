@@ -0,0 +1,22 @@
+package priv.ln.aliwaremq.spring.boot.core;
+
+import java.util.List;
+
+/**
+ * 阿里云消息队列批量消费者接口
+ * <p>每次回调接收一批消息, 批量大小由consumeMessageBatchMaxSize控制</p>
+ * <p>整批消息作为一个消费单元: 处理成功则整批提交, 抛出异常则整批重新消费</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface AliwareMqBatchConsumer<T> extends AliwareMqSubscriber {
+
+    /**
+     * 批量消费处理
+     *
+     * @param messages 消息集合
+     */
+    void onMessage(List<T> messages);
+}
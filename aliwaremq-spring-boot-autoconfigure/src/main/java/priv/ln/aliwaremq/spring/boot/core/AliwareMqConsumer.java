@@ -1,7 +1,5 @@
 package priv.ln.aliwaremq.spring.boot.core;
 
-import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
-
 import java.util.Collections;
 import java.util.List;
 
@@ -10,44 +8,37 @@ import java.util.List;
  * <p>订阅单一主题时, 需实现getName</p>
  * <p>订阅多个主题时, 需实现getNames</p>
  * <p>需分别订阅标签时, 需实现getTags</p>
+ * <p>需按用户属性过滤或路由时, 需实现getFilter或getRoutes, 均在解码前求值</p>
  *
  * @author linnan
  * @version 2019/8/27
  * @since 0.0.1
  */
-public interface AliwareMqConsumer<T> {
+public interface AliwareMqConsumer<T> extends AliwareMqSubscriber {
 
     /**
-     * 返回订阅队列自定义名称
+     * 消费处理
      *
-     * @return 订阅队列自定义名称
+     * @param message 消息
      */
-    default String getName() {
-        return StringUtils.EMPTY;
-    }
+    void onMessage(T message);
 
     /**
-     * 订阅队列自定义名称集合
+     * 过滤表达式, 注册时编译, 语法见{@link priv.ln.aliwaremq.spring.boot.filter.MessageFilter}
+     * <p>不满足的消息直接提交, 不解码也不交给处理方法</p>
      *
-     * @return 队列自定义名称集合
+     * @return 过滤表达式, 为空时不过滤
      */
-    default List<String> getNames() {
-        return Collections.emptyList();
+    default String getFilter() {
+        return null;
     }
 
     /**
-     * 订阅标签集合
+     * 消息路由, 满足过滤表达式的消息按顺序匹配, 交给首个满足的路由处理, 均不满足时交给onMessage
      *
-     * @return 标签集合
+     * @return 消息路由
      */
-    default List<String> getTags() {
+    default List<MessageRoute<T>> getRoutes() {
         return Collections.emptyList();
     }
-
-    /**
-     * 消费处理
-     *
-     * @param message 消息
-     */
-    void onMessage(T message);
 }
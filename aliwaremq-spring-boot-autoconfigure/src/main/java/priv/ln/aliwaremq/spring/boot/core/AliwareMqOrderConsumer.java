@@ -0,0 +1,20 @@
+package priv.ln.aliwaremq.spring.boot.core;
+
+/**
+ * 阿里云消息队列顺序消费者接口
+ * <p>同一分区(shardingKey)的消息按发送顺序逐条消费, 不同分区之间并行消费, 并行度由consumeThreadNums控制</p>
+ * <p>处理抛出异常时, 当前分区暂停suspendTimeMillis后重试该消息, 不影响其他分区</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface AliwareMqOrderConsumer<T> extends AliwareMqSubscriber {
+
+    /**
+     * 顺序消费处理
+     *
+     * @param message 消息
+     */
+    void onMessage(T message);
+}
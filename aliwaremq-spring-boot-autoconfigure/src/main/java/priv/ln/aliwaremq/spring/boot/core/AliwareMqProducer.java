@@ -1,13 +1,46 @@
 package priv.ln.aliwaremq.spring.boot.core;
 
 import com.aliyun.openservices.ons.api.*;
-import com.google.gson.Gson;
+import com.aliyun.openservices.ons.api.exception.ONSClientException;
+import com.aliyun.openservices.ons.api.order.OrderProducer;
+import com.aliyun.openservices.ons.api.transaction.LocalTransactionExecuter;
+import com.aliyun.openservices.ons.api.transaction.TransactionProducer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import priv.ln.aliwaremq.spring.boot.claimcheck.BlobStore;
+import priv.ln.aliwaremq.spring.boot.claimcheck.ClaimCheckResolver;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodec;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressorRegistry;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.batch.AliwareMqBatchSender;
+import priv.ln.aliwaremq.spring.boot.core.delay.DelayedMessageScheduler;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxWriter;
+import priv.ln.aliwaremq.spring.boot.core.pool.ProducerRouter;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
 
-import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 阿里云消息队列生产者
@@ -16,21 +49,112 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * @version 2019/8/27
  * @since 0.0.1
  */
+@Slf4j
 @Component
 public class AliwareMqProducer {
+    /**
+     * 异步发送回调线程池bean名称, 未定义时回调在客户端回调线程中执行
+     */
+    public static final String CALLBACK_EXECUTOR_BEAN_NAME = "aliwareMqCallbackExecutor";
+
     @Autowired
     private Producer producer;
     @Autowired
-    private Gson gson;
+    private MessageCodecRegistry messageCodecRegistry;
+    @Autowired
+    private AliwareMqProperties aliwareMqProperties;
+    @Autowired
+    private AliwareMqMetrics metrics;
+    @Autowired(required = false)
+    private OrderProducer orderProducer;
+    @Autowired(required = false)
+    private TransactionProducer transactionProducer;
+    @Autowired(required = false)
+    private AliwareMqBatchSender batchSender;
+    @Autowired(required = false)
+    private MessageCompressorRegistry compressorRegistry;
+    @Autowired(required = false)
+    private BlobStore blobStore;
+    @Autowired(required = false)
+    private OutboxWriter outboxWriter;
+    @Autowired(required = false)
+    private ProducerRouter producerRouter;
+    @Autowired(required = false)
+    private DelayedMessageScheduler delayedMessageScheduler;
+    @Autowired(required = false)
+    @Qualifier(CALLBACK_EXECUTOR_BEAN_NAME)
+    private Executor callbackExecutor;
+    /**
+     * 异步发送在途消息许可
+     */
+    private Semaphore inFlightPermits;
+    private long asyncAcquireTimeoutMillis;
+    private Map<String, String> topicCodecs;
+    private AliwareMqProperties.Compression defaultCompression;
+    private Map<String, AliwareMqProperties.Compression> topicCompressions;
+    /**
+     * 开启大消息体引用时的消息体存储, 未开启时为空
+     */
+    private BlobStore claimCheckStore;
+    /**
+     * 异步发送时保存大消息体的线程池, 调用线程不执行阻塞IO
+     */
+    private ExecutorService blobExecutor;
+    private final SendLatencyHistogram asyncLatencyHistogram = new SendLatencyHistogram();
+
+    @PostConstruct
+    private void init() {
+        AliwareMqProperties.Producer producerProperties = aliwareMqProperties.getProducer();
+        this.inFlightPermits = new Semaphore(producerProperties.getMaxInFlightAsyncSends());
+        this.asyncAcquireTimeoutMillis = producerProperties.getAsyncAcquireTimeoutMillis();
+        this.topicCodecs = producerProperties.getTopicCodecs();
+        this.defaultCompression = producerProperties.getCompression();
+        this.topicCompressions = producerProperties.getTopicCompressions();
+        AliwareMqProperties.ClaimCheck claimCheck = aliwareMqProperties.getClaimCheck();
+        if (blobStore != null && claimCheck.isEnabled()) {
+            this.claimCheckStore = blobStore;
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aliwaremq-blob-put-");
+            threadFactory.setDaemon(true);
+            this.blobExecutor = new ThreadPoolExecutor(claimCheck.getIoThreads(), claimCheck.getIoThreads(), 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(claimCheck.getIoQueueCapacity()), threadFactory);
+        }
+    }
+
+    /**
+     * 先提交攒批缓冲中的消息再关闭, 此时生产者池和默认生产者尚未销毁
+     */
+    @PreDestroy
+    private void destroy() {
+        if (batchSender != null) {
+            batchSender.shutdown();
+        }
+        if (blobExecutor != null) {
+            blobExecutor.shutdown();
+        }
+    }
 
     /**
      * 同步发送
+     * <p>开启aliwaremq.producer.outbox.enabled且在Spring事务中调用时, 只写入发件箱, 事务提交后由后台转发,
+     * 返回结果不包含消息id</p>
      *
      * @param msg 消息
      * @return 发送结果
      */
     public SendResult send(Message msg) {
-        return producer.send(msg);
+        if (inOutboxTransaction()) {
+            return outboxWriter.append(msg);
+        }
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            SendResult sendResult = producerFor(msg.getTopic()).send(msg);
+            success = true;
+            return sendResult;
+        } finally {
+            metrics.sendMetrics(msg.getTopic(), msg.getTag(), AliwareMqMetrics.MODE_SYNC)
+                    .record(System.nanoTime() - startNanos, success);
+        }
     }
 
     /**
@@ -43,16 +167,117 @@ public class AliwareMqProducer {
      */
     public <T> SendResult send(String topic, T msg) {
         Message message = convert(topic, msg);
-        return producer.send(message);
+        boolean outbox = inOutboxTransaction();
+        SendResult sendResult = discardOnFailure(message, () -> send(message));
+        if (outbox) {
+            discardOnRollback(message);
+        }
+        return sendResult;
+    }
+
+    /**
+     * 顺序发送
+     * <p>需开启aliwaremq.producer.order-enabled, 相同分区键的消息发送到同一分区, 按发送顺序消费</p>
+     * <p>发件箱转发不保留分区键, 开启发件箱时不能在Spring事务中调用</p>
+     *
+     * @param msg         消息
+     * @param shardingKey 分区键, 如订单号
+     * @return 发送结果
+     */
+    public SendResult sendOrderly(Message msg, String shardingKey) {
+        if (orderProducer == null) {
+            throw new IllegalStateException("未启用顺序消息生产者, 请配置aliwaremq.producer.order-enabled=true");
+        }
+        if (inOutboxTransaction()) {
+            throw new IllegalStateException("发件箱转发不保证分区顺序, 顺序消息请在事务提交后发送");
+        }
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            SendResult sendResult = orderProducer.send(msg, shardingKey);
+            success = true;
+            return sendResult;
+        } finally {
+            metrics.sendMetrics(msg.getTopic(), msg.getTag(), AliwareMqMetrics.MODE_ORDER)
+                    .record(System.nanoTime() - startNanos, success);
+        }
+    }
+
+    /**
+     * 顺序发送
+     *
+     * @param topic       主题
+     * @param msg         消息体
+     * @param shardingKey 分区键, 如订单号
+     * @param <T>         泛型
+     * @return 发送结果
+     */
+    public <T> SendResult sendOrderly(String topic, T msg, String shardingKey) {
+        Message message = convert(topic, msg);
+        return discardOnFailure(message, () -> sendOrderly(message, shardingKey));
+    }
+
+    /**
+     * 事务发送
+     * <p>需开启aliwaremq.producer.transaction-enabled, 消息发送成功后执行本地事务, 按本地事务状态提交或回滚消息</p>
+     * <p>本地事务状态未知时, 服务端通过主题对应的{@link AliwareMqTransactionChecker}回查</p>
+     *
+     * @param msg      消息
+     * @param executer 本地事务执行
+     * @param arg      本地事务参数
+     * @return 发送结果
+     */
+    public SendResult sendInTransaction(Message msg, LocalTransactionExecuter executer, Object arg) {
+        if (transactionProducer == null) {
+            throw new IllegalStateException("未启用事务消息生产者, 请配置aliwaremq.producer.transaction-enabled=true");
+        }
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            SendResult sendResult = transactionProducer.send(msg, executer, arg);
+            success = true;
+            return sendResult;
+        } finally {
+            metrics.sendMetrics(msg.getTopic(), msg.getTag(), AliwareMqMetrics.MODE_TRANSACTION)
+                    .record(System.nanoTime() - startNanos, success);
+        }
+    }
+
+    /**
+     * 事务发送
+     *
+     * @param topic    主题
+     * @param msg      消息体
+     * @param executer 本地事务执行
+     * @param arg      本地事务参数
+     * @param <T>      泛型
+     * @return 发送结果
+     */
+    public <T> SendResult sendInTransaction(String topic, T msg, LocalTransactionExecuter executer, Object arg) {
+        Message message = convert(topic, msg);
+        return discardOnFailure(message, () -> sendInTransaction(message, executer, arg));
     }
 
     /**
      * 单向发送
+     * <p>开启发件箱且在Spring事务中调用时, 同{@link #send(Message)}只写入发件箱</p>
      *
      * @param msg 消息
      */
     public void sendOneway(Message msg) {
-        producer.sendOneway(msg);
+        if (inOutboxTransaction()) {
+            outboxWriter.append(msg);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            producerFor(msg.getTopic()).sendOneway(msg);
+            success = true;
+        } finally {
+            metrics.sendMetrics(msg.getTopic(), msg.getTag(), AliwareMqMetrics.MODE_ONEWAY)
+                    .record(System.nanoTime() - startNanos, success);
+        }
     }
 
     /**
@@ -64,7 +289,108 @@ public class AliwareMqProducer {
      */
     public <T> void sendOneway(String topic, T msg) {
         Message message = convert(topic, msg);
-        producer.sendOneway(message);
+        boolean outbox = inOutboxTransaction();
+        discardOnFailure(message, () -> {
+            sendOneway(message);
+            return null;
+        });
+        if (outbox) {
+            discardOnRollback(message);
+        }
+    }
+
+    /**
+     * 异步发送
+     * <p>在途消息数达到上限时, 最多等待asyncAcquireTimeoutMillis, 超时则返回失败结果</p>
+     * <p>开启发件箱且在Spring事务中调用时, 同{@link #send(Message)}只写入发件箱, 返回已完成的结果</p>
+     *
+     * @param msg 消息
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> sendAsync(Message msg) {
+        return sendAsync(msg, AliwareMqMetrics.MODE_ASYNC);
+    }
+
+    /**
+     * 异步发送, 不等待在途许可
+     * <p>在途消息数达到上限时立即返回以{@link RejectedExecutionException}失败的结果, 用于不能阻塞的线程, 如事件循环线程</p>
+     *
+     * @param msg 消息
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> trySendAsync(Message msg) {
+        return sendAsync(msg, AliwareMqMetrics.MODE_ASYNC, 0);
+    }
+
+    /**
+     * 异步发送, 不等待在途许可
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param <T>   泛型
+     * @return 发送结果
+     */
+    public <T> CompletableFuture<SendResult> trySendAsync(String topic, T msg) {
+        return sendConverted(topic, msg, this::trySendAsync);
+    }
+
+    /**
+     * 按发送方式记录指标的异步发送
+     * <p>供攒批发送器和发件箱转发使用, 同样按主题路由到生产者池并受在途消息数限制</p>
+     *
+     * @param msg  消息
+     * @param mode 发送方式, 用于指标, 取{@link AliwareMqMetrics}中的MODE_常量
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> sendAsync(Message msg, String mode) {
+        return sendAsync(msg, mode, asyncAcquireTimeoutMillis);
+    }
+
+    /**
+     * 异步发送
+     *
+     * @param msg                  消息
+     * @param mode                 发送方式, 用于指标
+     * @param acquireTimeoutMillis 等待在途许可的最大时长, 单位:毫秒, 0表示不等待
+     * @return 发送结果
+     */
+    private CompletableFuture<SendResult> sendAsync(Message msg, String mode, long acquireTimeoutMillis) {
+        if (inOutboxTransaction()) {
+            return appendOutbox(msg);
+        }
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        try {
+            boolean acquired = acquireTimeoutMillis > 0
+                    ? inFlightPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS) : inFlightPermits.tryAcquire();
+            if (!acquired) {
+                future.completeExceptionally(new RejectedExecutionException(
+                        String.format("异步发送在途消息数已达上限%d", aliwareMqProperties.getProducer().getMaxInFlightAsyncSends())));
+                return future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            producerFor(msg.getTopic()).sendAsync(msg, buildSendCallback(msg, mode, future, startNanos));
+        } catch (Exception e) {
+            complete(msg, mode, startNanos, false, () -> future.completeExceptionally(e));
+        }
+        return future;
+    }
+
+    /**
+     * 异步发送
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param <T>   泛型
+     * @return 发送结果
+     */
+    public <T> CompletableFuture<SendResult> sendAsync(String topic, T msg) {
+        return sendConverted(topic, msg, this::sendAsync);
     }
 
     /**
@@ -75,8 +401,13 @@ public class AliwareMqProducer {
      * @param onException 发送异常回调
      */
     public void sendAsync(Message msg, Consumer<SendResult> onSuccess, Consumer<OnExceptionContext> onException) {
-        SendCallback sendCallback = buildSendCallback();
-        producer.sendAsync(msg, sendCallback);
+        sendAsync(msg).whenComplete((sendResult, throwable) -> {
+            if (throwable == null) {
+                onSuccess.accept(sendResult);
+            } else {
+                onException.accept(buildExceptionContext(msg.getTopic(), msg.getMsgID(), throwable));
+            }
+        });
     }
 
     /**
@@ -89,43 +420,419 @@ public class AliwareMqProducer {
      * @param <T>         泛型
      */
     public <T> void sendAsync(String topic, T msg, Consumer<SendResult> onSuccess, Consumer<OnExceptionContext> onException) {
-        SendCallback sendCallback = buildSendCallback();
-        Message message = convert(topic, msg);
-        producer.sendAsync(message, sendCallback);
+        sendAsync(topic, msg).whenComplete((sendResult, throwable) -> {
+            if (throwable == null) {
+                onSuccess.accept(sendResult);
+            } else {
+                onException.accept(buildExceptionContext(topic, null, throwable));
+            }
+        });
+    }
+
+    /**
+     * 异步发送耗时直方图
+     *
+     * @return 耗时直方图
+     */
+    public SendLatencyHistogram getAsyncLatencyHistogram() {
+        return asyncLatencyHistogram;
+    }
+
+    /**
+     * 当前异步发送在途消息数
+     *
+     * @return 在途消息数
+     */
+    public int getAsyncInFlight() {
+        return aliwareMqProperties.getProducer().getMaxInFlightAsyncSends() - inFlightPermits.availablePermits();
+    }
+
+    /**
+     * 攒批发送
+     * <p>需开启aliwaremq.producer.batch.enabled, 开启发件箱且在Spring事务中调用时只写入发件箱</p>
+     *
+     * @param msg 消息
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> sendBatched(Message msg) {
+        if (batchSender == null) {
+            throw new IllegalStateException("未开启攒批发送, 请配置aliwaremq.producer.batch.enabled=true");
+        }
+        if (inOutboxTransaction()) {
+            return appendOutbox(msg);
+        }
+        return batchSender.send(msg);
+    }
+
+    /**
+     * 攒批发送
+     * <p>需开启aliwaremq.producer.batch.enabled</p>
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param <T>   泛型
+     * @return 发送结果
+     */
+    public <T> CompletableFuture<SendResult> sendBatched(String topic, T msg) {
+        return sendConverted(topic, msg, this::sendBatched);
+    }
+
+    /**
+     * 延时发送
+     * <p>开启aliwaremq.producer.delay.timer-wheel-enabled且延时小于localThresholdMillis时, 由进程内时间轮到期后发送,
+     * 否则设置StartDeliverTime立即异步发送, 由服务端定时投递</p>
+     * <p>开启发件箱且在Spring事务中调用时, 设置StartDeliverTime后写入发件箱, 由服务端定时投递</p>
+     * <p>延时超出aliwaremq.producer.delay.max-delay-millis时返回以IllegalArgumentException失败的结果</p>
+     *
+     * @param msg   消息
+     * @param delay 延时
+     * @return 发送结果, 进程内延时的消息到期发送后完成
+     */
+    public CompletableFuture<SendResult> sendDelayed(Message msg, Duration delay) {
+        return sendAt(msg, System.currentTimeMillis() + delay.toMillis());
+    }
+
+    /**
+     * 延时发送
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param delay 延时
+     * @param <T>   泛型
+     * @return 发送结果
+     */
+    public <T> CompletableFuture<SendResult> sendDelayed(String topic, T msg, Duration delay) {
+        long deliverAtMillis = System.currentTimeMillis() + delay.toMillis();
+        return sendConverted(topic, msg, message -> sendAt(message, deliverAtMillis));
+    }
+
+    /**
+     * 定时发送, 投递方式同{@link #sendDelayed(Message, Duration)}
+     *
+     * @param msg       消息
+     * @param deliverAt 投递时间
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> sendAt(Message msg, Instant deliverAt) {
+        return sendAt(msg, deliverAt.toEpochMilli());
+    }
+
+    /**
+     * 定时发送
+     *
+     * @param topic     主题
+     * @param msg       消息体
+     * @param deliverAt 投递时间
+     * @param <T>       泛型
+     * @return 发送结果
+     */
+    public <T> CompletableFuture<SendResult> sendAt(String topic, T msg, Instant deliverAt) {
+        return sendConverted(topic, msg, message -> sendAt(message, deliverAt));
+    }
+
+    /**
+     * 按延时长短选择进程内时间轮或服务端定时投递
+     *
+     * @param msg             消息
+     * @param deliverAtMillis 投递时间, 单位:毫秒
+     * @return 发送结果
+     */
+    private CompletableFuture<SendResult> sendAt(Message msg, long deliverAtMillis) {
+        long delayMillis = deliverAtMillis - System.currentTimeMillis();
+        AliwareMqProperties.Delay delay = aliwareMqProperties.getProducer().getDelay();
+        if (delayMillis > delay.getMaxDelayMillis()) {
+            CompletableFuture<SendResult> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException(String.format("消息[主题:%s]延时%dms超出服务端定时投递上限%dms",
+                    msg.getTopic(), delayMillis, delay.getMaxDelayMillis())));
+            return future;
+        }
+        if (delayedMessageScheduler != null && !inOutboxTransaction() && delayMillis < delay.getLocalThresholdMillis()) {
+            // 在推进线程中发送, 不等待在途许可, 达到上限时拒绝
+            return delayedMessageScheduler.schedule(msg, deliverAtMillis, message -> sendAsync(message, AliwareMqMetrics.MODE_DELAY, 0));
+        }
+        msg.setStartDeliverTime(deliverAtMillis);
+        return sendAsync(msg, AliwareMqMetrics.MODE_DELAY);
+    }
+
+    /**
+     * 是否开启发件箱且当前线程在Spring事务中
+     *
+     * @return 是否写入发件箱
+     */
+    private boolean inOutboxTransaction() {
+        return outboxWriter != null && outboxWriter.isTransactionActive();
+    }
+
+    /**
+     * 写入发件箱, 以已完成的结果返回
+     *
+     * @param msg 消息
+     * @return 发送结果
+     */
+    private CompletableFuture<SendResult> appendOutbox(Message msg) {
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        try {
+            future.complete(outboxWriter.append(msg));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 按主题选择生产者, 主题配置在生产者池中时由池发送, 否则使用默认生产者
+     *
+     * @param topic 主题
+     * @return 生产者
+     */
+    private Producer producerFor(String topic) {
+        if (producerRouter != null) {
+            Producer pooled = producerRouter.route(topic);
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return producer;
     }
 
     /**
      * 构造回调
+     * <p>回调完成时释放在途许可并记录耗时, 结果通知在回调线程池中执行</p>
      *
+     * @param msg        消息
+     * @param mode       发送方式
+     * @param future     发送结果
+     * @param startNanos 发送开始时间
      * @return 回调
      */
-    private SendCallback buildSendCallback() {
+    private SendCallback buildSendCallback(Message msg, String mode, CompletableFuture<SendResult> future, long startNanos) {
         return new SendCallback() {
             @Override
             public void onSuccess(SendResult sendResult) {
-                onSuccess(sendResult);
+                complete(msg, mode, startNanos, true, () -> future.complete(sendResult));
             }
 
             @Override
             public void onException(OnExceptionContext context) {
-                onException(context);
+                complete(msg, mode, startNanos, false, () -> future.completeExceptionally(context.getException()));
             }
         };
     }
 
+    /**
+     * 完成异步发送
+     *
+     * @param msg        消息
+     * @param mode       发送方式
+     * @param startNanos 发送开始时间
+     * @param success    是否发送成功
+     * @param completion 结果通知
+     */
+    private void complete(Message msg, String mode, long startNanos, boolean success, Runnable completion) {
+        inFlightPermits.release();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        asyncLatencyHistogram.record(elapsedNanos, success);
+        metrics.sendMetrics(msg.getTopic(), msg.getTag(), mode).record(elapsedNanos, success);
+        if (callbackExecutor == null) {
+            completion.run();
+            return;
+        }
+        try {
+            callbackExecutor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            // 回调线程池饱和时, 在客户端回调线程中执行, 保证结果不丢失
+            completion.run();
+        }
+    }
+
+    /**
+     * 构造异常上下文
+     *
+     * @param topic     主题
+     * @param messageId 消息id, 未发送时为空
+     * @param throwable 异常
+     * @return 异常上下文
+     */
+    private OnExceptionContext buildExceptionContext(String topic, String messageId, Throwable throwable) {
+        OnExceptionContext context = new OnExceptionContext();
+        context.setTopic(topic);
+        context.setMessageId(messageId);
+        context.setException(throwable instanceof ONSClientException
+                ? (ONSClientException) throwable : new ONSClientException(throwable));
+        return context;
+    }
+
     /**
      * 消息体转换
+     * <p>按主题选择编解码器, 并将编解码器名称写入消息用户属性</p>
+     * <p>主题配置了压缩且消息体达到阈值时压缩, 并将压缩器名称写入消息用户属性</p>
+     * <p>开启大消息体引用且消息体达到阈值时存入BlobStore, 消息只携带引用; 在调用线程中执行存储IO,
+     * 不能阻塞的调用方使用{@link #convertAsync(String, Object)}</p>
+     * <p>公开供先构造消息、再按需重试发送的调用方使用, 如响应式生产者; 最终未发送成功时调用{@link #discardClaimCheck(Message)}</p>
      *
      * @param topic 主题
      * @param msg   消息体
      * @param <T>   泛型
      * @return 消息
      */
-    private <T> Message convert(String topic, T msg) {
+    public <T> Message convert(String topic, T msg) {
+        Message message = encode(topic, msg);
+        if (requiresClaimCheck(message)) {
+            putBlob(message);
+        }
+        return message;
+    }
+
+    /**
+     * 消息体转换, 需要存入BlobStore时在存储线程池中保存, 不阻塞调用线程
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param <T>   泛型
+     * @return 消息, 存储线程池饱和时以{@link RejectedExecutionException}失败
+     */
+    public <T> CompletableFuture<Message> convertAsync(String topic, T msg) {
+        Message message = encode(topic, msg);
+        if (!requiresClaimCheck(message)) {
+            return CompletableFuture.completedFuture(message);
+        }
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        try {
+            blobExecutor.execute(() -> {
+                try {
+                    putBlob(message);
+                    future.complete(message);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 删除消息已存入BlobStore的消息体, 用于转换后未发送成功的消息, 未引用时不处理
+     *
+     * @param message 消息
+     */
+    public void discardClaimCheck(Message message) {
+        String reference = message.getUserProperties(ClaimCheckResolver.REFERENCE_PROPERTY);
+        if (reference == null || claimCheckStore == null) {
+            return;
+        }
+        try {
+            claimCheckStore.delete(reference);
+        } catch (RuntimeException e) {
+            log.warn("删除未发送消息的消息体[{}]失败, 由存储按保留期清理", reference, e);
+        }
+    }
+
+    /**
+     * 编码并按配置压缩, 不访问存储
+     */
+    private <T> Message encode(String topic, T msg) {
         Message message = new Message();
         message.setTopic(topic);
-        String msgBody = gson.toJson(msg);
-        message.setBody(msgBody.getBytes(UTF_8));
+        MessageCodec codec = messageCodecRegistry.getCodec(topicCodecs.get(topic));
+        byte[] body = codec.encode(msg);
+        message.putUserProperties(MessageCodec.CODEC_PROPERTY, codec.getName());
+        AliwareMqProperties.Compression compression = topicCompressions.getOrDefault(topic, defaultCompression);
+        if (compressorRegistry != null && compression.getAlgorithm() != null && body.length >= compression.getThresholdBytes()) {
+            MessageCompressor compressor = compressorRegistry.getCompressor(compression.getAlgorithm());
+            body = compressor.compress(body);
+            message.putUserProperties(MessageCompressor.COMPRESSION_PROPERTY, compressor.getName());
+        }
+        message.setBody(body);
         return message;
     }
+
+    private boolean requiresClaimCheck(Message message) {
+        return claimCheckStore != null && message.getBody().length >= aliwareMqProperties.getClaimCheck().getThresholdBytes();
+    }
+
+    /**
+     * 消息体存入BlobStore, 消息体替换为引用
+     */
+    private void putBlob(Message message) {
+        String reference = claimCheckStore.put(message.getTopic(), message.getBody());
+        message.putUserProperties(ClaimCheckResolver.REFERENCE_PROPERTY, reference);
+        message.setBody(reference.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 同步发送已转换的消息, 发送失败时删除已存入BlobStore的消息体
+     */
+    private <R> R discardOnFailure(Message message, Supplier<R> sender) {
+        try {
+            return sender.get();
+        } catch (RuntimeException e) {
+            discardClaimCheck(message);
+            throw e;
+        }
+    }
+
+    /**
+     * 已写入发件箱的消息在事务回滚时删除已存入BlobStore的消息体, 未引用时不处理
+     */
+    private void discardOnRollback(Message message) {
+        if (message.getUserProperties(ClaimCheckResolver.REFERENCE_PROPERTY) != null) {
+            outboxWriter.onRollback(() -> discardClaimCheck(message));
+        }
+    }
+
+    /**
+     * 转换后异步发送, 需要存入BlobStore时在存储线程池中保存后发送, 发送失败时删除已保存的消息体
+     * <p>开启发件箱且在Spring事务中调用时, 事务只对调用线程可见, 在调用线程中保存消息体并写入发件箱, 事务回滚时删除已保存的消息体</p>
+     *
+     * @param topic  主题
+     * @param msg    消息体
+     * @param sender 发送函数
+     * @param <T>    泛型
+     * @return 发送结果
+     */
+    private <T> CompletableFuture<SendResult> sendConverted(String topic, T msg, Function<Message, CompletableFuture<SendResult>> sender) {
+        if (inOutboxTransaction()) {
+            Message message = convert(topic, msg);
+            CompletableFuture<SendResult> appended = discardOnFailure(message, () -> sender.apply(message));
+            if (appended.isCompletedExceptionally()) {
+                discardClaimCheck(message);
+            } else {
+                discardOnRollback(message);
+            }
+            return appended;
+        }
+        CompletableFuture<Message> converted = convertAsync(topic, msg);
+        if (converted.isDone() && !converted.isCompletedExceptionally()) {
+            Message message = converted.join();
+            if (message.getUserProperties(ClaimCheckResolver.REFERENCE_PROPERTY) == null) {
+                return sender.apply(message);
+            }
+        }
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        converted.whenComplete((message, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+                return;
+            }
+            CompletableFuture<SendResult> sent;
+            try {
+                sent = sender.apply(message);
+            } catch (RuntimeException e) {
+                discardClaimCheck(message);
+                future.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((sendResult, sendThrowable) -> {
+                if (sendThrowable == null) {
+                    future.complete(sendResult);
+                } else {
+                    discardClaimCheck(message);
+                    future.completeExceptionally(sendThrowable);
+                }
+            });
+        });
+        return future;
+    }
 }
@@ -0,0 +1,47 @@
+package priv.ln.aliwaremq.spring.boot.core;
+
+import com.aliyun.openservices.ons.api.transaction.TransactionStatus;
+import com.aliyun.openservices.shade.org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 阿里云消息队列本地事务回查
+ * <p>事务消息发送后本地事务状态未知(如执行超时、应用重启)时, 服务端按主题回查本地事务状态</p>
+ * <p>回查单一主题时, 需实现getTopic</p>
+ * <p>回查多个主题时, 需实现getTopics</p>
+ * <p>消息类型为Message时接收原始消息, 否则按消息记录的编解码器解码消息体</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface AliwareMqTransactionChecker<T> {
+
+    /**
+     * 回查的主题
+     *
+     * @return 主题
+     */
+    default String getTopic() {
+        return StringUtils.EMPTY;
+    }
+
+    /**
+     * 回查的主题集合
+     *
+     * @return 主题集合
+     */
+    default List<String> getTopics() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 回查本地事务状态
+     *
+     * @param message 消息
+     * @return 提交、回滚或未知, 未知时服务端稍后再次回查
+     */
+    TransactionStatus check(T message);
+}
@@ -0,0 +1,47 @@
+package priv.ln.aliwaremq.spring.boot.core;
+
+import priv.ln.aliwaremq.spring.boot.filter.MessageFilter;
+
+import java.util.function.Consumer;
+
+/**
+ * 消息路由
+ * <p>表达式在构造时编译, 消费时于解码前按标签、keys和用户属性求值, 满足时交给该路由的处理方法</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public final class MessageRoute<T> {
+    private final MessageFilter filter;
+    private final Consumer<T> handler;
+
+    private MessageRoute(MessageFilter filter, Consumer<T> handler) {
+        this.filter = filter;
+        this.handler = handler;
+    }
+
+    /**
+     * 构造消息路由
+     *
+     * @param expression 路由表达式, 语法见{@link MessageFilter}
+     * @param handler    处理方法
+     * @param <T>        消息类型
+     * @return 消息路由
+     * @throws IllegalArgumentException 表达式语法错误
+     */
+    public static <T> MessageRoute<T> of(String expression, Consumer<T> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("路由处理方法不能为空");
+        }
+        return new MessageRoute<>(MessageFilter.compile(expression), handler);
+    }
+
+    public MessageFilter getFilter() {
+        return filter;
+    }
+
+    public Consumer<T> getHandler() {
+        return handler;
+    }
+}
@@ -0,0 +1,115 @@
+package priv.ln.aliwaremq.spring.boot.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 发送耗时直方图
+ * <p>按固定耗时区间分桶计数, 记录开销为一次数组查找和一次LongAdder累加</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class SendLatencyHistogram {
+    /**
+     * 分桶上界, 单位:毫秒, 最后一个桶收集超过上界的全部耗时
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public SendLatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次发送耗时
+     *
+     * @param nanos   耗时, 单位:纳秒
+     * @param success 是否发送成功
+     */
+    public void record(long nanos, boolean success) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int index = 0;
+        while (index < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        totalNanos.add(nanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * @return 分桶上界, 单位:毫秒
+     */
+    public long[] getBucketBoundsMillis() {
+        return BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * @return 各分桶计数, 长度比分桶上界多1
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * @return 总发送次数
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return 发送失败次数
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return 平均耗时, 单位:毫秒
+     */
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * 估算耗时分位值, 返回分位值所在分桶的上界
+     *
+     * @param percentile 分位, 取值范围0 ~ 1
+     * @return 耗时上界, 单位:毫秒, 落在最后一个分桶时返回Long.MAX_VALUE
+     */
+    public long percentileUpperBoundMillis(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= threshold && cumulative > 0) {
+                return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] : Long.MAX_VALUE;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,369 @@
+package priv.ln.aliwaremq.spring.boot.core.batch;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 攒批发送器
+ * <p>同一主题的消息进入有界缓冲队列, 按消息数量、字节数或等待时长凑成一组后提交</p>
+ * <p>客户端不提供多消息单次发送接口, 一组消息仍是逐条异步发送, 不减少网络往返次数, 只是将发送集中到共享的刷新线程上,
+ * 调用线程不等待网络往返; 所有主题共用{@link AliwareMqProperties.Batch#getFlushThreads()}个刷新线程</p>
+ * <p>逐条发送经构造时传入的发送函数, 自动配置时为AliwareMqProducer的异步发送: 按主题路由到生产者池, 受在途消息数限制并记录发送指标,
+ * 在途消息数达到上限时刷新线程等待许可, 缓冲队列随之积压</p>
+ * <p>关闭时先发送缓冲队列中剩余消息, 超时未发送或关闭后入队的消息以IllegalStateException失败, 不会遗留未完成的发送结果</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class AliwareMqBatchSender {
+    /**
+     * 关闭时等待剩余消息提交的总时长, 单位:毫秒
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    private final Function<Message, CompletableFuture<SendResult>> sender;
+    private final AliwareMqProperties.Batch config;
+    private final BatchSendStatistics statistics;
+    private final Map<String, TopicBuffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor flusher;
+    private volatile boolean running;
+    /**
+     * 关闭完成, 此后入队的消息由发送方自行失败
+     */
+    private volatile boolean closed;
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    /**
+     * @param sender 异步发送一条消息
+     * @param config 攒批配置
+     */
+    public AliwareMqBatchSender(Function<Message, CompletableFuture<SendResult>> sender, AliwareMqProperties.Batch config) {
+        this.sender = sender;
+        this.config = config;
+        this.statistics = new BatchSendStatistics(config.getBatchSize());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aliwaremq-batch-");
+        threadFactory.setDaemon(true);
+        this.flusher = new ScheduledThreadPoolExecutor(config.getFlushThreads(), threadFactory);
+        // 关闭时由shutdown统一提交剩余消息, 不再等待未到期的攒批
+        this.flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.flusher.setRemoveOnCancelPolicy(true);
+    }
+
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * 停止接收新消息, 提交缓冲队列中剩余消息, 超时未提交的消息以异常完成
+     * <p>AliwareMqProducer销毁时先调用, 此时生产者尚未关闭; 重复调用直接返回</p>
+     */
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        try {
+            buffers.values().forEach(buffer -> flusher.execute(buffer::drain));
+        } catch (RejectedExecutionException e) {
+            log.warn("攒批发送器已关闭, 剩余消息直接失败");
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("攒批发送器在{}毫秒内未提交完剩余消息", SHUTDOWN_TIMEOUT_MILLIS);
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flusher.shutdownNow();
+        } finally {
+            closed = true;
+            buffers.values().forEach(TopicBuffer::failRemaining);
+        }
+    }
+
+    public BatchSendStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * 消息入队
+     *
+     * @param message 消息
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> send(Message message) {
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("攒批发送器未启动或已关闭"));
+            return future;
+        }
+        PendingMessage pending = new PendingMessage(message, future);
+        TopicBuffer buffer = buffers.computeIfAbsent(message.getTopic(), TopicBuffer::new);
+        try {
+            if (!buffer.offer(pending)) {
+                statistics.recordRejected();
+                future.completeExceptionally(new RejectedExecutionException(
+                        String.format("主题[%s]攒批缓冲队列已满", message.getTopic())));
+                return future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (closed) {
+            // 与shutdown并发入队, 关闭已完成, 不会再有刷新线程处理
+            buffer.failRemaining();
+        } else {
+            buffer.trigger();
+        }
+        return future;
+    }
+
+    /**
+     * 提交一组消息
+     *
+     * @param batch       一组消息
+     * @param lingerNanos 攒批等待时长
+     */
+    private void flush(List<PendingMessage> batch, long lingerNanos) {
+        statistics.recordBatch(batch.size(), lingerNanos);
+        for (PendingMessage pending : batch) {
+            try {
+                sender.apply(pending.message).whenComplete((sendResult, throwable) -> {
+                    if (throwable == null) {
+                        pending.future.complete(sendResult);
+                    } else {
+                        pending.future.completeExceptionally(throwable);
+                    }
+                });
+            } catch (Exception e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class PendingMessage {
+        private final Message message;
+        private final CompletableFuture<SendResult> future;
+        private final int bytes;
+        private final long enqueueNanos = System.nanoTime();
+
+        private PendingMessage(Message message, CompletableFuture<SendResult> future) {
+            this.message = message;
+            this.future = future;
+            this.bytes = message.getBody() == null ? 0 : message.getBody().length;
+        }
+    }
+
+    /**
+     * 单主题缓冲队列
+     * <p>凑满一组时立即提交刷新任务, 否则在首条消息入队后的攒批等待时长到期时提交; 同一主题同时只有一个刷新线程取消息</p>
+     */
+    private class TopicBuffer {
+        private final String topic;
+        private final BlockingQueue<PendingMessage> queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        private final AtomicLong queuedBytes = new AtomicLong();
+        private final ReentrantLock drainLock = new ReentrantLock();
+        /**
+         * 已提交立即刷新任务
+         */
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        /**
+         * 已提交到期刷新任务
+         */
+        private final AtomicBoolean lingerScheduled = new AtomicBoolean();
+        /**
+         * 超出上一组字节数限制, 留待下一组提交的消息, 持有drainLock时访问
+         */
+        private PendingMessage carry;
+
+        private TopicBuffer(String topic) {
+            this.topic = topic;
+        }
+
+        private boolean offer(PendingMessage pending) throws InterruptedException {
+            boolean offered;
+            switch (config.getBackpressure()) {
+                case FAIL_FAST:
+                    offered = queue.offer(pending);
+                    break;
+                case DROP_OLDEST:
+                    while (!queue.offer(pending)) {
+                        PendingMessage oldest = poll();
+                        if (oldest != null) {
+                            statistics.recordDropped();
+                            oldest.future.completeExceptionally(new RejectedExecutionException(
+                                    String.format("主题[%s]攒批缓冲队列已满, 消息被丢弃", topic)));
+                        }
+                    }
+                    offered = true;
+                    break;
+                case BLOCK:
+                default:
+                    offered = queue.offer(pending, config.getBlockTimeoutMillis(), TimeUnit.MILLISECONDS);
+                    break;
+            }
+            if (offered) {
+                queuedBytes.addAndGet(pending.bytes);
+            }
+            return offered;
+        }
+
+        private PendingMessage poll() {
+            PendingMessage pending = queue.poll();
+            if (pending != null) {
+                queuedBytes.addAndGet(-pending.bytes);
+            }
+            return pending;
+        }
+
+        /**
+         * 入队后提交刷新任务
+         */
+        private void trigger() {
+            try {
+                if (isFull()) {
+                    if (flushScheduled.compareAndSet(false, true)) {
+                        flusher.execute(() -> {
+                            flushScheduled.set(false);
+                            drain();
+                        });
+                    }
+                } else {
+                    scheduleLinger(config.getLingerMillis());
+                }
+            } catch (RejectedExecutionException e) {
+                // 关闭过程中, 剩余消息由shutdown处理
+                log.debug("攒批发送器已关闭, 主题[{}]不再提交刷新任务", topic);
+            }
+        }
+
+        private void scheduleLinger(long delayMillis) {
+            if (lingerScheduled.compareAndSet(false, true)) {
+                flusher.schedule(() -> {
+                    lingerScheduled.set(false);
+                    drain();
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private boolean isFull() {
+            return queue.size() >= config.getBatchSize() || queuedBytes.get() >= config.getMaxBatchBytes();
+        }
+
+        /**
+         * 提交已凑满或已到期的消息, 剩余消息按首条消息的到期时间重新调度
+         */
+        private void drain() {
+            if (!drainLock.tryLock()) {
+                // 其他刷新线程正在处理, 结束后会重新调度剩余消息
+                return;
+            }
+            long lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getLingerMillis());
+            boolean waiting = false;
+            long nextDeadline = 0;
+            List<PendingMessage> batch = new ArrayList<>(config.getBatchSize());
+            try {
+                while (true) {
+                    PendingMessage first = carry != null ? carry : queue.peek();
+                    if (first == null) {
+                        break;
+                    }
+                    long deadline = first.enqueueNanos + lingerNanos;
+                    if (running && !isFull() && deadline - System.nanoTime() > 0) {
+                        waiting = true;
+                        nextDeadline = deadline;
+                        break;
+                    }
+                    collect(batch);
+                    try {
+                        flush(batch, System.nanoTime() - batch.get(0).enqueueNanos);
+                    } catch (Exception e) {
+                        log.error("攒批发送主题[{}]发生异常", topic, e);
+                        batch.forEach(pending -> pending.future.completeExceptionally(e));
+                    } finally {
+                        batch.clear();
+                    }
+                }
+            } finally {
+                drainLock.unlock();
+            }
+            if (!running && !queue.isEmpty()) {
+                // 判断未到期后开始关闭, 关闭时不再调度到期刷新, 直接提交
+                drain();
+                return;
+            }
+            try {
+                if (waiting) {
+                    scheduleLinger(Math.max(0, TimeUnit.NANOSECONDS.toMillis(nextDeadline - System.nanoTime())));
+                } else if (!queue.isEmpty()) {
+                    scheduleLinger(0);
+                }
+            } catch (RejectedExecutionException e) {
+                log.debug("攒批发送器已关闭, 主题[{}]不再提交刷新任务", topic);
+            }
+        }
+
+        /**
+         * 取出一组消息, 不超过消息数量和字节数限制, 单条消息超过字节数限制时单独成组
+         */
+        private void collect(List<PendingMessage> batch) {
+            long bytes = 0;
+            while (batch.size() < config.getBatchSize()) {
+                PendingMessage next = carry != null ? carry : poll();
+                carry = null;
+                if (next == null) {
+                    return;
+                }
+                if (!batch.isEmpty() && bytes + next.bytes > config.getMaxBatchBytes()) {
+                    carry = next;
+                    return;
+                }
+                batch.add(next);
+                bytes += next.bytes;
+            }
+        }
+
+        /**
+         * 关闭后以异常完成所有未提交的消息
+         */
+        private void failRemaining() {
+            IllegalStateException closedException = new IllegalStateException(
+                    String.format("攒批发送器已关闭, 主题[%s]的消息未发送", topic));
+            drainLock.lock();
+            try {
+                if (carry != null) {
+                    carry.future.completeExceptionally(closedException);
+                    carry = null;
+                }
+                for (PendingMessage pending = poll(); pending != null; pending = poll()) {
+                    pending.future.completeExceptionally(closedException);
+                }
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package priv.ln.aliwaremq.spring.boot.core.batch;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 攒批发送统计
+ * <p>记录批次数、消息数、批次填充率和攒批等待时长, 供监控采集</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class BatchSendStatistics {
+    private final int batchSize;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder lingerNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public BatchSendStatistics(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 记录一次批次发送
+     *
+     * @param size        批次消息数量
+     * @param lingerNanos 批次首条消息入队到发送的等待时长, 单位:纳秒
+     */
+    void recordBatch(int size, long lingerNanos) {
+        this.batches.increment();
+        this.messages.add(size);
+        this.lingerNanos.add(lingerNanos);
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * @return 已发送批次数
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return 已发送消息数
+     */
+    public long getMessageCount() {
+        return messages.sum();
+    }
+
+    /**
+     * @return 因队列已满被拒绝的消息数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 因队列已满被丢弃的消息数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 平均批次填充率, 取值范围0 ~ 1
+     */
+    public double getAverageFillRatio() {
+        long batchCount = batches.sum();
+        return batchCount == 0 ? 0 : (double) messages.sum() / batchCount / batchSize;
+    }
+
+    /**
+     * @return 平均攒批等待时长, 单位:毫秒
+     */
+    public double getAverageLingerMillis() {
+        long batchCount = batches.sum();
+        return batchCount == 0 ? 0 : lingerNanos.sum() / 1_000_000.0 / batchCount;
+    }
+}
@@ -0,0 +1,228 @@
+package priv.ln.aliwaremq.spring.boot.core.delay;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内延时发送调度器
+ * <p>短延时消息加入分层时间轮, 由单个推进线程每个刻度推进一次, 到期后异步发送, 不为每条消息占用线程或定时任务</p>
+ * <p>调用线程只将消息放入无锁队列, 时间轮由推进线程独占, 无需加锁</p>
+ * <p>到期和转交的消息由调用方传入的发送函数发送, 与其他异步发送共用生产者池路由、在途许可、指标和回调线程</p>
+ * <p>关闭时未到期的消息以原到期时间设置StartDeliverTime立即发送, 转由服务端定时投递;
+ * 推进线程未能停止时不再访问时间轮, 其中的消息随进程退出丢失;
+ * 进程崩溃时时间轮中的消息丢失, 需可靠投递的消息应使用服务端定时投递</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class DelayedMessageScheduler {
+    /**
+     * 关闭时每次等待推进线程结束的最大时长, 单位:毫秒
+     */
+    private static final long SHUTDOWN_JOIN_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private final AliwareMqProperties.Delay config;
+    private final DelayedSendStatistics statistics = new DelayedSendStatistics();
+    /**
+     * 待加入时间轮的消息, 由推进线程取出
+     */
+    private final Queue<DelayedMessage> incoming = new ConcurrentLinkedQueue<>();
+    /**
+     * 已接收未发送的消息数, 包含待加入和时间轮中的消息
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    private final TimerWheel<DelayedMessage> wheel;
+    private final Thread ticker;
+    private volatile boolean running;
+
+    public DelayedMessageScheduler(AliwareMqProperties.Delay config) {
+        this.config = config;
+        this.wheel = new TimerWheel<>(config.getTickMillis(), config.getWheelSize(), System.currentTimeMillis());
+        this.ticker = new Thread(this::run, "aliwaremq-delay-ticker");
+        this.ticker.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        ticker.start();
+    }
+
+    /**
+     * 停止推进, 未到期的消息转为服务端定时投递
+     * <p>推进线程超时未结束时中断后再等待, 仍未结束则只转交尚未加入时间轮的消息, 时间轮由推进线程独占, 不并发访问</p>
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+        if (!awaitTicker()) {
+            ticker.interrupt();
+            awaitTicker();
+        }
+        DelayedMessage delayed;
+        while ((delayed = incoming.poll()) != null) {
+            handOff(delayed);
+        }
+        if (ticker.isAlive()) {
+            log.error("延时发送推进线程未能停止, 时间轮中{}条消息未转交", pending.get());
+            return;
+        }
+        wheel.drain(this::handOff);
+    }
+
+    /**
+     * 等待推进线程结束
+     *
+     * @return 推进线程是否已结束
+     */
+    private boolean awaitTicker() {
+        try {
+            ticker.join(SHUTDOWN_JOIN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !ticker.isAlive();
+    }
+
+    public DelayedSendStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return 已接收未发送的消息数
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 延时发送
+     *
+     * @param message         消息
+     * @param deliverAtMillis 到期时间, 单位:毫秒
+     * @param sender          到期或转交时的异步发送, 在推进线程或关闭线程中调用, 不应阻塞
+     * @return 到期后的发送结果
+     */
+    public CompletableFuture<SendResult> schedule(Message message, long deliverAtMillis,
+                                                  Function<Message, CompletableFuture<SendResult>> sender) {
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("延时发送调度器未启动或已关闭"));
+            return future;
+        }
+        if (pending.incrementAndGet() > config.getMaxPending()) {
+            pending.decrementAndGet();
+            statistics.recordRejected();
+            future.completeExceptionally(new RejectedExecutionException(
+                    String.format("延时发送等待消息数已达上限%d", config.getMaxPending())));
+            return future;
+        }
+        statistics.recordScheduled();
+        DelayedMessage delayed = new DelayedMessage(message, deliverAtMillis, sender, future);
+        incoming.offer(delayed);
+        if (!running && incoming.remove(delayed)) {
+            // 与关闭并发时, 由调用线程转交
+            handOff(delayed);
+        }
+        return future;
+    }
+
+    private void run() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(config.getTickMillis());
+        while (running) {
+            try {
+                DelayedMessage delayed;
+                while ((delayed = incoming.poll()) != null) {
+                    add(delayed);
+                }
+                wheel.advance(System.currentTimeMillis(), this::fire);
+            } catch (Exception e) {
+                log.error("延时发送推进线程发生异常", e);
+            }
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    /**
+     * 加入时间轮, 已到期时立即发送, 超出时间轮范围时转为服务端定时投递
+     *
+     * @param delayed 延时消息
+     */
+    private void add(DelayedMessage delayed) {
+        try {
+            if (!wheel.add(delayed, delayed.deliverAtMillis)) {
+                fire(delayed);
+            }
+        } catch (IllegalArgumentException e) {
+            handOff(delayed);
+        }
+    }
+
+    /**
+     * 到期发送
+     *
+     * @param delayed 延时消息
+     */
+    private void fire(DelayedMessage delayed) {
+        pending.decrementAndGet();
+        statistics.recordFired(Math.max(0, System.currentTimeMillis() - delayed.deliverAtMillis));
+        send(delayed);
+    }
+
+    /**
+     * 转为服务端定时投递, 用于关闭时未到期或超出时间轮范围的消息
+     *
+     * @param delayed 延时消息
+     */
+    private void handOff(DelayedMessage delayed) {
+        pending.decrementAndGet();
+        statistics.recordHandedOff();
+        delayed.message.setStartDeliverTime(delayed.deliverAtMillis);
+        send(delayed);
+    }
+
+    private void send(DelayedMessage delayed) {
+        CompletableFuture<SendResult> result;
+        try {
+            result = delayed.sender.apply(delayed.message);
+        } catch (Exception e) {
+            statistics.recordFailed();
+            delayed.future.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((sendResult, e) -> {
+            if (e != null) {
+                statistics.recordFailed();
+                delayed.future.completeExceptionally(e);
+            } else {
+                delayed.future.complete(sendResult);
+            }
+        });
+    }
+
+    private static class DelayedMessage {
+        private final Message message;
+        private final long deliverAtMillis;
+        private final Function<Message, CompletableFuture<SendResult>> sender;
+        private final CompletableFuture<SendResult> future;
+
+        private DelayedMessage(Message message, long deliverAtMillis, Function<Message, CompletableFuture<SendResult>> sender,
+                               CompletableFuture<SendResult> future) {
+            this.message = message;
+            this.deliverAtMillis = deliverAtMillis;
+            this.sender = sender;
+            this.future = future;
+        }
+    }
+}
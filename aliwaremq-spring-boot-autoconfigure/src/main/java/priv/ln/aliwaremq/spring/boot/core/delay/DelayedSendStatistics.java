@@ -0,0 +1,99 @@
+package priv.ln.aliwaremq.spring.boot.core.delay;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内延时发送统计
+ * <p>记录加入时间轮、到期发送、拒绝和发送失败的消息数, 以及实际发送时间相对到期时间的滞后</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class DelayedSendStatistics {
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder handedOff = new LongAdder();
+    private final LongAdder lagMillis = new LongAdder();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+
+    void recordScheduled() {
+        scheduled.increment();
+    }
+
+    /**
+     * 记录一次到期发送
+     *
+     * @param lagMillis 实际发送时间与到期时间之差, 单位:毫秒
+     */
+    void recordFired(long lagMillis) {
+        fired.increment();
+        this.lagMillis.add(lagMillis);
+        maxLagMillis.accumulate(lagMillis);
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordHandedOff() {
+        handedOff.increment();
+    }
+
+    /**
+     * @return 加入时间轮的消息数
+     */
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+
+    /**
+     * @return 到期发送的消息数
+     */
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    /**
+     * @return 因时间轮已满被拒绝的消息数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 到期发送失败的消息数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return 关闭时未到期或超出时间轮范围、转为服务端定时投递的消息数
+     */
+    public long getHandedOffCount() {
+        return handedOff.sum();
+    }
+
+    /**
+     * @return 平均到期滞后, 单位:毫秒
+     */
+    public double getAverageLagMillis() {
+        long count = fired.sum();
+        return count == 0 ? 0 : (double) lagMillis.sum() / count;
+    }
+
+    /**
+     * @return 最大到期滞后, 单位:毫秒
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+}
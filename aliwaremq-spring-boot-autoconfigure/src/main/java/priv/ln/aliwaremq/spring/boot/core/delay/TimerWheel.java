@@ -0,0 +1,181 @@
+package priv.ln.aliwaremq.spring.boot.core.delay;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * <p>第0层每槽一个刻度, 第n层每槽为第n-1层一整圈; 到期时间超出低层一圈的任务放入高层,
+ * 高层槽到达时降级到低层, 插入和每刻度推进均为常数时间, 不为每个任务占用线程</p>
+ * <p>非线程安全, 由单个推进线程使用</p>
+ *
+ * @param <T> 任务类型
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+class TimerWheel<T> {
+    /**
+     * 最大层数, 超出最高层一圈的任务拒绝加入
+     */
+    private static final int MAX_LEVELS = 4;
+
+    private final long tickMillis;
+    private final int wheelSize;
+    /**
+     * 各层每槽跨越的刻度数
+     */
+    private final long[] spans = new long[MAX_LEVELS];
+    /**
+     * 各层槽内任务链表头, 按需创建
+     */
+    @SuppressWarnings("unchecked")
+    private final Node<T>[][] levels = new Node[MAX_LEVELS][];
+    /**
+     * 已推进到的刻度
+     */
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis  刻度, 单位:毫秒
+     * @param wheelSize   每层槽数
+     * @param startMillis 起始时间, 单位:毫秒
+     */
+    TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("时间轮刻度必须大于0, 槽数必须大于1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        long span = 1;
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            spans[level] = span;
+            span = span > Long.MAX_VALUE / wheelSize ? Long.MAX_VALUE : span * wheelSize;
+        }
+    }
+
+    /**
+     * 加入任务
+     *
+     * @param task           任务
+     * @param deadlineMillis 到期时间, 单位:毫秒
+     * @return 已到期返回false, 由调用方立即执行
+     * @throws IllegalArgumentException 到期时间超出时间轮范围
+     */
+    boolean add(T task, long deadlineMillis) {
+        return add(new Node<>(task, deadlineMillis));
+    }
+
+    private boolean add(Node<T> node) {
+        long deadlineTick = node.deadlineMillis / tickMillis;
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            long span = spans[level];
+            // 与当前刻度相差不足一圈时放入该层, 保证槽位在到期前不会被提前访问
+            if (deadlineTick / span - currentTick / span < wheelSize) {
+                Node<T>[] slots = levels[level];
+                if (slots == null) {
+                    slots = newSlots();
+                    levels[level] = slots;
+                }
+                int index = (int) ((deadlineTick / span) % wheelSize);
+                node.next = slots[index];
+                slots[index] = node;
+                size++;
+                return true;
+            }
+        }
+        throw new IllegalArgumentException(String.format("到期时间超出时间轮范围, 刻度%dms, 槽数%d", tickMillis, wheelSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newSlots() {
+        return new Node[wheelSize];
+    }
+
+    /**
+     * 推进到指定时间, 依次执行到期任务
+     *
+     * @param nowMillis 当前时间, 单位:毫秒
+     * @param expired   到期任务处理
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // 先将高层到达的槽降级, 再执行第0层当前槽
+            for (int level = MAX_LEVELS - 1; level > 0; level--) {
+                long span = spans[level];
+                if (levels[level] != null && currentTick % span == 0) {
+                    int index = (int) ((currentTick / span) % wheelSize);
+                    Node<T> node = take(level, index);
+                    while (node != null) {
+                        Node<T> next = node.next;
+                        node.next = null;
+                        if (!add(node)) {
+                            expired.accept(node.task);
+                        }
+                        node = next;
+                    }
+                }
+            }
+            if (levels[0] != null) {
+                Node<T> node = take(0, (int) (currentTick % wheelSize));
+                while (node != null) {
+                    expired.accept(node.task);
+                    node = node.next;
+                }
+            }
+        }
+    }
+
+    private Node<T> take(int level, int index) {
+        Node<T> head = levels[level][index];
+        levels[level][index] = null;
+        for (Node<T> node = head; node != null; node = node.next) {
+            size--;
+        }
+        return head;
+    }
+
+    /**
+     * 取出全部未到期任务, 用于关闭时转交
+     *
+     * @param remaining 未到期任务处理
+     */
+    void drain(Consumer<T> remaining) {
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            if (levels[level] == null) {
+                continue;
+            }
+            for (int index = 0; index < wheelSize; index++) {
+                Node<T> node = take(level, index);
+                while (node != null) {
+                    remaining.accept(node.task);
+                    node = node.next;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 未到期任务数
+     */
+    int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+        private final T task;
+        private final long deadlineMillis;
+        private Node<T> next;
+
+        private Node(T task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Type;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 数据库表发件箱
+ * <p>通过JdbcTemplate写入, 在Spring事务中与业务数据使用同一连接, 随事务提交或回滚</p>
+ * <p>并发事务分配的自增id与提交顺序不一定一致, 因此确认时按id逐条删除, 不按id范围删除</p>
+ * <p>多个实例共享同一张表时按租约领取记录: 以条件更新将owner改为本实例并设置lease_until, 更新成功的记录才被本实例转发;
+ * 实例崩溃后租约到期, 记录由其他实例重新领取. 租约时间依赖各实例时钟, 时钟偏差需远小于leaseMillis</p>
+ * <p>失败次数达到上限的记录status置为1后保留在表中, 排查后将status改回0即可重新转发</p>
+ * <p>表结构(MySQL):</p>
+ * <pre>
+ * CREATE TABLE aliwaremq_outbox (
+ *     id                 BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+ *     topic              VARCHAR(255) NOT NULL,
+ *     tag                VARCHAR(255),
+ *     msg_key            VARCHAR(255),
+ *     start_deliver_time BIGINT       NOT NULL DEFAULT 0,
+ *     user_properties    VARCHAR(4000),
+ *     body               LONGBLOB,
+ *     status             TINYINT      NOT NULL DEFAULT 0,
+ *     attempts           INT          NOT NULL DEFAULT 0,
+ *     owner              VARCHAR(64),
+ *     lease_until        BIGINT       NOT NULL DEFAULT 0,
+ *     KEY idx_status_lease (status, lease_until)
+ * );
+ * </pre>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class JdbcOutboxStore implements OutboxStore {
+    private static final Type PROPERTIES_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
+    private static final int STATUS_PENDING = 0;
+    private static final int STATUS_PARKED = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long leaseMillis;
+    /**
+     * 本实例的领取标识
+     */
+    private final String owner = UUID.randomUUID().toString();
+    private final Gson gson = new Gson();
+    private final String insertSql;
+    private final String candidateSql;
+    private final String claimSql;
+    private final String selectSql;
+    private final String releaseSql;
+    private final String parkSql;
+    private final String deleteSql;
+    private final RowMapper<OutboxRecord> rowMapper = (rs, rowNum) -> {
+        OutboxRecord record = new OutboxRecord();
+        record.setId(rs.getLong("id"));
+        record.setTopic(rs.getString("topic"));
+        record.setTag(rs.getString("tag"));
+        record.setKey(rs.getString("msg_key"));
+        record.setStartDeliverTime(rs.getLong("start_deliver_time"));
+        String userProperties = rs.getString("user_properties");
+        if (userProperties != null) {
+            record.setUserProperties(gson.fromJson(userProperties, PROPERTIES_TYPE));
+        }
+        record.setBody(rs.getBytes("body"));
+        record.setAttempts(rs.getInt("attempts"));
+        return record;
+    };
+
+    /**
+     * @param jdbcTemplate JdbcTemplate, 需与业务数据使用同一数据源
+     * @param tableName    表名
+     * @param leaseMillis  领取租约时长, 单位:毫秒, 需大于一批记录的转发时长
+     */
+    public JdbcOutboxStore(JdbcTemplate jdbcTemplate, String tableName, long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseMillis = leaseMillis;
+        this.insertSql = "INSERT INTO " + tableName
+                + " (topic, tag, msg_key, start_deliver_time, user_properties, body) VALUES (?, ?, ?, ?, ?, ?)";
+        this.candidateSql = "SELECT id FROM " + tableName + " WHERE status = " + STATUS_PENDING
+                + " AND lease_until < ? ORDER BY id";
+        this.claimSql = "UPDATE " + tableName + " SET owner = ?, lease_until = ? WHERE id = ? AND status = "
+                + STATUS_PENDING + " AND lease_until < ?";
+        this.selectSql = "SELECT id, topic, tag, msg_key, start_deliver_time, user_properties, body, attempts FROM "
+                + tableName + " WHERE owner = ? AND lease_until = ? AND status = " + STATUS_PENDING + " ORDER BY id";
+        this.releaseSql = "UPDATE " + tableName + " SET owner = NULL, lease_until = 0, attempts = ? WHERE id = ? AND owner = ?";
+        this.parkSql = "UPDATE " + tableName + " SET owner = NULL, lease_until = 0, attempts = ?, status = "
+                + STATUS_PARKED + " WHERE id = ? AND owner = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE id = ?";
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public void append(List<OutboxRecord> records) {
+        jdbcTemplate.batchUpdate(insertSql, records, records.size(), (ps, record) -> {
+            ps.setString(1, record.getTopic());
+            ps.setString(2, record.getTag());
+            ps.setString(3, record.getKey());
+            ps.setLong(4, record.getStartDeliverTime());
+            ps.setString(5, record.getUserProperties().isEmpty() ? null : gson.toJson(record.getUserProperties()));
+            ps.setBytes(6, record.getBody());
+        });
+    }
+
+    /**
+     * 先读取未被领取或租约已过期的记录id, 再逐条条件更新领取, 最后读取本次领取成功的记录;
+     * 不依赖FOR UPDATE SKIP LOCKED, 领取不占用长事务
+     */
+    @Override
+    public List<OutboxRecord> poll(int maxRecords) {
+        long now = System.currentTimeMillis();
+        List<Long> candidates = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(candidateSql);
+            ps.setLong(1, now);
+            ps.setMaxRows(maxRecords);
+            ps.setFetchSize(maxRecords);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long leaseUntil = now + leaseMillis;
+        List<Object[]> claims = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            claims.add(new Object[]{owner, leaseUntil, id, now});
+        }
+        jdbcTemplate.batchUpdate(claimSql, claims);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(selectSql);
+            ps.setString(1, owner);
+            ps.setLong(2, leaseUntil);
+            ps.setFetchSize(maxRecords);
+            return ps;
+        }, rowMapper);
+    }
+
+    @Override
+    public void acknowledge(List<OutboxRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Object[]> ids = records.stream().map(record -> new Object[]{record.getId()}).collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(deleteSql, ids);
+    }
+
+    @Override
+    public void release(List<OutboxRecord> records) {
+        update(releaseSql, records);
+    }
+
+    @Override
+    public void park(List<OutboxRecord> records) {
+        update(parkSql, records);
+    }
+
+    private void update(String sql, List<OutboxRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = records.stream()
+                .map(record -> new Object[]{record.getAttempts(), record.getId(), owner})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+}
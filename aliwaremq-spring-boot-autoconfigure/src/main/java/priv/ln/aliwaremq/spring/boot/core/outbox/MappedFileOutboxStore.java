@@ -0,0 +1,381 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 内存映射段文件发件箱
+ * <p>记录顺序追加到固定大小的内存映射段文件, 格式为[int 长度][记录], 先写记录再写长度, 进程崩溃后按长度为0识别写入位置</p>
+ * <p>记录id为记录结束位置的全局偏移量, 确认时将最后一条记录的id写入checkpoint文件, 已全部确认的段文件被删除</p>
+ * <p>不参与数据库事务, 由{@link OutboxWriter}在事务提交后写入, 事务提交与写入之间进程崩溃会丢失该事务的消息,
+ * 不提供发件箱的原子性保证, 只适用于允许丢失的场景; 需要保证时使用{@link JdbcOutboxStore}</p>
+ * <p>只供单个进程使用, 不需要领取; 失败次数只记录在内存中, 重启后清零.
+ * 搁置的记录追加到parked文件, 格式同段文件, 需人工处理</p>
+ * <p>写入由单个锁串行化, 读取无锁</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class MappedFileOutboxStore implements OutboxStore {
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String PARKED_FILE = "parked";
+    /**
+     * 段内剩余空间不足时写入的跳转标记, 读取时跳到下一个段
+     */
+    private static final int ROLL_MARKER = -1;
+    private static final int LENGTH_BYTES = 4;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean syncOnAppend;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final FileChannel checkpointChannel;
+    private volatile Segment writeSegment;
+    /**
+     * 下一条记录的写入位置, 写入完成后发布, 读取不超过该位置
+     */
+    private volatile long writeOffset;
+    private volatile long ackedOffset;
+    /**
+     * 转发失败过的记录id与失败次数
+     */
+    private final NavigableMap<Long, Integer> attempts = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param directory    存储目录
+     * @param segmentBytes 段文件大小
+     * @param syncOnAppend 是否每次写入后刷盘
+     */
+    public MappedFileOutboxStore(Path directory, int segmentBytes, boolean syncOnAppend) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncOnAppend = syncOnAppend;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(base, Segment.open(file, base, (int) Math.max(Files.size(file), segmentBytes)));
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.put(0L, Segment.open(segmentPath(0), 0, segmentBytes));
+            }
+            this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer checkpoint = ByteBuffer.allocate(Long.BYTES);
+            this.ackedOffset = checkpointChannel.read(checkpoint, 0) == Long.BYTES ? checkpoint.getLong(0) : segments.firstKey();
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("打开发件箱目录[%s]失败", directory), e);
+        }
+        log.info("发件箱[{}]已打开, 段文件数:{}, 确认位置:{}, 写入位置:{}", directory, segments.size(), ackedOffset, writeOffset);
+    }
+
+    /**
+     * 扫描最后一个段, 定位写入位置
+     */
+    private void recover() throws IOException {
+        Segment segment = segments.lastEntry().getValue();
+        int position = 0;
+        while (position + LENGTH_BYTES <= segment.capacity) {
+            int length = segment.buffer.getInt(position);
+            if (length == ROLL_MARKER) {
+                position = segment.capacity;
+                break;
+            }
+            if (length <= 0 || position + LENGTH_BYTES + length > segment.capacity) {
+                break;
+            }
+            position += LENGTH_BYTES + length;
+        }
+        writeSegment = segment;
+        writeOffset = segment.base + position;
+        if (position + LENGTH_BYTES > segment.capacity) {
+            roll();
+        }
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public synchronized void append(List<OutboxRecord> records) {
+        long offset = writeOffset;
+        for (OutboxRecord record : records) {
+            byte[] payload = encode(record);
+            int size = LENGTH_BYTES + payload.length;
+            if (size > segmentBytes) {
+                throw new IllegalArgumentException(String.format("发件箱记录%d字节, 超过段文件大小%d", size, segmentBytes));
+            }
+            Segment segment = writeSegment;
+            int position = (int) (offset - segment.base);
+            if (position + size > segment.capacity) {
+                if (position + LENGTH_BYTES <= segment.capacity) {
+                    segment.buffer.putInt(position, ROLL_MARKER);
+                }
+                segment = roll();
+                position = 0;
+            }
+            ByteBuffer target = segment.buffer.duplicate();
+            target.position(position + LENGTH_BYTES);
+            target.put(payload);
+            segment.buffer.putInt(position, payload.length);
+            offset = segment.base + position + size;
+            record.setId(offset);
+        }
+        if (syncOnAppend) {
+            writeSegment.buffer.force();
+        }
+        writeOffset = offset;
+    }
+
+    /**
+     * 创建下一个段, 当前段写满
+     */
+    private Segment roll() {
+        Segment current = writeSegment;
+        long base = current.base + current.capacity;
+        try {
+            current.buffer.force();
+            Segment segment = Segment.open(segmentPath(base), base, segmentBytes);
+            segments.put(base, segment);
+            writeSegment = segment;
+            writeOffset = Math.max(writeOffset, base);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("创建发件箱段文件[%d]失败", base), e);
+        }
+    }
+
+    @Override
+    public List<OutboxRecord> poll(int maxRecords) {
+        long limit = writeOffset;
+        long offset = ackedOffset;
+        if (offset >= limit) {
+            return Collections.emptyList();
+        }
+        List<OutboxRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        while (records.size() < maxRecords && offset < limit) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                offset = segments.firstKey();
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base);
+            int length = position + LENGTH_BYTES <= segment.capacity ? segment.buffer.getInt(position) : ROLL_MARKER;
+            if (length == ROLL_MARKER || position >= segment.capacity) {
+                offset = segment.base + segment.capacity;
+                continue;
+            }
+            if (length <= 0) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer source = segment.buffer.duplicate();
+            source.position(position + LENGTH_BYTES);
+            source.get(payload);
+            offset += LENGTH_BYTES + length;
+            OutboxRecord record = decode(payload);
+            record.setId(offset);
+            record.setAttempts(attempts.getOrDefault(offset, 0));
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public void acknowledge(List<OutboxRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long offset = records.get(records.size() - 1).getId();
+        try {
+            ByteBuffer checkpoint = ByteBuffer.allocate(Long.BYTES);
+            checkpoint.putLong(0, offset);
+            checkpointChannel.write(checkpoint, 0);
+            if (syncOnAppend) {
+                checkpointChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入发件箱checkpoint失败", e);
+        }
+        ackedOffset = offset;
+        attempts.headMap(offset, true).clear();
+        // 删除已全部确认的段, 保留当前写入段
+        for (Segment segment : new ArrayList<>(segments.headMap(offset, true).values())) {
+            if (segment != writeSegment && segment.base + segment.capacity <= offset) {
+                segments.remove(segment.base);
+                segment.delete();
+            }
+        }
+    }
+
+    @Override
+    public void release(List<OutboxRecord> records) {
+        for (OutboxRecord record : records) {
+            if (record.getAttempts() > 0) {
+                attempts.put(record.getId(), record.getAttempts());
+            }
+        }
+    }
+
+    /**
+     * 追加到parked文件后确认, 记录需紧接在已确认位置之后
+     */
+    @Override
+    public void park(List<OutboxRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(PARKED_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (OutboxRecord record : records) {
+                byte[] payload = encode(record);
+                ByteBuffer buffer = ByteBuffer.allocate(LENGTH_BYTES + payload.length);
+                buffer.putInt(payload.length).put(payload).flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入发件箱parked文件失败", e);
+        }
+        acknowledge(records);
+    }
+
+    @Override
+    public void close() {
+        segments.values().forEach(Segment::close);
+        try {
+            checkpointChannel.close();
+        } catch (IOException e) {
+            log.warn("关闭发件箱checkpoint失败", e);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(OutboxRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (record.getBody() == null ? 0 : record.getBody().length));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(record.getTopic());
+            writeNullable(out, record.getTag());
+            writeNullable(out, record.getKey());
+            out.writeLong(record.getStartDeliverTime());
+            out.writeInt(record.getUserProperties().size());
+            for (Map.Entry<String, String> entry : record.getUserProperties().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+            byte[] body = record.getBody() == null ? new byte[0] : record.getBody();
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OutboxRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            OutboxRecord record = new OutboxRecord();
+            record.setTopic(in.readUTF());
+            record.setTag(readNullable(in));
+            record.setKey(readNullable(in));
+            record.setStartDeliverTime(in.readLong());
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                record.getUserProperties().put(in.readUTF(), in.readUTF());
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            record.setBody(body);
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * 段文件
+     */
+    private static class Segment {
+        private final Path path;
+        private final long base;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long base, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.base = base;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long base, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new Segment(path, base, capacity, channel, buffer);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("关闭发件箱段文件[{}]失败", path, e);
+            }
+        }
+
+        private void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除发件箱段文件[{}]失败", path, e);
+            }
+        }
+    }
+}
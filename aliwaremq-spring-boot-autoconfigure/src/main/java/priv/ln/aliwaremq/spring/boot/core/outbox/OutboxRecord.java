@@ -0,0 +1,72 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import com.aliyun.openservices.ons.api.Message;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 发件箱记录
+ * <p>保存已完成编码、压缩的消息, 转发时还原为消息</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Data
+public class OutboxRecord {
+    /**
+     * 记录id, 由存储分配, 同一存储内递增
+     */
+    private long id;
+    private String topic;
+    private String tag;
+    private String key;
+    /**
+     * 定时投递时间, 为0时立即投递
+     */
+    private long startDeliverTime;
+    private Map<String, String> userProperties = new HashMap<>();
+    private byte[] body;
+    /**
+     * 已失败的转发次数, 达到maxAttempts后搁置, 不再转发
+     */
+    private int attempts;
+
+    /**
+     * 由消息构造记录
+     *
+     * @param message 消息
+     * @return 记录
+     */
+    public static OutboxRecord of(Message message) {
+        OutboxRecord record = new OutboxRecord();
+        record.setTopic(message.getTopic());
+        record.setTag(message.getTag());
+        record.setKey(message.getKey());
+        record.setStartDeliverTime(message.getStartDeliverTime());
+        Properties properties = message.getUserProperties();
+        if (properties != null) {
+            properties.forEach((name, value) -> record.userProperties.put((String) name, (String) value));
+        }
+        record.setBody(message.getBody());
+        return record;
+    }
+
+    /**
+     * 还原为消息, 并将记录id写入用户属性{@link OutboxWriter#OUTBOX_ID_PROPERTY}, 消费者可据此去重
+     *
+     * @return 消息
+     */
+    public Message toMessage() {
+        Message message = new Message(topic, tag, key, body);
+        userProperties.forEach(message::putUserProperties);
+        message.putUserProperties(OutboxWriter.OUTBOX_ID_PROPERTY, Long.toString(id));
+        if (startDeliverTime > 0) {
+            message.setStartDeliverTime(startDeliverTime);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,196 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 发件箱转发
+ * <p>后台线程按批次读取发件箱, 批内消息以异步发送方式流水线提交, 再按写入顺序等待结果,
+ * 只确认连续成功的前缀; 遇到失败时归还其余记录, 退避后从第一条失败的记录重新转发, 保证至少一次投递</p>
+ * <p>同一记录失败达到maxAttempts次后被搁置, 不再阻塞后续记录, 需人工处理; 服务端长时间不可用时同样会搁置,
+ * maxAttempts需结合退避时长设置</p>
+ * <p>逐条发送经构造时传入的发送函数, 自动配置时为AliwareMqProducer的异步发送: 按主题路由到生产者池,
+ * 受在途消息数限制并按outbox发送方式记录发送指标</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class OutboxRelay implements Runnable {
+    private final OutboxStore store;
+    private final Function<Message, CompletableFuture<SendResult>> sender;
+    private final AliwareMqProperties.Outbox config;
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    /**
+     * @param store  发件箱存储
+     * @param sender 异步发送一条消息
+     * @param config 发件箱配置
+     */
+    public OutboxRelay(OutboxStore store, Function<Message, CompletableFuture<SendResult>> sender, AliwareMqProperties.Outbox config) {
+        this.store = store;
+        this.sender = sender;
+        this.config = config;
+    }
+
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this, "aliwaremq-outbox-relay");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * 停止转发, 未转发的记录保留在发件箱中, 下次启动后继续转发
+     *
+     * @throws InterruptedException 等待转发线程退出时被中断
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(config.getSendTimeoutMillis());
+        }
+    }
+
+    /**
+     * 唤醒转发线程, 事务提交后调用
+     */
+    public void wakeup() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 已转发并确认的记录数
+     *
+     * @return 记录数
+     */
+    public long getRelayedCount() {
+        return relayed.sum();
+    }
+
+    /**
+     * 未能全部转发的批次数
+     *
+     * @return 批次数
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * 失败次数达到上限被搁置的记录数
+     *
+     * @return 记录数
+     */
+    public long getParkedCount() {
+        return parked.sum();
+    }
+
+    @Override
+    public void run() {
+        long backoffMillis = 0;
+        while (running) {
+            try {
+                List<OutboxRecord> records = store.poll(config.getBatchSize());
+                if (records.isEmpty()) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(config.getPollIntervalMillis()));
+                    continue;
+                }
+                int acknowledged = relay(records);
+                store.acknowledge(records.subList(0, acknowledged));
+                relayed.add(acknowledged);
+                if (acknowledged == records.size()) {
+                    backoffMillis = 0;
+                    continue;
+                }
+                failedBatches.increment();
+                settle(records.subList(acknowledged, records.size()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failedBatches.increment();
+                log.error("发件箱转发失败", e);
+            }
+            backoffMillis = backoffMillis == 0
+                    ? config.getPollIntervalMillis() : Math.min(backoffMillis * 2, config.getMaxBackoffMillis());
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+        }
+    }
+
+    /**
+     * 第一条失败记录的失败次数加一, 达到上限时搁置, 其余记录归还给存储
+     *
+     * @param unacknowledged 未确认的记录, 第一条为转发失败的记录
+     */
+    private void settle(List<OutboxRecord> unacknowledged) {
+        OutboxRecord failed = unacknowledged.get(0);
+        failed.setAttempts(failed.getAttempts() + 1);
+        if (failed.getAttempts() < config.getMaxAttempts()) {
+            store.release(unacknowledged);
+            return;
+        }
+        store.park(unacknowledged.subList(0, 1));
+        store.release(unacknowledged.subList(1, unacknowledged.size()));
+        parked.increment();
+        log.error("发件箱记录[{}]转发失败{}次, 已搁置, 主题:{}, 键:{}", failed.getId(), failed.getAttempts(),
+                failed.getTopic(), failed.getKey());
+    }
+
+    /**
+     * 流水线发送一批记录, 按顺序等待结果
+     *
+     * @param records 记录
+     * @return 连续发送成功的记录数
+     * @throws InterruptedException 等待时被中断
+     */
+    private int relay(List<OutboxRecord> records) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<SendResult>[] futures = new CompletableFuture[records.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = sendAsync(records.get(i).toMessage());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getSendTimeoutMillis());
+        for (int i = 0; i < futures.length; i++) {
+            try {
+                futures[i].get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("发件箱记录[{}]转发失败, 已确认{}条, 稍后重试", records.get(i).getId(), i, e);
+                return i;
+            }
+        }
+        return futures.length;
+    }
+
+    private CompletableFuture<SendResult> sendAsync(Message message) {
+        try {
+            return sender.apply(message);
+        } catch (Exception e) {
+            CompletableFuture<SendResult> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+}
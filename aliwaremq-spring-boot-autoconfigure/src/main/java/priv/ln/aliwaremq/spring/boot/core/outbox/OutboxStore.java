@@ -0,0 +1,68 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import java.util.List;
+
+/**
+ * 发件箱存储
+ * <p>只追加写入, 按写入顺序读取, 转发成功后按顺序确认; 转发失败的记录归还后重新读取,
+ * 失败次数达到上限的记录被搁置, 不再转发, 需人工处理</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ * @see JdbcOutboxStore
+ * @see MappedFileOutboxStore
+ */
+public interface OutboxStore {
+
+    /**
+     * 是否参与调用方的Spring事务
+     * <p>参与事务的存储在事务中直接写入, 随事务提交或回滚; 否则在事务提交后写入</p>
+     *
+     * @return 是否参与事务
+     */
+    boolean isTransactional();
+
+    /**
+     * 追加写入
+     *
+     * @param records 记录
+     */
+    void append(List<OutboxRecord> records);
+
+    /**
+     * 领取最早的未确认记录
+     * <p>多个实例共享同一存储时, 同一记录在确认、归还或领取过期前只被一个实例领取</p>
+     *
+     * @param maxRecords 最大记录数
+     * @return 记录, 按写入顺序排列, 没有未确认记录时返回空集合
+     */
+    List<OutboxRecord> poll(int maxRecords);
+
+    /**
+     * 确认记录已转发
+     *
+     * @param records 上一次poll结果的前缀, 按写入顺序排列
+     */
+    void acknowledge(List<OutboxRecord> records);
+
+    /**
+     * 归还未确认的记录, 保存记录的失败次数, 之后可被重新领取
+     *
+     * @param records 上一次poll结果中确认前缀之后的记录, 按写入顺序排列
+     */
+    void release(List<OutboxRecord> records);
+
+    /**
+     * 搁置失败次数达到上限的记录, 之后不再被领取
+     *
+     * @param records 上一次poll结果中确认前缀之后的第一条记录
+     */
+    void park(List<OutboxRecord> records);
+
+    /**
+     * 关闭存储
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,123 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 发件箱写入
+ * <p>在Spring事务中发送的消息写入发件箱, 事务提交后唤醒转发线程, 请求线程不等待服务端</p>
+ * <p>存储参与事务时直接写入, 随事务提交或回滚; 否则同一事务的消息在提交后一次性写入,
+ * 提交与写入之间进程崩溃会丢失该事务的消息</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class OutboxWriter {
+    /**
+     * 转发时写入的发件箱记录id用户属性, 转发失败重发时id不变, 消费者可按该属性去重
+     */
+    public static final String OUTBOX_ID_PROPERTY = "aliwaremq_outbox_id";
+
+    private final OutboxStore store;
+    private final OutboxRelay relay;
+
+    public OutboxWriter(OutboxStore store, OutboxRelay relay) {
+        this.store = store;
+        this.relay = relay;
+    }
+
+    /**
+     * 当前线程是否在Spring事务中
+     *
+     * @return 是否在事务中
+     */
+    public boolean isTransactionActive() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * 写入发件箱, 需在Spring事务中调用
+     *
+     * @param message 已完成编码的消息
+     * @return 发送结果, 只包含主题, 消息id在转发后由服务端分配
+     */
+    public SendResult append(Message message) {
+        if (!isTransactionActive()) {
+            throw new IllegalStateException("发件箱只能在Spring事务中写入");
+        }
+        OutboxRecord record = OutboxRecord.of(message);
+        List<OutboxRecord> pending = transactionRecords();
+        if (store.isTransactional()) {
+            store.append(Collections.singletonList(record));
+        } else {
+            pending.add(record);
+        }
+        SendResult sendResult = new SendResult();
+        sendResult.setTopic(message.getTopic());
+        return sendResult;
+    }
+
+    /**
+     * 当前事务回滚时执行, 用于清理随消息写入的外部资源, 如已存入BlobStore的消息体
+     *
+     * @param action 回滚后执行的操作
+     */
+    public void onRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("事务回滚后清理发件箱消息资源失败", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 当前事务待写入的记录, 首次调用时注册事务同步
+     */
+    @SuppressWarnings("unchecked")
+    private List<OutboxRecord> transactionRecords() {
+        List<OutboxRecord> records = (List<OutboxRecord>) TransactionSynchronizationManager.getResource(this);
+        if (records != null) {
+            return records;
+        }
+        List<OutboxRecord> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                if (!created.isEmpty()) {
+                    try {
+                        store.append(created);
+                    } catch (RuntimeException e) {
+                        log.error("事务已提交, 写入发件箱失败, 丢失消息{}条", created.size(), e);
+                        return;
+                    }
+                }
+                relay.wakeup();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+            }
+        });
+        return created;
+    }
+}
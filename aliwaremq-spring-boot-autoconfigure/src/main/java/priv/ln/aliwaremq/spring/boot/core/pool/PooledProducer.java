@@ -0,0 +1,250 @@
+package priv.ln.aliwaremq.spring.boot.core.pool;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.OnExceptionContext;
+import com.aliyun.openservices.ons.api.Producer;
+import com.aliyun.openservices.ons.api.SendCallback;
+import com.aliyun.openservices.ons.api.SendResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 生产者池
+ * <p>每次发送选择在途发送数最少的可用实例, 在途数相同时从轮转位置开始选择, 避免集中到第一个实例</p>
+ * <p>实例连续发送失败达到阈值后暂停使用, 到期后重新参与选择, 成功一次即恢复; 全部实例暂停时仍选择在途数最少的实例</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class PooledProducer implements Producer {
+    private final String name;
+    private final Instance[] instances;
+    private final int failureThreshold;
+    private final long quarantineNanos;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * @param name             池名称
+     * @param producers        池内客户端
+     * @param failureThreshold 连续发送失败多少次后暂停使用
+     * @param quarantineMillis 暂停使用时长, 单位:毫秒
+     */
+    public PooledProducer(String name, List<? extends Producer> producers, int failureThreshold, long quarantineMillis) {
+        if (producers.isEmpty()) {
+            throw new IllegalArgumentException(String.format("生产者池[%s]至少需要一个实例", name));
+        }
+        this.name = name;
+        this.instances = producers.stream().map(Instance::new).toArray(Instance[]::new);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.quarantineNanos = TimeUnit.MILLISECONDS.toNanos(quarantineMillis);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return instances.length;
+    }
+
+    /**
+     * 未暂停使用的实例数
+     *
+     * @return 实例数
+     */
+    public int getHealthyCount() {
+        long now = System.nanoTime();
+        int count = 0;
+        for (Instance instance : instances) {
+            if (instance.isAvailable(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 实例的在途发送数
+     *
+     * @param index 实例序号
+     * @return 在途发送数
+     */
+    public int getInFlight(int index) {
+        return instances[index].inFlight.get();
+    }
+
+    @Override
+    public void start() {
+        for (Instance instance : instances) {
+            instance.producer.start();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (Instance instance : instances) {
+            instance.producer.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isStarted() {
+        for (Instance instance : instances) {
+            if (!instance.producer.isStarted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        for (Instance instance : instances) {
+            if (!instance.producer.isClosed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 更新池内全部实例的凭证
+     *
+     * @param credentialProperties 凭证配置
+     */
+    @Override
+    public void updateCredential(Properties credentialProperties) {
+        for (Instance instance : instances) {
+            instance.producer.updateCredential(credentialProperties);
+        }
+    }
+
+    /**
+     * 设置池内全部实例的异步发送回调线程池
+     *
+     * @param callbackExecutor 回调线程池
+     */
+    @Override
+    public void setCallbackExecutor(ExecutorService callbackExecutor) {
+        for (Instance instance : instances) {
+            instance.producer.setCallbackExecutor(callbackExecutor);
+        }
+    }
+
+    @Override
+    public SendResult send(Message message) {
+        Instance instance = select();
+        boolean success = false;
+        try {
+            SendResult sendResult = instance.producer.send(message);
+            success = true;
+            return sendResult;
+        } finally {
+            instance.release(success);
+        }
+    }
+
+    @Override
+    public void sendOneway(Message message) {
+        Instance instance = select();
+        boolean success = false;
+        try {
+            instance.producer.sendOneway(message);
+            success = true;
+        } finally {
+            instance.release(success);
+        }
+    }
+
+    @Override
+    public void sendAsync(Message message, SendCallback sendCallback) {
+        Instance instance = select();
+        try {
+            instance.producer.sendAsync(message, new SendCallback() {
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    instance.release(true);
+                    sendCallback.onSuccess(sendResult);
+                }
+
+                @Override
+                public void onException(OnExceptionContext context) {
+                    instance.release(false);
+                    sendCallback.onException(context);
+                }
+            });
+        } catch (RuntimeException e) {
+            instance.release(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 选择在途发送数最少的可用实例并占用
+     */
+    private Instance select() {
+        long now = System.nanoTime();
+        int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % instances.length;
+        Instance best = null;
+        Instance fallback = null;
+        for (int i = 0; i < instances.length; i++) {
+            Instance candidate = instances[(start + i) % instances.length];
+            int inFlight = candidate.inFlight.get();
+            if (fallback == null || inFlight < fallback.inFlight.get()) {
+                fallback = candidate;
+            }
+            if (candidate.isAvailable(now) && (best == null || inFlight < best.inFlight.get())) {
+                best = candidate;
+            }
+        }
+        Instance selected = best != null ? best : fallback;
+        selected.inFlight.incrementAndGet();
+        return selected;
+    }
+
+    /**
+     * 池内实例及其状态
+     */
+    private class Instance {
+        private final Producer producer;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean quarantined;
+        private volatile long quarantineEndNanos;
+
+        private Instance(Producer producer) {
+            this.producer = producer;
+        }
+
+        private boolean isAvailable(long now) {
+            return !quarantined || now - quarantineEndNanos >= 0;
+        }
+
+        private void release(boolean success) {
+            inFlight.decrementAndGet();
+            if (success) {
+                consecutiveFailures.set(0);
+                if (quarantined) {
+                    quarantined = false;
+                    log.info("生产者池[{}]实例恢复使用", name);
+                }
+                return;
+            }
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                quarantineEndNanos = System.nanoTime() + quarantineNanos;
+                if (!quarantined) {
+                    quarantined = true;
+                    log.warn("生产者池[{}]实例连续发送失败{}次, 暂停使用{}ms", name, consecutiveFailures.get(),
+                            TimeUnit.NANOSECONDS.toMillis(quarantineNanos));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package priv.ln.aliwaremq.spring.boot.core.pool;
+
+import com.aliyun.openservices.ons.api.Producer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按主题路由到生产者池
+ * <p>启动时构造主题与池的映射, 发送时只做一次哈希查找; 未配置的主题由默认生产者发送</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class ProducerRouter {
+    private final Map<String, PooledProducer> pools;
+    private final Map<String, PooledProducer> topicPools = new HashMap<>();
+
+    /**
+     * @param pools  池名称与生产者池
+     * @param topics 池名称与主题
+     */
+    public ProducerRouter(Map<String, PooledProducer> pools, Map<String, List<String>> topics) {
+        this.pools = Collections.unmodifiableMap(new HashMap<>(pools));
+        topics.forEach((name, poolTopics) -> poolTopics.forEach(topic -> {
+            PooledProducer previous = topicPools.put(topic, pools.get(name));
+            if (previous != null) {
+                throw new IllegalStateException(String.format("主题[%s]同时配置在生产者池[%s]和[%s]", topic, previous.getName(), name));
+            }
+        }));
+    }
+
+    public void start() {
+        pools.values().forEach(PooledProducer::start);
+        pools.forEach((name, pool) -> log.info("生产者池[{}]已启动, 实例数:{}", name, pool.getSize()));
+    }
+
+    public void shutdown() {
+        pools.values().forEach(PooledProducer::shutdown);
+    }
+
+    /**
+     * 按主题选择生产者池
+     *
+     * @param topic 主题
+     * @return 生产者池, 主题未配置时返回空
+     */
+    public Producer route(String topic) {
+        return topicPools.get(topic);
+    }
+
+    /**
+     * 按名称获取生产者池
+     *
+     * @param name 池名称
+     * @return 生产者池, 不存在时返回空
+     */
+    public PooledProducer getPool(String name) {
+        return pools.get(name);
+    }
+
+    public Collection<PooledProducer> getPools() {
+        return pools.values();
+    }
+}
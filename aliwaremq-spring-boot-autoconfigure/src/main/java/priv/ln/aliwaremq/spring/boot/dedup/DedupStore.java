@@ -0,0 +1,27 @@
+package priv.ln.aliwaremq.spring.boot.dedup;
+
+/**
+ * 消息去重存储
+ * <p>本地去重由{@link LocalDedupStore}实现; 跨节点去重时实现本接口并注册为bean(如基于Redis SET NX PX), 作为本地缓存之后的第二级</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface DedupStore {
+    /**
+     * 占用去重键
+     *
+     * @param key       去重键
+     * @param ttlMillis 有效期, 单位:毫秒
+     * @return 首次出现返回true, 有效期内重复返回false
+     */
+    boolean tryAcquire(String key, long ttlMillis);
+
+    /**
+     * 释放去重键, 消费失败时调用, 使重投的消息可以再次处理
+     *
+     * @param key 去重键
+     */
+    void release(String key);
+}
@@ -0,0 +1,92 @@
+package priv.ln.aliwaremq.spring.boot.dedup;
+
+/**
+ * 本地去重存储
+ * <p>固定容量的开放寻址表, 只保存去重键的64位指纹和过期时间, 占用去重键不产生对象分配</p>
+ * <p>每个键映射到一个8槽的桶, 桶内没有空闲或过期槽时淘汰最早过期的键, 内存占用固定为容量 * 16字节</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class LocalDedupStore implements DedupStore {
+    private static final int BUCKET_SLOTS = 8;
+    private static final int LOCK_STRIPES = 64;
+
+    private final long[] fingerprints;
+    private final long[] expireAts;
+    private final int bucketMask;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * @param capacity 容量, 向上取整为2的幂, 最小64
+     */
+    public LocalDedupStore(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, LOCK_STRIPES) - 1) << 1;
+        this.fingerprints = new long[size];
+        this.expireAts = new long[size];
+        this.bucketMask = size / BUCKET_SLOTS - 1;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long ttlMillis) {
+        long fingerprint = fingerprint(key);
+        int bucket = bucket(fingerprint);
+        int start = bucket * BUCKET_SLOTS;
+        long now = System.currentTimeMillis();
+        synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+            int victim = start;
+            for (int i = start; i < start + BUCKET_SLOTS; i++) {
+                if (fingerprints[i] == fingerprint && expireAts[i] > now) {
+                    return false;
+                }
+                if (expireAts[i] < expireAts[victim]) {
+                    victim = i;
+                }
+            }
+            fingerprints[victim] = fingerprint;
+            expireAts[victim] = now + ttlMillis;
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        long fingerprint = fingerprint(key);
+        int bucket = bucket(fingerprint);
+        int start = bucket * BUCKET_SLOTS;
+        synchronized (locks[bucket & (LOCK_STRIPES - 1)]) {
+            for (int i = start; i < start + BUCKET_SLOTS; i++) {
+                if (fingerprints[i] == fingerprint) {
+                    fingerprints[i] = 0;
+                    expireAts[i] = 0;
+                }
+            }
+        }
+    }
+
+    private int bucket(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & bucketMask;
+    }
+
+    /**
+     * 64位FNV-1a指纹, 再做一次混淆, 0保留为空槽
+     *
+     * @param key 去重键
+     * @return 指纹
+     */
+    private static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,122 @@
+package priv.ln.aliwaremq.spring.boot.dedup;
+
+import com.aliyun.openservices.ons.api.Message;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+/**
+ * 消息去重器
+ * <p>先查本地去重存储, 本地未命中且配置了远程去重存储时再查远程存储</p>
+ * <p>消费前占用去重键, 消费失败时释放, 重投的消息可以再次处理</p>
+ * <p>本地存储按消费者组和主题独立, 去重键不带前缀; 只有访问远程存储时才拼接命名空间</p>
+ * <p>远程存储判定重复或占用失败时释放本地去重键, 远程去重键由其他节点持有, 该节点消费失败释放后重投到本节点的消息不会被误判为重复</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class MessageDeduplicator {
+    /**
+     * 未开启去重
+     */
+    public static final MessageDeduplicator DISABLED = new MessageDeduplicator(null, null, null, null, null, 0);
+
+    private final String namespace;
+    private final AliwareMqProperties.DedupKey keyType;
+    private final String propertyName;
+    private final DedupStore localStore;
+    private final DedupStore remoteStore;
+    private final long ttlMillis;
+
+    /**
+     * @param namespace    远程去重键前缀, 通常为消费者组@主题
+     * @param keyType      去重键类型
+     * @param propertyName 去重键类型为USER_PROPERTY时的属性名
+     * @param localStore   本地去重存储
+     * @param remoteStore  远程去重存储, 可以为空
+     * @param ttlMillis    去重有效期, 单位:毫秒
+     */
+    public MessageDeduplicator(String namespace, AliwareMqProperties.DedupKey keyType, String propertyName,
+                               DedupStore localStore, DedupStore remoteStore, long ttlMillis) {
+        this.namespace = namespace;
+        this.keyType = keyType;
+        this.propertyName = propertyName;
+        this.localStore = localStore;
+        this.remoteStore = remoteStore;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 解析去重键
+     *
+     * @param message 消息
+     * @return 去重键, 未开启去重或消息没有去重键时返回空
+     */
+    public String resolveKey(Message message) {
+        if (keyType == null) {
+            return null;
+        }
+        String id;
+        switch (keyType) {
+            case MESSAGE_KEY:
+                id = message.getKey();
+                break;
+            case USER_PROPERTY:
+                id = message.getUserProperties(propertyName);
+                break;
+            default:
+                id = message.getMsgID();
+        }
+        return id == null || id.isEmpty() ? null : id;
+    }
+
+    /**
+     * 占用去重键
+     *
+     * @param key 去重键
+     * @return 首次出现返回true, 重复返回false
+     * @throws RuntimeException 远程存储不可用, 此时本地去重键已释放
+     */
+    public boolean tryAcquire(String key) {
+        if (!localStore.tryAcquire(key, ttlMillis)) {
+            return false;
+        }
+        if (remoteStore == null) {
+            return true;
+        }
+        boolean acquired;
+        try {
+            acquired = remoteStore.tryAcquire(remoteKey(key), ttlMillis);
+        } catch (RuntimeException e) {
+            localStore.release(key);
+            throw e;
+        }
+        if (!acquired) {
+            localStore.release(key);
+        }
+        return acquired;
+    }
+
+    /**
+     * 释放去重键
+     * <p>远程存储释放失败时只记录日志, 有效期内重投的消息会被其他节点视为重复</p>
+     *
+     * @param key 去重键
+     */
+    public void release(String key) {
+        localStore.release(key);
+        if (remoteStore == null) {
+            return;
+        }
+        try {
+            remoteStore.release(remoteKey(key));
+        } catch (RuntimeException e) {
+            log.error("释放远程去重键[{}]失败, {}ms内重投的消息会被视为重复", remoteKey(key), ttlMillis, e);
+        }
+    }
+
+    private String remoteKey(String key) {
+        return namespace + ':' + key;
+    }
+}
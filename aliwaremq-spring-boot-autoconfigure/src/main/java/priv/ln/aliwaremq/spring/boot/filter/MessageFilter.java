@@ -0,0 +1,533 @@
+package priv.ln.aliwaremq.spring.boot.filter;
+
+import com.aliyun.openservices.ons.api.Message;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 消息过滤表达式
+ * <p>注册消费者时编译一次, 消费时只读取标签、keys和用户属性求值, 不解码消息体</p>
+ * <p>语法为SQL92子集:</p>
+ * <ul>
+ * <li>TAGS表示标签, KEYS表示消息keys, 其他标识符表示同名用户属性, 含特殊字符的属性名用反引号括起</li>
+ * <li>比较: =、&lt;&gt;、!=、&gt;、&gt;=、&lt;、&lt;=, 大小比较按数值进行</li>
+ * <li>[NOT] IN ('a', 'b')、[NOT] BETWEEN 1 AND 10、[NOT] LIKE 'order%' [ESCAPE '\']、IS [NOT] NULL,
+ * LIKE中%匹配任意个字符, _匹配一个字符, 其余字符按字面匹配, 转义字符后的%、_和转义字符本身按字面匹配</li>
+ * <li>AND、OR、NOT和括号, 优先级依次为NOT、AND、OR, 关键字不区分大小写, 字符串用单引号, 单引号本身写作两个单引号</li>
+ * </ul>
+ * <p>按SQL三值逻辑求值: 属性不存在或不是数值时, 除IS NULL外的比较结果为未知; NOT未知仍为未知,
+ * AND中有不成立即不成立, OR中有成立即成立, 其余含未知时为未知; 最终结果为未知时视为不满足</p>
+ * <p>示例: TAGS IN ('created', 'paid') AND region = 'cn' AND amount &gt;= 100</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public final class MessageFilter {
+    /**
+     * 标签
+     */
+    public static final String TAGS = "TAGS";
+    /**
+     * 消息keys
+     */
+    public static final String KEYS = "KEYS";
+
+    private final String expression;
+    private final Condition condition;
+
+    private MessageFilter(String expression, Condition condition) {
+        this.expression = expression;
+        this.condition = condition;
+    }
+
+    /**
+     * 编译过滤表达式
+     *
+     * @param expression 表达式
+     * @return 过滤器
+     * @throws IllegalArgumentException 表达式语法错误
+     */
+    public static MessageFilter compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("过滤表达式不能为空");
+        }
+        return new MessageFilter(expression, new Parser(expression).parse());
+    }
+
+    /**
+     * 消息是否满足表达式
+     *
+     * @param message 消息
+     * @return 满足时返回true
+     */
+    public boolean matches(Message message) {
+        return Boolean.TRUE.equals(condition.evaluate(message));
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * 三值条件
+     */
+    @FunctionalInterface
+    private interface Condition {
+
+        /**
+         * 求值
+         *
+         * @param message 消息
+         * @return 成立、不成立, 未知时返回null
+         */
+        Boolean evaluate(Message message);
+    }
+
+    private enum TokenType {
+        IDENTIFIER, STRING, NUMBER, OPERATOR, LEFT_PAREN, RIGHT_PAREN, COMMA, END
+    }
+
+    private static final class Token {
+        private final TokenType type;
+        private final String text;
+        /**
+         * 反引号括起的标识符, 不作为关键字
+         */
+        private final boolean quoted;
+        private final int position;
+
+        private Token(TokenType type, String text, boolean quoted, int position) {
+            this.type = type;
+            this.text = text;
+            this.quoted = quoted;
+            this.position = position;
+        }
+
+        private boolean isKeyword(String keyword) {
+            return type == TokenType.IDENTIFIER && !quoted && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    /**
+     * 递归下降解析器, 将表达式编译为三值条件
+     */
+    private static final class Parser {
+        private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+                "AND", "OR", "NOT", "IN", "BETWEEN", "LIKE", "IS", "NULL", "TRUE", "FALSE"));
+
+        private final String expression;
+        private final List<Token> tokens;
+        private int index;
+
+        private Parser(String expression) {
+            this.expression = expression;
+            this.tokens = tokenize(expression);
+        }
+
+        private Condition parse() {
+            Condition condition = parseOr();
+            expect(TokenType.END, "表达式结束");
+            return condition;
+        }
+
+        private Condition parseOr() {
+            Condition left = parseAnd();
+            while (peek().isKeyword("OR")) {
+                index++;
+                left = or(left, parseAnd());
+            }
+            return left;
+        }
+
+        private Condition parseAnd() {
+            Condition left = parseNot();
+            while (peek().isKeyword("AND")) {
+                index++;
+                left = and(left, parseNot());
+            }
+            return left;
+        }
+
+        private Condition parseNot() {
+            if (peek().isKeyword("NOT")) {
+                index++;
+                return not(parseNot());
+            }
+            return parsePrimary();
+        }
+
+        private Condition parsePrimary() {
+            Token token = peek();
+            if (token.type == TokenType.LEFT_PAREN) {
+                index++;
+                Condition inner = parseOr();
+                expect(TokenType.RIGHT_PAREN, ")");
+                return inner;
+            }
+            if (token.isKeyword("TRUE")) {
+                index++;
+                return message -> Boolean.TRUE;
+            }
+            if (token.isKeyword("FALSE")) {
+                index++;
+                return message -> Boolean.FALSE;
+            }
+            return parseComparison();
+        }
+
+        private static Condition and(Condition left, Condition right) {
+            return message -> {
+                Boolean first = left.evaluate(message);
+                if (Boolean.FALSE.equals(first)) {
+                    return Boolean.FALSE;
+                }
+                Boolean second = right.evaluate(message);
+                if (Boolean.FALSE.equals(second)) {
+                    return Boolean.FALSE;
+                }
+                return first == null || second == null ? null : Boolean.TRUE;
+            };
+        }
+
+        private static Condition or(Condition left, Condition right) {
+            return message -> {
+                Boolean first = left.evaluate(message);
+                if (Boolean.TRUE.equals(first)) {
+                    return Boolean.TRUE;
+                }
+                Boolean second = right.evaluate(message);
+                if (Boolean.TRUE.equals(second)) {
+                    return Boolean.TRUE;
+                }
+                return first == null || second == null ? null : Boolean.FALSE;
+            };
+        }
+
+        private static Condition not(Condition condition) {
+            return message -> {
+                Boolean result = condition.evaluate(message);
+                return result == null ? null : !result;
+            };
+        }
+
+        private Condition parseComparison() {
+            Token name = expect(TokenType.IDENTIFIER, "属性名");
+            if (!name.quoted && KEYWORDS.contains(name.text.toUpperCase(Locale.ROOT))) {
+                throw error(name, "属性名");
+            }
+            Function<Message, String> accessor = accessor(name);
+            Token token = peek();
+            if (token.type == TokenType.OPERATOR) {
+                index++;
+                return compare(accessor, token, parseLiteral());
+            }
+            if (token.isKeyword("IS")) {
+                index++;
+                boolean negated = acceptKeyword("NOT");
+                expectKeyword("NULL");
+                return negated ? message -> accessor.apply(message) != null : message -> accessor.apply(message) == null;
+            }
+            boolean negated = acceptKeyword("NOT");
+            Condition condition;
+            if (acceptKeyword("IN")) {
+                condition = parseIn(accessor);
+            } else if (acceptKeyword("BETWEEN")) {
+                double low = parseNumber();
+                expectKeyword("AND");
+                double high = parseNumber();
+                condition = message -> {
+                    Double value = toNumber(accessor.apply(message));
+                    return value == null ? null : value >= low && value <= high;
+                };
+            } else if (acceptKeyword("LIKE")) {
+                Token like = expect(TokenType.STRING, "字符串");
+                Character escape = null;
+                if (acceptKeyword("ESCAPE")) {
+                    Token escapeToken = expect(TokenType.STRING, "转义字符");
+                    if (escapeToken.text.length() != 1) {
+                        throw error(escapeToken, "单个转义字符");
+                    }
+                    escape = escapeToken.text.charAt(0);
+                }
+                Pattern pattern = likePattern(like, escape);
+                condition = message -> {
+                    String value = accessor.apply(message);
+                    return value == null ? null : pattern.matcher(value).matches();
+                };
+            } else {
+                throw error(peek(), "比较运算符、IN、BETWEEN、LIKE或IS");
+            }
+            // 属性不存在时结果为未知, 取反后仍为未知
+            return negated ? not(condition) : condition;
+        }
+
+        private Condition parseIn(Function<Message, String> accessor) {
+            expect(TokenType.LEFT_PAREN, "(");
+            Set<String> values = new HashSet<>();
+            do {
+                values.add(expect(TokenType.STRING, "字符串").text);
+            } while (accept(TokenType.COMMA));
+            expect(TokenType.RIGHT_PAREN, ")");
+            return message -> {
+                String value = accessor.apply(message);
+                return value == null ? null : values.contains(value);
+            };
+        }
+
+        private Condition compare(Function<Message, String> accessor, Token operator, Token literal) {
+            String op = operator.text;
+            if (literal.type == TokenType.NUMBER) {
+                double expected = Double.parseDouble(literal.text);
+                return message -> {
+                    Double value = toNumber(accessor.apply(message));
+                    return value == null ? null : compareNumber(op, Double.compare(value, expected));
+                };
+            }
+            if (!"=".equals(op) && !"<>".equals(op) && !"!=".equals(op)) {
+                throw error(literal, "数值");
+            }
+            boolean equal = "=".equals(op);
+            if (literal.type == TokenType.STRING) {
+                String expected = literal.text;
+                return message -> {
+                    String value = accessor.apply(message);
+                    return value == null ? null : expected.equals(value) == equal;
+                };
+            }
+            boolean expected = literal.isKeyword("TRUE");
+            return message -> {
+                String value = accessor.apply(message);
+                return value == null ? null : (Boolean.parseBoolean(value) == expected) == equal;
+            };
+        }
+
+        private static boolean compareNumber(String op, int result) {
+            switch (op) {
+                case "=":
+                    return result == 0;
+                case "<>":
+                case "!=":
+                    return result != 0;
+                case ">":
+                    return result > 0;
+                case ">=":
+                    return result >= 0;
+                case "<":
+                    return result < 0;
+                default:
+                    return result <= 0;
+            }
+        }
+
+        private Token parseLiteral() {
+            Token token = peek();
+            if (token.type == TokenType.STRING || token.type == TokenType.NUMBER
+                    || token.isKeyword("TRUE") || token.isKeyword("FALSE")) {
+                index++;
+                return token;
+            }
+            throw error(token, "字符串、数值或布尔值");
+        }
+
+        private double parseNumber() {
+            return Double.parseDouble(expect(TokenType.NUMBER, "数值").text);
+        }
+
+        private static Function<Message, String> accessor(Token name) {
+            if (!name.quoted && TAGS.equalsIgnoreCase(name.text)) {
+                return Message::getTag;
+            }
+            if (!name.quoted && KEYS.equalsIgnoreCase(name.text)) {
+                return Message::getKey;
+            }
+            String property = name.text;
+            return message -> message.getUserProperties(property);
+        }
+
+        private static Double toNumber(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 将LIKE模式转换为正则, 字面部分整体引用, 不受正则元字符影响
+         *
+         * @param like   LIKE模式
+         * @param escape 转义字符, 为空时不转义
+         * @return 正则
+         */
+        private Pattern likePattern(Token like, Character escape) {
+            String text = like.text;
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (escape != null && c == escape) {
+                    if (i + 1 >= text.length()) {
+                        throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处的LIKE模式以转义字符结尾",
+                                expression, like.position + 1));
+                    }
+                    char escaped = text.charAt(++i);
+                    if (escaped != '%' && escaped != '_' && escaped != escape) {
+                        throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处的LIKE模式中转义字符后应为%%、_或转义字符, 实际为%s",
+                                expression, like.position + 1, escaped));
+                    }
+                    literal.append(escaped);
+                } else if (c == '%' || c == '_') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '%' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        private Token peek() {
+            return tokens.get(index);
+        }
+
+        private boolean accept(TokenType type) {
+            if (peek().type == type) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (peek().isKeyword(keyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private Token expect(TokenType type, String expected) {
+            Token token = peek();
+            if (token.type != type) {
+                throw error(token, expected);
+            }
+            index++;
+            return token;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw error(peek(), keyword);
+            }
+        }
+
+        private IllegalArgumentException error(Token token, String expected) {
+            String found = token.type == TokenType.END ? "表达式结束" : token.text;
+            return new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处应为%s, 实际为%s",
+                    expression, token.position + 1, expected, found));
+        }
+
+        private static List<Token> tokenize(String expression) {
+            List<Token> tokens = new ArrayList<>();
+            int length = expression.length();
+            int i = 0;
+            while (i < length) {
+                char c = expression.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '(') {
+                    tokens.add(new Token(TokenType.LEFT_PAREN, "(", false, i++));
+                } else if (c == ')') {
+                    tokens.add(new Token(TokenType.RIGHT_PAREN, ")", false, i++));
+                } else if (c == ',') {
+                    tokens.add(new Token(TokenType.COMMA, ",", false, i++));
+                } else if (c == '\'') {
+                    int start = i++;
+                    StringBuilder text = new StringBuilder();
+                    while (true) {
+                        if (i >= length) {
+                            throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处的字符串未结束", expression, start + 1));
+                        }
+                        char ch = expression.charAt(i++);
+                        if (ch == '\'') {
+                            if (i < length && expression.charAt(i) == '\'') {
+                                text.append('\'');
+                                i++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            text.append(ch);
+                        }
+                    }
+                    tokens.add(new Token(TokenType.STRING, text.toString(), false, start));
+                } else if (c == '`') {
+                    int start = i++;
+                    int end = expression.indexOf('`', i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处的属性名未结束", expression, start + 1));
+                    }
+                    tokens.add(new Token(TokenType.IDENTIFIER, expression.substring(i, end), true, start));
+                    i = end + 1;
+                } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(expression.charAt(i + 1)))) {
+                    int start = i++;
+                    while (i < length && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                        i++;
+                    }
+                    String text = expression.substring(start, i);
+                    try {
+                        Double.parseDouble(text);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处的数值[%s]无效", expression, start + 1, text));
+                    }
+                    tokens.add(new Token(TokenType.NUMBER, text, false, start));
+                } else if (Character.isLetter(c) || c == '_' || c == '$') {
+                    int start = i++;
+                    while (i < length && (Character.isLetterOrDigit(expression.charAt(i))
+                            || expression.charAt(i) == '_' || expression.charAt(i) == '$' || expression.charAt(i) == '.')) {
+                        i++;
+                    }
+                    tokens.add(new Token(TokenType.IDENTIFIER, expression.substring(start, i), false, start));
+                } else if (c == '=') {
+                    tokens.add(new Token(TokenType.OPERATOR, "=", false, i++));
+                } else if (c == '<' || c == '>' || c == '!') {
+                    int start = i++;
+                    String op = String.valueOf(c);
+                    if (i < length && (expression.charAt(i) == '=' || (c == '<' && expression.charAt(i) == '>'))) {
+                        op += expression.charAt(i++);
+                    }
+                    if ("!".equals(op)) {
+                        throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符处应为!=", expression, start + 1));
+                    }
+                    tokens.add(new Token(TokenType.OPERATOR, op, false, start));
+                } else {
+                    throw new IllegalArgumentException(String.format("过滤表达式[%s]第%d个字符[%s]无效", expression, i + 1, c));
+                }
+            }
+            tokens.add(new Token(TokenType.END, "", false, length));
+            return tokens;
+        }
+    }
+}
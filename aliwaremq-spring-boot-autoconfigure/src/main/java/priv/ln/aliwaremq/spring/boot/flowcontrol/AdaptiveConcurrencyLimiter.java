@@ -0,0 +1,295 @@
+package priv.ln.aliwaremq.spring.boot.flowcontrol;
+
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应消费并发限制
+ * <p>按统计窗口计算处理平均耗时和失败率: 未过载时并发上限加1, 过载时乘以回退系数(AIMD)</p>
+ * <p>有在途消息但一个窗口内没有处理完成的消息时, 同样视为过载, 处理卡住时并发上限也会下调</p>
+ * <p>并发上限已降到最小值仍连续过载suspendAfterWindows个窗口时进入暂停状态suspendMillis, 并通知{@link #setSuspendListener 暂停监听},
+ * 由监听方暂停客户端拉取; 暂停期间在途消息按最小并发继续处理, 不拒绝, 到期后自动退出暂停状态</p>
+ * <p>超过并发上限时{@link #tryAcquire}最多等待acquireTimeoutMillis, 不长时间占住客户端消费线程</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    private final String name;
+    private final AliwareMqProperties.FlowControl config;
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private final long targetLatencyNanos;
+    private final long windowNanos;
+    /**
+     * 在途消息持续该时长没有处理完成的消息时视为卡住, 取统计窗口和目标处理耗时的较大值
+     */
+    private final long stallNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile boolean suspended;
+    private volatile long suspendedUntilNanos;
+    /**
+     * 进入暂停状态时的通知, 在持有锁时调用, 不能阻塞
+     */
+    private volatile Runnable suspendListener;
+    private long windowStartNanos = System.nanoTime();
+    private long windowCount;
+    private long windowFailures;
+    private long windowLatencyNanos;
+    private int overloadedWindows;
+    private volatile double lastAverageLatencyMillis;
+    private volatile double lastErrorRate;
+
+    private final AtomicLong increases = new AtomicLong();
+    private final AtomicLong decreases = new AtomicLong();
+    private final AtomicLong suspensions = new AtomicLong();
+
+    /**
+     * @param name     名称, 通常为消费者组@主题
+     * @param config   流控配置
+     * @param maxLimit 最大并发数, 客户端线程中处理时为消费线程数, 分发到执行器时为分发最大并发数
+     */
+    public AdaptiveConcurrencyLimiter(String name, AliwareMqProperties.FlowControl config, int maxLimit) {
+        this.name = name;
+        this.config = config;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(config.getMinConcurrency(), this.maxLimit));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetLatencyMillis());
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getWindowMillis());
+        this.stallNanos = Math.max(windowNanos, targetLatencyNanos);
+        this.limit = this.maxLimit;
+    }
+
+    /**
+     * 设置进入暂停状态时的通知, 通知在持有锁时调用, 需异步执行暂停操作
+     *
+     * @param suspendListener 暂停通知
+     */
+    public void setSuspendListener(Runnable suspendListener) {
+        this.suspendListener = suspendListener;
+    }
+
+    /**
+     * 占用一个并发许可, 超过并发上限时最多等待acquireTimeoutMillis
+     *
+     * @return 是否占用成功
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                checkStalled(now);
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    return true;
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    return false;
+                }
+                // 至少每个窗口醒来一次, 检查在途消息是否卡住
+                available.awaitNanos(Math.min(remaining, windowNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在途消息卡住时按过载调整并发上限, 调用方持有锁
+     *
+     * @param now 当前时间, 单位:纳秒
+     */
+    private void checkStalled(long now) {
+        if (windowCount > 0 || now - windowStartNanos < windowNanos) {
+            return;
+        }
+        if (inFlight == 0) {
+            // 空闲窗口, 不调整
+            windowStartNanos = now;
+        } else if (now - windowStartNanos >= stallNanos) {
+            adjust(now);
+        }
+    }
+
+    /**
+     * 释放并发许可并记录处理结果
+     *
+     * @param latencyNanos 处理耗时, 单位:纳秒
+     * @param success      是否处理成功
+     */
+    public void release(long latencyNanos, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            windowCount++;
+            windowLatencyNanos += latencyNanos;
+            if (!success) {
+                windowFailures++;
+            }
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= windowNanos) {
+                adjust(now);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 窗口结束时调整并发上限, 调用方持有锁
+     *
+     * @param now 当前时间, 单位:纳秒
+     */
+    private void adjust(long now) {
+        // 窗口内没有处理完成的消息时在途消息卡住, 以窗口时长作为耗时
+        boolean stalled = windowCount == 0;
+        long averageLatencyNanos = stalled ? now - windowStartNanos : windowLatencyNanos / windowCount;
+        double errorRate = stalled ? 0 : (double) windowFailures / windowCount;
+        lastAverageLatencyMillis = averageLatencyNanos / 1e6;
+        lastErrorRate = errorRate;
+        windowStartNanos = now;
+        windowCount = 0;
+        windowFailures = 0;
+        windowLatencyNanos = 0;
+        boolean overloaded = averageLatencyNanos > targetLatencyNanos || errorRate > config.getMaxErrorRate() || stalled;
+        if (!overloaded) {
+            overloadedWindows = 0;
+            if (limit < maxLimit) {
+                limit = Math.min(maxLimit, limit + 1);
+                increases.incrementAndGet();
+                available.signalAll();
+            }
+            return;
+        }
+        if (limit > minLimit) {
+            limit = Math.max(minLimit, limit * config.getBackoffRatio());
+            decreases.incrementAndGet();
+            return;
+        }
+        if (++overloadedWindows >= config.getSuspendAfterWindows()) {
+            overloadedWindows = 0;
+            if (isSuspended()) {
+                // 暂停期间排空的在途消息仍可能过载, 不重复暂停
+                return;
+            }
+            suspended = true;
+            suspendedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(config.getSuspendMillis());
+            suspensions.incrementAndGet();
+            log.warn("消费者[{}]持续过载, 暂停消费{}毫秒, 平均耗时:{}毫秒, 失败率:{}", name, config.getSuspendMillis(),
+                    lastAverageLatencyMillis, errorRate);
+            Runnable listener = suspendListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * 立即恢复消费, 并发上限重置为最大值
+     */
+    public void resume() {
+        lock.lock();
+        try {
+            suspended = false;
+            overloadedWindows = 0;
+            limit = maxLimit;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.info("消费者[{}]恢复消费", name);
+    }
+
+    /**
+     * 调整最大并发数, 如消费线程数在运行时调整后
+     * <p>调小时当前上限立即收紧, 调大时当前上限按窗口逐步增长</p>
+     *
+     * @param maxLimit 最大并发数
+     */
+    public void setMaxLimit(int maxLimit) {
+        lock.lock();
+        try {
+            this.maxLimit = Math.max(1, maxLimit);
+            this.minLimit = Math.max(1, Math.min(config.getMinConcurrency(), this.maxLimit));
+            limit = Math.min(limit, this.maxLimit);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.info("消费者[{}]最大并发数调整为{}", name, this.maxLimit);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public boolean isSuspended() {
+        return suspended && suspendedUntilNanos - System.nanoTime() > 0;
+    }
+
+    public double getLastAverageLatencyMillis() {
+        return lastAverageLatencyMillis;
+    }
+
+    public double getLastErrorRate() {
+        return lastErrorRate;
+    }
+
+    public long getIncreases() {
+        return increases.get();
+    }
+
+    public long getDecreases() {
+        return decreases.get();
+    }
+
+    public long getSuspensions() {
+        return suspensions.get();
+    }
+
+    /**
+     * 当前状态快照
+     *
+     * @return 状态
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("limit", getLimit());
+        state.put("minLimit", minLimit);
+        state.put("maxLimit", maxLimit);
+        state.put("inFlight", getInFlight());
+        state.put("suspended", isSuspended());
+        state.put("lastAverageLatencyMillis", lastAverageLatencyMillis);
+        state.put("lastErrorRate", lastErrorRate);
+        state.put("increases", getIncreases());
+        state.put("decreases", getDecreases());
+        state.put("suspensions", getSuspensions());
+        return state;
+    }
+}
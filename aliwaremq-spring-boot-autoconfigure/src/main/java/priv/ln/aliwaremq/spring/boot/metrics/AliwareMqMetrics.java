@@ -0,0 +1,83 @@
+package priv.ln.aliwaremq.spring.boot.metrics;
+
+import priv.ln.aliwaremq.spring.boot.flowcontrol.AdaptiveConcurrencyLimiter;
+
+/**
+ * 消息队列指标工厂
+ * <p>未引入监控实现时使用{@link #NOOP}, 不产生任何开销</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface AliwareMqMetrics {
+    AliwareMqMetrics NOOP = new AliwareMqMetrics() {
+    };
+
+    /**
+     * 同步发送
+     */
+    String MODE_SYNC = "sync";
+    /**
+     * 单向发送
+     */
+    String MODE_ONEWAY = "oneway";
+    /**
+     * 异步发送
+     */
+    String MODE_ASYNC = "async";
+    /**
+     * 顺序发送
+     */
+    String MODE_ORDER = "order";
+    /**
+     * 事务发送
+     */
+    String MODE_TRANSACTION = "transaction";
+    /**
+     * 发件箱转发
+     */
+    String MODE_OUTBOX = "outbox";
+    /**
+     * 攒批发送
+     */
+    String MODE_BATCH = "batch";
+    /**
+     * 服务端定时投递
+     */
+    String MODE_DELAY = "delay";
+
+    /**
+     * 获取发送指标
+     *
+     * @param topic 主题
+     * @param tag   标签, 可以为空
+     * @param mode  发送方式
+     * @return 发送指标
+     */
+    default SendMetrics sendMetrics(String topic, String tag, String mode) {
+        return SendMetrics.NOOP;
+    }
+
+    /**
+     * 获取消费指标
+     *
+     * @param group 消费者组
+     * @param topic 主题
+     * @param tag   订阅标签
+     * @return 消费指标
+     */
+    default ConsumeMetrics consumeMetrics(String group, String topic, String tag) {
+        return ConsumeMetrics.NOOP;
+    }
+
+    /**
+     * 绑定自适应流控状态
+     *
+     * @param group   消费者组
+     * @param topic   主题
+     * @param limiter 并发限制
+     */
+    default void bindFlowControl(String group, String topic, AdaptiveConcurrencyLimiter limiter) {
+    }
+}
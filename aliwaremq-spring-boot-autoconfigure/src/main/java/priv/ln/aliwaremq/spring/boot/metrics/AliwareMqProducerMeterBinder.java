@@ -0,0 +1,99 @@
+package priv.ln.aliwaremq.spring.boot.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.core.batch.AliwareMqBatchSender;
+import priv.ln.aliwaremq.spring.boot.core.batch.BatchSendStatistics;
+import priv.ln.aliwaremq.spring.boot.core.delay.DelayedMessageScheduler;
+import priv.ln.aliwaremq.spring.boot.core.delay.DelayedSendStatistics;
+import priv.ln.aliwaremq.spring.boot.core.pool.PooledProducer;
+import priv.ln.aliwaremq.spring.boot.core.pool.ProducerRouter;
+
+/**
+ * 生产者状态指标
+ * <p>异步发送在途数, 开启攒批发送时的批次填充率、攒批等待时长和拒绝/丢弃数, 生产者池各实例在途数和可用实例数,
+ * 以及开启进程内延时发送时的等待数、到期发送数和到期滞后</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class AliwareMqProducerMeterBinder implements MeterBinder {
+    private final AliwareMqProducer producer;
+    private final AliwareMqBatchSender batchSender;
+    private final ProducerRouter producerRouter;
+    private final DelayedMessageScheduler delayedMessageScheduler;
+
+    /**
+     * @param producer                生产者
+     * @param batchSender             攒批发送器, 未开启攒批发送时为空
+     * @param producerRouter          生产者池路由, 可以为空
+     * @param delayedMessageScheduler 进程内延时发送调度器, 未开启时间轮时为空
+     */
+    public AliwareMqProducerMeterBinder(AliwareMqProducer producer, AliwareMqBatchSender batchSender, ProducerRouter producerRouter,
+                                        DelayedMessageScheduler delayedMessageScheduler) {
+        this.producer = producer;
+        this.batchSender = batchSender;
+        this.producerRouter = producerRouter;
+        this.delayedMessageScheduler = delayedMessageScheduler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("aliwaremq.send.async.inflight", producer, AliwareMqProducer::getAsyncInFlight)
+                .register(registry);
+        if (producerRouter != null) {
+            producerRouter.getPools().forEach(pool -> bindPool(registry, pool));
+        }
+        if (delayedMessageScheduler != null) {
+            bindDelay(registry, delayedMessageScheduler);
+        }
+        if (batchSender == null) {
+            return;
+        }
+        BatchSendStatistics statistics = batchSender.getStatistics();
+        Gauge.builder("aliwaremq.send.batch.fill.ratio", statistics, BatchSendStatistics::getAverageFillRatio)
+                .register(registry);
+        Gauge.builder("aliwaremq.send.batch.linger", statistics, BatchSendStatistics::getAverageLingerMillis)
+                .baseUnit("milliseconds").register(registry);
+        FunctionCounter.builder("aliwaremq.send.batch.batches", statistics, BatchSendStatistics::getBatchCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.batch.rejected", statistics, BatchSendStatistics::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.batch.dropped", statistics, BatchSendStatistics::getDroppedCount)
+                .register(registry);
+    }
+
+    private void bindDelay(MeterRegistry registry, DelayedMessageScheduler scheduler) {
+        DelayedSendStatistics statistics = scheduler.getStatistics();
+        Gauge.builder("aliwaremq.send.delay.pending", scheduler, DelayedMessageScheduler::getPendingCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.delay.scheduled", statistics, DelayedSendStatistics::getScheduledCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.delay.fired", statistics, DelayedSendStatistics::getFiredCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.delay.rejected", statistics, DelayedSendStatistics::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.delay.failed", statistics, DelayedSendStatistics::getFailedCount)
+                .register(registry);
+        FunctionCounter.builder("aliwaremq.send.delay.handed.off", statistics, DelayedSendStatistics::getHandedOffCount)
+                .register(registry);
+        Gauge.builder("aliwaremq.send.delay.lag", statistics, DelayedSendStatistics::getAverageLagMillis)
+                .baseUnit("milliseconds").register(registry);
+        Gauge.builder("aliwaremq.send.delay.lag.max", statistics, DelayedSendStatistics::getMaxLagMillis)
+                .baseUnit("milliseconds").register(registry);
+    }
+
+    private void bindPool(MeterRegistry registry, PooledProducer pool) {
+        Gauge.builder("aliwaremq.send.pool.healthy", pool, PooledProducer::getHealthyCount)
+                .tag("pool", pool.getName()).register(registry);
+        for (int i = 0; i < pool.getSize(); i++) {
+            int index = i;
+            Gauge.builder("aliwaremq.send.pool.inflight", pool, p -> p.getInFlight(index))
+                    .tag("pool", pool.getName()).tag("instance", String.valueOf(index)).register(registry);
+        }
+    }
+}
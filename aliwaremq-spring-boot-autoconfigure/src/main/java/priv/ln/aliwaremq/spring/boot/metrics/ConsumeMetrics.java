@@ -0,0 +1,99 @@
+package priv.ln.aliwaremq.spring.boot.metrics;
+
+/**
+ * 单个消费者组、主题、标签的消费指标
+ * <p>注册消费者时预先构造, 消费时直接记录, 不再查找指标</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface ConsumeMetrics {
+    ConsumeMetrics NOOP = new ConsumeMetrics() {
+    };
+
+    /**
+     * 本地重试
+     */
+    String RETRY_TIER_LOCAL = "local";
+    /**
+     * 本地重试后成功
+     */
+    String RETRY_TIER_RECOVERED = "recovered";
+    /**
+     * 交给服务端重新投递
+     */
+    String RETRY_TIER_BROKER = "broker";
+    /**
+     * 转入死信
+     */
+    String RETRY_TIER_DEAD_LETTER = "dead_letter";
+    /**
+     * 流控等待许可超时, 交给服务端重新投递, 不是处理失败
+     */
+    String RETRY_TIER_THROTTLED = "throttled";
+
+    /**
+     * 记录消息体解码耗时
+     *
+     * @param nanos 耗时, 单位:纳秒
+     */
+    default void recordDecode(long nanos) {
+    }
+
+    /**
+     * 记录消费者处理耗时
+     *
+     * @param nanos 耗时, 单位:纳秒
+     */
+    default void recordHandle(long nanos) {
+    }
+
+    /**
+     * 记录端到端延迟, 即消息产生到开始消费的时长
+     *
+     * @param bornTimestamp 消息产生时间戳, 单位:毫秒
+     */
+    default void recordLag(long bornTimestamp) {
+    }
+
+    /**
+     * 记录提交的消息数
+     *
+     * @param count 消息数
+     */
+    default void recordCommit(int count) {
+    }
+
+    /**
+     * 记录重新消费的消息数
+     *
+     * @param count 消息数
+     */
+    default void recordReconsume(int count) {
+    }
+
+    /**
+     * 记录去重检查结果
+     *
+     * @param hit 是否命中重复消息
+     */
+    default void recordDedup(boolean hit) {
+    }
+
+    /**
+     * 记录重试分级处理
+     *
+     * @param tier 重试级别, 见RETRY_TIER_*
+     */
+    default void recordRetry(String tier) {
+    }
+
+    /**
+     * 记录过滤表达式求值结果
+     *
+     * @param passed 是否满足过滤表达式
+     */
+    default void recordFilter(boolean passed) {
+    }
+}
@@ -0,0 +1,177 @@
+package priv.ln.aliwaremq.spring.boot.metrics;
+
+import com.aliyun.openservices.ons.api.Action;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import priv.ln.aliwaremq.spring.boot.flowcontrol.AdaptiveConcurrencyLimiter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的消息队列指标
+ * <ul>
+ * <li>aliwaremq.send: 发送耗时, 标签topic、tag、mode、result</li>
+ * <li>aliwaremq.consume.decode: 解码耗时, 标签group、topic、tag</li>
+ * <li>aliwaremq.consume.handle: 处理耗时, 标签group、topic、tag</li>
+ * <li>aliwaremq.consume.lag: 消息产生到开始消费的延迟, 标签group、topic、tag</li>
+ * <li>aliwaremq.consume.messages: 消费结果计数, 标签group、topic、tag、action</li>
+ * <li>aliwaremq.consume.dedup: 去重检查计数, 标签group、topic、tag、result(hit、miss)</li>
+ * <li>aliwaremq.consume.retry: 重试分级计数, 标签group、topic、tag、tier(local、recovered、broker、dead_letter、throttled)</li>
+ * <li>aliwaremq.consume.filter: 过滤表达式求值计数, 标签group、topic、tag、result(passed、filtered)</li>
+ * <li>aliwaremq.flowcontrol.limit/inflight/suspended: 自适应流控并发上限、在途数和是否暂停, 标签group、topic</li>
+ * <li>aliwaremq.flowcontrol.decisions: 自适应流控调整次数, 标签group、topic、decision(increase、decrease、suspend)</li>
+ * </ul>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MicrometerAliwareMqMetrics implements AliwareMqMetrics {
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    /**
+     * 发送指标缓存, 依次按发送方式、主题、标签索引, 避免每次发送拼接缓存键
+     */
+    private final Map<String, Map<String, Map<String, SendMetrics>>> sendMetricsMap = new ConcurrentHashMap<>();
+
+    public MicrometerAliwareMqMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public SendMetrics sendMetrics(String topic, String tag, String mode) {
+        String safeTag = tag == null ? NONE : tag;
+        Map<String, SendMetrics> tagMetrics = child(child(sendMetricsMap, mode), topic);
+        SendMetrics sendMetrics = tagMetrics.get(safeTag);
+        return sendMetrics != null ? sendMetrics
+                : tagMetrics.computeIfAbsent(safeTag, key -> new MicrometerSendMetrics(Tags.of("topic", topic, "tag", key, "mode", mode)));
+    }
+
+    /**
+     * 获取下一级缓存, 先无锁读取, 不存在时再创建
+     */
+    private static <V> Map<String, V> child(Map<String, Map<String, V>> parent, String key) {
+        Map<String, V> child = parent.get(key);
+        return child != null ? child : parent.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public ConsumeMetrics consumeMetrics(String group, String topic, String tag) {
+        Tags tags = Tags.of("group", group == null ? NONE : group, "topic", topic, "tag", tag);
+        Timer decode = Timer.builder("aliwaremq.consume.decode").tags(tags).register(meterRegistry);
+        Timer handle = Timer.builder("aliwaremq.consume.handle").tags(tags).publishPercentileHistogram().register(meterRegistry);
+        Timer lag = Timer.builder("aliwaremq.consume.lag").tags(tags).publishPercentileHistogram().register(meterRegistry);
+        Counter commit = Counter.builder("aliwaremq.consume.messages").tags(tags)
+                .tag("action", Action.CommitMessage.name()).register(meterRegistry);
+        Counter reconsume = Counter.builder("aliwaremq.consume.messages").tags(tags)
+                .tag("action", Action.ReconsumeLater.name()).register(meterRegistry);
+        Counter dedupHit = Counter.builder("aliwaremq.consume.dedup").tags(tags).tag("result", "hit").register(meterRegistry);
+        Counter dedupMiss = Counter.builder("aliwaremq.consume.dedup").tags(tags).tag("result", "miss").register(meterRegistry);
+        Counter filterPassed = Counter.builder("aliwaremq.consume.filter").tags(tags).tag("result", "passed").register(meterRegistry);
+        Counter filterFiltered = Counter.builder("aliwaremq.consume.filter").tags(tags).tag("result", "filtered").register(meterRegistry);
+        Map<String, Counter> retryCounters = new HashMap<>();
+        for (String tier : Arrays.asList(ConsumeMetrics.RETRY_TIER_LOCAL, ConsumeMetrics.RETRY_TIER_RECOVERED,
+                ConsumeMetrics.RETRY_TIER_BROKER, ConsumeMetrics.RETRY_TIER_DEAD_LETTER, ConsumeMetrics.RETRY_TIER_THROTTLED)) {
+            retryCounters.put(tier, Counter.builder("aliwaremq.consume.retry").tags(tags).tag("tier", tier).register(meterRegistry));
+        }
+        return new ConsumeMetrics() {
+            @Override
+            public void recordDecode(long nanos) {
+                decode.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordHandle(long nanos) {
+                handle.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordLag(long bornTimestamp) {
+                if (bornTimestamp > 0) {
+                    lag.record(Math.max(0, System.currentTimeMillis() - bornTimestamp), TimeUnit.MILLISECONDS);
+                }
+            }
+
+            @Override
+            public void recordCommit(int count) {
+                commit.increment(count);
+            }
+
+            @Override
+            public void recordReconsume(int count) {
+                reconsume.increment(count);
+            }
+
+            @Override
+            public void recordDedup(boolean hit) {
+                (hit ? dedupHit : dedupMiss).increment();
+            }
+
+            @Override
+            public void recordRetry(String tier) {
+                retryCounters.get(tier).increment();
+            }
+
+            @Override
+            public void recordFilter(boolean passed) {
+                (passed ? filterPassed : filterFiltered).increment();
+            }
+        };
+    }
+
+    @Override
+    public void bindFlowControl(String group, String topic, AdaptiveConcurrencyLimiter limiter) {
+        Tags tags = Tags.of("group", group == null ? NONE : group, "topic", topic);
+        Gauge.builder("aliwaremq.flowcontrol.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tags(tags).register(meterRegistry);
+        Gauge.builder("aliwaremq.flowcontrol.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight).tags(tags).register(meterRegistry);
+        Gauge.builder("aliwaremq.flowcontrol.suspended", limiter, l -> l.isSuspended() ? 1 : 0).tags(tags).register(meterRegistry);
+        FunctionCounter.builder("aliwaremq.flowcontrol.decisions", limiter, AdaptiveConcurrencyLimiter::getIncreases)
+                .tags(tags).tag("decision", "increase").register(meterRegistry);
+        FunctionCounter.builder("aliwaremq.flowcontrol.decisions", limiter, AdaptiveConcurrencyLimiter::getDecreases)
+                .tags(tags).tag("decision", "decrease").register(meterRegistry);
+        FunctionCounter.builder("aliwaremq.flowcontrol.decisions", limiter, AdaptiveConcurrencyLimiter::getSuspensions)
+                .tags(tags).tag("decision", "suspend").register(meterRegistry);
+    }
+
+    /**
+     * 单个主题、标签、发送方式的发送耗时, 失败耗时在首次失败时注册
+     */
+    private class MicrometerSendMetrics implements SendMetrics {
+        private final Tags tags;
+        private final Timer success;
+        private volatile Timer failure;
+
+        private MicrometerSendMetrics(Tags tags) {
+            this.tags = tags;
+            this.success = sendTimer("success");
+        }
+
+        @Override
+        public void record(long nanos, boolean succeeded) {
+            (succeeded ? success : failure()).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer failure() {
+            Timer timer = failure;
+            if (timer == null) {
+                // 并发注册时MeterRegistry返回同一个Timer
+                failure = timer = sendTimer("failure");
+            }
+            return timer;
+        }
+
+        private Timer sendTimer(String result) {
+            return Timer.builder("aliwaremq.send").tags(tags).tag("result", result)
+                    .publishPercentileHistogram().register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package priv.ln.aliwaremq.spring.boot.metrics;
+
+/**
+ * 单个主题、标签、发送方式的发送指标
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public interface SendMetrics {
+    SendMetrics NOOP = (nanos, success) -> {
+    };
+
+    /**
+     * 记录一次发送
+     *
+     * @param nanos   发送耗时, 单位:纳秒
+     * @param success 是否发送成功
+     */
+    void record(long nanos, boolean success);
+}
@@ -0,0 +1,102 @@
+package priv.ln.aliwaremq.spring.boot.profile;
+
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消费耗时分析
+ * <p>按消费处理记录排队、解码和处理三个阶段的耗时, 总耗时超过阈值的消息进入慢消息采样, 运行时支持JFR时提交JFR事件</p>
+ * <p>未开启时使用{@link #DISABLED}, 监听器持有{@link HandlerProfile#DISABLED}, 不记录任何数据</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class ConsumeProfiler {
+    public static final ConsumeProfiler DISABLED = new ConsumeProfiler();
+
+    private final boolean enabled;
+    private final long slowThresholdMillis;
+    /**
+     * JFR事件提交, 未开启或运行时不支持JFR时为空
+     */
+    private final JfrEvents jfrEvents;
+    private final SlowMessageSampler sampler;
+    private final Map<String, HandlerProfile> profiles;
+
+    private ConsumeProfiler() {
+        this.enabled = false;
+        this.slowThresholdMillis = Long.MAX_VALUE;
+        this.jfrEvents = null;
+        this.sampler = new SlowMessageSampler(1);
+        this.profiles = Collections.emptyMap();
+    }
+
+    public ConsumeProfiler(AliwareMqProperties.Profiling config) {
+        this.enabled = true;
+        this.slowThresholdMillis = config.getSlowThresholdMillis();
+        this.jfrEvents = config.isJfrEnabled() ? JfrEvents.create(ConsumeProfiler.class.getClassLoader()) : null;
+        this.sampler = new SlowMessageSampler(config.getSampleCapacity());
+        this.profiles = new ConcurrentHashMap<>();
+        if (config.isJfrEnabled() && jfrEvents == null) {
+            log.warn("当前运行时不支持JFR, 不提交消费耗时JFR事件");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    public boolean isJfrEnabled() {
+        return jfrEvents != null;
+    }
+
+    JfrEvents getJfrEvents() {
+        return jfrEvents;
+    }
+
+    public SlowMessageSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * 获取消费处理的耗时统计
+     *
+     * @param group 消费者组
+     * @param topic 主题
+     * @param tag   标签
+     * @return 耗时统计, 未开启时返回{@link HandlerProfile#DISABLED}
+     */
+    public HandlerProfile profile(String group, String topic, String tag) {
+        if (!enabled) {
+            return HandlerProfile.DISABLED;
+        }
+        return profiles.computeIfAbsent(group + "@" + topic + ":" + tag, key -> new HandlerProfile(this, group, topic, tag));
+    }
+
+    /**
+     * 全部消费处理的耗时统计
+     *
+     * @return 消费者组@主题:标签与耗时统计
+     */
+    public Map<String, HandlerProfile> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * 清空统计和慢消息采样
+     */
+    public void reset() {
+        profiles.values().forEach(HandlerProfile::reset);
+        sampler.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package priv.ln.aliwaremq.spring.boot.profile;
+
+import com.aliyun.openservices.ons.api.Message;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个消费处理(消费者组@主题:标签)的阶段耗时统计
+ * <p>构造监听器时获取, 消费时直接记录, 不做查找; 未开启耗时分析时使用{@link #DISABLED}, 记录为空操作</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class HandlerProfile {
+    public static final HandlerProfile DISABLED = new HandlerProfile(null, null, null, null) {
+        @Override
+        public void record(Message message, long decodeNanos, long handleNanos, boolean success) {
+        }
+
+        @Override
+        public void record(List<Message> messages, long decodeNanos, long handleNanos, boolean success) {
+        }
+    };
+
+    private final ConsumeProfiler profiler;
+    private final String group;
+    private final String topic;
+    private final String tag;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAdder queueWaitMillis = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder handleNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitMillis = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxDecodeNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHandleNanos = new LongAccumulator(Math::max, 0);
+
+    HandlerProfile(ConsumeProfiler profiler, String group, String topic, String tag) {
+        this.profiler = profiler;
+        this.group = group;
+        this.topic = topic;
+        this.tag = tag;
+    }
+
+    /**
+     * 记录单条消息
+     *
+     * @param message     消息
+     * @param decodeNanos 解码耗时
+     * @param handleNanos 处理耗时
+     * @param success     是否处理成功
+     */
+    public void record(Message message, long decodeNanos, long handleNanos, boolean success) {
+        long queueWait = queueWaitMillis(message, decodeNanos + handleNanos, System.currentTimeMillis());
+        record(message, 1, bodyBytes(message), queueWait, decodeNanos, handleNanos, success);
+    }
+
+    /**
+     * 记录一批消息, 排队耗时取批内最大值
+     *
+     * @param messages    消息
+     * @param decodeNanos 整批解码耗时
+     * @param handleNanos 整批处理耗时
+     * @param success     是否处理成功
+     */
+    public void record(List<Message> messages, long decodeNanos, long handleNanos, boolean success) {
+        long now = System.currentTimeMillis();
+        long queueWait = 0;
+        long bytes = 0;
+        for (Message message : messages) {
+            queueWait = Math.max(queueWait, queueWaitMillis(message, decodeNanos + handleNanos, now));
+            bytes += bodyBytes(message);
+        }
+        record(messages.get(0), messages.size(), bytes, queueWait, decodeNanos, handleNanos, success);
+    }
+
+    private void record(Message first, int batchSize, long bodyBytes, long queueWait, long decode, long handle, boolean success) {
+        count.add(batchSize);
+        queueWaitMillis.add(queueWait);
+        decodeNanos.add(decode);
+        handleNanos.add(handle);
+        maxQueueWaitMillis.accumulate(queueWait);
+        maxDecodeNanos.accumulate(decode);
+        maxHandleNanos.accumulate(handle);
+        boolean slow = queueWait + TimeUnit.NANOSECONDS.toMillis(decode + handle) >= profiler.getSlowThresholdMillis();
+        if (slow) {
+            slowCount.increment();
+            SlowMessageSample sample = new SlowMessageSample();
+            sample.setTimestamp(System.currentTimeMillis());
+            sample.setGroup(group);
+            sample.setTopic(topic);
+            sample.setTag(tag);
+            sample.setMsgId(first.getMsgID());
+            sample.setKey(first.getKey());
+            sample.setBatchSize(batchSize);
+            sample.setBodyBytes(bodyBytes);
+            sample.setReconsumeTimes(first.getReconsumeTimes());
+            sample.setQueueWaitMillis(queueWait);
+            sample.setDecodeMicros(TimeUnit.NANOSECONDS.toMicros(decode));
+            sample.setHandleMicros(TimeUnit.NANOSECONDS.toMicros(handle));
+            sample.setSuccess(success);
+            profiler.getSampler().add(sample);
+        }
+        JfrEvents jfrEvents = profiler.getJfrEvents();
+        if (jfrEvents != null) {
+            jfrEvents.commit(group, topic, tag, first.getMsgID(), first.getKey(), batchSize, bodyBytes,
+                    queueWait, decode, handle, success, slow);
+        }
+    }
+
+    /**
+     * 消息产生到开始处理的耗时, 当前时间减去产生时间和处理耗时
+     */
+    private static long queueWaitMillis(Message message, long elapsedNanos, long now) {
+        long bornTimestamp = message.getBornTimestamp();
+        return bornTimestamp <= 0 ? 0 : Math.max(0, now - bornTimestamp - TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private static long bodyBytes(Message message) {
+        return message.getBody() == null ? 0 : message.getBody().length;
+    }
+
+    void reset() {
+        count.reset();
+        slowCount.reset();
+        queueWaitMillis.reset();
+        decodeNanos.reset();
+        handleNanos.reset();
+        maxQueueWaitMillis.reset();
+        maxDecodeNanos.reset();
+        maxHandleNanos.reset();
+    }
+
+    /**
+     * 统计快照, 平均值和最大值单位为毫秒
+     *
+     * @return 统计
+     */
+    public Map<String, Object> snapshot() {
+        long total = count.sum();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("count", total);
+        state.put("slowCount", slowCount.sum());
+        state.put("avgQueueWaitMillis", total == 0 ? 0 : (double) queueWaitMillis.sum() / total);
+        state.put("avgDecodeMillis", total == 0 ? 0 : decodeNanos.sum() / 1e6 / total);
+        state.put("avgHandleMillis", total == 0 ? 0 : handleNanos.sum() / 1e6 / total);
+        state.put("maxQueueWaitMillis", maxQueueWaitMillis.get());
+        state.put("maxDecodeMillis", maxDecodeNanos.get() / 1e6);
+        state.put("maxHandleMillis", maxHandleNanos.get() / 1e6);
+        return state;
+    }
+}
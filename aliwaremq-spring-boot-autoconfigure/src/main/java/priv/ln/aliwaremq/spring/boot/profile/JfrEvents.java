@@ -0,0 +1,134 @@
+package priv.ln.aliwaremq.spring.boot.profile;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 提交消费阶段耗时JFR事件
+ * <p>通过jdk.jfr.EventFactory在运行时定义事件, 编译时不依赖jdk.jfr, 可在任意JDK 8上编译;
+ * 运行时不支持JFR(8u262以前的JDK 8)时{@link #create}返回空</p>
+ * <p>事件名priv.ln.aliwaremq.ConsumePhase, 字段依次为group、topic、tag、msgId、key、batchSize、bodyBytes、
+ * queueWait、decode、handle、success、slow</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+final class JfrEvents {
+    private static final String EVENT_NAME = "priv.ln.aliwaremq.ConsumePhase";
+    private static final String JFR_PACKAGE = "jdk.jfr.";
+
+    private final Object factory;
+    private final MethodHandle newEvent;
+    private final MethodHandle isEnabled;
+    private final MethodHandle set;
+    private final MethodHandle commit;
+
+    private JfrEvents(Object factory, MethodHandle newEvent, MethodHandle isEnabled, MethodHandle set, MethodHandle commit) {
+        this.factory = factory;
+        this.newEvent = newEvent;
+        this.isEnabled = isEnabled;
+        this.set = set;
+        this.commit = commit;
+    }
+
+    /**
+     * 定义事件
+     *
+     * @param classLoader 加载jdk.jfr的类加载器
+     * @return 事件提交, 运行时不支持JFR时返回空
+     */
+    static JfrEvents create(ClassLoader classLoader) {
+        try {
+            Class<?> annotationElementType = Class.forName(JFR_PACKAGE + "AnnotationElement", true, classLoader);
+            Class<?> valueDescriptorType = Class.forName(JFR_PACKAGE + "ValueDescriptor", true, classLoader);
+            Class<?> eventFactoryType = Class.forName(JFR_PACKAGE + "EventFactory", true, classLoader);
+            Class<?> eventType = Class.forName(JFR_PACKAGE + "Event", true, classLoader);
+            AnnotationFactory annotations = new AnnotationFactory(annotationElementType, classLoader);
+            Constructor<?> field = valueDescriptorType.getConstructor(Class.class, String.class, List.class);
+            List<Object> eventAnnotations = Arrays.asList(
+                    annotations.of("Name", EVENT_NAME),
+                    annotations.of("Label", "AliwareMQ Consume Phase"),
+                    annotations.of("Description", "消息排队、解码和处理耗时"),
+                    annotations.of("Category", new String[]{"AliwareMQ", "Consumer"}),
+                    annotations.of("StackTrace", false));
+            List<Object> fields = new ArrayList<>();
+            fields.add(field.newInstance(String.class, "group", annotations.label("Group")));
+            fields.add(field.newInstance(String.class, "topic", annotations.label("Topic")));
+            fields.add(field.newInstance(String.class, "tag", annotations.label("Tag")));
+            fields.add(field.newInstance(String.class, "msgId", annotations.label("Message Id")));
+            fields.add(field.newInstance(String.class, "key", annotations.label("Key")));
+            fields.add(field.newInstance(int.class, "batchSize", annotations.label("Batch Size")));
+            fields.add(field.newInstance(long.class, "bodyBytes", annotations.label("Body Size", "DataAmount", "BYTES")));
+            fields.add(field.newInstance(long.class, "queueWait", annotations.label("Queue Wait", "Timespan", "MILLISECONDS")));
+            fields.add(field.newInstance(long.class, "decode", annotations.label("Decode", "Timespan", "NANOSECONDS")));
+            fields.add(field.newInstance(long.class, "handle", annotations.label("Handle", "Timespan", "NANOSECONDS")));
+            fields.add(field.newInstance(boolean.class, "success", annotations.label("Success")));
+            fields.add(field.newInstance(boolean.class, "slow", annotations.label("Slow")));
+            Object factory = eventFactoryType.getMethod("create", List.class, List.class).invoke(null, eventAnnotations, fields);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return new JfrEvents(factory,
+                    lookup.findVirtual(eventFactoryType, "newEvent", MethodType.methodType(eventType)),
+                    lookup.findVirtual(eventType, "isEnabled", MethodType.methodType(boolean.class)),
+                    lookup.findVirtual(eventType, "set", MethodType.methodType(void.class, int.class, Object.class)),
+                    lookup.findVirtual(eventType, "commit", MethodType.methodType(void.class)));
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            log.debug("定义消费耗时JFR事件失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 提交事件, 未开启记录该事件时直接返回
+     */
+    void commit(String group, String topic, String tag, String msgId, String key, int batchSize, long bodyBytes,
+                long queueWaitMillis, long decodeNanos, long handleNanos, boolean success, boolean slow) {
+        try {
+            Object event = newEvent.invoke(factory);
+            if (!(boolean) isEnabled.invoke(event)) {
+                return;
+            }
+            Object[] values = {group, topic, tag, msgId, key, batchSize, bodyBytes, queueWaitMillis, decodeNanos, handleNanos, success, slow};
+            for (int i = 0; i < values.length; i++) {
+                set.invoke(event, i, values[i]);
+            }
+            commit.invoke(event);
+        } catch (Throwable e) {
+            log.debug("提交消费耗时JFR事件失败", e);
+        }
+    }
+
+    /**
+     * 按注解简单名创建jdk.jfr.AnnotationElement
+     */
+    private static final class AnnotationFactory {
+        private final Constructor<?> withValue;
+        private final ClassLoader classLoader;
+
+        private AnnotationFactory(Class<?> annotationElementType, ClassLoader classLoader) throws NoSuchMethodException {
+            this.withValue = annotationElementType.getConstructor(Class.class, Object.class);
+            this.classLoader = classLoader;
+        }
+
+        private Object of(String annotation, Object value) throws ReflectiveOperationException {
+            return withValue.newInstance(Class.forName(JFR_PACKAGE + annotation, true, classLoader), value);
+        }
+
+        private List<Object> label(String label) throws ReflectiveOperationException {
+            return Collections.singletonList(of("Label", label));
+        }
+
+        private List<Object> label(String label, String annotation, String value) throws ReflectiveOperationException {
+            return Arrays.asList(of("Label", label), of(annotation, value));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package priv.ln.aliwaremq.spring.boot.profile;
+
+import lombok.Data;
+
+/**
+ * 慢消息采样
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Data
+public class SlowMessageSample {
+    /**
+     * 采样时间戳
+     */
+    private long timestamp;
+    private String group;
+    private String topic;
+    private String tag;
+    /**
+     * 消息id, 批量消费时为批内第一条消息
+     */
+    private String msgId;
+    /**
+     * 消息业务键, 批量消费时为批内第一条消息
+     */
+    private String key;
+    /**
+     * 消息数, 单条消费时为1
+     */
+    private int batchSize;
+    /**
+     * 消息体字节数, 批量消费时为批内合计
+     */
+    private long bodyBytes;
+    private int reconsumeTimes;
+    /**
+     * 消息产生到开始处理的排队耗时, 单位:毫秒, 批量消费时取批内最大值
+     */
+    private long queueWaitMillis;
+    /**
+     * 读取引用消息体、解压和解码耗时, 单位:微秒
+     */
+    private long decodeMicros;
+    /**
+     * 处理耗时, 单位:微秒
+     */
+    private long handleMicros;
+    private boolean success;
+}
@@ -0,0 +1,61 @@
+package priv.ln.aliwaremq.spring.boot.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢消息采样环形缓冲区
+ * <p>写入只做一次原子自增和一次数组写入, 缓冲区满后覆盖最早的采样</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class SlowMessageSampler {
+    private final AtomicReferenceArray<SlowMessageSample> samples;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowMessageSampler(int capacity) {
+        this.samples = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public void add(SlowMessageSample sample) {
+        long index = sequence.getAndIncrement();
+        samples.set((int) (index % samples.length()), sample);
+    }
+
+    /**
+     * 累计采样数, 包含已被覆盖的采样
+     *
+     * @return 采样数
+     */
+    public long getTotal() {
+        return sequence.get();
+    }
+
+    /**
+     * 当前保留的采样
+     *
+     * @return 采样, 最新的在前
+     */
+    public List<SlowMessageSample> snapshot() {
+        long end = sequence.get();
+        long start = Math.max(0, end - samples.length());
+        List<SlowMessageSample> result = new ArrayList<>((int) (end - start));
+        for (long index = end - 1; index >= start; index--) {
+            SlowMessageSample sample = samples.get((int) (index % samples.length()));
+            if (sample != null) {
+                result.add(sample);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < samples.length(); i++) {
+            samples.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package priv.ln.aliwaremq.spring.boot.reactive;
+
+import com.aliyun.openservices.ons.api.Action;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 待确认的消息
+ * <p>下游处理完成后调用ack提交, 处理失败时调用nack由服务端重新投递; 未确认前消息不提交</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public final class AcknowledgeableMessage<T> {
+    private final T body;
+    private final CompletableFuture<Action> result = new CompletableFuture<>();
+
+    AcknowledgeableMessage(T body) {
+        this.body = body;
+    }
+
+    public T getBody() {
+        return body;
+    }
+
+    /**
+     * 确认消费成功, 提交消息
+     */
+    public void ack() {
+        result.complete(Action.CommitMessage);
+    }
+
+    /**
+     * 确认消费失败, 由服务端重新投递
+     */
+    public void nack() {
+        result.complete(Action.ReconsumeLater);
+    }
+
+    /**
+     * 是否已确认
+     *
+     * @return 已调用ack或nack时返回true
+     */
+    public boolean isAcknowledged() {
+        return result.isDone();
+    }
+
+    /**
+     * 等待确认结果
+     *
+     * @param timeoutMillis 最大等待时长, 单位:毫秒
+     * @return 消费结果, 超时或中断时返回ReconsumeLater
+     */
+    Action await(long timeoutMillis) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Action.ReconsumeLater;
+        } catch (ExecutionException | TimeoutException e) {
+            return Action.ReconsumeLater;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package priv.ln.aliwaremq.spring.boot.reactive;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.bean.ConsumerBean;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqConsumerRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阿里云消息队列响应式消费者
+ * <p>每次订阅独占订阅队列的消费者组创建一个客户端, 取消订阅时关闭; 消费者组已被其他消费者使用时订阅失败</p>
+ * <p>消息以{@link AcknowledgeableMessage}交给下游, 下游ack后才提交, nack、超过consumeTimeout未确认或取消订阅时由服务端重新投递</p>
+ * <p>每个消费线程同时只有一条未确认的消息, 交给下游但未请求的消息不超过consumeThreadNums条;
+ * 客户端本地缓存满后停止拉取, 消费线程不等待下游需求</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class ReactiveAliwareMqConsumer {
+    private final AliwareMqConsumerRegistry aliwareMqConsumerRegistry;
+
+    public ReactiveAliwareMqConsumer(AliwareMqConsumerRegistry aliwareMqConsumerRegistry) {
+        this.aliwareMqConsumerRegistry = aliwareMqConsumerRegistry;
+    }
+
+    /**
+     * 订阅消息
+     *
+     * @param consumerName 订阅队列自定义名称
+     * @param tag          标签, *表示全部标签
+     * @param messageType  消息类型
+     * @param <T>          泛型
+     * @return 待确认的消息流
+     */
+    public <T> Flux<AcknowledgeableMessage<T>> receive(String consumerName, String tag, Class<T> messageType) {
+        return receive(consumerName, tag, (Type) messageType);
+    }
+
+    /**
+     * 订阅消息
+     *
+     * @param consumerName 订阅队列自定义名称
+     * @param tag          标签, *表示全部标签
+     * @param messageType  消息类型, 可为参数化类型
+     * @param <T>          泛型
+     * @return 待确认的消息流
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<AcknowledgeableMessage<T>> receive(String consumerName, String tag, Type messageType) {
+        return Flux.create(sink -> {
+            Set<AcknowledgeableMessage<T>> pending = ConcurrentHashMap.newKeySet();
+            ConsumerBean consumerBean = aliwareMqConsumerRegistry.buildConsumer(consumerName, tag, messageType, msgBody -> {
+                if (sink.isCancelled()) {
+                    return Action.ReconsumeLater;
+                }
+                AcknowledgeableMessage<T> received = new AcknowledgeableMessage<>((T) msgBody);
+                pending.add(received);
+                try {
+                    sink.next(received);
+                    // 取消订阅与交给下游并发时, 由此处兜底, 不等待已无人确认的消息
+                    if (sink.isCancelled()) {
+                        received.nack();
+                    }
+                    return received.await(ackTimeoutMillis(consumerName));
+                } finally {
+                    pending.remove(received);
+                }
+            });
+            sink.onDispose(() -> {
+                pending.forEach(AcknowledgeableMessage::nack);
+                aliwareMqConsumerRegistry.shutdownConsumer(consumerName, consumerBean);
+                log.info("关闭响应式消费者, 订阅队列:{}, 标签:{}", consumerName, tag);
+            });
+            consumerBean.start();
+            log.info("启动响应式消费者, 订阅队列:{}, 标签:{}", consumerName, tag);
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * 等待下游确认的最大时长, 与客户端消费超时一致
+     *
+     * @param consumerName 订阅队列自定义名称
+     * @return 最大时长, 单位:毫秒
+     */
+    private long ackTimeoutMillis(String consumerName) {
+        return TimeUnit.MINUTES.toMillis(aliwareMqConsumerRegistry.getAliwareMqProperties().getConsumer().get(consumerName).getConsumeTimeout());
+    }
+}
@@ -0,0 +1,125 @@
+package priv.ln.aliwaremq.spring.boot.reactive;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import org.reactivestreams.Publisher;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 阿里云消息队列响应式生产者
+ * <p>基于{@link AliwareMqProducer}的异步发送, 订阅时才发送, 不阻塞订阅线程</p>
+ * <p>在途消息数达到aliwaremq.producer.max-in-flight-async-sends时不等待许可, 按{@link #PERMIT_RETRY_INTERVAL}定时重试,
+ * 超过async-acquire-timeout-millis仍无许可时以{@link RejectedExecutionException}失败</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class ReactiveAliwareMqProducer {
+    /**
+     * 流式发送默认并发数
+     */
+    public static final int DEFAULT_CONCURRENCY = 256;
+    /**
+     * 无在途许可时的重试间隔
+     */
+    public static final Duration PERMIT_RETRY_INTERVAL = Duration.ofMillis(10);
+
+    private final AliwareMqProducer aliwareMqProducer;
+    private final long acquireTimeoutMillis;
+
+    /**
+     * @param aliwareMqProducer    生产者
+     * @param acquireTimeoutMillis 无在途许可时的最大重试时长, 单位:毫秒
+     */
+    public ReactiveAliwareMqProducer(AliwareMqProducer aliwareMqProducer, long acquireTimeoutMillis) {
+        this.aliwareMqProducer = aliwareMqProducer;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * 发送
+     *
+     * @param msg 消息
+     * @return 发送结果
+     */
+    public Mono<SendResult> send(Message msg) {
+        return send(() -> aliwareMqProducer.trySendAsync(msg));
+    }
+
+    /**
+     * 发送
+     * <p>大消息体在生产者的存储线程池中保存, 最终发送失败时删除已保存的消息体</p>
+     *
+     * @param topic 主题
+     * @param msg   消息体
+     * @param <T>   泛型
+     * @return 发送结果
+     */
+    public <T> Mono<SendResult> send(String topic, T msg) {
+        return Mono.defer(() -> Mono.fromFuture(aliwareMqProducer.convertAsync(topic, msg)))
+                .flatMap(message -> send(message).doOnError(e -> aliwareMqProducer.discardClaimCheck(message)));
+    }
+
+    /**
+     * 流式发送
+     * <p>按下游需求拉取上游消息, 最多同时发送{@link #DEFAULT_CONCURRENCY}条, 发送结果与消息顺序一致</p>
+     *
+     * @param topic    主题
+     * @param messages 消息体流
+     * @param <T>      泛型
+     * @return 发送结果流
+     */
+    public <T> Flux<SendResult> sendMany(String topic, Publisher<T> messages) {
+        return sendMany(topic, messages, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * 流式发送
+     * <p>按下游需求拉取上游消息, 最多同时发送concurrency条, 发送结果与消息顺序一致</p>
+     *
+     * @param topic       主题
+     * @param messages    消息体流
+     * @param concurrency 并发数
+     * @param <T>         泛型
+     * @return 发送结果流
+     */
+    public <T> Flux<SendResult> sendMany(String topic, Publisher<T> messages, int concurrency) {
+        return Flux.from(messages).flatMapSequential(msg -> send(topic, msg), concurrency);
+    }
+
+    /**
+     * 流式发送
+     * <p>按下游需求拉取上游消息, 最多同时发送concurrency条, 发送结果与消息顺序一致</p>
+     *
+     * @param messages    消息流
+     * @param concurrency 并发数
+     * @return 发送结果流
+     */
+    public Flux<SendResult> sendMany(Publisher<Message> messages, int concurrency) {
+        return Flux.from(messages).flatMapSequential(this::send, concurrency);
+    }
+
+    /**
+     * 不阻塞地发送, 无在途许可时定时重试直到超时
+     *
+     * @param sender 发送函数, 无在途许可时立即以RejectedExecutionException失败
+     * @return 发送结果
+     */
+    private Mono<SendResult> send(Supplier<CompletableFuture<SendResult>> sender) {
+        return Mono.defer(() -> {
+            long deadlineMillis = System.currentTimeMillis() + acquireTimeoutMillis;
+            return Mono.defer(() -> Mono.fromFuture(sender.get()))
+                    .retryWhen(errors -> errors.concatMap(e -> e instanceof RejectedExecutionException
+                            && System.currentTimeMillis() + PERMIT_RETRY_INTERVAL.toMillis() <= deadlineMillis
+                            ? Mono.delay(PERMIT_RETRY_INTERVAL) : Mono.error(e)));
+        });
+    }
+}
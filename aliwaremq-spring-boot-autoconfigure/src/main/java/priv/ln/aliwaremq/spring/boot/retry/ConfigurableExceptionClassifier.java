@@ -0,0 +1,60 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 按异常类名配置的分类器
+ * <p>沿异常及其cause链匹配, 命中fatalExceptions为DEAD_LETTER, 命中brokerExceptions为BROKER, 其余为RETRY; 包含子类</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class ConfigurableExceptionClassifier implements ExceptionClassifier {
+    private final List<Class<?>> fatalExceptions;
+    private final List<Class<?>> brokerExceptions;
+
+    /**
+     * @param fatalExceptions  不可恢复的异常类名
+     * @param brokerExceptions 不在本地重试的异常类名
+     */
+    public ConfigurableExceptionClassifier(List<String> fatalExceptions, List<String> brokerExceptions) {
+        this.fatalExceptions = resolve(fatalExceptions);
+        this.brokerExceptions = resolve(brokerExceptions);
+    }
+
+    @Override
+    public RetryDecision classify(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (matches(fatalExceptions, cause)) {
+                return RetryDecision.DEAD_LETTER;
+            }
+            if (matches(brokerExceptions, cause)) {
+                return RetryDecision.BROKER;
+            }
+        }
+        return RetryDecision.RETRY;
+    }
+
+    private boolean matches(List<Class<?>> types, Throwable throwable) {
+        for (Class<?> type : types) {
+            if (type.isInstance(throwable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Class<?>> resolve(List<String> classNames) {
+        return classNames.stream().map(className -> {
+            try {
+                return ClassUtils.forName(className, ConfigurableExceptionClassifier.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException(String.format("未找到异常类[%s]", className), e);
+            }
+        }).collect(Collectors.toList());
+    }
+}
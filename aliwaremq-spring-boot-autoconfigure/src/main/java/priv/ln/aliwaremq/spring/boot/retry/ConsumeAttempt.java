@@ -0,0 +1,26 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Message;
+
+import java.util.List;
+
+/**
+ * 一次消费尝试
+ * <p>每次尝试自行占用并释放流控许可、去重键等资源, 退避等待期间不占用</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface ConsumeAttempt {
+    /**
+     * 消费
+     *
+     * @param messages 本次消费的消息, 批量消费定位失败消息时为其中一条
+     * @return 消费结果
+     * @throws Exception 消费失败
+     */
+    Action consume(List<Message> messages) throws Exception;
+}
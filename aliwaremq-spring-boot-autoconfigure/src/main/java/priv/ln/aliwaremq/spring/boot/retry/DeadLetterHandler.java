@@ -0,0 +1,22 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+import com.aliyun.openservices.ons.api.Message;
+
+/**
+ * 死信处理
+ * <p>容器中存在该类型的bean时使用该bean, 否则在消费者配置了retry.deadLetterTopic时转发到该主题</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface DeadLetterHandler {
+    /**
+     * 处理死信, 抛出异常时消息交给服务端重新投递
+     *
+     * @param message 消息
+     * @param cause   消费异常
+     */
+    void handle(Message message, Throwable cause);
+}
@@ -0,0 +1,20 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+/**
+ * 消费异常分类器
+ * <p>容器中存在该类型的bean时替代按配置分类的{@link ConfigurableExceptionClassifier}</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface ExceptionClassifier {
+    /**
+     * 分类
+     *
+     * @param throwable 消费异常
+     * @return 重试决策
+     */
+    RetryDecision classify(Throwable throwable);
+}
@@ -0,0 +1,23 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+/**
+ * 消费异常的重试决策
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public enum RetryDecision {
+    /**
+     * 可重试, 先在本地快速重试, 用尽后交给服务端重新投递
+     */
+    RETRY,
+    /**
+     * 不在本地重试, 直接交给服务端按退避策略重新投递
+     */
+    BROKER,
+    /**
+     * 不可恢复, 直接进入死信, 不再重试
+     */
+    DEAD_LETTER
+}
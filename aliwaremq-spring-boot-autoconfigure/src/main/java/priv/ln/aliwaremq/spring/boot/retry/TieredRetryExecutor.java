@@ -0,0 +1,156 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Message;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.metrics.ConsumeMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 分级重试执行器
+ * <ol>
+ * <li>处理成功直接返回</li>
+ * <li>异常分类为RETRY时在当前线程按指数退避加随机抖动重试, 最多maxLocalAttempts次</li>
+ * <li>异常分类为DEAD_LETTER且存在死信处理时转入死信并提交, 不再重试; 批量消费时逐条重新消费以定位失败的消息,
+ * 只有失败的消息转入死信</li>
+ * <li>其余情况返回ReconsumeLater, 由服务端重新投递</li>
+ * </ol>
+ * <p>消费时会解压、读取引用消息体并修改消息, 存在死信处理时先保存消息的原始消息体和用户属性, 转入死信的是收到的原始消息</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class TieredRetryExecutor {
+    private final AliwareMqProperties.Retry config;
+    private final ExceptionClassifier classifier;
+    private final DeadLetterHandler deadLetterHandler;
+
+    /**
+     * @param config            重试配置
+     * @param classifier        异常分类器
+     * @param deadLetterHandler 死信处理, 为空时不可恢复的消息也交给服务端重新投递
+     */
+    public TieredRetryExecutor(AliwareMqProperties.Retry config, ExceptionClassifier classifier, DeadLetterHandler deadLetterHandler) {
+        this.config = config;
+        this.classifier = classifier;
+        this.deadLetterHandler = deadLetterHandler;
+    }
+
+    /**
+     * 执行消费
+     *
+     * @param messages       本次消费的消息, 单条消费时只有一条
+     * @param attempt        一次消费尝试, 抛出异常视为失败
+     * @param consumeMetrics 消费指标
+     * @return 消费结果
+     */
+    public Action execute(List<Message> messages, ConsumeAttempt attempt, ConsumeMetrics consumeMetrics) {
+        List<Message> originals = deadLetterHandler == null ? messages : snapshot(messages);
+        return execute(messages, originals, attempt, consumeMetrics);
+    }
+
+    private Action execute(List<Message> messages, List<Message> originals, ConsumeAttempt attempt, ConsumeMetrics consumeMetrics) {
+        for (int attempts = 0; ; attempts++) {
+            try {
+                Action action = attempt.consume(messages);
+                if (attempts > 0 && action == Action.CommitMessage) {
+                    consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_RECOVERED);
+                }
+                return action;
+            } catch (Exception e) {
+                Message first = messages.get(0);
+                RetryDecision decision = classifier.classify(e);
+                if (decision == RetryDecision.DEAD_LETTER && deadLetterHandler != null) {
+                    return messages.size() > 1
+                            ? isolate(messages, originals, attempt, consumeMetrics) : deadLetter(originals.get(0), e, consumeMetrics);
+                }
+                if (decision == RetryDecision.RETRY && attempts < config.getMaxLocalAttempts()) {
+                    long backoffMillis = backoffMillis(attempts);
+                    log.warn("消费[主题:{},标签:{},消息id:{},消息数:{}]消息发生异常, {}毫秒后第{}次本地重试", first.getTopic(), first.getTag(),
+                            first.getMsgID(), messages.size(), backoffMillis, attempts + 1, e);
+                    consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_LOCAL);
+                    try {
+                        Thread.sleep(backoffMillis);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_BROKER);
+                        return Action.ReconsumeLater;
+                    }
+                    continue;
+                }
+                log.error("消费[主题:{},标签:{},消息id:{},消息数:{}]消息发生异常, 本地重试{}次, 交给服务端重新投递", first.getTopic(), first.getTag(),
+                        first.getMsgID(), messages.size(), attempts, e);
+                consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_BROKER);
+                return Action.ReconsumeLater;
+            }
+        }
+    }
+
+    /**
+     * 批量消费发生不可恢复的异常时逐条重新消费, 只有失败的消息转入死信
+     * <p>服务端只能整批提交或重新投递, 任意一条需要重新投递时整批重新投递, 已成功的消息会再次消费</p>
+     */
+    private Action isolate(List<Message> messages, List<Message> originals, ConsumeAttempt attempt, ConsumeMetrics consumeMetrics) {
+        log.warn("消费[主题:{},消息数:{}]批量消息发生不可恢复的异常, 逐条重新消费以定位失败的消息", messages.get(0).getTopic(), messages.size());
+        Action result = Action.CommitMessage;
+        for (int i = 0; i < messages.size(); i++) {
+            Action action = execute(Collections.singletonList(messages.get(i)), Collections.singletonList(originals.get(i)),
+                    attempt, consumeMetrics);
+            if (action != Action.CommitMessage) {
+                result = Action.ReconsumeLater;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 转入死信, 死信处理失败时交给服务端重新投递
+     */
+    private Action deadLetter(Message message, Exception cause, ConsumeMetrics consumeMetrics) {
+        try {
+            deadLetterHandler.handle(message, cause);
+            log.error("消费[主题:{},标签:{},消息id:{}]消息发生不可恢复的异常, 已转入死信", message.getTopic(), message.getTag(),
+                    message.getMsgID(), cause);
+            consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_DEAD_LETTER);
+            return Action.CommitMessage;
+        } catch (Exception e) {
+            log.error("消费[主题:{},消息id:{}]消息转入死信失败, 交给服务端重新投递", message.getTopic(), message.getMsgID(), e);
+            consumeMetrics.recordRetry(ConsumeMetrics.RETRY_TIER_BROKER);
+            return Action.ReconsumeLater;
+        }
+    }
+
+    /**
+     * 保存消息收到时的主题、标签、业务键、消息id、消息体和用户属性
+     */
+    private static List<Message> snapshot(List<Message> messages) {
+        List<Message> originals = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            Message original = new Message(message.getTopic(), message.getTag(), message.getKey(), message.getBody());
+            original.setMsgID(message.getMsgID());
+            Properties userProperties = message.getUserProperties();
+            if (userProperties != null) {
+                userProperties.forEach((key, value) -> original.putUserProperties((String) key, (String) value));
+            }
+            originals.add(original);
+        }
+        return originals;
+    }
+
+    /**
+     * 计算第attempts次重试前的等待时长: initialBackoffMillis * multiplier^attempts, 不超过maxBackoffMillis, 再乘以[1 - jitter, 1]的随机系数
+     */
+    private long backoffMillis(int attempts) {
+        double backoff = Math.min(config.getMaxBackoffMillis(), config.getInitialBackoffMillis() * Math.pow(config.getMultiplier(), attempts));
+        double jitter = Math.min(1, Math.max(0, config.getJitter()));
+        return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,45 @@
+package priv.ln.aliwaremq.spring.boot.retry;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.Producer;
+
+import java.util.Properties;
+
+/**
+ * 转发到死信主题的死信处理
+ * <p>保留原消息的标签、业务键、消息体和用户属性, 并在用户属性中记录原主题、原消息id和异常;
+ * 消息体和用户属性为收到时的原始内容, 未解压, 引用消息体不读取, 可原样重新投递</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class TopicDeadLetterHandler implements DeadLetterHandler {
+    public static final String ORIGIN_TOPIC_PROPERTY = "aliwaremq_dlq_topic";
+    public static final String ORIGIN_MSG_ID_PROPERTY = "aliwaremq_dlq_msg_id";
+    public static final String CAUSE_PROPERTY = "aliwaremq_dlq_cause";
+    private static final int MAX_CAUSE_LENGTH = 512;
+
+    private final Producer producer;
+    private final String deadLetterTopic;
+
+    public TopicDeadLetterHandler(Producer producer, String deadLetterTopic) {
+        this.producer = producer;
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    @Override
+    public void handle(Message message, Throwable cause) {
+        Message deadLetter = new Message(deadLetterTopic, message.getTag(), message.getKey(), message.getBody());
+        Properties userProperties = message.getUserProperties();
+        if (userProperties != null) {
+            userProperties.forEach((key, value) -> deadLetter.putUserProperties((String) key, (String) value));
+        }
+        deadLetter.putUserProperties(ORIGIN_TOPIC_PROPERTY, message.getTopic());
+        deadLetter.putUserProperties(ORIGIN_MSG_ID_PROPERTY, message.getMsgID());
+        String causeText = String.valueOf(cause);
+        deadLetter.putUserProperties(CAUSE_PROPERTY,
+                causeText.length() > MAX_CAUSE_LENGTH ? causeText.substring(0, MAX_CAUSE_LENGTH) : causeText);
+        producer.send(deadLetter);
+    }
+}
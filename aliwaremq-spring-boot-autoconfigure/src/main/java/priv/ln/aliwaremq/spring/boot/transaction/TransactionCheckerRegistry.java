@@ -0,0 +1,136 @@
+package priv.ln.aliwaremq.spring.boot.transaction;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.transaction.LocalTransactionChecker;
+import com.aliyun.openservices.ons.api.transaction.TransactionStatus;
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.claimcheck.ClaimCheckResolver;
+import priv.ln.aliwaremq.spring.boot.codec.DecodePlan;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.codec.MessageTypeResolver;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressorRegistry;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqTransactionChecker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地事务回查注册中心
+ * <p>作为事务消息生产者唯一的LocalTransactionChecker, 按消息主题分发给对应的{@link AliwareMqTransactionChecker}</p>
+ * <p>注册时一次性解析消息类型和解码计划并按主题缓存, 回查时只做一次哈希查找</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class TransactionCheckerRegistry implements LocalTransactionChecker {
+    private final MessageCodecRegistry codecRegistry;
+    private final MessageCompressorRegistry compressorRegistry;
+    private final ClaimCheckResolver claimCheckResolver;
+    /**
+     * 主题与回查程序, 注册时整体替换, 回查时无锁读取
+     */
+    private volatile Map<String, CheckerEntry> checkerMap = Collections.emptyMap();
+
+    /**
+     * @param codecRegistry      编解码器注册中心
+     * @param compressorRegistry 压缩器注册中心, 可以为空
+     * @param claimCheckResolver 大消息体引用解析, 可以为空
+     */
+    public TransactionCheckerRegistry(MessageCodecRegistry codecRegistry, MessageCompressorRegistry compressorRegistry,
+                                      ClaimCheckResolver claimCheckResolver) {
+        this.codecRegistry = codecRegistry;
+        this.compressorRegistry = compressorRegistry;
+        this.claimCheckResolver = claimCheckResolver;
+    }
+
+    /**
+     * 注册本地事务回查
+     *
+     * @param beanName bean名称
+     * @param checker  回查程序
+     */
+    public synchronized void register(String beanName, AliwareMqTransactionChecker<?> checker) {
+        Set<String> topics = new LinkedHashSet<>(checker.getTopics());
+        if (checker.getTopic() != null && !checker.getTopic().isEmpty()) {
+            topics.add(checker.getTopic());
+        }
+        if (topics.isEmpty()) {
+            throw new IllegalArgumentException(String.format("本地事务回查[%s]未指定主题", beanName));
+        }
+        DecodePlan decodePlan = new DecodePlan(MessageTypeResolver.resolve(checker, AliwareMqTransactionChecker.class), codecRegistry, codecRegistry.getCodec(null));
+        Map<String, CheckerEntry> map = new HashMap<>(checkerMap);
+        for (String topic : topics) {
+            CheckerEntry previous = map.put(topic, new CheckerEntry(beanName, checker, decodePlan));
+            if (previous != null) {
+                throw new IllegalStateException(String.format("主题[%s]存在多个本地事务回查: %s, %s", topic, previous.beanName, beanName));
+            }
+        }
+        checkerMap = map;
+        log.info("注册本地事务回查[{}], 主题:{}", beanName, topics);
+    }
+
+    /**
+     * 是否注册了主题的本地事务回查
+     *
+     * @param topic 主题
+     * @return 是否注册
+     */
+    public boolean contains(String topic) {
+        return checkerMap.containsKey(topic);
+    }
+
+    @Override
+    public TransactionStatus check(Message message) {
+        CheckerEntry entry = checkerMap.get(message.getTopic());
+        if (entry == null) {
+            // 可能是注册完成前的回查, 返回未知等待服务端再次回查
+            log.warn("主题[{}]未注册本地事务回查, 消息id:{}", message.getTopic(), message.getMsgID());
+            return TransactionStatus.Unknow;
+        }
+        try {
+            TransactionStatus status = entry.check(prepare(message, entry.decodePlan));
+            return status == null ? TransactionStatus.Unknow : status;
+        } catch (Exception e) {
+            log.error("本地事务回查[{}]发生异常, 主题:{}, 消息id:{}", entry.beanName, message.getTopic(), message.getMsgID(), e);
+            return TransactionStatus.Unknow;
+        }
+    }
+
+    /**
+     * 读取引用的大消息体并解压后解码, 接收原始Message的回查不处理消息体
+     */
+    private Object prepare(Message message, DecodePlan decodePlan) {
+        if (decodePlan.isOriginMessage()) {
+            return message;
+        }
+        if (claimCheckResolver != null && claimCheckResolver.isClaimCheck(message)) {
+            claimCheckResolver.fetch(message);
+        }
+        if (compressorRegistry != null) {
+            compressorRegistry.decompress(message);
+        }
+        return decodePlan.decode(message);
+    }
+
+    private static class CheckerEntry {
+        private final String beanName;
+        private final AliwareMqTransactionChecker<Object> checker;
+        private final DecodePlan decodePlan;
+
+        @SuppressWarnings("unchecked")
+        private CheckerEntry(String beanName, AliwareMqTransactionChecker<?> checker, DecodePlan decodePlan) {
+            this.beanName = beanName;
+            this.checker = (AliwareMqTransactionChecker<Object>) checker;
+            this.decodePlan = decodePlan;
+        }
+
+        private TransactionStatus check(Object message) {
+            return checker.check(message);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package priv.ln.aliwaremq.spring.boot.autoconfigure;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 消费处理分发器测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class HandlerDispatcherTest {
+    private HandlerDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void completedMessagesSkippedUntilBatchCommits() {
+        dispatcher = new HandlerDispatcher("test", Executors.newCachedThreadPool(), true, 4, 1000);
+        Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        Message a = message("A");
+        Message b = message("B");
+        // A每次成功, B前两次失败
+        MessageListener listener = (message, context) -> {
+            int attempt = attempts.computeIfAbsent(message.getMsgID(), key -> new AtomicInteger()).incrementAndGet();
+            return "B".equals(message.getMsgID()) && attempt <= 2 ? Action.ReconsumeLater : Action.CommitMessage;
+        };
+
+        assertEquals(Action.ReconsumeLater, dispatcher.dispatch(Arrays.asList(a, b), listener));
+        assertEquals(Action.ReconsumeLater, dispatcher.dispatch(Arrays.asList(a, b), listener));
+        assertEquals(Action.CommitMessage, dispatcher.dispatch(Arrays.asList(a, b), listener));
+        assertEquals(1, attempts.get("A").get());
+        assertEquals(3, attempts.get("B").get());
+
+        // 批次提交后不再保留成功记录, 重复投递时重新处理
+        assertEquals(Action.CommitMessage, dispatcher.dispatch(Arrays.asList(a, b), listener));
+        assertEquals(2, attempts.get("A").get());
+    }
+
+    @Test
+    public void timedOutHandlerKeepsPermitUntilItReturns() throws InterruptedException {
+        dispatcher = new HandlerDispatcher("test", Executors.newCachedThreadPool(), true, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch slowFinished = new CountDownLatch(1);
+        MessageListener listener = (message, context) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if ("slow".equals(message.getMsgID())) {
+                    // 忽略超时取消时的中断, 一直执行到测试放行
+                    awaitUninterruptibly(release);
+                }
+                return Action.CommitMessage;
+            } finally {
+                running.decrementAndGet();
+                if ("slow".equals(message.getMsgID())) {
+                    slowFinished.countDown();
+                }
+            }
+        };
+
+        assertEquals(Action.ReconsumeLater, dispatcher.dispatch(Collections.singletonList(message("slow")), listener));
+        // 超时的处理仍在执行, 许可未归还, 新消息拿不到许可
+        assertEquals(Action.ReconsumeLater, dispatcher.dispatch(Collections.singletonList(message("fast")), listener));
+        assertEquals(1, running.get());
+
+        release.countDown();
+        assertTrue(slowFinished.await(1, TimeUnit.SECONDS));
+        assertEquals(Action.CommitMessage, dispatcher.dispatch(Collections.singletonList(message("fast")), listener));
+        assertEquals(1, maxRunning.get());
+    }
+
+    private static Message message(String id) {
+        Message message = new Message("T_TEST", "*", id.getBytes());
+        message.setMsgID(id);
+        return message;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
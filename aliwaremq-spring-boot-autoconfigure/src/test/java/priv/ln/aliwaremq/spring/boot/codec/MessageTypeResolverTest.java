@@ -0,0 +1,101 @@
+package priv.ln.aliwaremq.spring.boot.codec;
+
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 消息类型解析测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MessageTypeResolverTest {
+    /**
+     * 编译器记录的泛型字段类型, 作为期望值
+     */
+    private List<Order> orders;
+    private Map<String, List<Order>> ordersByUser;
+    private List<Order>[] orderBatches;
+
+    @Test
+    public void resolvesDirectImplementation() {
+        assertEquals(Order.class, MessageTypeResolver.resolve(new OrderConsumer(), AliwareMqConsumer.class));
+    }
+
+    @Test
+    public void resolvesTypeVariableFromSubclass() {
+        assertEquals(Order.class, MessageTypeResolver.resolve(new InheritedOrderConsumer(), AliwareMqConsumer.class));
+    }
+
+    @Test
+    public void resolvesNestedGenerics() throws NoSuchFieldException {
+        assertEquals(fieldType("orders"), MessageTypeResolver.resolve(new OrderListConsumer(), AliwareMqConsumer.class));
+        assertEquals(fieldType("ordersByUser"), MessageTypeResolver.resolve(new OrdersByUserConsumer(), AliwareMqConsumer.class));
+        assertEquals(fieldType("orderBatches"), MessageTypeResolver.resolve(new OrderBatchConsumer(), AliwareMqConsumer.class));
+        assertEquals("java.util.List<" + Order.class.getTypeName() + ">",
+                MessageTypeResolver.resolve(new OrderListConsumer(), AliwareMqConsumer.class).getTypeName());
+    }
+
+    @Test
+    public void unresolvedTypeVariableFallsBackToObject() {
+        assertEquals(Object.class, MessageTypeResolver.resolve(new BaseConsumer<Order>(), AliwareMqConsumer.class));
+        assertEquals(Object.class, MessageTypeResolver.resolve(new RawConsumer(), AliwareMqConsumer.class));
+    }
+
+    @Test
+    public void resolvesProxyTargetClass() {
+        ProxyFactory proxyFactory = new ProxyFactory(new InheritedOrderConsumer());
+        proxyFactory.setProxyTargetClass(true);
+        assertEquals(Order.class, MessageTypeResolver.resolve(proxyFactory.getProxy(), AliwareMqConsumer.class));
+
+        // 按接口代理时代理类不保留泛型参数, 按目标类解析
+        Object interfaceProxy = new ProxyFactory(new OrderConsumer()).getProxy();
+        assertEquals(Order.class, MessageTypeResolver.resolve(interfaceProxy, AliwareMqConsumer.class));
+    }
+
+    private static Type fieldType(String name) throws NoSuchFieldException {
+        return MessageTypeResolverTest.class.getDeclaredField(name).getGenericType();
+    }
+
+    static class Order {
+    }
+
+    static class OrderConsumer implements AliwareMqConsumer<Order> {
+        @Override
+        public void onMessage(Order message) {
+        }
+    }
+
+    static class BaseConsumer<T> implements AliwareMqConsumer<T> {
+        @Override
+        public void onMessage(T message) {
+        }
+    }
+
+    static class InheritedOrderConsumer extends BaseConsumer<Order> {
+    }
+
+    static class OrderListConsumer extends BaseConsumer<List<Order>> {
+    }
+
+    static class OrdersByUserConsumer extends BaseConsumer<Map<String, List<Order>>> {
+    }
+
+    static class OrderBatchConsumer extends BaseConsumer<List<Order>[]> {
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class RawConsumer implements AliwareMqConsumer {
+        @Override
+        public void onMessage(Object message) {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package priv.ln.aliwaremq.spring.boot.compress;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * gzip压缩器测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class GzipMessageCompressorTest {
+    private static final int MAX_LENGTH = 4 * 1024 * 1024;
+    private final GzipMessageCompressor compressor = new GzipMessageCompressor();
+
+    @Test
+    public void roundTrip() {
+        // 空消息体、可压缩文本、不可压缩的随机数据, 以及超过初始缓冲区需要扩容的消息体
+        byte[] text = repeat("aliwaremq-compression-", 1000);
+        byte[] random = new byte[256 * 1024];
+        new Random(17).nextBytes(random);
+        for (byte[] body : Arrays.asList(new byte[0], text, random, new byte[3 * 1024 * 1024])) {
+            byte[] compressed = compressor.compress(body);
+            assertArrayEquals(body, compressor.decompress(compressed, MAX_LENGTH));
+        }
+        assertTrue(compressor.compress(text).length < text.length / 10);
+    }
+
+    @Test
+    public void interoperatesWithJdkGzip() throws IOException {
+        byte[] body = repeat("interop-", 5000);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressor.compress(body)))) {
+            assertArrayEquals(body, readAll(in));
+        }
+
+        // JDK输出的gzip头带修改时间和操作系统, 同样可以解压
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        assertArrayEquals(body, compressor.decompress(bytes.toByteArray(), MAX_LENGTH));
+    }
+
+    @Test
+    public void decompressStopsAtMaxLength() {
+        // 约8 KB的压缩数据解压后为8 MB, 解压到上限即拒绝, 不分配完整的输出
+        byte[] bomb = compressor.compress(new byte[8 * 1024 * 1024]);
+        assertTrue(bomb.length < 16 * 1024);
+        assertRejected(bomb, MAX_LENGTH);
+
+        byte[] body = repeat("x", 1000);
+        byte[] compressed = compressor.compress(body);
+        assertArrayEquals(body, compressor.decompress(compressed, body.length));
+        assertRejected(compressed, body.length - 1);
+    }
+
+    @Test
+    public void rejectsCorruptedBody() {
+        byte[] compressed = compressor.compress(repeat("corrupted-", 100));
+        byte[] badCrc = compressed.clone();
+        badCrc[badCrc.length - 8] ^= 1;
+        assertRejected(badCrc, MAX_LENGTH);
+
+        assertRejected(Arrays.copyOf(compressed, compressed.length / 2), MAX_LENGTH);
+        assertRejected(Arrays.copyOf(compressed, compressed.length - 4), MAX_LENGTH);
+
+        byte[] badMagic = compressed.clone();
+        badMagic[0] = 0;
+        assertRejected(badMagic, MAX_LENGTH);
+    }
+
+    private void assertRejected(byte[] compressed, int maxLength) {
+        try {
+            compressor.decompress(compressed, maxLength);
+            fail("解压应被拒绝");
+        } catch (IllegalArgumentException expected) {
+            // 超过上限或格式错误都以IllegalArgumentException拒绝
+        }
+    }
+
+    private static byte[] repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(GZIPInputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,184 @@
+package priv.ln.aliwaremq.spring.boot.core.batch;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import org.junit.After;
+import org.junit.Test;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 攒批发送器测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class AliwareMqBatchSenderTest {
+    private static final String TOPIC = "T_TEST";
+    private static final long TIMEOUT_MILLIS = 5000;
+    private final Queue<Message> sent = new ConcurrentLinkedQueue<>();
+    private AliwareMqBatchSender batchSender;
+
+    @After
+    public void tearDown() {
+        if (batchSender != null) {
+            batchSender.shutdown();
+        }
+    }
+
+    @Test
+    public void fullBatchFlushedBeforeLinger() throws Exception {
+        AliwareMqProperties.Batch config = config();
+        config.setBatchSize(3);
+        config.setLingerMillis(TimeUnit.MINUTES.toMillis(1));
+        batchSender = start(this::completed, config);
+
+        List<CompletableFuture<SendResult>> futures = send("a", "b", "c", "d");
+        for (CompletableFuture<SendResult> future : futures.subList(0, 3)) {
+            future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        // 第4条未凑满一组, 等待攒批到期
+        assertFalse(futures.get(3).isDone());
+        assertEquals(3, sent.size());
+        assertEquals(1, batchSender.getStatistics().getBatchCount());
+        assertEquals(3, batchSender.getStatistics().getMessageCount());
+    }
+
+    @Test
+    public void partialBatchFlushedAfterLinger() throws Exception {
+        AliwareMqProperties.Batch config = config();
+        config.setLingerMillis(200);
+        batchSender = start(this::completed, config);
+
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<SendResult>> futures = send("a", "b");
+        assertFalse(futures.get(0).isDone());
+        for (CompletableFuture<SendResult> future : futures) {
+            assertEquals("MSG_ID", future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).getMessageId());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) >= config.getLingerMillis());
+        assertEquals(1, batchSender.getStatistics().getBatchCount());
+        assertEquals(2, batchSender.getStatistics().getMessageCount());
+    }
+
+    @Test
+    public void byteLimitSplitsBatch() throws Exception {
+        AliwareMqProperties.Batch config = config();
+        config.setMaxBatchBytes(10);
+        config.setLingerMillis(TimeUnit.MINUTES.toMillis(1));
+        batchSender = start(this::completed, config);
+
+        // 两条共12字节达到字节数限制立即提交, 第2条超出本组限制留待下一组
+        List<CompletableFuture<SendResult>> futures = send("first!", "second");
+        futures.get(0).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertFalse(futures.get(1).isDone());
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void shutdownFlushesRemainingAndRejectsLater() throws Exception {
+        AliwareMqProperties.Batch config = config();
+        config.setLingerMillis(TimeUnit.MINUTES.toMillis(1));
+        batchSender = start(this::completed, config);
+
+        List<CompletableFuture<SendResult>> futures = send("a", "b");
+        batchSender.shutdown();
+        for (CompletableFuture<SendResult> future : futures) {
+            future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(2, sent.size());
+        assertFailedWith(IllegalStateException.class, send("late").get(0));
+    }
+
+    @Test
+    public void interruptedShutdownFailsPendingSends() throws Exception {
+        AliwareMqProperties.Batch config = config();
+        config.setBatchSize(1);
+        config.setFlushThreads(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch never = new CountDownLatch(1);
+        // 发送一直阻塞, 刷新线程被中断前剩余消息无法提交
+        batchSender = start(message -> {
+            entered.countDown();
+            CompletableFuture<SendResult> future = new CompletableFuture<>();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            }
+            return future;
+        }, config);
+
+        List<CompletableFuture<SendResult>> futures = send("a");
+        assertTrue(entered.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        futures.addAll(send("b", "c"));
+
+        Thread shutdownThread = new Thread(batchSender::shutdown);
+        shutdownThread.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        shutdownThread.interrupt();
+        shutdownThread.join(TIMEOUT_MILLIS);
+        assertFalse(shutdownThread.isAlive());
+
+        // 正在发送的消息随刷新线程中断失败, 其余消息以IllegalStateException失败, 不遗留未完成的发送结果
+        for (CompletableFuture<SendResult> future : futures) {
+            assertTrue(future.isCompletedExceptionally());
+        }
+        assertFailedWith(IllegalStateException.class, send("late").get(0));
+    }
+
+    private AliwareMqBatchSender start(Function<Message, CompletableFuture<SendResult>> sender, AliwareMqProperties.Batch config) {
+        AliwareMqBatchSender batchSender = new AliwareMqBatchSender(sender, config);
+        batchSender.start();
+        return batchSender;
+    }
+
+    private CompletableFuture<SendResult> completed(Message message) {
+        sent.add(message);
+        SendResult sendResult = new SendResult();
+        sendResult.setTopic(message.getTopic());
+        sendResult.setMessageId("MSG_ID");
+        return CompletableFuture.completedFuture(sendResult);
+    }
+
+    private List<CompletableFuture<SendResult>> send(String... bodies) {
+        List<CompletableFuture<SendResult>> futures = new ArrayList<>(bodies.length);
+        for (String body : bodies) {
+            futures.add(batchSender.send(new Message(TOPIC, "TAG", body.getBytes(StandardCharsets.UTF_8))));
+        }
+        return futures;
+    }
+
+    private static void assertFailedWith(Class<? extends Throwable> type, CompletableFuture<SendResult> future) throws Exception {
+        try {
+            future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            fail("发送应失败");
+        } catch (ExecutionException e) {
+            assertTrue(type.isInstance(e.getCause()));
+        }
+    }
+
+    private static AliwareMqProperties.Batch config() {
+        AliwareMqProperties.Batch config = new AliwareMqProperties.Batch();
+        config.setEnabled(true);
+        config.setBackpressure(AliwareMqProperties.Backpressure.FAIL_FAST);
+        return config;
+    }
+}
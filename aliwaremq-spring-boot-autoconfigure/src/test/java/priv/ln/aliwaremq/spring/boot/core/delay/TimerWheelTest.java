@@ -0,0 +1,124 @@
+package priv.ln.aliwaremq.spring.boot.core.delay;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 分层时间轮测试
+ * <p>每层8个槽, 第1层每槽8个刻度, 第2层每槽64个刻度, 第3层每槽512个刻度</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class TimerWheelTest {
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    public void everyDelayFiresOnItsTickFromAlignedStart() {
+        assertFiresOnDeadline(0);
+    }
+
+    @Test
+    public void everyDelayFiresOnItsTickFromUnalignedStart() {
+        // 起始刻度不在任何一层的槽边界上
+        assertFiresOnDeadline(TICK_MILLIS * 517 + 3);
+    }
+
+    @Test
+    public void cascadesOnLevelBoundaries() {
+        long start = 0;
+        TimerWheel<Long> wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, start);
+        // 恰好落在各层一圈边界上的到期时间, 以及边界前后一个刻度
+        long[] ticks = {7, 8, 9, 63, 64, 65, 511, 512, 513, 4095};
+        for (long tick : ticks) {
+            assertTrue(wheel.add(tick, start + tick * TICK_MILLIS));
+        }
+        Map<Long, Long> fired = new HashMap<>();
+        for (long tick = 1; tick <= 4095; tick++) {
+            long now = start + tick * TICK_MILLIS;
+            wheel.advance(now, task -> fired.put(task, now));
+        }
+        for (long tick : ticks) {
+            assertEquals(Long.valueOf(start + tick * TICK_MILLIS), fired.get(tick));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void deadlineWithinCurrentTickNotAdded() {
+        long start = TICK_MILLIS * 100;
+        TimerWheel<String> wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, start);
+        assertFalse(wheel.add("past", start - 1));
+        assertFalse(wheel.add("same tick", start + TICK_MILLIS - 1));
+        assertTrue(wheel.add("next tick", start + TICK_MILLIS));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void deadlineBeyondTopLevelRejected() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, 0);
+        try {
+            wheel.add("too late", TICK_MILLIS * WHEEL_SIZE * WHEEL_SIZE * WHEEL_SIZE * WHEEL_SIZE);
+            fail("超出最高层一圈的任务应被拒绝");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Test
+    public void advanceJumpFiresInDeadlineOrderAndDrainReturnsRest() {
+        TimerWheel<Long> wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, 0);
+        long[] ticks = {300, 5, 64, 70, 9, 2000};
+        for (long tick : ticks) {
+            wheel.add(tick, tick * TICK_MILLIS);
+        }
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(1000 * TICK_MILLIS, fired::add);
+        assertEquals(Arrays.asList(5L, 9L, 64L, 70L, 300L), fired);
+        assertEquals(1, wheel.size());
+
+        List<Long> remaining = new ArrayList<>();
+        wheel.drain(remaining::add);
+        assertEquals(Collections.singletonList(2000L), remaining);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * 加入1到1100个刻度的全部延时, 逐刻度推进, 每个任务恰好在到期刻度执行一次
+     */
+    private static void assertFiresOnDeadline(long startMillis) {
+        TimerWheel<Long> wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, startMillis);
+        long startTick = startMillis / TICK_MILLIS;
+        int delays = 1100;
+        for (long delay = 1; delay <= delays; delay++) {
+            assertTrue(wheel.add(delay, (startTick + delay) * TICK_MILLIS));
+        }
+        Map<Long, Long> fired = new HashMap<>();
+        for (long delay = 1; delay <= delays; delay++) {
+            long now = (startTick + delay) * TICK_MILLIS;
+            wheel.advance(now, task -> {
+                if (fired.put(task, now) != null) {
+                    fail("任务" + task + "重复执行");
+                }
+            });
+        }
+        assertEquals(delays, fired.size());
+        for (long delay = 1; delay <= delays; delay++) {
+            assertEquals("延时" + delay + "个刻度", Long.valueOf((startTick + delay) * TICK_MILLIS), fired.get(delay));
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,144 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库表发件箱测试
+ * <p>每个JdbcOutboxStore实例有独立的领取标识, 多个实例共享同一张表模拟多个进程</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class JdbcOutboxStoreTest {
+    private static final String TABLE_NAME = "aliwaremq_outbox";
+    private static final long LEASE_MILLIS = 100;
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("outbox-schema.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void pollReturnsRecordsInWriteOrder() {
+        JdbcOutboxStore store = store(LEASE_MILLIS);
+        store.append(records("a", "b", "c"));
+        List<OutboxRecord> polled = store.poll(2);
+        assertEquals(2, polled.size());
+        assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), polled.get(0).getBody());
+        assertEquals("v", polled.get(0).getUserProperties().get("k"));
+        assertArrayEquals("b".getBytes(StandardCharsets.UTF_8), polled.get(1).getBody());
+
+        store.acknowledge(polled);
+        assertEquals(1, rowCount());
+        assertArrayEquals("c".getBytes(StandardCharsets.UTF_8), store.poll(10).get(0).getBody());
+    }
+
+    @Test
+    public void leasedRecordsNotClaimedByOtherInstance() {
+        JdbcOutboxStore first = store(TimeUnit.MINUTES.toMillis(1));
+        JdbcOutboxStore second = store(TimeUnit.MINUTES.toMillis(1));
+        first.append(records("a", "b", "c"));
+        assertEquals(2, first.poll(2).size());
+        List<OutboxRecord> rest = second.poll(10);
+        assertEquals(1, rest.size());
+        assertArrayEquals("c".getBytes(StandardCharsets.UTF_8), rest.get(0).getBody());
+        assertTrue(first.poll(10).isEmpty());
+    }
+
+    @Test
+    public void expiredLeaseReclaimedAfterRestart() throws InterruptedException {
+        JdbcOutboxStore crashed = store(LEASE_MILLIS);
+        crashed.append(records("a", "b"));
+        List<OutboxRecord> claimed = crashed.poll(10);
+        assertEquals(2, claimed.size());
+
+        // 领取后进程崩溃, 重启的实例在租约到期前领取不到
+        JdbcOutboxStore restarted = store(LEASE_MILLIS);
+        assertTrue(restarted.poll(10).isEmpty());
+        TimeUnit.MILLISECONDS.sleep(LEASE_MILLIS * 2);
+        List<OutboxRecord> reclaimed = restarted.poll(10);
+        assertEquals(2, reclaimed.size());
+        assertEquals(claimed.get(0).getId(), reclaimed.get(0).getId());
+
+        // 原领取方失去租约后不能再归还或搁置记录
+        claimed.get(0).setAttempts(5);
+        crashed.park(claimed.subList(0, 1));
+        assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE status = 1", Integer.class));
+        restarted.acknowledge(reclaimed);
+        assertEquals(0, rowCount());
+    }
+
+    @Test
+    public void releaseKeepsAttemptsAndParkStopsDelivery() {
+        JdbcOutboxStore first = store(TimeUnit.MINUTES.toMillis(1));
+        JdbcOutboxStore second = store(TimeUnit.MINUTES.toMillis(1));
+        first.append(records("a", "b"));
+        List<OutboxRecord> polled = first.poll(10);
+        polled.get(0).setAttempts(2);
+        first.release(polled);
+
+        List<OutboxRecord> reclaimed = second.poll(10);
+        assertEquals(2, reclaimed.size());
+        assertEquals(2, reclaimed.get(0).getAttempts());
+        assertEquals(0, reclaimed.get(1).getAttempts());
+
+        reclaimed.get(0).setAttempts(3);
+        second.park(reclaimed.subList(0, 1));
+        second.release(reclaimed.subList(1, 2));
+        List<OutboxRecord> remaining = first.poll(10);
+        assertEquals(1, remaining.size());
+        assertArrayEquals("b".getBytes(StandardCharsets.UTF_8), remaining.get(0).getBody());
+        // 搁置的记录保留在表中, status改回0后重新转发
+        assertEquals(2, rowCount());
+        assertEquals(3, (int) jdbcTemplate.queryForObject(
+                "SELECT attempts FROM " + TABLE_NAME + " WHERE status = 1", Integer.class));
+    }
+
+    private JdbcOutboxStore store(long leaseMillis) {
+        return new JdbcOutboxStore(jdbcTemplate, TABLE_NAME, leaseMillis);
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE_NAME, Integer.class);
+    }
+
+    private static List<OutboxRecord> records(String... bodies) {
+        List<OutboxRecord> records = new ArrayList<>(bodies.length);
+        for (String body : bodies) {
+            OutboxRecord record = new OutboxRecord();
+            record.setTopic("T_TEST");
+            record.setTag("TAG");
+            record.setKey(body);
+            record.getUserProperties().put("k", "v");
+            record.setBody(body.getBytes(StandardCharsets.UTF_8));
+            records.add(record);
+        }
+        return records;
+    }
+}
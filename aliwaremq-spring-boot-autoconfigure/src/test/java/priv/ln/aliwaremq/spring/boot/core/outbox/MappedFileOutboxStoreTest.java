@@ -0,0 +1,148 @@
+package priv.ln.aliwaremq.spring.boot.core.outbox;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 内存映射段文件发件箱测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MappedFileOutboxStoreTest {
+    /**
+     * 每个段只能容纳几条记录, 覆盖段切换
+     */
+    private static final int SEGMENT_BYTES = 256;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pollReturnsUnacknowledgedInWriteOrder() throws IOException {
+        MappedFileOutboxStore store = store(folder.getRoot().toPath());
+        try {
+            store.append(records("a", "b", "c"));
+            List<OutboxRecord> polled = store.poll(2);
+            assertBodies(polled, "a", "b");
+            assertEquals("v", polled.get(0).getUserProperties().get("k"));
+            // 未确认的记录重复读取
+            assertBodies(store.poll(10), "a", "b", "c");
+
+            store.acknowledge(polled);
+            assertBodies(store.poll(10), "c");
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void releaseKeepsAttemptsUntilAcknowledged() throws IOException {
+        MappedFileOutboxStore store = store(folder.getRoot().toPath());
+        try {
+            store.append(records("a", "b"));
+            List<OutboxRecord> polled = store.poll(10);
+            polled.get(0).setAttempts(2);
+            store.release(polled);
+            List<OutboxRecord> again = store.poll(10);
+            assertEquals(2, again.get(0).getAttempts());
+            assertEquals(0, again.get(1).getAttempts());
+
+            store.park(again.subList(0, 1));
+            assertBodies(store.poll(10), "b");
+            assertTrue(Files.size(folder.getRoot().toPath().resolve("parked")) > 0);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void recoversPositionsAfterRestart() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MappedFileOutboxStore store = store(directory);
+        store.append(records("a", "b", "c"));
+        store.acknowledge(store.poll(1));
+        store.close();
+
+        // 重启后从checkpoint继续读取, 从最后一个段的写入位置继续追加
+        MappedFileOutboxStore reopened = store(directory);
+        try {
+            assertBodies(reopened.poll(10), "b", "c");
+            reopened.append(records("d"));
+            assertBodies(reopened.poll(10), "b", "c", "d");
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void rollsSegmentsAndDeletesAcknowledged() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MappedFileOutboxStore store = store(directory);
+        String[] bodies = new String[20];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = "message-" + i;
+        }
+        store.append(records(bodies));
+        assertTrue(segmentCount(directory) > 1);
+        List<OutboxRecord> polled = store.poll(bodies.length);
+        assertBodies(polled, bodies);
+
+        store.acknowledge(polled);
+        assertEquals(1, segmentCount(directory));
+        assertTrue(store.poll(10).isEmpty());
+        store.close();
+
+        MappedFileOutboxStore reopened = store(directory);
+        try {
+            assertTrue(reopened.poll(10).isEmpty());
+            reopened.append(records("next"));
+            assertBodies(reopened.poll(10), "next");
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static MappedFileOutboxStore store(Path directory) {
+        return new MappedFileOutboxStore(directory, SEGMENT_BYTES, false);
+    }
+
+    private static long segmentCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static void assertBodies(List<OutboxRecord> records, String... bodies) {
+        assertEquals(bodies.length, records.size());
+        for (int i = 0; i < bodies.length; i++) {
+            assertArrayEquals(bodies[i].getBytes(StandardCharsets.UTF_8), records.get(i).getBody());
+        }
+    }
+
+    private static List<OutboxRecord> records(String... bodies) {
+        List<OutboxRecord> records = new ArrayList<>(bodies.length);
+        for (String body : bodies) {
+            OutboxRecord record = new OutboxRecord();
+            record.setTopic("T_TEST");
+            record.setTag("TAG");
+            record.getUserProperties().put("k", "v");
+            record.setBody(body.getBytes(StandardCharsets.UTF_8));
+            records.add(record);
+        }
+        return records;
+    }
+}
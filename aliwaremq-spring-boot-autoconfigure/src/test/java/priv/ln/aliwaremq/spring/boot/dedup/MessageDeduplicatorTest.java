@@ -0,0 +1,124 @@
+package priv.ln.aliwaremq.spring.boot.dedup;
+
+import org.junit.Test;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 消息去重器和本地去重存储测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MessageDeduplicatorTest {
+    private static final long TTL_MILLIS = 60000;
+
+    @Test
+    public void localHitSkipsRemote() {
+        RemoteStore remote = new RemoteStore();
+        MessageDeduplicator deduplicator = deduplicator(remote, TTL_MILLIS);
+        assertTrue(deduplicator.tryAcquire("k"));
+        assertFalse(deduplicator.tryAcquire("k"));
+        assertEquals(1, remote.calls.get());
+    }
+
+    @Test
+    public void remoteDuplicateReleasesLocalKey() {
+        RemoteStore remote = new RemoteStore();
+        MessageDeduplicator owner = deduplicator(remote, TTL_MILLIS);
+        MessageDeduplicator other = deduplicator(remote, TTL_MILLIS);
+        assertTrue(owner.tryAcquire("k"));
+        assertFalse(other.tryAcquire("k"));
+        // 持有远程去重键的节点消费失败并释放, 重投到另一节点时应重新处理
+        owner.release("k");
+        assertTrue(other.tryAcquire("k"));
+    }
+
+    @Test
+    public void remoteFailureReleasesLocalKey() {
+        RemoteStore remote = new RemoteStore();
+        MessageDeduplicator deduplicator = deduplicator(remote, TTL_MILLIS);
+        remote.available = false;
+        try {
+            deduplicator.tryAcquire("k");
+            fail("远程存储不可用时应抛出异常");
+        } catch (IllegalStateException expected) {
+            // 由调用方重新消费
+        }
+        remote.available = true;
+        assertTrue(deduplicator.tryAcquire("k"));
+    }
+
+    @Test
+    public void releaseOnFailure() {
+        MessageDeduplicator deduplicator = deduplicator(new RemoteStore(), TTL_MILLIS);
+        assertTrue(deduplicator.tryAcquire("k"));
+        deduplicator.release("k");
+        assertTrue(deduplicator.tryAcquire("k"));
+        assertFalse(deduplicator.tryAcquire("k"));
+    }
+
+    @Test
+    public void localKeyExpires() throws InterruptedException {
+        LocalDedupStore store = new LocalDedupStore(64);
+        assertTrue(store.tryAcquire("k", 50));
+        assertFalse(store.tryAcquire("k", 50));
+        TimeUnit.MILLISECONDS.sleep(80);
+        assertTrue(store.tryAcquire("k", 50));
+    }
+
+    @Test
+    public void fullBucketEvictsEarliestExpiry() {
+        // 容量64只有8个桶, 写入远多于容量的键后, 最早过期的键被淘汰, 最新的键仍被识别为重复
+        LocalDedupStore store = new LocalDedupStore(64);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(store.tryAcquire("k" + i, TTL_MILLIS + i));
+        }
+        assertFalse(store.tryAcquire("k999", TTL_MILLIS));
+        assertTrue(store.tryAcquire("k0", TTL_MILLIS));
+    }
+
+    private static MessageDeduplicator deduplicator(DedupStore remote, long ttlMillis) {
+        return new MessageDeduplicator("GID_TEST@T_TEST", AliwareMqProperties.DedupKey.MSG_ID, null,
+                new LocalDedupStore(64), remote, ttlMillis);
+    }
+
+    /**
+     * 多个节点共享的远程去重存储
+     */
+    private static class RemoteStore implements DedupStore {
+        private final Map<String, Long> keys = new ConcurrentHashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean available = true;
+
+        @Override
+        public boolean tryAcquire(String key, long ttlMillis) {
+            calls.incrementAndGet();
+            if (!available) {
+                throw new IllegalStateException("remote store unavailable");
+            }
+            long now = System.currentTimeMillis();
+            Long previous = keys.get(key);
+            if (previous != null && previous > now) {
+                return false;
+            }
+            keys.put(key, now + ttlMillis);
+            return true;
+        }
+
+        @Override
+        public void release(String key) {
+            keys.remove(key);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package priv.ln.aliwaremq.spring.boot.filter;
+
+import com.aliyun.openservices.ons.api.Message;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 过滤表达式解析和求值测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class MessageFilterTest {
+
+    @Test
+    public void andBindsTighterThanOr() {
+        MessageFilter filter = MessageFilter.compile("a = '1' OR b = '1' AND c = '1'");
+        assertTrue(filter.matches(message("a", "1", "b", "0", "c", "0")));
+        assertFalse(filter.matches(message("a", "0", "b", "1", "c", "0")));
+        assertTrue(filter.matches(message("a", "0", "b", "1", "c", "1")));
+    }
+
+    @Test
+    public void notBindsTighterThanAnd() {
+        MessageFilter filter = MessageFilter.compile("NOT a = '1' AND b = '1'");
+        assertFalse(filter.matches(message("a", "2", "b", "2")));
+        assertTrue(filter.matches(message("a", "2", "b", "1")));
+    }
+
+    @Test
+    public void parenthesesOverridePrecedence() {
+        MessageFilter filter = MessageFilter.compile("(a = '1' OR b = '1') AND c = '1'");
+        assertFalse(filter.matches(message("a", "1", "c", "0")));
+        assertTrue(filter.matches(message("b", "1", "c", "1")));
+    }
+
+    @Test
+    public void tagsAndKeys() {
+        MessageFilter filter = MessageFilter.compile("TAGS IN ('created', 'paid') AND KEYS = 'k1' AND amount BETWEEN 10 AND 20");
+        Message message = message("amount", "15");
+        message.setTag("paid");
+        message.setKey("k1");
+        assertTrue(filter.matches(message));
+        message.setTag("closed");
+        assertFalse(filter.matches(message));
+    }
+
+    @Test
+    public void missingPropertyIsUnknown() {
+        Message missing = message();
+        assertFalse(MessageFilter.compile("region = 'cn'").matches(missing));
+        assertFalse(MessageFilter.compile("NOT region = 'cn'").matches(missing));
+        assertFalse(MessageFilter.compile("region <> 'cn'").matches(missing));
+        assertFalse(MessageFilter.compile("region NOT IN ('cn')").matches(missing));
+        assertFalse(MessageFilter.compile("NOT region IN ('cn')").matches(missing));
+        assertFalse(MessageFilter.compile("amount NOT BETWEEN 1 AND 2").matches(missing));
+        assertFalse(MessageFilter.compile("region NOT LIKE 'c%'").matches(missing));
+        assertTrue(MessageFilter.compile("region IS NULL").matches(missing));
+        assertFalse(MessageFilter.compile("region IS NOT NULL").matches(missing));
+        assertTrue(MessageFilter.compile("NOT region = 'cn'").matches(message("region", "us")));
+    }
+
+    @Test
+    public void nonNumericValueIsUnknown() {
+        Message message = message("amount", "abc");
+        assertFalse(MessageFilter.compile("amount > 10").matches(message));
+        assertFalse(MessageFilter.compile("NOT amount > 10").matches(message));
+    }
+
+    @Test
+    public void unknownCombinesByThreeValuedLogic() {
+        Message message = message("region", "us");
+        // FALSE AND UNKNOWN = FALSE
+        assertTrue(MessageFilter.compile("NOT (region = 'cn' AND amount > 1)").matches(message));
+        // FALSE OR UNKNOWN = UNKNOWN
+        assertFalse(MessageFilter.compile("NOT (region = 'cn' OR amount > 1)").matches(message));
+        // TRUE OR UNKNOWN = TRUE
+        assertTrue(MessageFilter.compile("region = 'us' OR amount > 1").matches(message));
+        // TRUE AND UNKNOWN = UNKNOWN
+        assertFalse(MessageFilter.compile("NOT (region = 'us' AND amount > 1)").matches(message));
+    }
+
+    @Test
+    public void likeQuotesRegexCharacters() {
+        MessageFilter filter = MessageFilter.compile("code LIKE 'a.b%'");
+        assertTrue(filter.matches(message("code", "a.b1")));
+        assertFalse(filter.matches(message("code", "axb1")));
+        MessageFilter single = MessageFilter.compile("code LIKE 'a__'");
+        assertTrue(single.matches(message("code", "abc")));
+        assertFalse(single.matches(message("code", "ab")));
+    }
+
+    @Test
+    public void likeEscape() {
+        MessageFilter percent = MessageFilter.compile("code LIKE '100\\%' ESCAPE '\\'");
+        assertTrue(percent.matches(message("code", "100%")));
+        assertFalse(percent.matches(message("code", "1000")));
+        MessageFilter underscore = MessageFilter.compile("code LIKE 'a!_%' ESCAPE '!'");
+        assertTrue(underscore.matches(message("code", "a_1")));
+        assertFalse(underscore.matches(message("code", "ab1")));
+        assertTrue(MessageFilter.compile("code LIKE 'a!!b' ESCAPE '!'").matches(message("code", "a!b")));
+    }
+
+    @Test
+    public void errorPositions() {
+        assertError("region = ", "第10个字符处应为字符串、数值或布尔值");
+        assertError("a = 1 AND AND b = 2", "第11个字符处应为属性名");
+        assertError("(a = 1", "第7个字符处应为)");
+        assertError("a = 'x", "第5个字符处的字符串未结束");
+        assertError("a # 1", "第3个字符[#]无效");
+        assertError("a > 'x'", "第5个字符处应为数值");
+        assertError("code LIKE 'a!' ESCAPE '!'", "第11个字符处的LIKE模式以转义字符结尾");
+        assertError("code LIKE 'a!b' ESCAPE '!'", "转义字符后应为");
+        assertError("code LIKE 'a' ESCAPE '!!'", "第22个字符处应为单个转义字符");
+    }
+
+    private static void assertError(String expression, String fragment) {
+        try {
+            MessageFilter.compile(expression);
+            fail("应编译失败: " + expression);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(fragment));
+        }
+    }
+
+    private static Message message(String... properties) {
+        Message message = new Message("topic", "tag", new byte[0]);
+        for (int i = 0; i < properties.length; i += 2) {
+            message.putUserProperties(properties[i], properties[i + 1]);
+        }
+        return message;
+    }
+}
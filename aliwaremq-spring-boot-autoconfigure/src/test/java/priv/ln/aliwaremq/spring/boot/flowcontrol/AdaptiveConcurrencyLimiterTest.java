@@ -0,0 +1,128 @@
+package priv.ln.aliwaremq.spring.boot.flowcontrol;
+
+import org.junit.Test;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自适应消费并发限制测试
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long WINDOW_MILLIS = 20;
+    private static final long TARGET_LATENCY_MILLIS = 10;
+
+    @Test
+    public void multiplicativeDecreaseAdditiveIncrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", config(), 10);
+        assertEquals(10, limiter.getLimit());
+
+        completeWindow(limiter, 50, true);
+        assertEquals(5, limiter.getLimit());
+        completeWindow(limiter, 50, true);
+        assertEquals(2, limiter.getLimit());
+
+        completeWindow(limiter, 1, true);
+        assertEquals(3, limiter.getLimit());
+        completeWindow(limiter, 1, true);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(2, limiter.getDecreases());
+        assertEquals(2, limiter.getIncreases());
+    }
+
+    @Test
+    public void failuresCountAsOverload() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", config(), 10);
+        completeWindow(limiter, 1, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void limitNeverExceedsCeiling() throws InterruptedException {
+        AliwareMqProperties.FlowControl config = config();
+        // 等待许可不超过一个窗口, 不触发卡住检查
+        config.setAcquireTimeoutMillis(5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", config, 4);
+        completeWindow(limiter, 50, true);
+        assertEquals(2, limiter.getLimit());
+        for (int i = 0; i < 5; i++) {
+            completeWindow(limiter, 1, true);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.getInFlight());
+
+        // 运行时调小上限立即收紧
+        limiter.setMaxLimit(2);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void suspendNotifiesListenerWithoutRejecting() throws InterruptedException {
+        AliwareMqProperties.FlowControl config = config();
+        config.setSuspendAfterWindows(2);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", config, 1);
+        AtomicInteger suspensions = new AtomicInteger();
+        limiter.setSuspendListener(suspensions::incrementAndGet);
+
+        completeWindow(limiter, 50, true);
+        assertFalse(limiter.isSuspended());
+        completeWindow(limiter, 50, true);
+        assertTrue(limiter.isSuspended());
+        assertEquals(1, suspensions.get());
+
+        // 暂停期间由监听方暂停客户端, 在途消息按最小并发继续处理
+        completeWindow(limiter, 50, true);
+        completeWindow(limiter, 50, true);
+        assertEquals(1, suspensions.get());
+
+        limiter.resume();
+        assertFalse(limiter.isSuspended());
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void stalledHandlerLowersLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", config(), 4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        // 在途消息超过一个窗口没有完成, 等待许可时按过载下调
+        assertFalse(limiter.tryAcquire());
+        assertTrue(limiter.getLimit() < 4);
+        assertTrue(limiter.getDecreases() > 0);
+    }
+
+    /**
+     * 占用一个许可, 等待窗口结束后按指定耗时和结果释放, 触发一次调整
+     */
+    private static void completeWindow(AdaptiveConcurrencyLimiter limiter, long latencyMillis, boolean success) throws InterruptedException {
+        assertTrue(limiter.tryAcquire());
+        TimeUnit.MILLISECONDS.sleep(WINDOW_MILLIS + 5);
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis), success);
+    }
+
+    private static AliwareMqProperties.FlowControl config() {
+        AliwareMqProperties.FlowControl config = new AliwareMqProperties.FlowControl();
+        config.setEnabled(true);
+        config.setMinConcurrency(1);
+        config.setWindowMillis(WINDOW_MILLIS);
+        config.setTargetLatencyMillis(TARGET_LATENCY_MILLIS);
+        config.setBackoffRatio(0.5);
+        config.setAcquireTimeoutMillis(50);
+        return config;
+    }
+}
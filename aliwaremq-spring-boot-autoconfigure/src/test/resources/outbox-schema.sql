@@ -0,0 +1,14 @@
+CREATE TABLE aliwaremq_outbox (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    topic              VARCHAR(255) NOT NULL,
+    tag                VARCHAR(255),
+    msg_key            VARCHAR(255),
+    start_deliver_time BIGINT       NOT NULL DEFAULT 0,
+    user_properties    VARCHAR(4000),
+    body               BLOB,
+    status             TINYINT      NOT NULL DEFAULT 0,
+    attempts           INT          NOT NULL DEFAULT 0,
+    owner              VARCHAR(64),
+    lease_until        BIGINT       NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_status_lease ON aliwaremq_outbox (status, lease_until);
@@ -0,0 +1,104 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.MessageListener;
+import com.aliyun.openservices.ons.api.Producer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqConsumerRegistry;
+import priv.ln.aliwaremq.spring.boot.codec.GsonMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.JacksonMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.KryoMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * 基准测试公共组件
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public final class BenchmarkSupport {
+    public static final String TOPIC = "benchmark-topic";
+    public static final String CONSUMER_NAME = "benchmark";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 构造包含gson、jackson、kryo的编解码器注册中心, kryo注册基准测试消息体类型
+     *
+     * @param defaultCodecName 默认编解码器名称
+     * @return 编解码器注册中心
+     */
+    public static MessageCodecRegistry codecRegistry(String defaultCodecName) {
+        return new MessageCodecRegistry(Arrays.asList(
+                new GsonMessageCodec(new Gson()),
+                new JacksonMessageCodec(new ObjectMapper()),
+                new KryoMessageCodec(Collections.singletonList(Payload.class))), defaultCodecName);
+    }
+
+    /**
+     * 构造消息队列配置, 包含一个名为benchmark的消费者
+     *
+     * @param codecName 编解码器名称
+     * @return 消息队列配置
+     */
+    public static AliwareMqProperties properties(String codecName) {
+        AliwareMqProperties properties = new AliwareMqProperties();
+        properties.setDefaultCodec(codecName);
+        properties.setProducer(new AliwareMqProperties.Producer());
+        AliwareMqProperties.Consumer consumer = new AliwareMqProperties.Consumer();
+        consumer.setGroup("GID_BENCHMARK");
+        consumer.setTopic(TOPIC);
+        consumer.setCodec(codecName);
+        properties.setConsumer(new HashMap<>());
+        properties.getConsumer().put(CONSUMER_NAME, consumer);
+        return properties;
+    }
+
+    /**
+     * 启动只包含生产者相关bean的容器
+     *
+     * @param producer   底层生产者
+     * @param properties 消息队列配置
+     * @return 容器
+     */
+    public static AnnotationConfigApplicationContext producerContext(Producer producer, AliwareMqProperties properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(Producer.class, () -> producer);
+        context.registerBean(AliwareMqProperties.class, () -> properties);
+        context.registerBean(MessageCodecRegistry.class, () -> codecRegistry(properties.getDefaultCodec()));
+        context.registerBean(AliwareMqMetrics.class, () -> AliwareMqMetrics.NOOP);
+        context.registerBean(AliwareMqProducer.class);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * 通过注册中心的公开接口buildConsumer构造消息监听器, 与注册的消费者使用相同的解码、去重和重试流程, 不启动ConsumerBean
+     *
+     * @param properties    消息队列配置, 需包含名为benchmark的消费者
+     * @param codecRegistry 编解码器注册中心
+     * @param messageType   消息类型, Message时不解码
+     * @param handler       处理函数
+     * @return 消息监听器
+     */
+    public static MessageListener messageListener(AliwareMqProperties properties, MessageCodecRegistry codecRegistry,
+                                                  Type messageType, Function<Object, Action> handler) {
+        AliwareMqConsumerRegistry registry = new AliwareMqConsumerRegistry();
+        registry.setAliwareMqProperties(properties);
+        registry.setMessageCodecRegistry(codecRegistry);
+        return registry.buildConsumer(CONSUMER_NAME, "*", messageType, handler).getSubscriptionTable().values().iterator().next();
+    }
+}
@@ -0,0 +1,69 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.ConsumeContext;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import org.openjdk.jmh.annotations.*;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费者监听器基准测试
+ * <p>对比消费者接收原始Message与接收不同大小的类型化消息体时, 注册中心构造的监听器的吞吐量;
+ * 监听器经注册中心公开的buildConsumer构造</p>
+ * <p>运行: java -jar aliwaremq-spring-boot-benchmarks/target/benchmarks.jar ConsumerListenerBenchmark -prof gc</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerListenerBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+    @Param({"gson", "jackson", "kryo"})
+    private String codec;
+
+    private final ConsumeContext context = new ConsumeContext();
+    private MessageListener originListener;
+    private MessageListener typedListener;
+    private Message message;
+    private Object last;
+
+    @Setup
+    public void setup() {
+        AliwareMqProperties properties = BenchmarkSupport.properties(codec);
+        MessageCodecRegistry codecRegistry = BenchmarkSupport.codecRegistry(codec);
+        originListener = BenchmarkSupport.messageListener(properties, codecRegistry, Message.class, this::sink);
+        typedListener = BenchmarkSupport.messageListener(properties, codecRegistry, Payload.class, this::sink);
+        MessageCodec messageCodec = codecRegistry.getCodec(codec);
+        message = new Message(BenchmarkSupport.TOPIC, "*", messageCodec.encode(Payload.ofSize(payloadSize)));
+        message.putUserProperties(MessageCodec.CODEC_PROPERTY, messageCodec.getName());
+    }
+
+    @Benchmark
+    public Object originMessage() {
+        originListener.consume(message, context);
+        return last;
+    }
+
+    @Benchmark
+    public Object typedBody() {
+        typedListener.consume(message, context);
+        return last;
+    }
+
+    private Action sink(Object body) {
+        this.last = body;
+        return Action.CommitMessage;
+    }
+}
@@ -0,0 +1,56 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import priv.ln.aliwaremq.spring.boot.codec.DecodePlan;
+import priv.ln.aliwaremq.spring.boot.codec.GsonMessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodec;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 解码计划基准测试
+ * <p>对比早期实现(平台字符集转字符串后Gson.fromJson)与预解析TypeAdapter的解码计划</p>
+ * <p>运行: java -jar aliwaremq-spring-boot-benchmarks/target/benchmarks.jar DecodePlanBenchmark -prof gc</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodePlanBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+
+    private final Gson gson = new Gson();
+    private DecodePlan decodePlan;
+    private Message message;
+
+    @Setup
+    public void setup() {
+        MessageCodecRegistry codecRegistry = BenchmarkSupport.codecRegistry(GsonMessageCodec.NAME);
+        decodePlan = new DecodePlan(Payload.class, codecRegistry, codecRegistry.getDefaultCodec());
+        message = new Message(BenchmarkSupport.TOPIC, "*", gson.toJson(Payload.ofSize(payloadSize)).getBytes(UTF_8));
+        message.putUserProperties(MessageCodec.CODEC_PROPERTY, GsonMessageCodec.NAME);
+    }
+
+    @Benchmark
+    public Object legacyStringFromJson() {
+        String body = new String(message.getBody());
+        return gson.fromJson(body, (Class) Payload.class);
+    }
+
+    @Benchmark
+    public Object decodePlan() {
+        return decodePlan.decode(message);
+    }
+}
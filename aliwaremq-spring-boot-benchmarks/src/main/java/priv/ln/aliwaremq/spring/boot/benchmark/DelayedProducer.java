@@ -0,0 +1,57 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendCallback;
+import com.aliyun.openservices.ons.api.SendResult;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟服务端往返耗时的回环生产者
+ * <p>同步发送阻塞调用线程, 异步发送在往返耗时后回调, 不阻塞调用线程, 用于对比同步发送与流水线异步发送</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class DelayedProducer extends LoopbackProducer {
+    private final long latencyMicros;
+    private final ScheduledExecutorService callbackScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "delayed-producer-callback");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param latencyMicros 往返耗时, 单位:微秒
+     */
+    public DelayedProducer(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        callbackScheduler.shutdownNow();
+    }
+
+    @Override
+    public SendResult send(Message message) {
+        if (latencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        }
+        return super.send(message);
+    }
+
+    @Override
+    public void sendAsync(Message message, SendCallback sendCallback) {
+        if (latencyMicros <= 0) {
+            sendCallback.onSuccess(super.send(message));
+            return;
+        }
+        callbackScheduler.schedule(() -> sendCallback.onSuccess(super.send(message)), latencyMicros, TimeUnit.MICROSECONDS);
+    }
+}
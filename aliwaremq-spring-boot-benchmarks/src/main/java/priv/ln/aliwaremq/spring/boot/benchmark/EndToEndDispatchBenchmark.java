@@ -0,0 +1,67 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.SendResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端投递基准测试
+ * <p>AliwareMqProducer发送 -> 回环生产者 -> 注册中心构造的监听器 -> 消费者, 全程在调用线程中完成</p>
+ * <p>运行: java -jar aliwaremq-spring-boot-benchmarks/target/benchmarks.jar EndToEndDispatchBenchmark -prof gc</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndDispatchBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+    @Param({"gson", "jackson", "kryo"})
+    private String codec;
+
+    private AnnotationConfigApplicationContext context;
+    private AliwareMqProducer producer;
+    private Payload payload;
+    private Object last;
+
+    @Setup
+    public void setup() {
+        AliwareMqProperties properties = BenchmarkSupport.properties(codec);
+        LoopbackProducer loopbackProducer = new LoopbackProducer();
+        loopbackProducer.setListener(BenchmarkSupport.messageListener(properties, BenchmarkSupport.codecRegistry(codec), Payload.class, body -> {
+            last = body;
+            return Action.CommitMessage;
+        }));
+        context = BenchmarkSupport.producerContext(loopbackProducer, properties);
+        producer = context.getBean(AliwareMqProducer.class);
+        payload = Payload.ofSize(payloadSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object sendSync() {
+        producer.send(BenchmarkSupport.TOPIC, payload);
+        return last;
+    }
+
+    @Benchmark
+    public CompletableFuture<SendResult> sendAsync() {
+        return producer.sendAsync(BenchmarkSupport.TOPIC, payload);
+    }
+}
@@ -0,0 +1,81 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.ConsumeContext;
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.MessageListener;
+import com.aliyun.openservices.ons.api.Producer;
+import com.aliyun.openservices.ons.api.SendCallback;
+import com.aliyun.openservices.ons.api.SendResult;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内回环生产者
+ * <p>不访问网络, 发送时直接在调用线程中投递给监听器, 未设置监听器时只返回发送结果</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class LoopbackProducer implements Producer {
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConsumeContext consumeContext = new ConsumeContext();
+    private volatile MessageListener listener;
+    private volatile boolean started;
+
+    public void setListener(MessageListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void start() {
+        started = true;
+    }
+
+    @Override
+    public void shutdown() {
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+
+    public void updateCredential(Properties credentialProperties) {
+    }
+
+    public void setCallbackExecutor(ExecutorService callbackExecutor) {
+    }
+
+    @Override
+    public SendResult send(Message message) {
+        String msgId = Long.toHexString(sequence.incrementAndGet());
+        message.setMsgID(msgId);
+        MessageListener messageListener = listener;
+        if (messageListener != null) {
+            messageListener.consume(message, consumeContext);
+        }
+        SendResult sendResult = new SendResult();
+        sendResult.setTopic(message.getTopic());
+        sendResult.setMessageId(msgId);
+        return sendResult;
+    }
+
+    @Override
+    public void sendOneway(Message message) {
+        send(message);
+    }
+
+    @Override
+    public void sendAsync(Message message, SendCallback sendCallback) {
+        sendCallback.onSuccess(send(message));
+    }
+}
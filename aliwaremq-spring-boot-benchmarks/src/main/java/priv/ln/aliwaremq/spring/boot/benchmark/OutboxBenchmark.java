@@ -0,0 +1,125 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Producer;
+import com.aliyun.openservices.ons.api.SendResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import priv.ln.aliwaremq.spring.boot.codec.MessageCodecRegistry;
+import priv.ln.aliwaremq.spring.boot.config.AliwareMqProperties;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.core.outbox.MappedFileOutboxStore;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxRelay;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxStore;
+import priv.ln.aliwaremq.spring.boot.core.outbox.OutboxWriter;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 事务发件箱与同步发送吞吐量对比
+ * <p>底层生产者模拟服务端往返耗时; directSend在请求线程中同步发送, outboxSend在事务中写入内存映射文件发件箱,
+ * 由后台线程流水线转发</p>
+ * <p>运行: java -jar aliwaremq-spring-boot-benchmarks/target/benchmarks.jar OutboxBenchmark</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class OutboxBenchmark {
+    @Param({"0", "500", "2000"})
+    private long brokerLatencyMicros;
+    @Param({"1024"})
+    private int payloadSize;
+
+    private Path directory;
+    private AnnotationConfigApplicationContext context;
+    private AliwareMqProducer producer;
+    private OutboxRelay relay;
+    private TransactionTemplate transactionTemplate;
+    private Payload payload;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("aliwaremq-outbox-benchmark");
+        AliwareMqProperties properties = BenchmarkSupport.properties("gson");
+        AliwareMqProperties.Outbox outbox = properties.getProducer().getOutbox();
+        outbox.setEnabled(true);
+        DelayedProducer delayedProducer = new DelayedProducer(brokerLatencyMicros);
+        delayedProducer.start();
+        OutboxStore store = new MappedFileOutboxStore(directory, outbox.getSegmentBytes(), false);
+        // 与自动配置一致, 转发经生产者按主题路由发送
+        relay = new OutboxRelay(store, message -> producer.sendAsync(message, AliwareMqMetrics.MODE_OUTBOX), outbox);
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(Producer.class, () -> delayedProducer);
+        context.registerBean(AliwareMqProperties.class, () -> properties);
+        context.registerBean(MessageCodecRegistry.class, () -> BenchmarkSupport.codecRegistry(properties.getDefaultCodec()));
+        context.registerBean(AliwareMqMetrics.class, () -> AliwareMqMetrics.NOOP);
+        context.registerBean(OutboxStore.class, () -> store);
+        context.registerBean(OutboxWriter.class, () -> new OutboxWriter(store, relay));
+        context.registerBean(AliwareMqProducer.class);
+        context.refresh();
+        producer = context.getBean(AliwareMqProducer.class);
+        relay.start();
+        transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        payload = Payload.ofSize(payloadSize);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException, IOException {
+        relay.shutdown();
+        context.getBean(OutboxStore.class).close();
+        context.getBean(Producer.class).shutdown();
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SendResult directSend() {
+        return producer.send(BenchmarkSupport.TOPIC, payload);
+    }
+
+    @Benchmark
+    public SendResult outboxSend() {
+        return transactionTemplate.execute(status -> producer.send(BenchmarkSupport.TOPIC, payload));
+    }
+
+    /**
+     * 只驱动事务同步的事务管理器, 不访问数据库
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试消息体
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class Payload {
+    private long id;
+    private String name;
+    private List<String> tags;
+    private String content;
+
+    /**
+     * 构造指定内容长度的消息体
+     *
+     * @param contentLength 内容字符数
+     * @return 消息体
+     */
+    public static Payload ofSize(int contentLength) {
+        Payload payload = new Payload();
+        payload.setId(contentLength);
+        payload.setName("payload-" + contentLength);
+        List<String> tags = new ArrayList<>();
+        tags.add("tagA");
+        tags.add("tagB");
+        payload.setTags(tags);
+        StringBuilder content = new StringBuilder(contentLength);
+        for (int i = 0; i < contentLength; i++) {
+            content.append((char) ('a' + i % 26));
+        }
+        payload.setContent(content.toString());
+        return payload;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
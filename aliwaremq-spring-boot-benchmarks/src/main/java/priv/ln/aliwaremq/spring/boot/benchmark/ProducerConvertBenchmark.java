@@ -0,0 +1,51 @@
+package priv.ln.aliwaremq.spring.boot.benchmark;
+
+import com.aliyun.openservices.ons.api.Message;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生产者消息体转换基准测试
+ * <p>只调用AliwareMqProducer.convert, 不发送, 结果反映编码和构造消息的开销</p>
+ * <p>运行: java -jar aliwaremq-spring-boot-benchmarks/target/benchmarks.jar ProducerConvertBenchmark -prof gc</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProducerConvertBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+    @Param({"gson", "jackson", "kryo"})
+    private String codec;
+
+    private AnnotationConfigApplicationContext context;
+    private AliwareMqProducer producer;
+    private Payload payload;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.producerContext(new LoopbackProducer(), BenchmarkSupport.properties(codec));
+        producer = context.getBean(AliwareMqProducer.class);
+        payload = Payload.ofSize(payloadSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Message convert() {
+        return producer.convert(BenchmarkSupport.TOPIC, payload);
+    }
+}
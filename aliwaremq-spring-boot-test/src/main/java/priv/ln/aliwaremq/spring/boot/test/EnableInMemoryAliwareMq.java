@@ -0,0 +1,25 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 使用进程内消息队列替代阿里云消息队列服务端
+ * <p>生产者和消费者的创建方式、消费处理链路不变, 只替换客户端, 无需name server和accessKey</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ * @see InMemoryBroker
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(InMemoryAliwareMqConfiguration.class)
+public @interface EnableInMemoryAliwareMq {
+}
@@ -0,0 +1,28 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 进程内消息队列配置
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ * @see EnableInMemoryAliwareMq
+ */
+@Configuration
+@EnableConfigurationProperties(InMemoryBrokerProperties.class)
+public class InMemoryAliwareMqConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public InMemoryBroker inMemoryBroker(InMemoryBrokerProperties properties) {
+        return new InMemoryBroker(properties);
+    }
+
+    @Bean
+    public InMemoryClientFactory inMemoryClientFactory(InMemoryBroker inMemoryBroker) {
+        return new InMemoryClientFactory(inMemoryBroker);
+    }
+}
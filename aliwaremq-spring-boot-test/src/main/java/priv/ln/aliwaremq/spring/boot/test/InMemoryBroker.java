@@ -0,0 +1,390 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import com.aliyun.openservices.ons.api.transaction.LocalTransactionChecker;
+import com.aliyun.openservices.ons.api.transaction.LocalTransactionExecuter;
+import com.aliyun.openservices.ons.api.transaction.TransactionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内消息队列
+ * <p>替代阿里云消息队列服务端, 用于测试和本地压测, 不访问网络:</p>
+ * <ul>
+ * <li>按主题和标签表达式匹配订阅</li>
+ * <li>集群消费时同一消费者组内轮询选择一个订阅, 广播消费时投递给组内全部订阅</li>
+ * <li>消费失败按重新投递间隔重新投递, 超过最大重试次数转入死信</li>
+ * <li>集群订阅关闭时未确认的消息保留在消费者组中, 同组订阅加入后重新投递, 与服务端按位点重新拉取一致</li>
+ * <li>支持延时投递(startDeliverTime)、事务消息、注入发送耗时和投递延迟</li>
+ * </ul>
+ * <p>每个消费者组收到独立的消息副本</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class InMemoryBroker {
+    /**
+     * 事务状态未知时的最大回查次数
+     */
+    public static final int MAX_TRANSACTION_CHECKS = 15;
+    private final InMemoryBrokerProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, List<InMemorySubscriber>> topicSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    /**
+     * 已关闭的集群订阅未确认的消息, 按消费者组和主题保留
+     */
+    private final Map<String, Queue<Message>> unacknowledged = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 未完成的投递数, 包含等待投递、消费中和等待重新投递的消息
+     */
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder consumed = new LongAdder();
+    private final LongAdder redelivered = new LongAdder();
+    private final List<Message> deadLetters = new CopyOnWriteArrayList<>();
+    private final LatencyRecorder consumeLatency;
+
+    public InMemoryBroker(InMemoryBrokerProperties properties) {
+        this.properties = properties;
+        this.scheduler = Executors.newScheduledThreadPool(properties.getSchedulerThreads(),
+                new CustomizableThreadFactory("aliwaremq-inmemory-broker-"));
+        this.consumeLatency = new LatencyRecorder(properties.getLatencySampleCapacity());
+    }
+
+    /**
+     * 发送消息
+     *
+     * @param message 消息
+     * @return 发送结果
+     */
+    public SendResult send(Message message) {
+        sleep(withJitter(properties.getSendLatencyMillis()));
+        assign(message);
+        pending.incrementAndGet();
+        publish(message);
+        return sendResult(message);
+    }
+
+    /**
+     * 发送事务消息
+     * <p>先执行本地事务, 提交后投递, 回滚则丢弃, 未知时按重新投递间隔回查, 最多回查{@link #MAX_TRANSACTION_CHECKS}次</p>
+     *
+     * @param message  消息
+     * @param executer 本地事务执行
+     * @param arg      本地事务参数
+     * @param checker  本地事务回查
+     * @return 发送结果
+     */
+    public SendResult sendInTransaction(Message message, LocalTransactionExecuter executer, Object arg,
+                                        LocalTransactionChecker checker) {
+        sleep(withJitter(properties.getSendLatencyMillis()));
+        assign(message);
+        pending.incrementAndGet();
+        TransactionStatus status;
+        try {
+            status = executer.execute(message, arg);
+        } catch (RuntimeException e) {
+            log.warn("进程内事务消息[主题:{},消息id:{}]本地事务执行异常, 等待回查", message.getTopic(), message.getMsgID(), e);
+            status = TransactionStatus.Unknow;
+        }
+        resolveTransaction(message, status, checker, 0);
+        return sendResult(message);
+    }
+
+    private void resolveTransaction(Message message, TransactionStatus status, LocalTransactionChecker checker, int checks) {
+        if (status == TransactionStatus.CommitTransaction) {
+            publish(message);
+        } else if (status == TransactionStatus.RollbackTransaction || checks >= MAX_TRANSACTION_CHECKS) {
+            pending.decrementAndGet();
+        } else {
+            scheduler.schedule(() -> {
+                TransactionStatus checked;
+                try {
+                    checked = checker.check(copy(message));
+                } catch (RuntimeException e) {
+                    checked = TransactionStatus.Unknow;
+                }
+                resolveTransaction(message, checked, checker, checks + 1);
+            }, properties.getRedeliveryDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void assign(Message message) {
+        message.setMsgID(String.format("%016X", sequence.incrementAndGet()));
+        message.setBornTimestamp(System.currentTimeMillis());
+    }
+
+    /**
+     * 按投递延迟或定时投递时间调度投递
+     */
+    private void publish(Message message) {
+        sent.increment();
+        long delayMillis = Math.max(withJitter(properties.getDeliveryLatencyMillis()),
+                message.getStartDeliverTime() - System.currentTimeMillis());
+        if (delayMillis > 0) {
+            scheduler.schedule(() -> dispatch(message), delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            dispatch(message);
+        }
+    }
+
+    private static SendResult sendResult(Message message) {
+        SendResult sendResult = new SendResult();
+        sendResult.setTopic(message.getTopic());
+        sendResult.setMessageId(message.getMsgID());
+        return sendResult;
+    }
+
+    /**
+     * 按消费者组选择订阅并投递消息副本
+     *
+     * @param message 消息
+     */
+    private void dispatch(Message message) {
+        Map<String, List<InMemorySubscriber>> groups = new LinkedHashMap<>();
+        for (InMemorySubscriber subscriber : topicSubscribers.getOrDefault(message.getTopic(), Collections.emptyList())) {
+            if (!subscriber.isClosed() && subscriber.matches(message)) {
+                groups.computeIfAbsent(subscriber.getGroup(), group -> new ArrayList<>()).add(subscriber);
+            }
+        }
+        List<InMemorySubscriber> targets = new ArrayList<>();
+        groups.forEach((group, subscribers) -> {
+            if (subscribers.get(0).isBroadcasting()) {
+                targets.addAll(subscribers);
+            } else {
+                int cursor = cursors.computeIfAbsent(group + '@' + message.getTopic(), key -> new AtomicInteger()).getAndIncrement();
+                targets.add(subscribers.get((cursor & Integer.MAX_VALUE) % subscribers.size()));
+            }
+        });
+        // 一条消息转为targets.size()个投递
+        pending.addAndGet(targets.size() - 1);
+        for (InMemorySubscriber target : targets) {
+            target.deliver(copy(message));
+        }
+    }
+
+    /**
+     * 消费失败, 按重试次数延迟后重新投递给同一订阅, 超过最大重试次数转入死信
+     */
+    void redeliver(InMemorySubscriber subscriber, Message message) {
+        int reconsumeTimes = message.getReconsumeTimes() + 1;
+        if (reconsumeTimes > subscriber.getMaxReconsumeTimes()) {
+            deadLetter(subscriber, message);
+            return;
+        }
+        message.setReconsumeTimes(reconsumeTimes);
+        redelivered.increment();
+        scheduler.schedule(() -> {
+            if (subscriber.isClosed()) {
+                abandon(subscriber, message);
+            } else {
+                subscriber.deliver(message);
+            }
+        }, properties.getRedeliveryDelayMillis() * reconsumeTimes, TimeUnit.MILLISECONDS);
+    }
+
+    void deadLetter(InMemorySubscriber subscriber, Message message) {
+        log.warn("进程内消息[组:{},主题:{},消息id:{}]超过最大重试次数, 转入死信", subscriber.getGroup(), message.getTopic(), message.getMsgID());
+        deadLetters.add(message);
+        pending.decrementAndGet();
+    }
+
+    void complete(Message message) {
+        consumed.increment();
+        consumeLatency.record(TimeUnit.MILLISECONDS.toMicros(Math.max(0, System.currentTimeMillis() - message.getBornTimestamp())));
+        pending.decrementAndGet();
+    }
+
+    /**
+     * 订阅已关闭, 消息未确认
+     * <p>广播订阅的消费进度保存在客户端, 直接丢弃; 集群订阅保留在消费者组中, 同组有其他订阅时立即重新投递,
+     * 否则等待同组订阅加入</p>
+     *
+     * @param subscriber 已关闭的订阅
+     * @param message    消息
+     */
+    void abandon(InMemorySubscriber subscriber, Message message) {
+        if (subscriber.isBroadcasting()) {
+            pending.decrementAndGet();
+            return;
+        }
+        unacknowledged.computeIfAbsent(subscriber.getGroup() + '@' + subscriber.getTopic(), key -> new ConcurrentLinkedQueue<>()).add(message);
+        redeliverUnacknowledged(subscriber.getGroup(), subscriber.getTopic());
+    }
+
+    /**
+     * 把消费者组未确认的消息轮询投递给同组打开的订阅, 新订阅不再匹配的标签视为已过滤
+     */
+    private void redeliverUnacknowledged(String group, String topic) {
+        String key = group + '@' + topic;
+        Queue<Message> messages = unacknowledged.get(key);
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        List<InMemorySubscriber> subscribers = new ArrayList<>();
+        for (InMemorySubscriber subscriber : topicSubscribers.getOrDefault(topic, Collections.emptyList())) {
+            if (!subscriber.isClosed() && group.equals(subscriber.getGroup())) {
+                subscribers.add(subscriber);
+            }
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        AtomicInteger cursor = cursors.computeIfAbsent(key, k -> new AtomicInteger());
+        Message message;
+        while ((message = messages.poll()) != null) {
+            InMemorySubscriber target = subscribers.get((cursor.getAndIncrement() & Integer.MAX_VALUE) % subscribers.size());
+            if (target.matches(message)) {
+                target.deliver(message);
+            } else {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    void recordRedelivery() {
+        redelivered.increment();
+    }
+
+    /**
+     * 在调度线程中延迟执行
+     *
+     * @param task        任务
+     * @param delayMillis 延迟, 单位:毫秒
+     */
+    void schedule(Runnable task, long delayMillis) {
+        scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void subscribe(InMemorySubscriber subscriber) {
+        topicSubscribers.computeIfAbsent(subscriber.getTopic(), topic -> new CopyOnWriteArrayList<>()).add(subscriber);
+        if (!subscriber.isBroadcasting()) {
+            redeliverUnacknowledged(subscriber.getGroup(), subscriber.getTopic());
+        }
+    }
+
+    void unsubscribe(InMemorySubscriber subscriber) {
+        subscriber.close();
+        topicSubscribers.getOrDefault(subscriber.getTopic(), Collections.emptyList()).remove(subscriber);
+    }
+
+    /**
+     * 等待全部投递完成
+     *
+     * @param timeoutMillis 最大等待时长, 单位:毫秒
+     * @return 是否在超时前完成
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getConsumedCount() {
+        return consumed.sum();
+    }
+
+    public long getRedeliveredCount() {
+        return redelivered.sum();
+    }
+
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    public List<Message> getDeadLetters() {
+        return deadLetters;
+    }
+
+    /**
+     * 消息产生到消费完成的延迟, 单位:微秒
+     *
+     * @return 延迟样本
+     */
+    public LatencyRecorder getConsumeLatency() {
+        return consumeLatency;
+    }
+
+    /**
+     * 清空统计、死信和已关闭订阅未确认的消息
+     */
+    public void reset() {
+        unacknowledged.values().forEach(messages -> pending.addAndGet(-messages.size()));
+        unacknowledged.clear();
+        sent.reset();
+        consumed.reset();
+        redelivered.reset();
+        deadLetters.clear();
+        consumeLatency.reset();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private long withJitter(long millis) {
+        long jitter = properties.getLatencyJitterMillis();
+        return jitter > 0 ? millis + ThreadLocalRandom.current().nextLong(jitter + 1) : millis;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 复制消息, 每个订阅独立修改消息体和属性
+     */
+    private static Message copy(Message message) {
+        byte[] body = message.getBody();
+        Message copy = new Message(message.getTopic(), message.getTag(), message.getKey(), body == null ? null : body.clone());
+        Properties userProperties = message.getUserProperties();
+        if (userProperties != null) {
+            userProperties.forEach((key, value) -> copy.putUserProperties((String) key, (String) value));
+        }
+        copy.setMsgID(message.getMsgID());
+        copy.setBornTimestamp(message.getBornTimestamp());
+        copy.setShardingKey(message.getShardingKey());
+        copy.setStartDeliverTime(message.getStartDeliverTime());
+        return copy;
+    }
+}
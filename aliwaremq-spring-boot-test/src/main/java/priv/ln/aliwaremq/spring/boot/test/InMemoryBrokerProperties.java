@@ -0,0 +1,40 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 进程内消息队列配置参数
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Data
+@ConfigurationProperties("aliwaremq.test.broker")
+public class InMemoryBrokerProperties {
+    /**
+     * 注入的发送耗时, 在发送线程中等待, 单位:毫秒, 默认值0
+     */
+    private long sendLatencyMillis;
+    /**
+     * 注入的投递延迟, 消息发送后经过该时长才投递给消费者, 单位:毫秒, 默认值0
+     */
+    private long deliveryLatencyMillis;
+    /**
+     * 注入延迟的随机抖动上限, 叠加到发送耗时和投递延迟上, 单位:毫秒, 默认值0
+     */
+    private long latencyJitterMillis;
+    /**
+     * 重新投递的基础间隔, 第n次重新投递等待n倍该时长, 单位:毫秒, 默认值1000
+     */
+    private long redeliveryDelayMillis = 1000;
+    /**
+     * 延时投递、重新投递的调度线程数, 默认值2
+     */
+    private int schedulerThreads = 2;
+    /**
+     * 消费延迟样本容量, 超出后不再记录, 默认值1048576
+     */
+    private int latencySampleCapacity = 1 << 20;
+}
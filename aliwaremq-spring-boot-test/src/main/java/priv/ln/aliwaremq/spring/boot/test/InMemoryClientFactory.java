@@ -0,0 +1,54 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.bean.BatchConsumerBean;
+import com.aliyun.openservices.ons.api.bean.ConsumerBean;
+import com.aliyun.openservices.ons.api.bean.OrderConsumerBean;
+import com.aliyun.openservices.ons.api.bean.OrderProducerBean;
+import com.aliyun.openservices.ons.api.bean.ProducerBean;
+import com.aliyun.openservices.ons.api.bean.TransactionProducerBean;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqClientFactory;
+
+/**
+ * 创建连接进程内消息队列的客户端
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryClientFactory implements AliwareMqClientFactory {
+    private final InMemoryBroker broker;
+
+    public InMemoryClientFactory(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public ProducerBean createProducer() {
+        return new InMemoryProducer(broker);
+    }
+
+    @Override
+    public OrderProducerBean createOrderProducer() {
+        return new InMemoryOrderProducer(broker);
+    }
+
+    @Override
+    public TransactionProducerBean createTransactionProducer() {
+        return new InMemoryTransactionProducer(broker);
+    }
+
+    @Override
+    public ConsumerBean createConsumer() {
+        return new InMemoryConsumer(broker);
+    }
+
+    @Override
+    public BatchConsumerBean createBatchConsumer() {
+        return new InMemoryBatchConsumer(broker);
+    }
+
+    @Override
+    public OrderConsumerBean createOrderConsumer() {
+        return new InMemoryOrderConsumer(broker);
+    }
+}
@@ -0,0 +1,68 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Action;
+import com.aliyun.openservices.ons.api.ConsumeContext;
+import com.aliyun.openservices.ons.api.MessageListener;
+import com.aliyun.openservices.ons.api.bean.ConsumerBean;
+import com.aliyun.openservices.ons.api.bean.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 订阅进程内消息队列的消费者
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryConsumer extends ConsumerBean {
+    private final InMemoryBroker broker;
+    private final List<InMemorySubscriber> subscribers = new ArrayList<>();
+    private ExecutorService executor;
+    private volatile boolean started;
+
+    public InMemoryConsumer(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        executor = InMemorySubscriber.newConsumeExecutor(getProperties());
+        for (Map.Entry<Subscription, MessageListener> entry : getSubscriptionTable().entrySet()) {
+            MessageListener listener = entry.getValue();
+            InMemorySubscriber subscriber = new InMemorySubscriber(broker, getProperties(), entry.getKey().getTopic(),
+                    entry.getKey().getExpression(), message -> listener.consume(message, new ConsumeContext()) == Action.CommitMessage,
+                    executor, null);
+            subscribers.add(subscriber);
+            broker.subscribe(subscriber);
+        }
+        started = true;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        subscribers.forEach(broker::unsubscribe);
+        subscribers.clear();
+        executor.shutdown();
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+}
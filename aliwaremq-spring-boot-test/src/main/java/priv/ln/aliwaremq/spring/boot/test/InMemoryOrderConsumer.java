@@ -0,0 +1,71 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.bean.OrderConsumerBean;
+import com.aliyun.openservices.ons.api.bean.Subscription;
+import com.aliyun.openservices.ons.api.order.ConsumeOrderContext;
+import com.aliyun.openservices.ons.api.order.MessageOrderListener;
+import com.aliyun.openservices.ons.api.order.OrderAction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 订阅进程内消息队列的顺序消费者
+ * <p>同一分区键的消息在同一单线程通道中按发送顺序消费</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryOrderConsumer extends OrderConsumerBean {
+    private final InMemoryBroker broker;
+    private final List<InMemorySubscriber> subscribers = new ArrayList<>();
+    private ExecutorService[] lanes;
+    private volatile boolean started;
+
+    public InMemoryOrderConsumer(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        lanes = InMemorySubscriber.newOrderLanes(getProperties());
+        for (Map.Entry<Subscription, MessageOrderListener> entry : getSubscriptionTable().entrySet()) {
+            MessageOrderListener listener = entry.getValue();
+            InMemorySubscriber subscriber = new InMemorySubscriber(broker, getProperties(), entry.getKey().getTopic(),
+                    entry.getKey().getExpression(),
+                    message -> listener.consume(message, new ConsumeOrderContext()) == OrderAction.Success,
+                    null, lanes);
+            subscribers.add(subscriber);
+            broker.subscribe(subscriber);
+        }
+        started = true;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        subscribers.forEach(broker::unsubscribe);
+        subscribers.clear();
+        Arrays.stream(lanes).forEach(ExecutorService::shutdown);
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+}
@@ -0,0 +1,51 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import com.aliyun.openservices.ons.api.bean.OrderProducerBean;
+import com.aliyun.openservices.ons.api.exception.ONSClientException;
+
+/**
+ * 发送到进程内消息队列的顺序消息生产者
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryOrderProducer extends OrderProducerBean {
+    private final InMemoryBroker broker;
+    private volatile boolean started;
+
+    public InMemoryOrderProducer(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public void start() {
+        started = true;
+    }
+
+    @Override
+    public void shutdown() {
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+
+    @Override
+    public SendResult send(Message message, String shardingKey) {
+        if (!started) {
+            throw new ONSClientException("进程内顺序消息生产者未启动");
+        }
+        message.setShardingKey(shardingKey);
+        return broker.send(message);
+    }
+}
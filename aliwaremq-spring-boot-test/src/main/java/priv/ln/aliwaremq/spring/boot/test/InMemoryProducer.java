@@ -0,0 +1,93 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.OnExceptionContext;
+import com.aliyun.openservices.ons.api.SendCallback;
+import com.aliyun.openservices.ons.api.SendResult;
+import com.aliyun.openservices.ons.api.bean.ProducerBean;
+import com.aliyun.openservices.ons.api.exception.ONSClientException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 发送到进程内消息队列的生产者
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryProducer extends ProducerBean {
+    private final InMemoryBroker broker;
+    private volatile boolean started;
+    private volatile ExecutorService callbackExecutor;
+
+    public InMemoryProducer(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public void start() {
+        started = true;
+    }
+
+    @Override
+    public void shutdown() {
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+
+    @Override
+    public SendResult send(Message message) {
+        checkStarted();
+        return broker.send(message);
+    }
+
+    @Override
+    public void sendOneway(Message message) {
+        checkStarted();
+        broker.send(message);
+    }
+
+    @Override
+    public void sendAsync(Message message, SendCallback sendCallback) {
+        checkStarted();
+        Runnable task = () -> {
+            try {
+                sendCallback.onSuccess(broker.send(message));
+            } catch (RuntimeException e) {
+                OnExceptionContext context = new OnExceptionContext();
+                context.setTopic(message.getTopic());
+                context.setMessageId(message.getMsgID());
+                context.setException(e instanceof ONSClientException ? (ONSClientException) e : new ONSClientException(e));
+                sendCallback.onException(context);
+            }
+        };
+        ExecutorService executor = callbackExecutor;
+        if (executor != null) {
+            executor.execute(task);
+        } else {
+            CompletableFuture.runAsync(task);
+        }
+    }
+
+    @Override
+    public void setCallbackExecutor(ExecutorService callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    private void checkStarted() {
+        if (!started) {
+            throw new ONSClientException("进程内生产者未启动");
+        }
+    }
+}
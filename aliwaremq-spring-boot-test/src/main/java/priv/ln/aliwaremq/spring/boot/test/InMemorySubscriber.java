@@ -0,0 +1,327 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.PropertyKeyConst;
+import com.aliyun.openservices.ons.api.PropertyValueConst;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 进程内消息队列的一个订阅
+ * <p>普通订阅在消费者线程池中并发消费; 顺序订阅按分区键哈希到单线程通道, 失败时在通道内暂停后重试, 不打乱顺序</p>
+ * <p>批量订阅先缓存投递的消息, 缓存达到ConsumeMessageBatchMaxSize或等待BatchConsumeMaxAwaitDurationInSeconds后
+ * 在消费者线程池中取出至多ConsumeMessageBatchMaxSize条一起消费, 消费线程繁忙时缓存自然积累成批;
+ * 整批提交或整批重新投递, 与服务端一致</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+class InMemorySubscriber {
+    /**
+     * 批量消费最大等待时长的配置项, 1.8.2版本的PropertyKeyConst中没有该常量
+     */
+    private static final String BATCH_CONSUME_MAX_AWAIT_DURATION_IN_SECONDS = "BatchConsumeMaxAwaitDurationInSeconds";
+    private final InMemoryBroker broker;
+    private final String group;
+    private final String topic;
+    /**
+     * 订阅的标签, 为空时订阅全部标签
+     */
+    private final Set<String> tags;
+    private final boolean broadcasting;
+    private final int maxReconsumeTimes;
+    private final long suspendTimeMillis;
+    /**
+     * 消费一条消息, 返回是否提交
+     */
+    private final Predicate<Message> handler;
+    /**
+     * 消费一批消息, 返回是否提交, 非批量订阅时为空
+     */
+    private final Predicate<List<Message>> batchHandler;
+    private final int batchMaxSize;
+    private final long batchAwaitMillis;
+    private final Queue<Message> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final ExecutorService executor;
+    private final ExecutorService[] lanes;
+    private volatile boolean closed;
+
+    /**
+     * @param broker     进程内消息队列
+     * @param properties 消费者配置
+     * @param topic      主题
+     * @param expression 订阅表达式
+     * @param handler    消费一条消息, 返回是否提交
+     * @param executor   普通订阅的消费线程池, 顺序订阅时为空
+     * @param lanes      顺序订阅的单线程通道, 普通订阅时为空
+     */
+    InMemorySubscriber(InMemoryBroker broker, Properties properties, String topic, String expression,
+                       Predicate<Message> handler, ExecutorService executor, ExecutorService[] lanes) {
+        this.broker = broker;
+        this.group = properties.getProperty(PropertyKeyConst.GROUP_ID);
+        this.topic = topic;
+        this.tags = expression == null || "*".equals(expression.trim()) ? null : parseTags(expression);
+        this.broadcasting = PropertyValueConst.BROADCASTING.equals(properties.getProperty(PropertyKeyConst.MessageModel));
+        this.maxReconsumeTimes = Integer.parseInt(properties.getProperty(PropertyKeyConst.MaxReconsumeTimes, "16"));
+        this.suspendTimeMillis = Long.parseLong(properties.getProperty(PropertyKeyConst.SuspendTimeMillis, "0"));
+        this.handler = handler;
+        this.batchHandler = null;
+        this.batchMaxSize = 1;
+        this.batchAwaitMillis = 0;
+        this.executor = executor;
+        this.lanes = lanes;
+    }
+
+    /**
+     * 批量订阅
+     *
+     * @param broker       进程内消息队列
+     * @param properties   消费者配置
+     * @param topic        主题
+     * @param expression   订阅表达式
+     * @param batchHandler 消费一批消息, 返回是否提交
+     * @param executor     消费线程池
+     */
+    InMemorySubscriber(InMemoryBroker broker, Properties properties, String topic, String expression,
+                       Predicate<List<Message>> batchHandler, ExecutorService executor) {
+        this.broker = broker;
+        this.group = properties.getProperty(PropertyKeyConst.GROUP_ID);
+        this.topic = topic;
+        this.tags = expression == null || "*".equals(expression.trim()) ? null : parseTags(expression);
+        this.broadcasting = PropertyValueConst.BROADCASTING.equals(properties.getProperty(PropertyKeyConst.MessageModel));
+        this.maxReconsumeTimes = Integer.parseInt(properties.getProperty(PropertyKeyConst.MaxReconsumeTimes, "16"));
+        this.suspendTimeMillis = 0;
+        this.handler = null;
+        this.batchHandler = batchHandler;
+        this.batchMaxSize = Math.max(1, Integer.parseInt(properties.getProperty(PropertyKeyConst.ConsumeMessageBatchMaxSize, "1")));
+        this.batchAwaitMillis = TimeUnit.SECONDS.toMillis(
+                Long.parseLong(properties.getProperty(BATCH_CONSUME_MAX_AWAIT_DURATION_IN_SECONDS, "0")));
+        this.executor = executor;
+        this.lanes = null;
+    }
+
+    /**
+     * 按ConsumeThreadNums创建消费线程池
+     *
+     * @param properties 消费者配置
+     * @return 消费线程池
+     */
+    static ExecutorService newConsumeExecutor(Properties properties) {
+        return Executors.newFixedThreadPool(consumeThreadNums(properties), threadFactory(properties));
+    }
+
+    /**
+     * 按ConsumeThreadNums创建顺序消费的单线程通道
+     *
+     * @param properties 消费者配置
+     * @return 单线程通道
+     */
+    static ExecutorService[] newOrderLanes(Properties properties) {
+        ExecutorService[] lanes = new ExecutorService[consumeThreadNums(properties)];
+        CustomizableThreadFactory threadFactory = threadFactory(properties);
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        return lanes;
+    }
+
+    private static int consumeThreadNums(Properties properties) {
+        return Math.max(1, Integer.parseInt(properties.getProperty(PropertyKeyConst.ConsumeThreadNums, "20")));
+    }
+
+    private static CustomizableThreadFactory threadFactory(Properties properties) {
+        return new CustomizableThreadFactory("aliwaremq-inmemory-" + properties.getProperty(PropertyKeyConst.GROUP_ID) + "-");
+    }
+
+    private static Set<String> parseTags(String expression) {
+        Set<String> result = new HashSet<>();
+        Arrays.stream(expression.split("\\|\\|")).map(String::trim).filter(tag -> !tag.isEmpty()).forEach(result::add);
+        return result;
+    }
+
+    String getGroup() {
+        return group;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    boolean isBroadcasting() {
+        return broadcasting;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getMaxReconsumeTimes() {
+        return maxReconsumeTimes;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * 是否订阅了消息的标签
+     *
+     * @param message 消息
+     * @return 是否匹配
+     */
+    boolean matches(Message message) {
+        return tags == null || (message.getTag() != null && tags.contains(message.getTag()));
+    }
+
+    /**
+     * 异步投递
+     *
+     * @param message 消息副本
+     */
+    void deliver(Message message) {
+        if (batchHandler != null) {
+            deliverBatched(message);
+            return;
+        }
+        try {
+            if (lanes == null) {
+                executor.execute(() -> consume(message));
+            } else {
+                String shardingKey = message.getShardingKey();
+                int lane = shardingKey == null ? 0 : (shardingKey.hashCode() & Integer.MAX_VALUE) % lanes.length;
+                lanes[lane].execute(() -> consumeOrderly(message));
+            }
+        } catch (RejectedExecutionException e) {
+            // 消费者已关闭, 视为未投递
+            broker.abandon(this, message);
+        }
+    }
+
+    /**
+     * 缓存消息, 缓存满一批或不等待时立即提交取批任务, 否则等待最大等待时长后提交
+     */
+    private void deliverBatched(Message message) {
+        buffer.add(message);
+        if (buffered.incrementAndGet() >= batchMaxSize || batchAwaitMillis <= 0) {
+            drainLater();
+        } else {
+            broker.schedule(this::drainLater, batchAwaitMillis);
+        }
+    }
+
+    private void drainLater() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 消费者已关闭, 缓存中的消息视为未投递
+            Message message;
+            while ((message = poll()) != null) {
+                broker.abandon(this, message);
+            }
+        }
+    }
+
+    /**
+     * 取出至多batchMaxSize条消息一起消费, 缓存已被其他取批任务取空时直接返回
+     */
+    private void drain() {
+        List<Message> batch = new ArrayList<>(batchMaxSize);
+        Message message;
+        while (batch.size() < batchMaxSize && (message = poll()) != null) {
+            batch.add(message);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean committed;
+        try {
+            committed = batchHandler.test(batch);
+        } catch (Throwable e) {
+            log.warn("进程内批量消费[组:{},主题:{},条数:{}]发生异常", group, topic, batch.size(), e);
+            committed = false;
+        }
+        for (Message consumed : batch) {
+            if (committed) {
+                broker.complete(consumed);
+            } else if (closed) {
+                broker.abandon(this, consumed);
+            } else {
+                broker.redeliver(this, consumed);
+            }
+        }
+    }
+
+    private Message poll() {
+        Message message = buffer.poll();
+        if (message != null) {
+            buffered.decrementAndGet();
+        }
+        return message;
+    }
+
+    /**
+     * 消费一条消息, 失败时重新投递; 客户端已关闭时不提交位点也不发回重试, 由同组订阅重新拉取
+     */
+    private void consume(Message message) {
+        if (invoke(message)) {
+            broker.complete(message);
+        } else if (closed) {
+            broker.abandon(this, message);
+        } else {
+            broker.redeliver(this, message);
+        }
+    }
+
+    /**
+     * 顺序消费, 失败时在当前通道内暂停后重试, 超过最大重试次数转入死信
+     */
+    private void consumeOrderly(Message message) {
+        while (!invoke(message)) {
+            if (closed) {
+                broker.abandon(this, message);
+                return;
+            }
+            if (message.getReconsumeTimes() >= maxReconsumeTimes) {
+                broker.deadLetter(this, message);
+                return;
+            }
+            message.setReconsumeTimes(message.getReconsumeTimes() + 1);
+            broker.recordRedelivery();
+            try {
+                Thread.sleep(Math.max(suspendTimeMillis, 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                broker.abandon(this, message);
+                return;
+            }
+        }
+        broker.complete(message);
+    }
+
+    private boolean invoke(Message message) {
+        try {
+            return handler.test(message);
+        } catch (Throwable e) {
+            log.warn("进程内消费[组:{},主题:{},消息id:{}]发生异常", group, topic, message.getMsgID(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import com.aliyun.openservices.ons.api.SendResult;
+import com.aliyun.openservices.ons.api.bean.TransactionProducerBean;
+import com.aliyun.openservices.ons.api.exception.ONSClientException;
+import com.aliyun.openservices.ons.api.transaction.LocalTransactionExecuter;
+
+/**
+ * 发送到进程内消息队列的事务消息生产者
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class InMemoryTransactionProducer extends TransactionProducerBean {
+    private final InMemoryBroker broker;
+    private volatile boolean started;
+
+    public InMemoryTransactionProducer(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public void start() {
+        if (getLocalTransactionChecker() == null) {
+            throw new ONSClientException("本地事务回查未设置");
+        }
+        started = true;
+    }
+
+    @Override
+    public void shutdown() {
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !started;
+    }
+
+    @Override
+    public SendResult send(Message message, LocalTransactionExecuter executer, Object arg) {
+        if (!started) {
+            throw new ONSClientException("进程内事务消息生产者未启动");
+        }
+        return broker.sendInTransaction(message, executer, arg, getLocalTransactionChecker());
+    }
+}
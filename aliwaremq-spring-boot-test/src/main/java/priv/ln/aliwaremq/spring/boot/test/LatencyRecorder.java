@@ -0,0 +1,71 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 延迟样本记录
+ * <p>固定容量的样本数组, 记录时只做一次原子自增和一次写入, 超出容量后丢弃; 计算分位数时复制并排序</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+public class LatencyRecorder {
+    private final AtomicLongArray samples;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * 记录一个样本
+     *
+     * @param micros 延迟, 单位:微秒
+     */
+    public void record(long micros) {
+        int index = count.getAndIncrement();
+        if (index >= 0 && index < samples.length()) {
+            samples.set(index, micros);
+        }
+    }
+
+    /**
+     * 已记录的样本数, 包含超出容量被丢弃的样本
+     *
+     * @return 样本数
+     */
+    public int getCount() {
+        return count.get();
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param percentiles 分位, 如0.5、0.99
+     * @return 与percentiles一一对应的延迟, 单位:微秒, 没有样本时为0
+     */
+    public long[] percentiles(double... percentiles) {
+        int size = Math.min(Math.max(count.get(), 0), samples.length());
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length && size > 0; i++) {
+            int rank = (int) Math.ceil(percentiles[i] * size) - 1;
+            result[i] = sorted[Math.min(size - 1, Math.max(0, rank))];
+        }
+        return result;
+    }
+
+    /**
+     * 清空样本
+     */
+    public void reset() {
+        count.set(0);
+    }
+}
@@ -0,0 +1,108 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import lombok.extern.slf4j.Slf4j;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 进程内压测
+ * <p>通过AliwareMqProducer按指定速率发送到进程内消息队列, 经过完整的编码、压缩、解码和消费处理链路,
+ * 统计发送和消费延迟分位数, 用于对比消费者配置(线程数、分发模式、流控、重试等)的效果</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Slf4j
+public class LoadGenerator {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private final AliwareMqProducer producer;
+    private final InMemoryBroker broker;
+    /**
+     * 发送完成后等待消费完成的最大时长, 单位:毫秒
+     */
+    private long drainTimeoutMillis = 60000;
+
+    public LoadGenerator(AliwareMqProducer producer, InMemoryBroker broker) {
+        this.producer = producer;
+        this.broker = broker;
+    }
+
+    public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    /**
+     * 发送并等待消费完成
+     *
+     * @param topic         主题
+     * @param payload       消息体生成
+     * @param threads       发送线程数
+     * @param messages      消息总数
+     * @param ratePerSecond 每秒发送条数, 不大于0时不限速
+     * @param <T>           消息体类型
+     * @return 压测结果
+     * @throws InterruptedException 等待时被中断
+     */
+    public <T> LoadReport run(String topic, Supplier<T> payload, int threads, long messages, long ratePerSecond)
+            throws InterruptedException {
+        broker.reset();
+        LatencyRecorder sendLatency = new LatencyRecorder((int) Math.min(messages, Integer.MAX_VALUE - 8));
+        AtomicLong sequence = new AtomicLong();
+        LongAdder failed = new LongAdder();
+        long intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    long index;
+                    while ((index = sequence.getAndIncrement()) < messages) {
+                        // 按全局序号计算计划发送时间, 限速时从计划时间开始计算延迟, 避免发送变慢时漏计排队时间
+                        long scheduled = start + index * intervalNanos;
+                        long wait = scheduled - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        long begin = intervalNanos > 0 ? scheduled : System.nanoTime();
+                        try {
+                            producer.send(topic, payload.get());
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                        }
+                        sendLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        boolean drained = broker.awaitIdle(drainTimeoutMillis);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LoadReport report = new LoadReport();
+        report.setSent(broker.getSentCount());
+        report.setFailed(failed.sum());
+        report.setConsumed(broker.getConsumedCount());
+        report.setRedelivered(broker.getRedeliveredCount());
+        report.setDeadLettered(broker.getDeadLetters().size());
+        report.setDrained(drained);
+        report.setElapsedMillis(elapsedMillis);
+        report.setSendLatencyMicros(sendLatency.percentiles(PERCENTILES));
+        report.setConsumeLatencyMicros(broker.getConsumeLatency().percentiles(PERCENTILES));
+        if (!drained) {
+            log.warn("压测[主题:{}]等待消费完成超时, 未完成投递数:{}", topic, broker.getPendingCount());
+        }
+        return report;
+    }
+}
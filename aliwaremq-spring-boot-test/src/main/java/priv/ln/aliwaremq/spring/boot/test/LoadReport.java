@@ -0,0 +1,60 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import lombok.Data;
+
+/**
+ * 压测结果
+ * <p>延迟单位均为微秒, 消费延迟为消息产生到消费完成, 精度为毫秒</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@Data
+public class LoadReport {
+    /**
+     * 发送成功数
+     */
+    private long sent;
+    /**
+     * 发送失败数
+     */
+    private long failed;
+    /**
+     * 消费完成数
+     */
+    private long consumed;
+    /**
+     * 重新投递数
+     */
+    private long redelivered;
+    /**
+     * 死信数
+     */
+    private long deadLettered;
+    /**
+     * 是否在超时前消费完成
+     */
+    private boolean drained;
+    /**
+     * 发送开始到消费完成的耗时, 单位:毫秒
+     */
+    private long elapsedMillis;
+    /**
+     * 发送p50, p90, p99, p999
+     */
+    private long[] sendLatencyMicros;
+    /**
+     * 消费p50, p90, p99, p999
+     */
+    private long[] consumeLatencyMicros;
+
+    /**
+     * 消费吞吐量, 单位:条/秒
+     *
+     * @return 吞吐量
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : consumed * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,114 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+import priv.ln.aliwaremq.spring.boot.compress.GzipMessageCompressor;
+import priv.ln.aliwaremq.spring.boot.compress.MessageCompressor;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 消息体压缩阈值测试
+ * <p>达到阈值的消息体按配置的压缩器压缩并记录在用户属性中, 未达到阈值的原样发送, 消费时透明解压</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CompressionThresholdTest.TestConfiguration.class, properties = {
+        "aliwaremq.name-srv-addr=inmemory",
+        "aliwaremq.producer.group=GID_TEST_PRODUCER",
+        "aliwaremq.producer.compression.algorithm=gzip",
+        "aliwaremq.producer.compression.threshold-bytes=" + CompressionThresholdTest.THRESHOLD_BYTES,
+        "aliwaremq.consumer.compressed.group=GID_TEST_COMPRESSED",
+        "aliwaremq.consumer.compressed.topic=" + CompressionThresholdTest.TOPIC,
+        "aliwaremq.consumer.compressed.consume-thread-nums=1"})
+public class CompressionThresholdTest {
+    static final String TOPIC = "T_TEST_COMPRESSED";
+    static final int THRESHOLD_BYTES = 256;
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+    @Autowired
+    private AliwareMqProducer producer;
+    @Autowired
+    private InMemoryBroker broker;
+    @Autowired
+    private CompressedConsumer compressedConsumer;
+
+    @Before
+    public void setUp() {
+        broker.reset();
+        compressedConsumer.received.clear();
+    }
+
+    @Test
+    public void compressesOnlyAboveThreshold() {
+        Message small = producer.convert(TOPIC, "small");
+        assertNull(small.getUserProperties(MessageCompressor.COMPRESSION_PROPERTY));
+
+        String large = repeat("compressible-", THRESHOLD_BYTES);
+        Message compressed = producer.convert(TOPIC, large);
+        assertEquals(GzipMessageCompressor.NAME, compressed.getUserProperties(MessageCompressor.COMPRESSION_PROPERTY));
+        assertTrue(compressed.getBody().length < THRESHOLD_BYTES);
+    }
+
+    @Test
+    public void consumerReceivesDecompressedBody() throws InterruptedException {
+        String large = repeat("compressible-", THRESHOLD_BYTES);
+        producer.send(TOPIC, "small");
+        producer.send(TOPIC, large);
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(2, compressedConsumer.received.size());
+        assertEquals(new HashSet<>(Arrays.asList("small", large)), new HashSet<>(compressedConsumer.received));
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableInMemoryAliwareMq
+    static class TestConfiguration {
+
+        @Bean
+        public CompressedConsumer compressedConsumer() {
+            return new CompressedConsumer();
+        }
+    }
+
+    static class CompressedConsumer implements AliwareMqConsumer<String> {
+        private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "compressed";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received.add(message);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+import priv.ln.aliwaremq.spring.boot.autoconfigure.AliwareMqConsumerRegistry;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.flowcontrol.AdaptiveConcurrencyLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 消费流控暂停测试
+ * <p>持续过载时暂停同组同主题的客户端, 暂停时长后恢复; 暂停期间的消息由新一代客户端重新拉取, 不计入重试</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = FlowControlSuspendTest.TestConfiguration.class, properties = {
+        "aliwaremq.name-srv-addr=inmemory",
+        "aliwaremq.producer.group=GID_TEST_PRODUCER",
+        "aliwaremq.consumer.slow.group=GID_TEST_SLOW",
+        "aliwaremq.consumer.slow.topic=" + FlowControlSuspendTest.TOPIC,
+        "aliwaremq.consumer.slow.consume-thread-nums=2",
+        "aliwaremq.consumer.slow.flow-control.enabled=true",
+        "aliwaremq.consumer.slow.flow-control.target-latency-millis=1",
+        "aliwaremq.consumer.slow.flow-control.window-millis=20",
+        "aliwaremq.consumer.slow.flow-control.suspend-after-windows=1",
+        "aliwaremq.consumer.slow.flow-control.suspend-millis=200",
+        "aliwaremq.test.broker.redelivery-delay-millis=10"})
+public class FlowControlSuspendTest {
+    static final String TOPIC = "T_TEST_SLOW";
+    private static final long IDLE_TIMEOUT_MILLIS = 30000;
+    @Autowired
+    private AliwareMqProducer producer;
+    @Autowired
+    private InMemoryBroker broker;
+    @Autowired
+    private AliwareMqConsumerRegistry registry;
+    @Autowired
+    private SlowConsumer slowConsumer;
+
+    @Before
+    public void setUp() {
+        broker.reset();
+    }
+
+    @Test
+    public void overloadPausesAndResumesClient() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            producer.send(TOPIC, "message-" + i);
+        }
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(100, slowConsumer.consumed.get());
+        assertEquals(100, broker.getConsumedCount());
+        assertEquals(0, broker.getRedeliveredCount());
+
+        AdaptiveConcurrencyLimiter limiter = registry.getFlowLimiterMap().values().iterator().next();
+        assertTrue(limiter.getSuspensions() > 0);
+        // 恢复在暂停时长后调度执行
+        long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MILLIS;
+        while (!"RUNNING".equals(consumerState()) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals("RUNNING", consumerState());
+    }
+
+    private Object consumerState() {
+        return registry.describeConsumers().values().iterator().next().get("state");
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableInMemoryAliwareMq
+    static class TestConfiguration {
+
+        @Bean
+        public SlowConsumer slowConsumer() {
+            return new SlowConsumer();
+        }
+    }
+
+    /**
+     * 每条消息耗时远超目标时延, 持续过载
+     */
+    static class SlowConsumer implements AliwareMqConsumer<String> {
+        private final AtomicInteger consumed = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "slow";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumed.incrementAndGet();
+        }
+    }
+}
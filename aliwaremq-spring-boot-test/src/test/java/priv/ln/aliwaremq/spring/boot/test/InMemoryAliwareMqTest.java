@@ -0,0 +1,234 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.Message;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqBatchConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 进程内消息队列冒烟测试
+ * <p>经过自动配置创建的生产者和消费者, 覆盖发送消费、标签过滤、消费失败重新投递、批量消费和压测结果</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = InMemoryAliwareMqTest.TestConfiguration.class, properties = {
+        "aliwaremq.name-srv-addr=inmemory",
+        "aliwaremq.producer.group=GID_TEST_PRODUCER",
+        "aliwaremq.consumer.plain.group=GID_TEST_PLAIN",
+        "aliwaremq.consumer.plain.topic=T_TEST_PLAIN",
+        "aliwaremq.consumer.plain.consume-thread-nums=4",
+        "aliwaremq.consumer.tagged.group=GID_TEST_TAGGED",
+        "aliwaremq.consumer.tagged.topic=T_TEST_TAGGED",
+        "aliwaremq.consumer.tagged.consume-thread-nums=4",
+        "aliwaremq.consumer.flaky.group=GID_TEST_FLAKY",
+        "aliwaremq.consumer.flaky.topic=T_TEST_FLAKY",
+        "aliwaremq.consumer.flaky.consume-thread-nums=4",
+        "aliwaremq.consumer.batch.group=GID_TEST_BATCH",
+        "aliwaremq.consumer.batch.topic=T_TEST_BATCH",
+        "aliwaremq.consumer.batch.consume-thread-nums=4",
+        "aliwaremq.consumer.batch.consume-message-batch-max-size=8",
+        "aliwaremq.consumer.batch.batch-consume-max-await-duration-in-seconds=1",
+        "aliwaremq.test.broker.redelivery-delay-millis=10"})
+public class InMemoryAliwareMqTest {
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+    @Autowired
+    private AliwareMqProducer producer;
+    @Autowired
+    private InMemoryBroker broker;
+    @Autowired
+    private PlainConsumer plainConsumer;
+    @Autowired
+    private TaggedConsumer taggedConsumer;
+    @Autowired
+    private FlakyConsumer flakyConsumer;
+    @Autowired
+    private BatchConsumer batchConsumer;
+
+    @Before
+    public void setUp() {
+        broker.reset();
+    }
+
+    @Test
+    public void publishAndConsume() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            producer.send("T_TEST_PLAIN", "message-" + i);
+        }
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(100, broker.getSentCount());
+        assertEquals(100, broker.getConsumedCount());
+        assertEquals(100, plainConsumer.received.size());
+        assertTrue(plainConsumer.received.contains("message-99"));
+    }
+
+    @Test
+    public void filterByTag() throws InterruptedException {
+        for (String tag : new String[]{"A", "B", "A", "C"}) {
+            Message message = producer.convert("T_TEST_TAGGED", tag);
+            message.setTag(tag);
+            producer.send(message);
+        }
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(4, broker.getSentCount());
+        assertEquals(2, broker.getConsumedCount());
+        assertEquals(2, taggedConsumer.received.size());
+        taggedConsumer.received.forEach(tag -> assertEquals("A", tag));
+    }
+
+    @Test
+    public void redeliverOnReconsumeLater() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            producer.send("T_TEST_FLAKY", "flaky-" + i);
+        }
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(10, broker.getConsumedCount());
+        assertEquals(10, broker.getRedeliveredCount());
+        assertTrue(broker.getDeadLetters().isEmpty());
+        flakyConsumer.attempts.values().forEach(attempts -> assertEquals(2, attempts.get()));
+    }
+
+    @Test
+    public void consumeInBatches() throws InterruptedException {
+        for (int i = 0; i < 8; i++) {
+            producer.send("T_TEST_BATCH", "batch-" + i);
+        }
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals(8, broker.getConsumedCount());
+        assertEquals(8, batchConsumer.batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchConsumer.batchSizes.stream().anyMatch(size -> size > 1));
+        assertTrue(batchConsumer.batchSizes.stream().allMatch(size -> size <= 8));
+    }
+
+    @Test
+    public void reportLoad() throws InterruptedException {
+        LoadGenerator loadGenerator = new LoadGenerator(producer, broker);
+        loadGenerator.setDrainTimeoutMillis(IDLE_TIMEOUT_MILLIS);
+        LoadReport report = loadGenerator.run("T_TEST_PLAIN", () -> "load", 4, 1000, 0);
+        assertTrue(report.isDrained());
+        assertEquals(1000, report.getSent());
+        assertEquals(0, report.getFailed());
+        assertEquals(1000, report.getConsumed());
+        assertEquals(4, report.getSendLatencyMicros().length);
+        assertEquals(4, report.getConsumeLatencyMicros().length);
+        for (int i = 1; i < 4; i++) {
+            assertTrue(report.getSendLatencyMicros()[i - 1] <= report.getSendLatencyMicros()[i]);
+            assertTrue(report.getConsumeLatencyMicros()[i - 1] <= report.getConsumeLatencyMicros()[i]);
+        }
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableInMemoryAliwareMq
+    static class TestConfiguration {
+
+        @Bean
+        public PlainConsumer plainConsumer() {
+            return new PlainConsumer();
+        }
+
+        @Bean
+        public TaggedConsumer taggedConsumer() {
+            return new TaggedConsumer();
+        }
+
+        @Bean
+        public FlakyConsumer flakyConsumer() {
+            return new FlakyConsumer();
+        }
+
+        @Bean
+        public BatchConsumer batchConsumer() {
+            return new BatchConsumer();
+        }
+    }
+
+    static class PlainConsumer implements AliwareMqConsumer<String> {
+        private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "plain";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received.add(message);
+        }
+    }
+
+    static class TaggedConsumer implements AliwareMqConsumer<String> {
+        private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "tagged";
+        }
+
+        @Override
+        public List<String> getTags() {
+            return Collections.singletonList("A");
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received.add(message);
+        }
+    }
+
+    /**
+     * 每条消息第一次消费时失败, 由服务端重新投递
+     */
+    static class FlakyConsumer implements AliwareMqConsumer<String> {
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            if (attempts.computeIfAbsent(message, key -> new AtomicInteger()).incrementAndGet() == 1) {
+                throw new IllegalStateException("first attempt of " + message);
+            }
+        }
+    }
+
+    static class BatchConsumer implements AliwareMqBatchConsumer<String> {
+        private final Queue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "batch";
+        }
+
+        @Override
+        public void onMessage(List<String> messages) {
+            batchSizes.add(messages.size());
+        }
+    }
+}
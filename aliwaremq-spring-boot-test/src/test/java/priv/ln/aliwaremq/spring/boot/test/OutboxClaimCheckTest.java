@@ -0,0 +1,155 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 发件箱与大消息体引用测试
+ * <p>超过引用阈值的消息体在事务中异步发送时, 在调用线程中保存消息体并写入发件箱, 事务回滚后不发送并删除已保存的消息体</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = OutboxClaimCheckTest.TestConfiguration.class, properties = {
+        "aliwaremq.name-srv-addr=inmemory",
+        "aliwaremq.producer.group=GID_TEST_PRODUCER",
+        "aliwaremq.producer.outbox.enabled=true",
+        "aliwaremq.producer.batch.enabled=true",
+        "aliwaremq.producer.outbox.poll-interval-millis=10",
+        "aliwaremq.claim-check.enabled=true",
+        "aliwaremq.claim-check.threshold-bytes=1024",
+        "aliwaremq.claim-check.directory=" + OutboxClaimCheckTest.BLOB_DIRECTORY,
+        "aliwaremq.consumer.outbox.group=GID_TEST_OUTBOX",
+        "aliwaremq.consumer.outbox.topic=" + OutboxClaimCheckTest.TOPIC,
+        "aliwaremq.consumer.outbox.consume-thread-nums=1",
+        "spring.datasource.generate-unique-name=true",
+        "spring.datasource.schema=classpath:outbox-schema.sql"})
+public class OutboxClaimCheckTest {
+    static final String TOPIC = "T_TEST_OUTBOX";
+    static final String BLOB_DIRECTORY = "target/outbox-claim-check-blobs";
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+    @Autowired
+    private AliwareMqProducer producer;
+    @Autowired
+    private InMemoryBroker broker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private OutboxConsumer outboxConsumer;
+    private String largeBody;
+
+    @Before
+    public void setUp() {
+        broker.reset();
+        outboxConsumer.received.clear();
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 4096) {
+            builder.append("large-body-");
+        }
+        largeBody = builder.toString();
+    }
+
+    @Test
+    public void rollbackDiscardsLargeBody() throws Exception {
+        long blobs = countBlobs();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                producer.sendAsync(TOPIC, largeBody).get(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                producer.sendBatched(TOPIC, largeBody).get(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(blobs + 2, countBlobs());
+            status.setRollbackOnly();
+            return null;
+        });
+        assertEquals(0, broker.getSentCount());
+        assertEquals(0, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM aliwaremq_outbox", Integer.class));
+        assertEquals(blobs, countBlobs());
+    }
+
+    @Test
+    public void commitRelaysLargeBody() throws Exception {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                producer.sendAsync(TOPIC, largeBody).get(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(0, broker.getSentCount());
+            return null;
+        });
+        long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MILLIS;
+        while (outboxConsumer.received.isEmpty() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(1, broker.getSentCount());
+        assertEquals(1, outboxConsumer.received.size());
+        assertEquals(largeBody, outboxConsumer.received.peek());
+    }
+
+    private long countBlobs() {
+        Path directory = Paths.get(BLOB_DIRECTORY);
+        if (!Files.exists(directory)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableInMemoryAliwareMq
+    static class TestConfiguration {
+
+        @Bean
+        public OutboxConsumer outboxConsumer() {
+            return new OutboxConsumer();
+        }
+    }
+
+    static class OutboxConsumer implements AliwareMqConsumer<String> {
+        private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "outbox";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received.add(message);
+        }
+    }
+}
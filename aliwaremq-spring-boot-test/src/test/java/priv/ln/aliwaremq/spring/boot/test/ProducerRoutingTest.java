@@ -0,0 +1,155 @@
+package priv.ln.aliwaremq.spring.boot.test;
+
+import com.aliyun.openservices.ons.api.bean.ProducerBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqConsumer;
+import priv.ln.aliwaremq.spring.boot.core.AliwareMqProducer;
+import priv.ln.aliwaremq.spring.boot.metrics.AliwareMqMetrics;
+import priv.ln.aliwaremq.spring.boot.metrics.SendMetrics;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 攒批发送和发件箱转发的生产者路由测试
+ * <p>关闭默认生产者后, 配置在生产者池中的主题仍能经攒批发送和发件箱转发发出, 并按发送方式记录发送指标</p>
+ *
+ * @author linnan
+ * @version 2026/10/17
+ * @since 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ProducerRoutingTest.TestConfiguration.class, properties = {
+        "aliwaremq.name-srv-addr=inmemory",
+        "aliwaremq.producer.group=GID_TEST_PRODUCER",
+        "aliwaremq.producer.batch.enabled=true",
+        "aliwaremq.producer.batch.linger-millis=5",
+        "aliwaremq.producer.outbox.enabled=true",
+        "aliwaremq.producer.outbox.poll-interval-millis=10",
+        "aliwaremq.producers.pooled.group=GID_TEST_POOLED",
+        "aliwaremq.producers.pooled.topics=" + ProducerRoutingTest.TOPIC,
+        "aliwaremq.consumer.pooled.group=GID_TEST_POOLED_CONSUMER",
+        "aliwaremq.consumer.pooled.topic=" + ProducerRoutingTest.TOPIC,
+        "aliwaremq.consumer.pooled.consume-thread-nums=1",
+        "spring.datasource.generate-unique-name=true",
+        "spring.datasource.schema=classpath:outbox-schema.sql"})
+public class ProducerRoutingTest {
+    static final String TOPIC = "T_TEST_POOLED";
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+    @Autowired
+    private AliwareMqProducer producer;
+    @Autowired
+    private ProducerBean producerBean;
+    @Autowired
+    private InMemoryBroker broker;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RecordingMetrics metrics;
+    @Autowired
+    private PooledConsumer pooledConsumer;
+
+    @Before
+    public void setUp() {
+        broker.reset();
+        metrics.sends.clear();
+        pooledConsumer.received.clear();
+        // 默认生产者关闭后仍能发出, 说明经生产者池发送
+        producerBean.shutdown();
+    }
+
+    @After
+    public void tearDown() {
+        producerBean.start();
+    }
+
+    @Test
+    public void batchedSendRoutesToPool() throws Exception {
+        producer.sendBatched(TOPIC, "batched").get(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(1, metrics.count(AliwareMqMetrics.MODE_BATCH));
+        assertEquals(0, producer.getAsyncInFlight());
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals("batched", pooledConsumer.received.peek());
+    }
+
+    @Test
+    public void outboxRelayRoutesToPool() throws Exception {
+        new TransactionTemplate(transactionManager).execute(status -> producer.send(TOPIC, "relayed"));
+        long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MILLIS;
+        while (metrics.count(AliwareMqMetrics.MODE_OUTBOX) == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(1, metrics.count(AliwareMqMetrics.MODE_OUTBOX));
+        assertTrue(broker.awaitIdle(IDLE_TIMEOUT_MILLIS));
+        assertEquals("relayed", pooledConsumer.received.peek());
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableInMemoryAliwareMq
+    static class TestConfiguration {
+
+        @Bean
+        public RecordingMetrics recordingMetrics() {
+            return new RecordingMetrics();
+        }
+
+        @Bean
+        public PooledConsumer pooledConsumer() {
+            return new PooledConsumer();
+        }
+    }
+
+    static class PooledConsumer implements AliwareMqConsumer<String> {
+        private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String getName() {
+            return "pooled";
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received.add(message);
+        }
+    }
+
+    /**
+     * 按发送方式统计成功的发送
+     */
+    static class RecordingMetrics implements AliwareMqMetrics {
+        private final Map<String, AtomicInteger> sends = new ConcurrentHashMap<>();
+
+        @Override
+        public SendMetrics sendMetrics(String topic, String tag, String mode) {
+            return (nanos, success) -> {
+                if (success) {
+                    sends.computeIfAbsent(mode, key -> new AtomicInteger()).incrementAndGet();
+                }
+            };
+        }
+
+        private int count(String mode) {
+            AtomicInteger count = sends.get(mode);
+            return count == null ? 0 : count.get();
+        }
+    }
+}